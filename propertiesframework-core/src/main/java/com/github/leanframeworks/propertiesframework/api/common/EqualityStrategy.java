@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.api.common;
+
+/**
+ * Interface to be implemented by entities deciding whether two values are to be considered equal.
+ * <p>
+ * This can be used, for instance, to decide whether a value has effectively changed and whether it is worth
+ * propagating it any further.
+ *
+ * @param <T> Type of values to be compared.
+ */
+@FunctionalInterface
+public interface EqualityStrategy<T> {
+
+    /**
+     * States whether the two specified values are to be considered equal.
+     * <p>
+     * Note that any of the specified values may be null.
+     *
+     * @param value1 First value.
+     * @param value2 Second value.
+     * @return True if both values are to be considered equal, false otherwise.
+     */
+    boolean areEqual(T value1, T value2);
+}
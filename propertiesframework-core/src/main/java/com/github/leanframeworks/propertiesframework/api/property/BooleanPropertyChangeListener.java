@@ -0,0 +1,48 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.api.property;
+
+/**
+ * Interface to be implemented by listener to changes in a {@link ReadableBooleanProperty}.
+ * <p>
+ * The old and new values are passed as primitives, so that notifying this listener does not require any allocation.
+ */
+@FunctionalInterface
+public interface BooleanPropertyChangeListener {
+
+    /**
+     * Method called whenever the value of the property changes.
+     *
+     * @param source   Property that has changed.
+     * @param oldValue Previous value of the property.
+     * @param newValue New value of the property.
+     */
+    void booleanPropertyChanged(ReadableBooleanProperty source, boolean oldValue, boolean newValue);
+}
@@ -0,0 +1,60 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.api.property;
+
+/**
+ * Interface to be implemented by readable properties holding a double value.
+ * <p>
+ * In addition to the regular boxed accessors and listeners, the value can be read and its changes can be listened to
+ * as primitives, without any boxing nor event allocation.
+ */
+public interface ReadableDoubleProperty extends ReadableProperty<Double> {
+
+    /**
+     * Adds the specified listener to be notified of the changes of the value as primitives.
+     *
+     * @param listener Listener to be added.
+     */
+    void addDoubleChangeListener(DoublePropertyChangeListener listener);
+
+    /**
+     * Removes the specified listener.
+     *
+     * @param listener Listener to be removed.
+     */
+    void removeDoubleChangeListener(DoublePropertyChangeListener listener);
+
+    /**
+     * Gets the value of the property as a primitive.
+     *
+     * @return Property value.
+     */
+    double getAsDouble();
+}
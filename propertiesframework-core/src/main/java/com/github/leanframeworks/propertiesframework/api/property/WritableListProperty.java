@@ -30,6 +30,7 @@
 package com.github.leanframeworks.propertiesframework.api.property;
 
 import java.util.Collection;
+import java.util.Iterator;
 
 /**
  * Interface to be implemented by writable list properties.
@@ -68,6 +69,24 @@ public interface WritableListProperty<W> {
      */
     void add(int index, W item);
 
+    /**
+     * Replaces the elements starting at the specified index by the specified elements.
+     * <p>
+     * Implementations should notify the listeners once for the whole range. The default implementation sets the
+     * elements one by one.
+     *
+     * @param index Index of the first element to be replaced.
+     * @param items Elements replacing the current elements.
+     * @throws IndexOutOfBoundsException If the range exceeds the size of the list.
+     * @see #set(int, Object)
+     */
+    default void setAll(int index, Collection<? extends W> items) {
+        Iterator<? extends W> iterator = items.iterator();
+        for (int i = index; iterator.hasNext(); i++) {
+            set(i, iterator.next());
+        }
+    }
+
     /**
      * Adds all the specified elements at the end of the list.
      *
@@ -105,6 +124,23 @@ public interface WritableListProperty<W> {
      */
     W remove(int index);
 
+    /**
+     * Removes the elements from the specified start index (inclusive) to the specified end index (exclusive).
+     * <p>
+     * Implementations should notify the listeners once for the whole range. The default implementation removes the
+     * elements one by one, starting from the end.
+     *
+     * @param fromIndex Index of the first element to be removed.
+     * @param toIndex   Index after the last element to be removed.
+     * @throws IndexOutOfBoundsException If the range exceeds the size of the list.
+     * @see java.util.List#subList(int, int)
+     */
+    default void removeRange(int fromIndex, int toIndex) {
+        for (int i = toIndex - 1; i >= fromIndex; i--) {
+            remove(i);
+        }
+    }
+
     /**
      * Removes all elements that are in the specified collection.
      *
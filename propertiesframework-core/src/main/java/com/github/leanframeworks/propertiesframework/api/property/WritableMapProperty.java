@@ -29,6 +29,7 @@
 
 package com.github.leanframeworks.propertiesframework.api.property;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -68,6 +69,21 @@ public interface WritableMapProperty<K, W> {
      */
     void putAll(Map<? extends K, ? extends W> entries);
 
+    /**
+     * Removes the entries at all the specified keys.
+     * <p>
+     * Implementations should notify the listeners once for all the removed entries. The default implementation removes
+     * the entries one by one.
+     *
+     * @param keys Keys to be removed.
+     * @see java.util.Set#removeAll(Collection)
+     */
+    default void removeAll(Collection<?> keys) {
+        for (Object key : keys) {
+            remove(key);
+        }
+    }
+
     /**
      * Removes all entries from the map.
      *
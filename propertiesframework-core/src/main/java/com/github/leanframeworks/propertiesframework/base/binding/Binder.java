@@ -29,20 +29,36 @@
 
 package com.github.leanframeworks.propertiesframework.base.binding;
 
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.EqualityStrategy;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
 import com.github.leanframeworks.propertiesframework.api.property.WritableProperty;
 import com.github.leanframeworks.propertiesframework.api.transform.Transformer;
+import com.github.leanframeworks.propertiesframework.base.common.ThrowableHandler;
+import com.github.leanframeworks.propertiesframework.base.graph.BindingGraph;
 import com.github.leanframeworks.propertiesframework.base.property.CompositeReadableProperty;
 import com.github.leanframeworks.propertiesframework.base.transform.ChainedTransformer;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Utility class that can be used to help binding properties and transform their values.
  * <p>
  * This binder utility will create {@link SimpleBinding}s between properties. These bindings can be broken by calling
  * their {@link SimpleBinding#dispose()} method.
+ * <p>
+ * Filter stages can be inserted anywhere in the chain of transformers, for instance:
+ * <pre>
+ * from(p1).filter(f1).transform(t).filter(f2).to(p2)
+ * </pre>
+ * A value rejected by a filter stage is not passed to the subsequent transformers and is not written to the slaves.
+ * <p>
+ * Optionally, every new binding can be checked for cycles (see {@link #setCycleHandler(ThrowableHandler)}). Note that
+ * this check is disabled by default because bi-directional bindings are supported.
  *
  * @see ReadableProperty
  * @see WritableProperty
@@ -50,6 +66,11 @@ import java.util.Collection;
  */
 public final class Binder {
 
+    /**
+     * Handler of the cycles detected when creating bindings, or null if bindings are not checked.
+     */
+    private static volatile ThrowableHandler<? super BindingCycleException> cycleHandler = null;
+
     /**
      * Private constructor for utility class.
      */
@@ -57,6 +78,55 @@ public final class Binder {
         // Nothing to be done
     }
 
+    /**
+     * Gets the handler of the cycles detected when creating bindings.
+     *
+     * @return Cycle handler, or null if bindings are not checked for cycles.
+     */
+    public static ThrowableHandler<? super BindingCycleException> getCycleHandler() {
+        return cycleHandler;
+    }
+
+    /**
+     * Sets the handler of the cycles detected when creating bindings.
+     * <p>
+     * When set, every binding created by this binder is checked, by following the data flow from it. If the values
+     * written to its slaves flow back to its master, a {@link BindingCycleException} describing the path is passed to
+     * the handler. The handler may, for instance, log it or rethrow it to fail fast.
+     * <p>
+     * A binding closing a cycle is disposed before its cycle is passed to the handler, so that it does not stay
+     * attached to its master when the handler rethrows the exception. If the handler does not rethrow it, the disposed
+     * binding is returned to the caller.
+     *
+     * @param cycleHandler Cycle handler, or null to disable the check.
+     * @see com.github.leanframeworks.propertiesframework.base.common.LogWarningUncheckedExceptionHandler
+     * @see com.github.leanframeworks.propertiesframework.base.common.RethrowUncheckedExceptionHandler
+     */
+    public static void setCycleHandler(ThrowableHandler<? super BindingCycleException> cycleHandler) {
+        Binder.cycleHandler = cycleHandler;
+    }
+
+    /**
+     * Checks whether the specified new binding closes a cycle, if the check is enabled.
+     * <p>
+     * If it does, the binding is disposed before the cycle is passed to the handler.
+     *
+     * @param binding New binding.
+     * @param <B>     Type of binding.
+     * @return Same binding, disposed if it closes a cycle.
+     */
+    private static <B extends Disposable> B checkCycle(B binding) {
+        ThrowableHandler<? super BindingCycleException> handler = cycleHandler;
+        if (handler != null) {
+            List<Object> cycle = BindingGraph.findCycle(binding);
+            if (!cycle.isEmpty()) {
+                binding.dispose();
+                handler.handleThrowable(new BindingCycleException(cycle));
+            }
+        }
+        return binding;
+    }
+
     /**
      * Specifies the master property that is part of the binding.
      *
@@ -131,6 +201,59 @@ public final class Binder {
             return new SingleMasterBinding<>(master, this.transformer.chain(transformer));
         }
 
+        /**
+         * Specifies a filter stage rejecting the values that do not satisfy the specified predicate.
+         *
+         * @param predicate Predicate that the values must satisfy to be propagated further.
+         * @return Builder object to continue building the binding.
+         */
+        public SingleMasterBinding<MO, SI> filter(Predicate<? super SI> predicate) {
+            return new SingleMasterBinding<>(master, this.transformer.filter(predicate));
+        }
+
+        /**
+         * Specifies a filter stage rejecting the null values.
+         *
+         * @return Builder object to continue building the binding.
+         */
+        public SingleMasterBinding<MO, SI> skipNulls() {
+            return new SingleMasterBinding<>(master, this.transformer.skipNulls());
+        }
+
+        /**
+         * Specifies a filter stage rejecting the values that are equal to the last propagated value.
+         *
+         * @return Builder object to continue building the binding.
+         * @see ChainedTransformer#distinct()
+         */
+        public SingleMasterBinding<MO, SI> distinct() {
+            return new SingleMasterBinding<>(master, this.transformer.distinct());
+        }
+
+        /**
+         * Specifies a filter stage rejecting the values that are equal to the last propagated value, according to the
+         * specified comparator.
+         *
+         * @param comparator Comparator used to compare the values when both are not null.
+         * @return Builder object to continue building the binding.
+         * @see ChainedTransformer#distinctBy(Comparator)
+         */
+        public SingleMasterBinding<MO, SI> distinctBy(Comparator<? super SI> comparator) {
+            return new SingleMasterBinding<>(master, this.transformer.distinctBy(comparator));
+        }
+
+        /**
+         * Specifies a filter stage rejecting the values that are equal to the last propagated value, according to the
+         * specified strategy.
+         *
+         * @param equalityStrategy Strategy used to compare the values.
+         * @return Builder object to continue building the binding.
+         * @see ChainedTransformer#distinct(EqualityStrategy)
+         */
+        public SingleMasterBinding<MO, SI> distinct(EqualityStrategy<? super SI> equalityStrategy) {
+            return new SingleMasterBinding<>(master, this.transformer.distinct(equalityStrategy));
+        }
+
         /**
          * Specifies the slave property that is part of the bind and creates the binding between the master and the
          * slave.
@@ -139,7 +262,7 @@ public final class Binder {
          * @return Binding between the master and the slave.
          */
         public SimpleBinding<MO, SI> to(WritableProperty<SI> slave) {
-            return new SimpleBinding<>(master, transformer, slave);
+            return checkCycle(new SimpleBinding<>(master, transformer, slave));
         }
 
         /**
@@ -150,7 +273,7 @@ public final class Binder {
          * @return Binding between the master and the slaves.
          */
         public SimpleBinding<MO, SI> to(Collection<WritableProperty<? super SI>> slaves) {
-            return new SimpleBinding<>(master, transformer, slaves);
+            return checkCycle(new SimpleBinding<>(master, transformer, slaves));
         }
 
         /**
@@ -207,6 +330,59 @@ public final class Binder {
             return new MultipleMasterBinding<>(masters, this.transformer.chain(transformer));
         }
 
+        /**
+         * Specifies a filter stage rejecting the values that do not satisfy the specified predicate.
+         *
+         * @param predicate Predicate that the values must satisfy to be propagated further.
+         * @return Builder object to continue building the binding.
+         */
+        public MultipleMasterBinding<MO, SI> filter(Predicate<? super SI> predicate) {
+            return new MultipleMasterBinding<>(masters, this.transformer.filter(predicate));
+        }
+
+        /**
+         * Specifies a filter stage rejecting the null values.
+         *
+         * @return Builder object to continue building the binding.
+         */
+        public MultipleMasterBinding<MO, SI> skipNulls() {
+            return new MultipleMasterBinding<>(masters, this.transformer.skipNulls());
+        }
+
+        /**
+         * Specifies a filter stage rejecting the values that are equal to the last propagated value.
+         *
+         * @return Builder object to continue building the binding.
+         * @see ChainedTransformer#distinct()
+         */
+        public MultipleMasterBinding<MO, SI> distinct() {
+            return new MultipleMasterBinding<>(masters, this.transformer.distinct());
+        }
+
+        /**
+         * Specifies a filter stage rejecting the values that are equal to the last propagated value, according to the
+         * specified comparator.
+         *
+         * @param comparator Comparator used to compare the values when both are not null.
+         * @return Builder object to continue building the binding.
+         * @see ChainedTransformer#distinctBy(Comparator)
+         */
+        public MultipleMasterBinding<MO, SI> distinctBy(Comparator<? super SI> comparator) {
+            return new MultipleMasterBinding<>(masters, this.transformer.distinctBy(comparator));
+        }
+
+        /**
+         * Specifies a filter stage rejecting the values that are equal to the last propagated value, according to the
+         * specified strategy.
+         *
+         * @param equalityStrategy Strategy used to compare the values.
+         * @return Builder object to continue building the binding.
+         * @see ChainedTransformer#distinct(EqualityStrategy)
+         */
+        public MultipleMasterBinding<MO, SI> distinct(EqualityStrategy<? super SI> equalityStrategy) {
+            return new MultipleMasterBinding<>(masters, this.transformer.distinct(equalityStrategy));
+        }
+
         /**
          * Specifies the slave property that is part of the bind and creates the binding between the masters and the
          * slave.
@@ -215,7 +391,7 @@ public final class Binder {
          * @return Binding between the masters and the slave.
          */
         public SimpleBinding<Collection<MO>, SI> to(WritableProperty<? super SI> slave) {
-            return new SimpleBinding<>(new CompositeReadableProperty<>(masters), transformer, slave);
+            return checkCycle(new SimpleBinding<>(new CompositeReadableProperty<>(masters), transformer, slave));
         }
 
         /**
@@ -226,7 +402,7 @@ public final class Binder {
          * @return Binding between the masters and the slaves.
          */
         public SimpleBinding<Collection<MO>, SI> to(Collection<WritableProperty<? super SI>> slaves) {
-            return new SimpleBinding<>(new CompositeReadableProperty<>(masters), transformer, slaves);
+            return checkCycle(new SimpleBinding<>(new CompositeReadableProperty<>(masters), transformer, slaves));
         }
 
         /**
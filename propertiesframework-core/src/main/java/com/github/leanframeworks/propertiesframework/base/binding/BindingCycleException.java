@@ -0,0 +1,74 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.binding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception reported when a binding closes a cycle, that is when the values written to its slaves flow back to its
+ * master.
+ *
+ * @see Binder#setCycleHandler(com.github.leanframeworks.propertiesframework.base.common.ThrowableHandler)
+ */
+public class BindingCycleException extends IllegalStateException {
+
+    /**
+     * Generated serial UID.
+     */
+    private static final long serialVersionUID = 4417359012276387716L;
+
+    /**
+     * Entities forming the cycle.
+     */
+    private final transient List<Object> path;
+
+    /**
+     * Constructor.
+     *
+     * @param path Entities forming the cycle, starting and ending with the same entity, in the direction of the data
+     *             flow.
+     */
+    public BindingCycleException(List<?> path) {
+        super("Binding cycle detected: " + path);
+        this.path = Collections.unmodifiableList(new ArrayList<>(path));
+    }
+
+    /**
+     * Gets the entities forming the cycle.
+     *
+     * @return Unmodifiable list of entities forming the cycle, starting and ending with the same entity, in the
+     * direction of the data flow.
+     */
+    public List<Object> getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,492 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.binding;
+
+import com.github.leanframeworks.propertiesframework.api.property.BooleanPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.DoublePropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.IntPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableBooleanProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableDoubleProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableIntProperty;
+import com.github.leanframeworks.propertiesframework.api.property.WritableBooleanProperty;
+import com.github.leanframeworks.propertiesframework.api.property.WritableDoubleProperty;
+import com.github.leanframeworks.propertiesframework.api.property.WritableIntProperty;
+import com.github.leanframeworks.propertiesframework.api.property.WritableProperty;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Utility class that can be used to help binding primitive properties without any boxing.
+ * <p>
+ * This is the primitive counterpart of the {@link Binder}: instead of {@link
+ * com.github.leanframeworks.propertiesframework.api.transform.Transformer}s, the stages are primitive functional
+ * interfaces such as {@link IntUnaryOperator}, {@link IntPredicate} or {@link DoubleUnaryOperator}. The stages are
+ * composed once when the binding is created, so that propagating a change of the master property to the slave
+ * properties does not involve any boxing nor allocation, provided the master and slave properties do not allocate
+ * either (see {@link com.github.leanframeworks.propertiesframework.base.property.primitive}).
+ * <p>
+ * Here is an example of threshold binding:
+ * <pre>
+ * PrimitiveBinder.from(intProperty).map(x -&gt; x * 2).greaterThan(10).to(booleanProperty);
+ * </pre>
+ * <p>
+ * As with the {@link Binder}, the slave properties are set to the transformed value of the master property as soon as
+ * the binding is created.
+ */
+public final class PrimitiveBinder {
+
+    /**
+     * Private constructor for utility class.
+     */
+    private PrimitiveBinder() {
+        // Nothing to be done
+    }
+
+    /**
+     * Specifies the int master property that is part of the binding.
+     *
+     * @param master Master property.
+     * @return Builder for the binding.
+     */
+    public static IntStage from(ReadableIntProperty master) {
+        return new IntStage(sink -> {
+            IntPropertyChangeListener listener = (source, oldValue, newValue) -> sink.accept(newValue);
+            master.addIntChangeListener(listener);
+            sink.accept(master.getAsInt());
+            return () -> master.removeIntChangeListener(listener);
+        });
+    }
+
+    /**
+     * Specifies the double master property that is part of the binding.
+     *
+     * @param master Master property.
+     * @return Builder for the binding.
+     */
+    public static DoubleStage from(ReadableDoubleProperty master) {
+        return new DoubleStage(sink -> {
+            DoublePropertyChangeListener listener = (source, oldValue, newValue) -> sink.accept(newValue);
+            master.addDoubleChangeListener(listener);
+            sink.accept(master.getAsDouble());
+            return () -> master.removeDoubleChangeListener(listener);
+        });
+    }
+
+    /**
+     * Specifies the boolean master property that is part of the binding.
+     *
+     * @param master Master property.
+     * @return Builder for the binding.
+     */
+    public static BooleanStage from(ReadableBooleanProperty master) {
+        return new BooleanStage(sink -> {
+            BooleanPropertyChangeListener listener = (source, oldValue, newValue) -> sink.accept(newValue);
+            master.addBooleanChangeListener(listener);
+            sink.accept(master.getAsBoolean());
+            return () -> master.removeBooleanChangeListener(listener);
+        });
+    }
+
+    /**
+     * Operation accepting a single boolean, as there is no such interface in {@link java.util.function}.
+     */
+    private interface BooleanConsumer {
+
+        /**
+         * Performs this operation on the specified value.
+         *
+         * @param value Input value.
+         */
+        void accept(boolean value);
+    }
+
+    /**
+     * Builder class for the stages of a binding producing int values.
+     * <p>
+     * The stage is represented by its connector: given the consumer of the values produced by the stage, the connector
+     * registers the listener on the master property and returns the action removing it.
+     */
+    public static final class IntStage {
+
+        /**
+         * Connector of the stage to its consumer.
+         */
+        private final Function<IntConsumer, Runnable> connector;
+
+        /**
+         * Constructor.
+         *
+         * @param connector Connector of the stage to its consumer.
+         */
+        IntStage(Function<IntConsumer, Runnable> connector) {
+            this.connector = connector;
+        }
+
+        /**
+         * Adds a stage transforming the value.
+         *
+         * @param operator Operator transforming the value.
+         * @return Builder for the binding.
+         */
+        public IntStage map(IntUnaryOperator operator) {
+            return new IntStage(sink -> connector.apply(value -> sink.accept(operator.applyAsInt(value))));
+        }
+
+        /**
+         * Adds a stage only propagating the values matching the specified predicate.
+         *
+         * @param predicate Predicate that the values must match to be propagated.
+         * @return Builder for the binding.
+         */
+        public IntStage filter(IntPredicate predicate) {
+            return new IntStage(sink -> connector.apply(value -> {
+                if (predicate.test(value)) {
+                    sink.accept(value);
+                }
+            }));
+        }
+
+        /**
+         * Adds a stage transforming the value into a double.
+         *
+         * @param function Function transforming the value.
+         * @return Builder for the binding.
+         */
+        public DoubleStage mapToDouble(IntToDoubleFunction function) {
+            return new DoubleStage(sink -> connector.apply(value -> sink.accept(function.applyAsDouble(value))));
+        }
+
+        /**
+         * Adds a stage converting the value into a double.
+         * <p>
+         * This is the primitive counterpart of the {@link
+         * com.github.leanframeworks.propertiesframework.base.transform.number.NumberToDoubleTransformer}.
+         *
+         * @return Builder for the binding.
+         */
+        public DoubleStage asDouble() {
+            return new DoubleStage(sink -> connector.apply(sink::accept));
+        }
+
+        /**
+         * Adds a stage testing the value against the specified predicate.
+         *
+         * @param predicate Predicate to be tested.
+         * @return Builder for the binding.
+         */
+        public BooleanStage test(IntPredicate predicate) {
+            return new BooleanStage(sink -> connector.apply(value -> sink.accept(predicate.test(value))));
+        }
+
+        /**
+         * Adds a stage testing whether the value is equal to the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage equalTo(int reference) {
+            return test(value -> value == reference);
+        }
+
+        /**
+         * Adds a stage testing whether the value is strictly less than the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage lessThan(int reference) {
+            return test(value -> value < reference);
+        }
+
+        /**
+         * Adds a stage testing whether the value is less than or equal to the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage lessThanOrEqualTo(int reference) {
+            return test(value -> value <= reference);
+        }
+
+        /**
+         * Adds a stage testing whether the value is strictly greater than the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage greaterThan(int reference) {
+            return test(value -> value > reference);
+        }
+
+        /**
+         * Adds a stage testing whether the value is greater than or equal to the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage greaterThanOrEqualTo(int reference) {
+            return test(value -> value >= reference);
+        }
+
+        /**
+         * Specifies the slave properties and creates the binding.
+         *
+         * @param slaves Slave properties.
+         * @return Binding between the master property and the slave properties.
+         */
+        public PrimitiveBinding to(WritableIntProperty... slaves) {
+            WritableIntProperty[] targets = slaves.clone();
+            return new PrimitiveBinding(connector.apply(value -> {
+                for (WritableIntProperty target : targets) {
+                    target.setAsInt(value);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Builder class for the stages of a binding producing double values.
+     *
+     * @see IntStage
+     */
+    public static final class DoubleStage {
+
+        /**
+         * Connector of the stage to its consumer.
+         */
+        private final Function<DoubleConsumer, Runnable> connector;
+
+        /**
+         * Constructor.
+         *
+         * @param connector Connector of the stage to its consumer.
+         */
+        DoubleStage(Function<DoubleConsumer, Runnable> connector) {
+            this.connector = connector;
+        }
+
+        /**
+         * Adds a stage transforming the value.
+         *
+         * @param operator Operator transforming the value.
+         * @return Builder for the binding.
+         */
+        public DoubleStage map(DoubleUnaryOperator operator) {
+            return new DoubleStage(sink -> connector.apply(value -> sink.accept(operator.applyAsDouble(value))));
+        }
+
+        /**
+         * Adds a stage only propagating the values matching the specified predicate.
+         *
+         * @param predicate Predicate that the values must match to be propagated.
+         * @return Builder for the binding.
+         */
+        public DoubleStage filter(DoublePredicate predicate) {
+            return new DoubleStage(sink -> connector.apply(value -> {
+                if (predicate.test(value)) {
+                    sink.accept(value);
+                }
+            }));
+        }
+
+        /**
+         * Adds a stage transforming the value into an int.
+         *
+         * @param function Function transforming the value.
+         * @return Builder for the binding.
+         */
+        public IntStage mapToInt(DoubleToIntFunction function) {
+            return new IntStage(sink -> connector.apply(value -> sink.accept(function.applyAsInt(value))));
+        }
+
+        /**
+         * Adds a stage converting the value into an int, by narrowing primitive conversion.
+         * <p>
+         * This is the primitive counterpart of the {@link
+         * com.github.leanframeworks.propertiesframework.base.transform.number.NumberToIntegerTransformer}.
+         *
+         * @return Builder for the binding.
+         */
+        public IntStage asInt() {
+            return mapToInt(value -> (int) value);
+        }
+
+        /**
+         * Adds a stage testing the value against the specified predicate.
+         *
+         * @param predicate Predicate to be tested.
+         * @return Builder for the binding.
+         */
+        public BooleanStage test(DoublePredicate predicate) {
+            return new BooleanStage(sink -> connector.apply(value -> sink.accept(predicate.test(value))));
+        }
+
+        /**
+         * Adds a stage testing whether the value is equal to the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage equalTo(double reference) {
+            return test(value -> value == reference);
+        }
+
+        /**
+         * Adds a stage testing whether the value is strictly less than the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage lessThan(double reference) {
+            return test(value -> value < reference);
+        }
+
+        /**
+         * Adds a stage testing whether the value is less than or equal to the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage lessThanOrEqualTo(double reference) {
+            return test(value -> value <= reference);
+        }
+
+        /**
+         * Adds a stage testing whether the value is strictly greater than the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage greaterThan(double reference) {
+            return test(value -> value > reference);
+        }
+
+        /**
+         * Adds a stage testing whether the value is greater than or equal to the specified reference.
+         *
+         * @param reference Reference value.
+         * @return Builder for the binding.
+         */
+        public BooleanStage greaterThanOrEqualTo(double reference) {
+            return test(value -> value >= reference);
+        }
+
+        /**
+         * Specifies the slave properties and creates the binding.
+         *
+         * @param slaves Slave properties.
+         * @return Binding between the master property and the slave properties.
+         */
+        public PrimitiveBinding to(WritableDoubleProperty... slaves) {
+            WritableDoubleProperty[] targets = slaves.clone();
+            return new PrimitiveBinding(connector.apply(value -> {
+                for (WritableDoubleProperty target : targets) {
+                    target.setAsDouble(value);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Builder class for the stages of a binding producing boolean values.
+     *
+     * @see IntStage
+     */
+    public static final class BooleanStage {
+
+        /**
+         * Connector of the stage to its consumer.
+         */
+        private final Function<BooleanConsumer, Runnable> connector;
+
+        /**
+         * Constructor.
+         *
+         * @param connector Connector of the stage to its consumer.
+         */
+        BooleanStage(Function<BooleanConsumer, Runnable> connector) {
+            this.connector = connector;
+        }
+
+        /**
+         * Adds a stage negating the value.
+         * <p>
+         * This is the primitive counterpart of the {@link
+         * com.github.leanframeworks.propertiesframework.base.transform.NegateBooleanTransformer}.
+         *
+         * @return Builder for the binding.
+         */
+        public BooleanStage not() {
+            return new BooleanStage(sink -> connector.apply(value -> sink.accept(!value)));
+        }
+
+        /**
+         * Specifies the slave properties and creates the binding.
+         *
+         * @param slaves Slave properties.
+         * @return Binding between the master property and the slave properties.
+         */
+        public PrimitiveBinding to(WritableBooleanProperty... slaves) {
+            WritableBooleanProperty[] targets = slaves.clone();
+            return new PrimitiveBinding(connector.apply(value -> {
+                for (WritableBooleanProperty target : targets) {
+                    target.setAsBoolean(value);
+                }
+            }));
+        }
+
+        /**
+         * Specifies boxed slave properties and creates the binding.
+         * <p>
+         * This allows to bind to any boolean property without allocation, as the boxed booleans are the constants
+         * {@link Boolean#TRUE} and {@link Boolean#FALSE}.
+         *
+         * @param slaves Slave properties.
+         * @return Binding between the master property and the slave properties.
+         */
+        @SafeVarargs
+        public final PrimitiveBinding toBoxed(WritableProperty<? super Boolean>... slaves) {
+            WritableProperty<? super Boolean>[] targets = slaves.clone();
+            return new PrimitiveBinding(connector.apply(value -> {
+                for (WritableProperty<? super Boolean> target : targets) {
+                    target.setValue(value);
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.binding;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+
+/**
+ * Binding created by the {@link PrimitiveBinder}, propagating the primitive value of a master property to slave
+ * properties.
+ * <p>
+ * Disposing the binding removes the listener from the master property.
+ *
+ * @see PrimitiveBinder
+ */
+public final class PrimitiveBinding implements Disposable {
+
+    /**
+     * Action removing the listener from the master property, or null if the binding has been disposed.
+     */
+    private Runnable unsubscriber;
+
+    /**
+     * Constructor.
+     *
+     * @param unsubscriber Action removing the listener from the master property.
+     */
+    PrimitiveBinding(Runnable unsubscriber) {
+        this.unsubscriber = unsubscriber;
+    }
+
+    /**
+     * States whether the binding is still active.
+     *
+     * @return False if the binding has been disposed, true otherwise.
+     */
+    public boolean isActive() {
+        return unsubscriber != null;
+    }
+
+    /**
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        if (unsubscriber != null) {
+            unsubscriber.run();
+            unsubscriber = null;
+        }
+    }
+}
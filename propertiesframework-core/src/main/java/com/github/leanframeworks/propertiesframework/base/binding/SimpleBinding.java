@@ -30,19 +30,38 @@
 package com.github.leanframeworks.propertiesframework.base.binding;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.EqualityStrategy;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
 import com.github.leanframeworks.propertiesframework.api.property.WritableProperty;
 import com.github.leanframeworks.propertiesframework.api.transform.Transformer;
+import com.github.leanframeworks.propertiesframework.base.common.StatefulEqualityStrategy;
+import com.github.leanframeworks.propertiesframework.base.common.ValueEqualityStrategy;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerOwner;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableProperty;
 import com.github.leanframeworks.propertiesframework.base.property.CompositeWritableProperty;
+import com.github.leanframeworks.propertiesframework.base.transform.ChainedTransformer;
 
 import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Simple implementation of a binding between master properties and slave properties.
  * <p>
  * It is typically created using the {@link Binder}.
+ * <p>
+ * The binding remembers the last master value it transformed. If the master notifies a value that is equal to that
+ * last value (according to the input equality strategy), neither the transformer nor the slaves will be called again.
+ * By default, the input equality strategy is the one of the master property, if it is an {@link
+ * AbstractReadableProperty}.
+ * <p>
+ * If the transformer is a {@link ChainedTransformer} containing filter stages, the slaves will not be updated with the
+ * values rejected by these stages.
  *
  * @param <MO> Type of data that can be read from master properties.
  * @param <SI> Type of data that can be written to master properties.
@@ -51,13 +70,18 @@ import java.util.Collection;
  * @see CompositeWritableProperty
  * @see com.github.leanframeworks.propertiesframework.base.transform.ChainedTransformer
  */
-public class SimpleBinding<MO, SI> implements Disposable {
+public class SimpleBinding<MO, SI> implements Disposable, GraphNode {
 
     /**
      * Listener to master property changes and updating the slave property.
      */
     private final MasterAdapter masterAdapter = new MasterAdapter();
 
+    /**
+     * Entity receiving the transformed values and updating the slave property.
+     */
+    private final SlaveAdapter slaveAdapter = new SlaveAdapter();
+
     /**
      * Master (possibly composite) that is part of the binding.
      */
@@ -73,6 +97,31 @@ public class SimpleBinding<MO, SI> implements Disposable {
      */
     private WritableProperty<? super SI> slave;
 
+    /**
+     * Strategy used to compare a new master value to the last transformed one, or null to always transform.
+     */
+    private final EqualityStrategy<? super MO> inputEqualityStrategy;
+
+    /**
+     * Flag indicating whether at least one master value has already been transformed.
+     */
+    private boolean evaluated = false;
+
+    /**
+     * Last master value that was transformed.
+     */
+    private MO lastInput = null;
+
+    /**
+     * Last value written to the slave(s).
+     */
+    private SI lastOutput = null;
+
+    /**
+     * Number of transformations and slave updates avoided because the master value did not change.
+     */
+    private long skippedEvaluationCount = 0;
+
     /**
      * Constructor specifying the master property, the transformers and the slaves that are part of the binding.
      * <p>
@@ -88,6 +137,26 @@ public class SimpleBinding<MO, SI> implements Disposable {
     public SimpleBinding(ReadableProperty<? extends MO> master,
                          Transformer<? super MO, ? extends SI> transformer,
                          WritableProperty<? super SI> slave) {
+        this(master, transformer, slave, getDefaultInputEqualityStrategy(master));
+    }
+
+    /**
+     * Constructor specifying the master property, the transformers, the slaves that are part of the binding and the
+     * strategy used to detect unchanged master values.
+     * <p>
+     * For type safety, it is highly advised to use the {@link Binder} to create the binding.
+     *
+     * @param master                Master (possibly composite) property to be part of the binding.
+     * @param transformer           Transformer (possibly composite) to be part of the binding.
+     * @param slave                 Slave (possibly composite) property to be part of the binding.
+     * @param inputEqualityStrategy Strategy used to compare a new master value to the last transformed one, or null to
+     *                              transform every master value.
+     */
+    public SimpleBinding(ReadableProperty<? extends MO> master,
+                         Transformer<? super MO, ? extends SI> transformer,
+                         WritableProperty<? super SI> slave,
+                         EqualityStrategy<? super MO> inputEqualityStrategy) {
+        this.inputEqualityStrategy = inputEqualityStrategy;
         init(master, transformer, slave);
     }
 
@@ -106,6 +175,27 @@ public class SimpleBinding<MO, SI> implements Disposable {
     public SimpleBinding(ReadableProperty<? extends MO> master,
                          Transformer<? super MO, ? extends SI> transformer,
                          Collection<WritableProperty<? super SI>> slaves) {
+        this(master, transformer, slaves, getDefaultInputEqualityStrategy(master));
+    }
+
+    /**
+     * Constructor specifying the master property, the transformers, the slaves that are part of the binding and the
+     * strategy used to detect unchanged master values.
+     * <p>
+     * For type safety, it is highly advised to use the {@link Binder} to create the binding.
+     *
+     * @param master                Master (possibly composite) property to be part of the binding.
+     * @param transformer           Transformer (possible composite) to be part of the binding.
+     * @param slaves                Slave properties to be part of the binding.
+     * @param inputEqualityStrategy Strategy used to compare a new master value to the last transformed one, or null to
+     *                              transform every master value.
+     */
+    public SimpleBinding(ReadableProperty<? extends MO> master,
+                         Transformer<? super MO, ? extends SI> transformer,
+                         Collection<WritableProperty<? super SI>> slaves,
+                         EqualityStrategy<? super MO> inputEqualityStrategy) {
+        this.inputEqualityStrategy = inputEqualityStrategy;
+
         // Initialize binding
         CompositeWritableProperty<SI> compositeSlave = new CompositeWritableProperty<>();
         init(master, transformer, compositeSlave);
@@ -116,6 +206,31 @@ public class SimpleBinding<MO, SI> implements Disposable {
         }
     }
 
+    /**
+     * Gets the strategy to be used by default to compare the values of the specified master property.
+     *
+     * @param master Master property.
+     * @param <MO>   Type of data that can be read from the master property.
+     * @return Equality strategy of the master property (or a new instance of it if it is a {@link
+     * StatefulEqualityStrategy}) if it is an {@link AbstractReadableProperty}, the default strategy otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private static <MO> EqualityStrategy<? super MO> getDefaultInputEqualityStrategy(ReadableProperty<? extends MO>
+                                                                                              master) {
+        EqualityStrategy<? super MO> equalityStrategy;
+        if (master instanceof AbstractReadableProperty) {
+            equalityStrategy = (EqualityStrategy<? super MO>) ((AbstractReadableProperty<? extends MO>) master)
+                    .getEqualityStrategy();
+            if (equalityStrategy instanceof StatefulEqualityStrategy) {
+                // Do not share the state with the master property
+                equalityStrategy = ((StatefulEqualityStrategy<? super MO>) equalityStrategy).newInstance();
+            }
+        } else {
+            equalityStrategy = new ValueEqualityStrategy<>();
+        }
+        return equalityStrategy;
+    }
+
     /**
      * Initializes the binding.
      *
@@ -141,12 +256,63 @@ public class SimpleBinding<MO, SI> implements Disposable {
      *
      * @param masterOutputValue Master value.
      */
+    @SuppressWarnings("unchecked")
     private void updateSlaves(MO masterOutputValue) {
-        // Transform value
-        SI slaveInputValue = transformer.transform(masterOutputValue);
+        if (evaluated && (inputEqualityStrategy != null) &&
+                inputEqualityStrategy.areEqual(lastInput, masterOutputValue)) {
+            // Same input as last time, so same output
+            skippedEvaluationCount++;
+        } else {
+            evaluated = true;
+            lastInput = masterOutputValue;
 
-        // Notify slave(s)
-        slave.setValue(slaveInputValue);
+            // Transform value and notify slave(s)
+            if (transformer instanceof ChainedTransformer) {
+                // Filter stages may stop the propagation
+                ((ChainedTransformer<? super MO, ? extends SI>) transformer).propagate(masterOutputValue,
+                        slaveAdapter);
+            } else {
+                PropertyMonitor monitor = PropertyMonitors.getInstalled();
+                MonitorScope scope = (monitor == null) ? null : monitor.beginEvaluation(transformer, 1);
+                SI slaveInputValue;
+                try {
+                    slaveInputValue = transformer.transform(masterOutputValue);
+                } finally {
+                    if (scope != null) {
+                        scope.close();
+                    }
+                }
+                slaveAdapter.setValue(slaveInputValue);
+            }
+        }
+    }
+
+    /**
+     * Gets the strategy used to compare a new master value to the last transformed one.
+     *
+     * @return Input equality strategy, or null if every master value is transformed.
+     */
+    public EqualityStrategy<? super MO> getInputEqualityStrategy() {
+        return inputEqualityStrategy;
+    }
+
+    /**
+     * Gets the last value written to the slave(s).
+     *
+     * @return Last transformed value.
+     */
+    public SI getLastOutput() {
+        return lastOutput;
+    }
+
+    /**
+     * Gets the number of times the transformation and the update of the slave(s) were avoided because the master value
+     * was equal to the last transformed one.
+     *
+     * @return Number of avoided evaluations.
+     */
+    public long getSkippedEvaluationCount() {
+        return skippedEvaluationCount;
     }
 
     /**
@@ -155,12 +321,47 @@ public class SimpleBinding<MO, SI> implements Disposable {
     @Override
     public void dispose() {
         master.removeChangeListener(masterAdapter);
+        lastInput = null;
+        lastOutput = null;
+    }
+
+    /**
+     * Gets the transformer of this binding.
+     *
+     * @return Transformer applied to the master property value.
+     */
+    public Transformer<? super MO, ? extends SI> getTransformer() {
+        return transformer;
+    }
+
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return Collections.singletonList(master);
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return Collections.singletonList(slave);
     }
 
     /**
      * Listener to master property changes and updating the slave property.
      */
-    private class MasterAdapter implements PropertyChangeListener<MO> {
+    private class MasterAdapter implements PropertyChangeListener<MO>, ListenerOwner {
+
+        /**
+         * @see ListenerOwner#getListenerOwner()
+         */
+        @Override
+        public Object getListenerOwner() {
+            return SimpleBinding.this;
+        }
 
         /**
          * {@inheritDoc}
@@ -170,4 +371,19 @@ public class SimpleBinding<MO, SI> implements Disposable {
             updateSlaves(e.getNewValue());
         }
     }
+
+    /**
+     * Entity receiving the transformed values and updating the slave property.
+     */
+    private class SlaveAdapter implements WritableProperty<SI> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setValue(SI value) {
+            lastOutput = value;
+            slave.setValue(value);
+        }
+    }
 }
@@ -0,0 +1,525 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class holding the codecs registered by default in all {@link PropertyValueCodecRegistry} instances.
+ */
+final class BuiltInCodecs {
+
+    /**
+     * Codec of booleans.
+     */
+    static final PropertyValueCodec<Boolean> BOOLEAN = new BuiltInCodec<Boolean>(Boolean.class) {
+        @Override
+        public void encode(Boolean value, ValueEncoder encoder) {
+            encoder.writeBoolean(value);
+        }
+
+        @Override
+        public Boolean decode(ValueDecoder decoder) throws IOException {
+            return decoder.readBoolean();
+        }
+    };
+
+    /**
+     * Codec of bytes.
+     */
+    static final PropertyValueCodec<Byte> BYTE = new BuiltInCodec<Byte>(Byte.class) {
+        @Override
+        public void encode(Byte value, ValueEncoder encoder) {
+            encoder.writeByte(value);
+        }
+
+        @Override
+        public Byte decode(ValueDecoder decoder) throws IOException {
+            return decoder.readByte();
+        }
+    };
+
+    /**
+     * Codec of short integers.
+     */
+    static final PropertyValueCodec<Short> SHORT = new BuiltInCodec<Short>(Short.class) {
+        @Override
+        public void encode(Short value, ValueEncoder encoder) {
+            encoder.writeVarLong(value);
+        }
+
+        @Override
+        public Short decode(ValueDecoder decoder) throws IOException {
+            return (short) decoder.readVarLong();
+        }
+    };
+
+    /**
+     * Codec of characters.
+     */
+    static final PropertyValueCodec<Character> CHARACTER = new BuiltInCodec<Character>(Character.class) {
+        @Override
+        public void encode(Character value, ValueEncoder encoder) {
+            encoder.writeLength(value);
+        }
+
+        @Override
+        public Character decode(ValueDecoder decoder) throws IOException {
+            return (char) decoder.readLength();
+        }
+    };
+
+    /**
+     * Codec of integers.
+     */
+    static final PropertyValueCodec<Integer> INTEGER = new BuiltInCodec<Integer>(Integer.class) {
+        @Override
+        public void encode(Integer value, ValueEncoder encoder) {
+            encoder.writeVarLong(value);
+        }
+
+        @Override
+        public Integer decode(ValueDecoder decoder) throws IOException {
+            return (int) decoder.readVarLong();
+        }
+    };
+
+    /**
+     * Codec of long integers.
+     */
+    static final PropertyValueCodec<Long> LONG = new BuiltInCodec<Long>(Long.class) {
+        @Override
+        public void encode(Long value, ValueEncoder encoder) {
+            encoder.writeVarLong(value);
+        }
+
+        @Override
+        public Long decode(ValueDecoder decoder) throws IOException {
+            return decoder.readVarLong();
+        }
+    };
+
+    /**
+     * Codec of single-precision floating point numbers.
+     */
+    static final PropertyValueCodec<Float> FLOAT = new BuiltInCodec<Float>(Float.class) {
+        @Override
+        public void encode(Float value, ValueEncoder encoder) {
+            encoder.writeFloat(value);
+        }
+
+        @Override
+        public Float decode(ValueDecoder decoder) throws IOException {
+            return decoder.readFloat();
+        }
+    };
+
+    /**
+     * Codec of double-precision floating point numbers.
+     */
+    static final PropertyValueCodec<Double> DOUBLE = new BuiltInCodec<Double>(Double.class) {
+        @Override
+        public void encode(Double value, ValueEncoder encoder) {
+            encoder.writeDouble(value);
+        }
+
+        @Override
+        public Double decode(ValueDecoder decoder) throws IOException {
+            return decoder.readDouble();
+        }
+    };
+
+    /**
+     * Codec of strings, sharing repeated strings through the dictionary of the encoder.
+     */
+    static final PropertyValueCodec<String> STRING = new BuiltInCodec<String>(String.class) {
+        @Override
+        public void encode(String value, ValueEncoder encoder) {
+            encoder.writeSharedString(value);
+        }
+
+        @Override
+        public String decode(ValueDecoder decoder) throws IOException {
+            return decoder.readSharedString();
+        }
+    };
+
+    /**
+     * Codec of big integers.
+     */
+    static final PropertyValueCodec<BigInteger> BIG_INTEGER = new BuiltInCodec<BigInteger>(BigInteger.class) {
+        @Override
+        public void encode(BigInteger value, ValueEncoder encoder) {
+            encoder.writeBytes(value.toByteArray());
+        }
+
+        @Override
+        public BigInteger decode(ValueDecoder decoder) throws IOException {
+            return new BigInteger(decoder.readBytes());
+        }
+    };
+
+    /**
+     * Codec of big decimals, written as their unscaled value and their scale.
+     */
+    static final PropertyValueCodec<BigDecimal> BIG_DECIMAL = new BuiltInCodec<BigDecimal>(BigDecimal.class) {
+        @Override
+        public void encode(BigDecimal value, ValueEncoder encoder) {
+            BigInteger unscaledValue = value.unscaledValue();
+            if (unscaledValue.bitLength() < Long.SIZE) {
+                // Most decimals (amounts, measures) fit in a variable-length long
+                encoder.writeVarLong(value.scale());
+                encoder.writeBoolean(true);
+                encoder.writeVarLong(unscaledValue.longValue());
+            } else {
+                encoder.writeVarLong(value.scale());
+                encoder.writeBoolean(false);
+                encoder.writeBytes(unscaledValue.toByteArray());
+            }
+        }
+
+        @Override
+        public BigDecimal decode(ValueDecoder decoder) throws IOException {
+            int scale = (int) decoder.readVarLong();
+            BigDecimal value;
+            if (decoder.readBoolean()) {
+                value = BigDecimal.valueOf(decoder.readVarLong(), scale);
+            } else {
+                value = new BigDecimal(new BigInteger(decoder.readBytes()), scale);
+            }
+            return value;
+        }
+    };
+
+    /**
+     * Codec of dates, written as their number of milliseconds since the epoch.
+     */
+    static final PropertyValueCodec<Date> DATE = new BuiltInCodec<Date>(Date.class) {
+        @Override
+        public void encode(Date value, ValueEncoder encoder) {
+            encoder.writeVarLong(value.getTime());
+        }
+
+        @Override
+        public Date decode(ValueDecoder decoder) throws IOException {
+            return new Date(decoder.readVarLong());
+        }
+    };
+
+    /**
+     * Codec of instants, written as their number of seconds since the epoch and their nanosecond adjustment.
+     */
+    static final PropertyValueCodec<Instant> INSTANT = new BuiltInCodec<Instant>(Instant.class) {
+        @Override
+        public void encode(Instant value, ValueEncoder encoder) {
+            encoder.writeVarLong(value.getEpochSecond());
+            encoder.writeLength(value.getNano());
+        }
+
+        @Override
+        public Instant decode(ValueDecoder decoder) throws IOException {
+            long seconds = decoder.readVarLong();
+            return Instant.ofEpochSecond(seconds, decoder.readLength());
+        }
+    };
+
+    /**
+     * Codec of local dates, written as their epoch day.
+     */
+    static final PropertyValueCodec<LocalDate> LOCAL_DATE = new BuiltInCodec<LocalDate>(LocalDate.class) {
+        @Override
+        public void encode(LocalDate value, ValueEncoder encoder) {
+            encoder.writeVarLong(value.toEpochDay());
+        }
+
+        @Override
+        public LocalDate decode(ValueDecoder decoder) throws IOException {
+            return LocalDate.ofEpochDay(decoder.readVarLong());
+        }
+    };
+
+    /**
+     * Codec of local times, written as their nanosecond of the day.
+     */
+    static final PropertyValueCodec<LocalTime> LOCAL_TIME = new BuiltInCodec<LocalTime>(LocalTime.class) {
+        @Override
+        public void encode(LocalTime value, ValueEncoder encoder) {
+            encoder.writeVarLong(value.toNanoOfDay());
+        }
+
+        @Override
+        public LocalTime decode(ValueDecoder decoder) throws IOException {
+            return LocalTime.ofNanoOfDay(decoder.readVarLong());
+        }
+    };
+
+    /**
+     * Codec of local date-times, written as their epoch day and their nanosecond of the day.
+     */
+    static final PropertyValueCodec<LocalDateTime> LOCAL_DATE_TIME = new BuiltInCodec<LocalDateTime>(LocalDateTime
+            .class) {
+        @Override
+        public void encode(LocalDateTime value, ValueEncoder encoder) {
+            encoder.writeVarLong(value.toLocalDate().toEpochDay());
+            encoder.writeVarLong(value.toLocalTime().toNanoOfDay());
+        }
+
+        @Override
+        public LocalDateTime decode(ValueDecoder decoder) throws IOException {
+            LocalDate date = LocalDate.ofEpochDay(decoder.readVarLong());
+            return LocalDateTime.of(date, LocalTime.ofNanoOfDay(decoder.readVarLong()));
+        }
+    };
+
+    /**
+     * Codec of durations, written as their number of seconds and their nanosecond adjustment.
+     */
+    static final PropertyValueCodec<Duration> DURATION = new BuiltInCodec<Duration>(Duration.class) {
+        @Override
+        public void encode(Duration value, ValueEncoder encoder) {
+            encoder.writeVarLong(value.getSeconds());
+            encoder.writeLength(value.getNano());
+        }
+
+        @Override
+        public Duration decode(ValueDecoder decoder) throws IOException {
+            long seconds = decoder.readVarLong();
+            return Duration.ofSeconds(seconds, decoder.readLength());
+        }
+    };
+
+    /**
+     * Codec of enum constants, written as the shared names of their class and of the constant.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static final PropertyValueCodec<Enum> ENUM = new BuiltInCodec<Enum>(Enum.class) {
+        @Override
+        public void encode(Enum value, ValueEncoder encoder) {
+            encoder.writeSharedString(value.getDeclaringClass().getName());
+            encoder.writeSharedString(value.name());
+        }
+
+        @Override
+        public Enum decode(ValueDecoder decoder) throws IOException {
+            String className = decoder.readSharedString();
+            String name = decoder.readSharedString();
+            try {
+                Class<?> enumClass = decoder.loadClass(className);
+                if (!enumClass.isEnum()) {
+                    throw new InvalidClassException(className, "Not an enum");
+                }
+                return Enum.valueOf((Class<Enum>) enumClass, name);
+            } catch (ClassNotFoundException | IllegalArgumentException e) {
+                throw new InvalidClassException(className, "Cannot decode enum constant " + name + ": " + e);
+            }
+        }
+    };
+
+    /**
+     * Codec of lists, decoded as array lists.
+     */
+    @SuppressWarnings("rawtypes")
+    static final PropertyValueCodec<List> LIST = new BuiltInCodec<List>(List.class) {
+        @Override
+        public void encode(List value, ValueEncoder encoder) throws IOException {
+            encoder.writeItems(value);
+        }
+
+        @Override
+        public List decode(ValueDecoder decoder) throws IOException {
+            return decoder.readItems(new ArrayList<>());
+        }
+    };
+
+    /**
+     * Codec of sets, decoded as linked hash sets.
+     */
+    @SuppressWarnings("rawtypes")
+    static final PropertyValueCodec<Set> SET = new BuiltInCodec<Set>(Set.class) {
+        @Override
+        public void encode(Set value, ValueEncoder encoder) throws IOException {
+            encoder.writeItems(value);
+        }
+
+        @Override
+        public Set decode(ValueDecoder decoder) throws IOException {
+            return decoder.readItems(new LinkedHashSet<>());
+        }
+    };
+
+    /**
+     * Codec of maps, decoded as linked hash maps.
+     */
+    @SuppressWarnings("rawtypes")
+    static final PropertyValueCodec<Map> MAP = new BuiltInCodec<Map>(Map.class) {
+        @Override
+        public void encode(Map value, ValueEncoder encoder) throws IOException {
+            encoder.writeEntries(value);
+        }
+
+        @Override
+        public Map decode(ValueDecoder decoder) throws IOException {
+            return decoder.readEntries();
+        }
+    };
+
+    /**
+     * Codec of other serializable values, using Java serialization restricted to the classes allowed by the registry.
+     */
+    static final PropertyValueCodec<Serializable> SERIALIZED = new BuiltInCodec<Serializable>(Serializable.class) {
+        @Override
+        public void encode(Serializable value, ValueEncoder encoder) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            encoder.writeBytes(bytes.toByteArray());
+        }
+
+        @Override
+        public Serializable decode(ValueDecoder decoder) throws IOException {
+            try (ObjectInputStream in = new AllowListObjectInputStream(new ByteArrayInputStream(decoder.readBytes()),
+                    decoder.getRegistry())) {
+                return (Serializable) in.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new InvalidClassException(e.getMessage());
+            }
+        }
+    };
+
+    /**
+     * Private constructor for utility class.
+     */
+    private BuiltInCodecs() {
+        // Nothing to be done
+    }
+
+    /**
+     * Object input stream rejecting the classes that are not allowed by a registry, before loading them.
+     */
+    private static final class AllowListObjectInputStream extends ObjectInputStream {
+
+        /**
+         * Registry allowing the classes.
+         */
+        private final PropertyValueCodecRegistry registry;
+
+        /**
+         * Constructor.
+         *
+         * @param in       Stream to read the serialized data from.
+         * @param registry Registry allowing the classes.
+         * @throws IOException If the stream header could not be read.
+         */
+        AllowListObjectInputStream(InputStream in, PropertyValueCodecRegistry registry) throws IOException {
+            super(in);
+            this.registry = registry;
+        }
+
+        /**
+         * @see ObjectInputStream#resolveClass(ObjectStreamClass)
+         */
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!registry.isSerializationAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Class not allowed for serialization");
+            }
+            return super.resolveClass(desc);
+        }
+
+        /**
+         * @see ObjectInputStream#resolveProxyClass(String[])
+         */
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+            throw new InvalidClassException(Arrays.toString(interfaces), "Proxy classes not allowed for serialization");
+        }
+    }
+
+    /**
+     * Base class of the built-in codecs.
+     *
+     * @param <T> Type of values handled by the codec.
+     */
+    private abstract static class BuiltInCodec<T> implements PropertyValueCodec<T> {
+
+        /**
+         * Type of values handled by the codec.
+         */
+        private final Class<T> valueType;
+
+        /**
+         * Constructor.
+         *
+         * @param valueType Type of values handled by the codec.
+         */
+        BuiltInCodec(Class<T> valueType) {
+            this.valueType = valueType;
+        }
+
+        /**
+         * @see PropertyValueCodec#getValueType()
+         */
+        @Override
+        public Class<T> getValueType() {
+            return valueType;
+        }
+
+        /**
+         * @see Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "Built-in codec of " + valueType.getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableListProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableMapProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableSetProperty;
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class encoding and decoding property change events.
+ * <p>
+ * Only the deltas carried by the events are encoded: the source property is not, and has to be provided when decoding
+ * the events, for instance after looking it up by an identifier encoded along with the event.
+ */
+public final class PropertyChangeCodecs {
+
+    /**
+     * Private constructor for utility class.
+     */
+    private PropertyChangeCodecs() {
+        // Nothing to be done
+    }
+
+    /**
+     * Encodes the old and new values of the specified change.
+     *
+     * @param change  Change to be encoded.
+     * @param encoder Encoder to write the change to.
+     * @throws IOException If a value could not be encoded.
+     */
+    public static void writeChange(PropertyChange<?> change, ValueEncoder encoder) throws IOException {
+        encoder.writeValue(change.getOldValue());
+        encoder.writeValue(change.getNewValue());
+    }
+
+    /**
+     * Decodes a change of the specified property.
+     *
+     * @param source  Property to be set as the source of the change.
+     * @param decoder Decoder to read the change from.
+     * @param <R>     Type of value in the property.
+     * @return Decoded change.
+     * @throws IOException If a value could not be decoded.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> PropertyChange<R> readChange(ReadableProperty<R> source, ValueDecoder decoder) throws
+            IOException {
+        R oldValue = (R) decoder.readValue();
+        R newValue = (R) decoder.readValue();
+        return new PropertyChange<>(source, oldValue, newValue);
+    }
+
+    /**
+     * Encodes the start index and the old and new items of the specified list change.
+     *
+     * @param change  Change to be encoded.
+     * @param encoder Encoder to write the change to.
+     * @throws IOException If an item could not be encoded.
+     */
+    public static void writeListChange(ListPropertyChange<?> change, ValueEncoder encoder) throws IOException {
+        encoder.writeLength(change.getStartIndex());
+        encoder.writeItems(change.getOldValues());
+        encoder.writeItems(change.getNewValues());
+    }
+
+    /**
+     * Decodes a change of the specified list property.
+     *
+     * @param source  List property to be set as the source of the change.
+     * @param decoder Decoder to read the change from.
+     * @param <R>     Type of items in the list property.
+     * @return Decoded change.
+     * @throws IOException If an item could not be decoded.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> ListPropertyChange<R> readListChange(ReadableListProperty<R> source, ValueDecoder decoder)
+            throws IOException {
+        int startIndex = decoder.readLength();
+        List<Object> oldValues = decoder.readItems(new ArrayList<>());
+        List<Object> newValues = decoder.readItems(new ArrayList<>());
+        return new ListPropertyChange<>(source, startIndex, (List<R>) oldValues, (List<R>) newValues);
+    }
+
+    /**
+     * Encodes the removed and added items of the specified set change.
+     *
+     * @param change  Change to be encoded.
+     * @param encoder Encoder to write the change to.
+     * @throws IOException If an item could not be encoded.
+     */
+    public static void writeSetChange(SetPropertyChange<?> change, ValueEncoder encoder) throws IOException {
+        encoder.writeItems(change.getOldValues());
+        encoder.writeItems(change.getNewValues());
+    }
+
+    /**
+     * Decodes a change of the specified set property.
+     *
+     * @param source  Set property to be set as the source of the change.
+     * @param decoder Decoder to read the change from.
+     * @param <R>     Type of items in the set property.
+     * @return Decoded change.
+     * @throws IOException If an item could not be decoded.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> SetPropertyChange<R> readSetChange(ReadableSetProperty<R> source, ValueDecoder decoder) throws
+            IOException {
+        Set<Object> oldValues = decoder.readItems(new LinkedHashSet<>());
+        Set<Object> newValues = decoder.readItems(new LinkedHashSet<>());
+        return new SetPropertyChange<>(source, (Set<R>) oldValues, (Set<R>) newValues);
+    }
+
+    /**
+     * Encodes the old and new entries of the specified map change.
+     *
+     * @param change  Change to be encoded.
+     * @param encoder Encoder to write the change to.
+     * @throws IOException If a key or a value could not be encoded.
+     */
+    public static void writeMapChange(MapPropertyChange<?, ?> change, ValueEncoder encoder) throws IOException {
+        encoder.writeEntries(change.getOldValues());
+        encoder.writeEntries(change.getNewValues());
+    }
+
+    /**
+     * Decodes a change of the specified map property.
+     *
+     * @param source  Map property to be set as the source of the change.
+     * @param decoder Decoder to read the change from.
+     * @param <K>     Type of keys in the map property.
+     * @param <R>     Type of values in the map property.
+     * @return Decoded change.
+     * @throws IOException If a key or a value could not be decoded.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, R> MapPropertyChange<K, R> readMapChange(ReadableMapProperty<K, R> source,
+                                                               ValueDecoder decoder) throws IOException {
+        Map<Object, Object> oldValues = decoder.readEntries();
+        Map<Object, Object> newValues = decoder.readEntries();
+        return new MapPropertyChange<>(source, (Map<K, R>) (Map<?, ?>) oldValues, (Map<K, R>) (Map<?, ?>) newValues);
+    }
+}
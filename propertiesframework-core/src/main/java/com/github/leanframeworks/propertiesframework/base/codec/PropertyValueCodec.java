@@ -0,0 +1,73 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import java.io.IOException;
+
+/**
+ * Interface to be implemented by codecs encoding and decoding property values of a given type into a compact binary
+ * form.
+ * <p>
+ * Codecs are registered in a {@link PropertyValueCodecRegistry} with a tag identifying them in the encoded data. They
+ * only write and read the content of the values: the tag and null values are handled by the {@link ValueEncoder} and
+ * {@link ValueDecoder}.
+ *
+ * @param <T> Type of values handled by the codec.
+ * @see PropertyValueCodecRegistry
+ */
+public interface PropertyValueCodec<T> {
+
+    /**
+     * Gets the type of values handled by the codec.
+     * <p>
+     * The codec is used for values of this exact type only, not for values of its sub-types.
+     *
+     * @return Type of values.
+     */
+    Class<T> getValueType();
+
+    /**
+     * Encodes the specified value.
+     *
+     * @param value   Value to be encoded, never null.
+     * @param encoder Encoder to write the content of the value to.
+     * @throws IOException If the value could not be encoded.
+     */
+    void encode(T value, ValueEncoder encoder) throws IOException;
+
+    /**
+     * Decodes a value.
+     *
+     * @param decoder Decoder to read the content of the value from.
+     * @return Decoded value.
+     * @throws IOException If the value could not be decoded.
+     */
+    T decode(ValueDecoder decoder) throws IOException;
+}
@@ -0,0 +1,328 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the codecs used to encode and decode property values.
+ * <p>
+ * Each codec is registered with a unique tag, written before each encoded value so that the right codec can be found
+ * when decoding it. The registry comes with built-in codecs for primitive wrappers, strings (shared through a
+ * dictionary in each encoded stream), big numbers, dates and times ({@link java.util.Date}, {@link
+ * java.time.Instant}, {@link java.time.LocalDate}, {@link java.time.LocalTime}, {@link java.time.LocalDateTime} and
+ * {@link java.time.Duration}), enums, lists, sets and maps. Decoded lists, sets and maps are respectively {@link
+ * java.util.ArrayList}, {@link java.util.LinkedHashSet} and {@link java.util.LinkedHashMap} instances.
+ * <p>
+ * Other values require a custom codec. Java serialization can be used as a fallback, but only for the {@link
+ * Serializable} types explicitly {@link #allowSerialization(Class) allowed}: when decoding, serialized data referring
+ * to any other class is rejected before the class is even loaded, because the encoded data may come from untrusted
+ * files written by other processes. For the same reason, enum classes are loaded without being initialized until they
+ * are known to be enums.
+ * <p>
+ * Codecs are matched against the exact type of the values. Registering a codec for a type having a built-in codec
+ * replaces it for encoding, while data encoded with the built-in codec can still be decoded.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see PropertyValueCodec
+ * @see ValueEncoder
+ * @see ValueDecoder
+ */
+public class PropertyValueCodecRegistry {
+
+    /**
+     * Smallest tag that can be used to register a custom codec. Smaller tags are reserved for the built-in codecs.
+     */
+    public static final int FIRST_CUSTOM_TAG = 64;
+
+    /**
+     * Tag written for null values.
+     */
+    static final int NULL_TAG = 0;
+
+    /**
+     * Registry shared by default by all encoders and decoders.
+     */
+    private static final PropertyValueCodecRegistry DEFAULT = new PropertyValueCodecRegistry();
+
+    /**
+     * Names of the JDK classes always allowed in data encoded with Java serialization.
+     */
+    private static final Set<String> SAFE_SERIALIZABLE_CLASS_NAMES = new HashSet<>(Arrays.asList(
+            String.class.getName(), Number.class.getName(), Boolean.class.getName(), Byte.class.getName(), Short
+                    .class.getName(), Character.class.getName(), Integer.class.getName(), Long.class.getName(), Float
+                    .class.getName(), Double.class.getName(), Enum.class.getName()));
+
+    /**
+     * Registered codecs mapped to their tags.
+     */
+    private final Map<Integer, Registration> registrationsByTag = new ConcurrentHashMap<>();
+
+    /**
+     * Registered codecs mapped to the exact type of their values.
+     */
+    private final Map<Class<?>, Registration> registrationsByType = new ConcurrentHashMap<>();
+
+    /**
+     * Codecs found for the types of the values encoded so far, including the types handled by fallback codecs.
+     */
+    private final Map<Class<?>, Registration> resolvedRegistrations = new ConcurrentHashMap<>();
+
+    /**
+     * Names of the classes allowed in data encoded with Java serialization.
+     */
+    private final Set<String> serializableClassNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Codec of enum constants.
+     */
+    private final Registration enumRegistration;
+
+    /**
+     * Codec of lists.
+     */
+    private final Registration listRegistration;
+
+    /**
+     * Codec of sets.
+     */
+    private final Registration setRegistration;
+
+    /**
+     * Codec of maps.
+     */
+    private final Registration mapRegistration;
+
+    /**
+     * Codec of values encoded with Java serialization.
+     */
+    private final Registration serializedRegistration;
+
+    /**
+     * Constructor creating a registry containing only the built-in codecs.
+     */
+    public PropertyValueCodecRegistry() {
+        int tag = NULL_TAG + 1;
+        add(tag++, BuiltInCodecs.BOOLEAN);
+        add(tag++, BuiltInCodecs.BYTE);
+        add(tag++, BuiltInCodecs.SHORT);
+        add(tag++, BuiltInCodecs.CHARACTER);
+        add(tag++, BuiltInCodecs.INTEGER);
+        add(tag++, BuiltInCodecs.LONG);
+        add(tag++, BuiltInCodecs.FLOAT);
+        add(tag++, BuiltInCodecs.DOUBLE);
+        add(tag++, BuiltInCodecs.STRING);
+        add(tag++, BuiltInCodecs.BIG_INTEGER);
+        add(tag++, BuiltInCodecs.BIG_DECIMAL);
+        add(tag++, BuiltInCodecs.DATE);
+        add(tag++, BuiltInCodecs.INSTANT);
+        add(tag++, BuiltInCodecs.LOCAL_DATE);
+        add(tag++, BuiltInCodecs.LOCAL_TIME);
+        add(tag++, BuiltInCodecs.LOCAL_DATE_TIME);
+        add(tag++, BuiltInCodecs.DURATION);
+        enumRegistration = add(tag++, BuiltInCodecs.ENUM);
+        listRegistration = add(tag++, BuiltInCodecs.LIST);
+        setRegistration = add(tag++, BuiltInCodecs.SET);
+        mapRegistration = add(tag++, BuiltInCodecs.MAP);
+        serializedRegistration = add(tag, BuiltInCodecs.SERIALIZED);
+    }
+
+    /**
+     * Gets the registry shared by default by all encoders and decoders.
+     * <p>
+     * Codecs registered in this registry are used by all the snapshots and journals that are not given a specific
+     * registry.
+     *
+     * @return Default registry.
+     */
+    public static PropertyValueCodecRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Registers the specified custom codec.
+     * <p>
+     * The same tag must be used to register the codec in the registry used to decode the values.
+     *
+     * @param tag   Unique tag identifying the codec in the encoded data, greater than or equal to {@link
+     *              #FIRST_CUSTOM_TAG}.
+     * @param codec Codec to be registered.
+     * @throws IllegalArgumentException If the tag is reserved or already used.
+     */
+    public synchronized void register(int tag, PropertyValueCodec<?> codec) {
+        if (tag < FIRST_CUSTOM_TAG) {
+            throw new IllegalArgumentException("Tag " + tag + " is reserved for built-in codecs");
+        }
+        if (registrationsByTag.containsKey(tag)) {
+            throw new IllegalArgumentException("Tag " + tag + " is already used by codec " +
+                    registrationsByTag.get(tag).codec);
+        }
+        add(tag, codec);
+        resolvedRegistrations.clear();
+    }
+
+    /**
+     * Allows values of the specified type, which has no codec, to be encoded and decoded using Java serialization.
+     * <p>
+     * The serializable superclasses of the type are allowed as well. The types of all the other objects reachable from
+     * the values through serialized fields must also be allowed, except for strings, primitive wrappers and arrays of
+     * allowed types. The same types must be allowed in the registry used to decode the values.
+     *
+     * @param type Serializable type to be allowed.
+     */
+    public synchronized void allowSerialization(Class<? extends Serializable> type) {
+        Class<?> allowedType = type;
+        while ((allowedType != null) && Serializable.class.isAssignableFrom(allowedType)) {
+            serializableClassNames.add(allowedType.getName());
+            allowedType = allowedType.getSuperclass();
+        }
+        resolvedRegistrations.clear();
+    }
+
+    /**
+     * States whether the class with the specified name is allowed in data encoded with Java serialization.
+     *
+     * @param className Name of the class, as returned by {@link Class#getName()}.
+     * @return True if the class was allowed, or is a string, a primitive wrapper or an array of allowed classes.
+     * @see #allowSerialization(Class)
+     */
+    boolean isSerializationAllowed(String className) {
+        boolean allowed;
+        if (className.startsWith("[L") && className.endsWith(";")) {
+            allowed = isSerializationAllowed(className.substring(2, className.length() - 1));
+        } else if (className.startsWith("[")) {
+            // Primitive array, or array of arrays
+            allowed = (className.length() == 2) || isSerializationAllowed(className.substring(1));
+        } else {
+            allowed = SAFE_SERIALIZABLE_CLASS_NAMES.contains(className) || serializableClassNames.contains(className);
+        }
+        return allowed;
+    }
+
+    /**
+     * Adds the specified codec to the registry.
+     *
+     * @param tag   Tag of the codec.
+     * @param codec Codec to be added.
+     * @return Registration of the codec.
+     */
+    @SuppressWarnings("unchecked")
+    private Registration add(int tag, PropertyValueCodec<?> codec) {
+        Registration registration = new Registration(tag, (PropertyValueCodec<Object>) codec);
+        registrationsByTag.put(tag, registration);
+        registrationsByType.put(codec.getValueType(), registration);
+        return registration;
+    }
+
+    /**
+     * Gets the codec to be used to encode values of the specified type.
+     *
+     * @param type Exact type of the values to be encoded.
+     * @return Registration of the codec, or null if values of this type cannot be encoded.
+     */
+    Registration getRegistration(Class<?> type) {
+        Registration registration = resolvedRegistrations.get(type);
+        if (registration == null) {
+            registration = resolveRegistration(type);
+            if (registration != null) {
+                resolvedRegistrations.put(type, registration);
+            }
+        }
+        return registration;
+    }
+
+    /**
+     * Finds the codec to be used to encode values of the specified type, falling back to the structural codecs.
+     *
+     * @param type Exact type of the values to be encoded.
+     * @return Registration of the codec, or null if values of this type cannot be encoded.
+     */
+    private Registration resolveRegistration(Class<?> type) {
+        Registration registration = registrationsByType.get(type);
+        if (registration == null) {
+            if (Enum.class.isAssignableFrom(type)) {
+                registration = enumRegistration;
+            } else if (List.class.isAssignableFrom(type)) {
+                registration = listRegistration;
+            } else if (Set.class.isAssignableFrom(type)) {
+                registration = setRegistration;
+            } else if (Map.class.isAssignableFrom(type)) {
+                registration = mapRegistration;
+            } else if (serializableClassNames.contains(type.getName())) {
+                registration = serializedRegistration;
+            }
+        }
+        return registration;
+    }
+
+    /**
+     * Gets the codec registered with the specified tag.
+     *
+     * @param tag Tag of the codec.
+     * @return Registration of the codec, or null if no codec is registered with this tag.
+     */
+    Registration getRegistration(int tag) {
+        return registrationsByTag.get(tag);
+    }
+
+    /**
+     * Codec registered with its tag.
+     */
+    static final class Registration {
+
+        /**
+         * Tag identifying the codec in the encoded data.
+         */
+        final int tag;
+
+        /**
+         * Registered codec.
+         */
+        final PropertyValueCodec<Object> codec;
+
+        /**
+         * Constructor.
+         *
+         * @param tag   Tag identifying the codec in the encoded data.
+         * @param codec Registered codec.
+         */
+        Registration(int tag, PropertyValueCodec<Object> codec) {
+            this.tag = tag;
+            this.codec = codec;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decoder reading property values and primitive data directly from a {@link ByteBuffer}.
+ * <p>
+ * The data is read from the current position of the buffer, which is advanced accordingly.
+ * <p>
+ * Note that this class is not thread-safe.
+ *
+ * @see ValueEncoder
+ */
+public final class ValueDecoder {
+
+    /**
+     * Registry of the codecs used to decode the values.
+     */
+    private final PropertyValueCodecRegistry registry;
+
+    /**
+     * Buffer containing the encoded data.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Shared strings read so far, in the order of their references, or null if no shared string was read yet.
+     */
+    private List<String> sharedStrings = null;
+
+    /**
+     * Classes loaded so far, mapped to their names, or null if no class was loaded yet.
+     */
+    private Map<String, Class<?>> loadedClasses = null;
+
+    /**
+     * Constructor using the default registry.
+     *
+     * @param buffer Buffer to read the encoded data from.
+     */
+    public ValueDecoder(ByteBuffer buffer) {
+        this(PropertyValueCodecRegistry.getDefault(), buffer);
+    }
+
+    /**
+     * Constructor specifying the registry.
+     *
+     * @param registry Registry of the codecs used to decode the values.
+     * @param buffer   Buffer to read the encoded data from.
+     */
+    public ValueDecoder(PropertyValueCodecRegistry registry, ByteBuffer buffer) {
+        this.registry = registry;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Gets the registry of the codecs used to decode the values.
+     *
+     * @return Codec registry.
+     */
+    public PropertyValueCodecRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Gets the buffer containing the encoded data.
+     *
+     * @return Buffer whose position is after the decoded data.
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Forgets the shared strings read so far, so that the decoder can be reused to decode independent data written by
+     * a {@link ValueEncoder#reset() reset} encoder.
+     * <p>
+     * The classes loaded so far are remembered.
+     */
+    public void reset() {
+        if (sharedStrings != null) {
+            sharedStrings.clear();
+        }
+    }
+
+    /**
+     * Reads a single byte.
+     *
+     * @return Byte read.
+     * @throws IOException If the end of the data was reached.
+     */
+    public byte readByte() throws IOException {
+        try {
+            return buffer.get();
+        } catch (BufferUnderflowException e) {
+            throw newEOFException();
+        }
+    }
+
+    /**
+     * Reads a boolean written as a single byte.
+     *
+     * @return Boolean read.
+     * @throws IOException If the end of the data was reached.
+     */
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    /**
+     * Reads a 32-bit integer written with a fixed length.
+     *
+     * @return Integer read.
+     * @throws IOException If the end of the data was reached.
+     */
+    public int readInt() throws IOException {
+        try {
+            return buffer.getInt();
+        } catch (BufferUnderflowException e) {
+            throw newEOFException();
+        }
+    }
+
+    /**
+     * Reads a 64-bit integer written with a fixed length.
+     *
+     * @return Long read.
+     * @throws IOException If the end of the data was reached.
+     */
+    public long readLong() throws IOException {
+        try {
+            return buffer.getLong();
+        } catch (BufferUnderflowException e) {
+            throw newEOFException();
+        }
+    }
+
+    /**
+     * Reads a single-precision floating point number.
+     *
+     * @return Float read.
+     * @throws IOException If the end of the data was reached.
+     */
+    public float readFloat() throws IOException {
+        try {
+            return buffer.getFloat();
+        } catch (BufferUnderflowException e) {
+            throw newEOFException();
+        }
+    }
+
+    /**
+     * Reads a double-precision floating point number.
+     *
+     * @return Double read.
+     * @throws IOException If the end of the data was reached.
+     */
+    public double readDouble() throws IOException {
+        try {
+            return buffer.getDouble();
+        } catch (BufferUnderflowException e) {
+            throw newEOFException();
+        }
+    }
+
+    /**
+     * Reads a non-negative integer written with a variable length.
+     *
+     * @return Integer read.
+     * @throws IOException If the end of the data was reached or if the value is invalid.
+     */
+    public int readLength() throws IOException {
+        long value = readUnsignedVarLong();
+        if ((value < 0) || (value > Integer.MAX_VALUE)) {
+            throw new StreamCorruptedException("Invalid length: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a signed integer written with a variable length.
+     *
+     * @return Long read.
+     * @throws IOException If the end of the data was reached or if the value is invalid.
+     */
+    public long readVarLong() throws IOException {
+        long value = readUnsignedVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads bits written with a variable length, 7 bits at a time.
+     *
+     * @return Bits read.
+     * @throws IOException If the end of the data was reached or if the value is invalid.
+     */
+    private long readUnsignedVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            if (shift > 63) {
+                throw new StreamCorruptedException("Invalid variable-length number");
+            }
+            current = readByte();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Reads an array of bytes preceded by its length.
+     *
+     * @return Bytes read.
+     * @throws IOException If the end of the data was reached or if the length is invalid.
+     */
+    public byte[] readBytes() throws IOException {
+        int length = readLength();
+        if (length > buffer.remaining()) {
+            throw newEOFException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads a string written in UTF-8 and preceded by its length.
+     *
+     * @return String read.
+     * @throws IOException If the end of the data was reached or if the length is invalid.
+     */
+    public String readString() throws IOException {
+        int length = readLength();
+        if (length > buffer.remaining()) {
+            throw newEOFException();
+        }
+        String value;
+        if (buffer.hasArray()) {
+            // Decode in place, without copying the bytes first
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a string written as a shared string.
+     *
+     * @return String read.
+     * @throws IOException If the end of the data was reached or if the string reference is invalid.
+     * @see ValueEncoder#writeSharedString(String)
+     */
+    public String readSharedString() throws IOException {
+        String value;
+        int reference = readLength();
+        if (reference == 0) {
+            value = readString();
+            if (sharedStrings == null) {
+                sharedStrings = new ArrayList<>();
+            }
+            if (sharedStrings.size() < ValueEncoder.MAX_SHARED_STRINGS) {
+                sharedStrings.add(value);
+            }
+        } else if ((sharedStrings != null) && (reference <= sharedStrings.size())) {
+            value = sharedStrings.get(reference - 1);
+        } else {
+            throw new StreamCorruptedException("Invalid shared string reference: " + reference);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a value preceded by the tag of its codec.
+     *
+     * @return Value read, possibly null.
+     * @throws IOException If the value could not be decoded.
+     */
+    public Object readValue() throws IOException {
+        Object value;
+        int tag = readLength();
+        if (tag == PropertyValueCodecRegistry.NULL_TAG) {
+            value = null;
+        } else {
+            PropertyValueCodecRegistry.Registration registration = registry.getRegistration(tag);
+            if (registration == null) {
+                throw new StreamCorruptedException("Unknown value codec tag: " + tag);
+            }
+            value = registration.codec.decode(this);
+        }
+        return value;
+    }
+
+    /**
+     * Reads items preceded by their number.
+     *
+     * @param items Collection to add the items to.
+     * @param <C>   Type of collection.
+     * @return Specified collection, for convenience.
+     * @throws IOException If an item could not be decoded.
+     */
+    public <C extends Collection<Object>> C readItems(C items) throws IOException {
+        int count = readLength();
+        for (int i = 0; i < count; i++) {
+            items.add(readValue());
+        }
+        return items;
+    }
+
+    /**
+     * Reads map entries preceded by their number.
+     *
+     * @return Map entries read.
+     * @throws IOException If a key or a value could not be decoded.
+     */
+    public Map<Object, Object> readEntries() throws IOException {
+        int count = readLength();
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            Object key = readValue();
+            entries.put(key, readValue());
+        }
+        return entries;
+    }
+
+    /**
+     * Loads the class with the specified name, remembering it for the next values of the same class.
+     * <p>
+     * The class is not initialized, so that no code is run for classes named by crafted data.
+     *
+     * @param className Name of the class.
+     * @return Loaded class.
+     * @throws ClassNotFoundException If the class could not be found.
+     */
+    Class<?> loadClass(String className) throws ClassNotFoundException {
+        if (loadedClasses == null) {
+            loadedClasses = new HashMap<>();
+        }
+        Class<?> loadedClass = loadedClasses.get(className);
+        if (loadedClass == null) {
+            loadedClass = Class.forName(className, false, ValueDecoder.class.getClassLoader());
+            loadedClasses.put(className, loadedClass);
+        }
+        return loadedClass;
+    }
+
+    /**
+     * Creates the exception to be thrown when trying to read beyond the end of the data.
+     *
+     * @return Exception to be thrown.
+     */
+    private static EOFException newEOFException() {
+        return new EOFException("Unexpected end of data");
+    }
+}
@@ -0,0 +1,386 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encoder writing property values and primitive data directly to a {@link ByteBuffer}.
+ * <p>
+ * The encoder either owns a heap buffer that grows as needed, or writes to a buffer provided by the caller, in which
+ * case a {@link BufferOverflowException} is thrown when the buffer is full. Integers and lengths are written as
+ * variable-length quantities to keep the output compact. Shared strings are written only once per encoder: subsequent
+ * occurrences are written as references to the first one.
+ * <p>
+ * Note that this class is not thread-safe.
+ *
+ * @see ValueDecoder
+ */
+public final class ValueEncoder {
+
+    /**
+     * Default initial capacity of the growable buffer.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 256;
+
+    /**
+     * Maximum number of shared strings remembered by an encoder, to bound its memory usage.
+     */
+    static final int MAX_SHARED_STRINGS = 65536;
+
+    /**
+     * Registry of the codecs used to encode the values.
+     */
+    private final PropertyValueCodecRegistry registry;
+
+    /**
+     * Flag indicating whether the buffer can be replaced by a bigger one when full.
+     */
+    private final boolean growable;
+
+    /**
+     * Position of the buffer when the encoder started writing to it.
+     */
+    private final int startPosition;
+
+    /**
+     * Buffer containing the encoded data.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Shared strings written so far, mapped to their references, or null if no shared string was written yet.
+     */
+    private Map<String, Integer> sharedStrings = null;
+
+    /**
+     * Constructor using the default registry and a growable buffer with a default initial capacity.
+     */
+    public ValueEncoder() {
+        this(PropertyValueCodecRegistry.getDefault(), DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor specifying the registry and the initial capacity of the growable buffer.
+     *
+     * @param registry        Registry of the codecs used to encode the values.
+     * @param initialCapacity Initial capacity of the buffer, in bytes.
+     */
+    public ValueEncoder(PropertyValueCodecRegistry registry, int initialCapacity) {
+        this.registry = registry;
+        this.growable = true;
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+        this.startPosition = 0;
+    }
+
+    /**
+     * Constructor specifying the registry and the buffer to write to, from its current position.
+     * <p>
+     * The buffer will not be replaced: a {@link BufferOverflowException} will be thrown if it is too small.
+     *
+     * @param registry Registry of the codecs used to encode the values.
+     * @param buffer   Buffer to write the encoded data to.
+     */
+    public ValueEncoder(PropertyValueCodecRegistry registry, ByteBuffer buffer) {
+        this.registry = registry;
+        this.growable = false;
+        this.buffer = buffer;
+        this.startPosition = buffer.position();
+    }
+
+    /**
+     * Gets the registry of the codecs used to encode the values.
+     *
+     * @return Codec registry.
+     */
+    public PropertyValueCodecRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Gets the buffer containing the encoded data.
+     * <p>
+     * Note that a growable buffer is replaced when it is full, so the returned buffer should not be kept while
+     * encoding.
+     *
+     * @return Buffer whose position is after the encoded data.
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Discards the data encoded so far and forgets the shared strings, so that the encoder can be reused to encode
+     * independent data without allocating a new buffer.
+     */
+    public void reset() {
+        buffer.position(startPosition);
+        if (sharedStrings != null) {
+            sharedStrings.clear();
+        }
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param value Byte to be written.
+     */
+    public void writeByte(int value) {
+        ensureRemaining(1);
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a boolean as a single byte.
+     *
+     * @param value Boolean to be written.
+     */
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a 32-bit integer using a fixed length.
+     *
+     * @param value Integer to be written.
+     */
+    public void writeInt(int value) {
+        ensureRemaining(4);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Writes a 64-bit integer using a fixed length.
+     *
+     * @param value Long to be written.
+     */
+    public void writeLong(long value) {
+        ensureRemaining(8);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes a single-precision floating point number.
+     *
+     * @param value Float to be written.
+     */
+    public void writeFloat(float value) {
+        ensureRemaining(4);
+        buffer.putFloat(value);
+    }
+
+    /**
+     * Writes a double-precision floating point number.
+     *
+     * @param value Double to be written.
+     */
+    public void writeDouble(double value) {
+        ensureRemaining(8);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Writes a non-negative integer (typically, a length) using a variable length.
+     *
+     * @param value Non-negative integer to be written.
+     */
+    public void writeLength(int value) {
+        writeUnsignedVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes a signed integer using a variable length.
+     *
+     * @param value Long to be written.
+     */
+    public void writeVarLong(long value) {
+        // Zig-zag encoding so that small negative numbers are also short
+        writeUnsignedVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes the specified bits using a variable length, 7 bits at a time.
+     *
+     * @param value Bits to be written.
+     */
+    private void writeUnsignedVarLong(long value) {
+        ensureRemaining(10);
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Writes an array of bytes, preceded by its length.
+     *
+     * @param bytes Bytes to be written.
+     */
+    public void writeBytes(byte[] bytes) {
+        writeLength(bytes.length);
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes a string in UTF-8, preceded by its length.
+     *
+     * @param value String to be written.
+     */
+    public void writeString(String value) {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a string that is likely to be written several times, such as an enum class name or a value repeated in a
+     * collection.
+     * <p>
+     * The first occurrence is written in full, and the next occurrences are written as references to it.
+     *
+     * @param value String to be written.
+     * @see ValueDecoder#readSharedString()
+     */
+    public void writeSharedString(String value) {
+        Integer reference = (sharedStrings == null) ? null : sharedStrings.get(value);
+        if (reference == null) {
+            writeLength(0);
+            writeString(value);
+            if (sharedStrings == null) {
+                sharedStrings = new HashMap<>();
+            }
+            if (sharedStrings.size() < MAX_SHARED_STRINGS) {
+                sharedStrings.put(value, sharedStrings.size() + 1);
+            }
+        } else {
+            writeLength(reference);
+        }
+    }
+
+    /**
+     * Writes the specified value, preceded by the tag of its codec.
+     *
+     * @param value Value to be written, possibly null.
+     * @throws NotSerializableException If no codec can encode the value.
+     * @throws IOException              If the value could not be encoded.
+     */
+    public void writeValue(Object value) throws IOException {
+        if (value == null) {
+            writeLength(PropertyValueCodecRegistry.NULL_TAG);
+        } else {
+            PropertyValueCodecRegistry.Registration registration = registry.getRegistration(value.getClass());
+            if (registration == null) {
+                throw new NotSerializableException(value.getClass().getName());
+            }
+            writeLength(registration.tag);
+            registration.codec.encode(value, this);
+        }
+    }
+
+    /**
+     * Writes the specified items, preceded by their number.
+     *
+     * @param items Items to be written.
+     * @throws IOException If an item could not be encoded.
+     */
+    public void writeItems(Collection<?> items) throws IOException {
+        writeLength(items.size());
+        for (Object item : items) {
+            writeValue(item);
+        }
+    }
+
+    /**
+     * Writes the specified map entries, preceded by their number.
+     *
+     * @param entries Map entries to be written.
+     * @throws IOException If a key or a value could not be encoded.
+     */
+    public void writeEntries(Map<?, ?> entries) throws IOException {
+        writeLength(entries.size());
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            writeValue(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    /**
+     * Writes all the data encoded so far to the specified channel.
+     * <p>
+     * If the encoder was given a buffer, the data written is the content of the buffer up to its position.
+     *
+     * @param channel Channel to write the data to.
+     * @throws IOException If the data could not be written.
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer data = (ByteBuffer) buffer.duplicate().flip();
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    /**
+     * Gets a copy of all the data encoded so far.
+     * <p>
+     * If the encoder was given a buffer, the data is the content of the buffer up to its position.
+     *
+     * @return Encoded data.
+     */
+    public byte[] toByteArray() {
+        ByteBuffer data = (ByteBuffer) buffer.duplicate().flip();
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Makes sure the buffer can hold the specified number of additional bytes.
+     *
+     * @param count Number of bytes about to be written.
+     */
+    private void ensureRemaining(int count) {
+        if (growable && (buffer.remaining() < count)) {
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + count);
+            ByteBuffer newBuffer = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+    }
+}
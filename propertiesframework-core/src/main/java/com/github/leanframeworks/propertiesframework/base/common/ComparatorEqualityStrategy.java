@@ -0,0 +1,71 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.common;
+
+import com.github.leanframeworks.propertiesframework.api.common.EqualityStrategy;
+import com.github.leanframeworks.propertiesframework.base.utils.ValueUtils;
+
+import java.util.Comparator;
+
+/**
+ * Equality strategy comparing values using a {@link Comparator}.
+ * <p>
+ * Two null values will be considered equal. A null value will never be considered equal to a non-null value.
+ * <p>
+ * This can be used, for instance, to compare {@link java.math.BigDecimal}s regardless of their scale, or strings
+ * regardless of their case.
+ *
+ * @param <T> Type of values to be compared.
+ * @see ValueUtils#areEqual(Object, Object, Comparator)
+ */
+public class ComparatorEqualityStrategy<T> implements EqualityStrategy<T> {
+
+    /**
+     * Comparator to be used to compare non-null values.
+     */
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Constructor specifying the comparator to be used.
+     *
+     * @param comparator Comparator to be used to compare non-null values.
+     */
+    public ComparatorEqualityStrategy(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * @see EqualityStrategy#areEqual(Object, Object)
+     */
+    @Override
+    public boolean areEqual(T value1, T value2) {
+        return ValueUtils.areEqual(value1, value2, comparator);
+    }
+}
@@ -0,0 +1,86 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.common;
+
+import com.github.leanframeworks.propertiesframework.api.common.EqualityStrategy;
+
+/**
+ * Equality strategy considering two numbers equal if they differ by at most a specific tolerance.
+ * <p>
+ * The numbers are compared using their double value. Two null values will be considered equal. Two NaN values will be
+ * considered equal.
+ */
+public class EpsilonEqualityStrategy implements EqualityStrategy<Number> {
+
+    /**
+     * Maximum difference between two numbers to be considered equal.
+     */
+    private final double epsilon;
+
+    /**
+     * Constructor specifying the tolerance.
+     *
+     * @param epsilon Maximum difference between two numbers to be considered equal.
+     */
+    public EpsilonEqualityStrategy(double epsilon) {
+        this.epsilon = Math.abs(epsilon);
+    }
+
+    /**
+     * Gets the tolerance.
+     *
+     * @return Maximum difference between two numbers to be considered equal.
+     */
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * @see EqualityStrategy#areEqual(Object, Object)
+     */
+    @Override
+    public boolean areEqual(Number value1, Number value2) {
+        boolean equal;
+
+        if ((value1 == null) || (value2 == null)) {
+            equal = (value1 == value2);
+        } else {
+            double double1 = value1.doubleValue();
+            double double2 = value2.doubleValue();
+            if (Double.isNaN(double1) || Double.isNaN(double2)) {
+                equal = Double.isNaN(double1) && Double.isNaN(double2);
+            } else {
+                equal = (double1 == double2) || (Math.abs(double1 - double2) <= epsilon);
+            }
+        }
+
+        return equal;
+    }
+}
@@ -0,0 +1,97 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.common;
+
+import com.github.leanframeworks.propertiesframework.api.common.EqualityStrategy;
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Equality strategy comparing the references and the versions of {@link Versioned} values.
+ * <p>
+ * Two values are considered equal if they are the same instance and if the version of this instance did not change
+ * since it was last compared. This makes it possible to notify the modifications of large mutable values (for instance,
+ * versioned collections modified in place and set again) without ever calling {@link Object#equals(Object)}. Different
+ * instances are always considered different.
+ * <p>
+ * Only the version of the last compared value is remembered, and the value itself is only weakly referenced. An
+ * instance that was not compared before is considered changed.
+ * <p>
+ * Note that this strategy is stateful and not thread-safe, so an instance should only be used by a single property.
+ *
+ * @param <T> Type of values to be compared.
+ */
+public class VersionedEqualityStrategy<T extends Versioned> implements StatefulEqualityStrategy<T> {
+
+    /**
+     * Last compared value, or null if none.
+     */
+    private WeakReference<T> lastValue = null;
+
+    /**
+     * Version of {@link #lastValue} when it was last compared.
+     */
+    private long lastVersion = 0;
+
+    /**
+     * @see EqualityStrategy#areEqual(Object, Object)
+     */
+    @Override
+    public boolean areEqual(T value1, T value2) {
+        boolean equal;
+
+        if ((value1 == null) || (value1 != value2)) {
+            equal = (value1 == value2);
+        } else {
+            equal = (lastValue != null) && (lastValue.get() == value1) && (lastVersion == value1.getVersion());
+        }
+
+        // The second value is typically the new value of the property, to be compared with the next one
+        if (value2 == null) {
+            lastValue = null;
+        } else {
+            if ((lastValue == null) || (lastValue.get() != value2)) {
+                lastValue = new WeakReference<>(value2);
+            }
+            lastVersion = value2.getVersion();
+        }
+
+        return equal;
+    }
+
+    /**
+     * @see StatefulEqualityStrategy#newInstance()
+     */
+    @Override
+    public VersionedEqualityStrategy<T> newInstance() {
+        return new VersionedEqualityStrategy<>();
+    }
+}
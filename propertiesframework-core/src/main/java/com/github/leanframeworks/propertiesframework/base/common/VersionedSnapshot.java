@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.common;
+
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of the versions of several {@link Versioned} entities, typically properties.
+ * <p>
+ * It can be used to cheaply find out whether any of the entities changed since the snapshot was taken, by only
+ * comparing version numbers, and without comparing the values themselves. This is useful, for instance, for dirty
+ * checking, for memoization, or for optimistic reads of several properties from another thread:
+ * <pre>
+ * VersionedSnapshot snapshot = new VersionedSnapshot(p1, p2);
+ * do {
+ *     snapshot.update();
+ *     v1 = p1.getValue();
+ *     v2 = p2.getValue();
+ * } while (snapshot.hasChanged());
+ * </pre>
+ * Note that this class is not thread-safe: a snapshot should not be shared between threads.
+ */
+public class VersionedSnapshot {
+
+    /**
+     * Entities whose versions are captured.
+     */
+    private final Versioned[] sources;
+
+    /**
+     * Versions of the entities when the snapshot was last updated.
+     */
+    private final long[] versions;
+
+    /**
+     * Constructor specifying the entities whose versions are to be captured.
+     * <p>
+     * The versions are captured immediately.
+     *
+     * @param sources Entities whose versions are to be captured.
+     */
+    public VersionedSnapshot(Versioned... sources) {
+        this.sources = sources.clone();
+        this.versions = new long[sources.length];
+        update();
+    }
+
+    /**
+     * Constructor specifying the entities whose versions are to be captured.
+     * <p>
+     * The versions are captured immediately.
+     *
+     * @param sources Entities whose versions are to be captured.
+     */
+    public VersionedSnapshot(Collection<? extends Versioned> sources) {
+        this(sources.toArray(new Versioned[sources.size()]));
+    }
+
+    /**
+     * Gets the entities whose versions are captured.
+     *
+     * @return Unmodifiable list of entities.
+     */
+    public List<Versioned> getSources() {
+        return Collections.unmodifiableList(Arrays.asList(sources));
+    }
+
+    /**
+     * Captures the current versions of all the entities.
+     */
+    public void update() {
+        for (int i = 0; i < sources.length; i++) {
+            versions[i] = sources[i].getVersion();
+        }
+    }
+
+    /**
+     * States whether any of the entities changed since the snapshot was last updated.
+     *
+     * @return True if at least one entity changed, false otherwise.
+     */
+    public boolean hasChanged() {
+        boolean changed = false;
+        for (int i = 0; (i < sources.length) && !changed; i++) {
+            changed = (versions[i] != sources[i].getVersion());
+        }
+        return changed;
+    }
+
+    /**
+     * States whether the entity at the specified index changed since the snapshot was last updated.
+     *
+     * @param index Index of the entity.
+     * @return True if the entity changed, false otherwise.
+     */
+    public boolean hasChanged(int index) {
+        return versions[index] != sources[index].getVersion();
+    }
+
+    /**
+     * Gets the version of the entity at the specified index, as captured when the snapshot was last updated.
+     *
+     * @param index Index of the entity.
+     * @return Captured version of the entity.
+     */
+    public long getVersion(int index) {
+        return versions[index];
+    }
+
+    /**
+     * Gets a copy of the versions of all the entities, as captured when the snapshot was last updated.
+     * <p>
+     * This can be used, for instance, as a memoization key.
+     *
+     * @return Captured versions of the entities, in the same order as the entities.
+     */
+    public long[] getVersions() {
+        return versions.clone();
+    }
+}
@@ -0,0 +1,635 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.expression;
+
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.utils.ValueUtils;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed expression over properties, that can be compiled into a single derived property.
+ * <p>
+ * Expressions are immutable trees built using the factory methods of {@link Expressions} or by parsing a text. They
+ * are only evaluated once compiled by {@link #toProperty()}: the whole tree is then turned into a single flat
+ * function reading the current values of the input properties from an array, so that the resulting property only
+ * needs one listener per input property and no intermediate property, wrapper or aggregator.
+ * <p>
+ * The following conversions apply during evaluation:
+ * <ul>
+ * <li>in boolean operations, a value is true if and only if it is {@link Boolean#TRUE};</li>
+ * <li>in comparisons and arithmetic operations, numbers are compared and computed as doubles, and a null or non-number
+ * operand makes comparisons false and arithmetic operations null;</li>
+ * <li>equality compares numbers by value whatever their type, and other values using {@link Object#equals(Object)}.
+ * </li>
+ * </ul>
+ *
+ * @param <T> Type of value of the expression.
+ * @see Expressions
+ */
+public abstract class Expression<T> {
+
+    /**
+     * Constructor restricted to the expressions of this package.
+     */
+    Expression() {
+        // Nothing to be done
+    }
+
+    /**
+     * Compiles the expression into a single property, subscribing directly to all the properties of the expression.
+     *
+     * @return Derived property holding the value of the expression.
+     */
+    public ExpressionProperty<T> toProperty() {
+        return new ExpressionProperty<>(this);
+    }
+
+    /**
+     * Compiles this node of the expression.
+     *
+     * @param slots Slots of the input properties, to be completed with the properties of this node.
+     * @return Function evaluating this node.
+     */
+    abstract Evaluator compile(Slots slots);
+
+    /**
+     * States whether this node always evaluates to a {@link Boolean}.
+     *
+     * @return True if the node is boolean, false otherwise.
+     */
+    boolean isBoolean() {
+        return false;
+    }
+
+    /**
+     * States whether the specified value is true.
+     *
+     * @param value Value.
+     * @return True if the value is {@link Boolean#TRUE}, false otherwise.
+     */
+    static boolean isTrue(Object value) {
+        return Boolean.TRUE.equals(value);
+    }
+
+    /**
+     * Compiled function of a node of an expression.
+     */
+    interface Evaluator {
+
+        /**
+         * Evaluates the node.
+         *
+         * @param inputs Current values of the input properties, by slot.
+         * @return Value of the node.
+         */
+        Object evaluate(Object[] inputs);
+    }
+
+    /**
+     * Assignment of array slots to the input properties of an expression.
+     */
+    static final class Slots {
+
+        /**
+         * Input properties, by slot.
+         */
+        private final List<ReadableProperty<?>> properties = new ArrayList<>();
+
+        /**
+         * Slots of the input properties.
+         */
+        private final Map<ReadableProperty<?>, Integer> indices = new IdentityHashMap<>();
+
+        /**
+         * Gets the slot of the specified property, assigning a new one if needed.
+         *
+         * @param property Input property.
+         * @return Slot of the property.
+         */
+        int slotOf(ReadableProperty<?> property) {
+            Integer index = indices.get(property);
+            if (index == null) {
+                index = properties.size();
+                properties.add(property);
+                indices.put(property, index);
+            }
+            return index;
+        }
+
+        /**
+         * Gets the input properties, by slot.
+         *
+         * @return Input properties.
+         */
+        List<ReadableProperty<?>> getProperties() {
+            return properties;
+        }
+    }
+
+    /**
+     * Constant value.
+     *
+     * @param <T> Type of value.
+     */
+    static final class Constant<T> extends Expression<T> {
+
+        /**
+         * Constant value.
+         */
+        private final T value;
+
+        /**
+         * Constructor.
+         *
+         * @param value Constant value.
+         */
+        Constant(T value) {
+            this.value = value;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Evaluator compile(Slots slots) {
+            return inputs -> value;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isBoolean() {
+            return value instanceof Boolean;
+        }
+    }
+
+    /**
+     * Value of an input property.
+     *
+     * @param <T> Type of value.
+     */
+    static final class Variable<T> extends Expression<T> {
+
+        /**
+         * Input property.
+         */
+        private final ReadableProperty<? extends T> property;
+
+        /**
+         * Constructor.
+         *
+         * @param property Input property.
+         */
+        Variable(ReadableProperty<? extends T> property) {
+            this.property = property;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Evaluator compile(Slots slots) {
+            int slot = slots.slotOf(property);
+            return inputs -> inputs[slot];
+        }
+    }
+
+    /**
+     * Boolean conversion of any expression.
+     */
+    static final class ToBoolean extends Expression<Boolean> {
+
+        /**
+         * Converted expression.
+         */
+        private final Expression<?> operand;
+
+        /**
+         * Constructor.
+         *
+         * @param operand Converted expression.
+         */
+        ToBoolean(Expression<?> operand) {
+            this.operand = operand;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Evaluator compile(Slots slots) {
+            Evaluator evaluator = operand.compile(slots);
+            return inputs -> isTrue(evaluator.evaluate(inputs));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isBoolean() {
+            return true;
+        }
+    }
+
+    /**
+     * Boolean negation.
+     */
+    static final class Not extends Expression<Boolean> {
+
+        /**
+         * Negated expression.
+         */
+        private final Expression<?> operand;
+
+        /**
+         * Constructor.
+         *
+         * @param operand Negated expression.
+         */
+        Not(Expression<?> operand) {
+            this.operand = operand;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Evaluator compile(Slots slots) {
+            Evaluator evaluator = operand.compile(slots);
+            return inputs -> !isTrue(evaluator.evaluate(inputs));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isBoolean() {
+            return true;
+        }
+    }
+
+    /**
+     * Short-circuit conjunction or disjunction of any number of operands.
+     */
+    static final class Junction extends Expression<Boolean> {
+
+        /**
+         * True for a conjunction, false for a disjunction.
+         */
+        private final boolean conjunction;
+
+        /**
+         * Operands, nested junctions of the same kind being flattened.
+         */
+        private final List<Expression<?>> operands = new ArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param conjunction True for a conjunction, false for a disjunction.
+         * @param operands    Operands.
+         */
+        Junction(boolean conjunction, List<? extends Expression<?>> operands) {
+            this.conjunction = conjunction;
+            for (Expression<?> operand : operands) {
+                if ((operand instanceof Junction) && (((Junction) operand).conjunction == conjunction)) {
+                    this.operands.addAll(((Junction) operand).operands);
+                } else {
+                    this.operands.add(operand);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * If all the operands are input properties, possibly negated, which is the most common case for enablement
+         * rules, the junction is compiled into a single loop over their slots.
+         */
+        @Override
+        Evaluator compile(Slots slots) {
+            // Value of an operand that determines the result without evaluating the next operands
+            boolean decisive = !conjunction;
+            Boolean decisiveResult = decisive;
+            Boolean defaultResult = !decisive;
+
+            int[] operandSlots = new int[operands.size()];
+            boolean[] negated = new boolean[operands.size()];
+            boolean flat = true;
+            for (int i = 0; (i < operandSlots.length) && flat; i++) {
+                Expression<?> operand = operands.get(i);
+                if ((operand instanceof Not) && (((Not) operand).operand instanceof Variable)) {
+                    negated[i] = true;
+                    operand = ((Not) operand).operand;
+                }
+                if (operand instanceof Variable) {
+                    operandSlots[i] = slots.slotOf(((Variable<?>) operand).property);
+                } else {
+                    flat = false;
+                }
+            }
+
+            Evaluator evaluator;
+            if (flat) {
+                evaluator = inputs -> {
+                    for (int i = 0; i < operandSlots.length; i++) {
+                        if ((isTrue(inputs[operandSlots[i]]) != negated[i]) == decisive) {
+                            return decisiveResult;
+                        }
+                    }
+                    return defaultResult;
+                };
+            } else {
+                Evaluator[] evaluators = new Evaluator[operands.size()];
+                for (int i = 0; i < evaluators.length; i++) {
+                    evaluators[i] = operands.get(i).compile(slots);
+                }
+                evaluator = inputs -> {
+                    for (Evaluator operandEvaluator : evaluators) {
+                        if (isTrue(operandEvaluator.evaluate(inputs)) == decisive) {
+                            return decisiveResult;
+                        }
+                    }
+                    return defaultResult;
+                };
+            }
+            return evaluator;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isBoolean() {
+            return true;
+        }
+    }
+
+    /**
+     * Equality or inequality of two operands.
+     */
+    static final class Equality extends Expression<Boolean> {
+
+        /**
+         * True for equality, false for inequality.
+         */
+        private final boolean equal;
+
+        /**
+         * Left operand.
+         */
+        private final Expression<?> left;
+
+        /**
+         * Right operand.
+         */
+        private final Expression<?> right;
+
+        /**
+         * Constructor.
+         *
+         * @param equal True for equality, false for inequality.
+         * @param left  Left operand.
+         * @param right Right operand.
+         */
+        Equality(boolean equal, Expression<?> left, Expression<?> right) {
+            this.equal = equal;
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+         * States whether the specified values are equal, comparing numbers by value.
+         *
+         * @param value1 First value.
+         * @param value2 Second value.
+         * @return True if the values are equal, false otherwise.
+         */
+        private static boolean areEqual(Object value1, Object value2) {
+            boolean result;
+            if ((value1 instanceof Number) && (value2 instanceof Number)) {
+                result = ((Number) value1).doubleValue() == ((Number) value2).doubleValue();
+            } else {
+                result = ValueUtils.areEqual(value1, value2);
+            }
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Evaluator compile(Slots slots) {
+            Evaluator leftEvaluator = left.compile(slots);
+            Evaluator rightEvaluator = right.compile(slots);
+            return inputs -> areEqual(leftEvaluator.evaluate(inputs), rightEvaluator.evaluate(inputs)) == equal;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isBoolean() {
+            return true;
+        }
+    }
+
+    /**
+     * Numeric comparison of two operands.
+     */
+    static final class Comparison extends Expression<Boolean> {
+
+        /**
+         * Comparison operator: one of {@code <}, {@code <=}, {@code >} and {@code >=}.
+         */
+        private final String operator;
+
+        /**
+         * Left operand.
+         */
+        private final Expression<?> left;
+
+        /**
+         * Right operand.
+         */
+        private final Expression<?> right;
+
+        /**
+         * Constructor.
+         *
+         * @param operator Comparison operator: one of {@code <}, {@code <=}, {@code >} and {@code >=}.
+         * @param left     Left operand.
+         * @param right    Right operand.
+         */
+        Comparison(String operator, Expression<?> left, Expression<?> right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Evaluator compile(Slots slots) {
+            Evaluator leftEvaluator = left.compile(slots);
+            Evaluator rightEvaluator = right.compile(slots);
+            Evaluator evaluator;
+            switch (operator) {
+                case "<":
+                    evaluator = inputs -> compare(leftEvaluator.evaluate(inputs), rightEvaluator.evaluate(inputs))
+                            < 0;
+                    break;
+                case "<=":
+                    evaluator = inputs -> compare(leftEvaluator.evaluate(inputs), rightEvaluator.evaluate(inputs))
+                            <= 0;
+                    break;
+                case ">":
+                    evaluator = inputs -> compare(leftEvaluator.evaluate(inputs), rightEvaluator.evaluate(inputs))
+                            == 1;
+                    break;
+                case ">=":
+                    evaluator = inputs -> {
+                        int result = compare(leftEvaluator.evaluate(inputs), rightEvaluator.evaluate(inputs));
+                        return (result == 0) || (result == 1);
+                    };
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported comparison operator: " + operator);
+            }
+            return evaluator;
+        }
+
+        /**
+         * Compares the specified values as doubles.
+         *
+         * @param value1 First value.
+         * @param value2 Second value.
+         * @return -1, 0 or 1 if the first value is less than, equal to or greater than the second one, or 2 if they
+         * cannot be compared.
+         */
+        private static int compare(Object value1, Object value2) {
+            int result = 2;
+            if ((value1 instanceof Number) && (value2 instanceof Number)) {
+                double double1 = ((Number) value1).doubleValue();
+                double double2 = ((Number) value2).doubleValue();
+                if (double1 < double2) {
+                    result = -1;
+                } else if (double1 > double2) {
+                    result = 1;
+                } else if (double1 == double2) {
+                    result = 0;
+                }
+                // Otherwise, NaN is not comparable
+            }
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isBoolean() {
+            return true;
+        }
+    }
+
+    /**
+     * Arithmetic operation on two operands, or negation of a single operand.
+     */
+    static final class Arithmetic extends Expression<Double> {
+
+        /**
+         * Arithmetic operator: one of {@code +}, {@code -}, {@code *} and {@code /}.
+         */
+        private final char operator;
+
+        /**
+         * Left operand, or null for a negation.
+         */
+        private final Expression<?> left;
+
+        /**
+         * Right operand.
+         */
+        private final Expression<?> right;
+
+        /**
+         * Constructor.
+         *
+         * @param operator Arithmetic operator: one of {@code +}, {@code -}, {@code *} and {@code /}.
+         * @param left     Left operand, or null for a negation.
+         * @param right    Right operand.
+         */
+        Arithmetic(char operator, Expression<?> left, Expression<?> right) {
+            this.operator = operator;
+            this.left = (left == null) ? new Constant<>(0.0) : left;
+            this.right = right;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Evaluator compile(Slots slots) {
+            Evaluator leftEvaluator = left.compile(slots);
+            Evaluator rightEvaluator = right.compile(slots);
+            return inputs -> {
+                Object value1 = leftEvaluator.evaluate(inputs);
+                Object value2 = rightEvaluator.evaluate(inputs);
+                Double result = null;
+                if ((value1 instanceof Number) && (value2 instanceof Number)) {
+                    double double1 = ((Number) value1).doubleValue();
+                    double double2 = ((Number) value2).doubleValue();
+                    switch (operator) {
+                        case '+':
+                            result = double1 + double2;
+                            break;
+                        case '-':
+                            result = double1 - double2;
+                            break;
+                        case '*':
+                            result = double1 * double2;
+                            break;
+                        default:
+                            result = double1 / double2;
+                            break;
+                    }
+                }
+                return result;
+            };
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.expression;
+
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Recursive descent parser of the expression language described in {@link Expressions#parse(String, Function)}.
+ */
+final class ExpressionParser {
+
+    /**
+     * Parsed expression text.
+     */
+    private final String text;
+
+    /**
+     * Resolver of the property names.
+     */
+    private final Function<? super String, ? extends ReadableProperty<?>> resolver;
+
+    /**
+     * Current position in the text.
+     */
+    private int position = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param text     Expression text to be parsed.
+     * @param resolver Resolver of the property names.
+     */
+    ExpressionParser(String text, Function<? super String, ? extends ReadableProperty<?>> resolver) {
+        this.text = text;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Parses the whole text.
+     *
+     * @return Parsed expression.
+     * @throws ExpressionSyntaxException If the text is not a valid expression.
+     */
+    Expression<?> parse() {
+        Expression<?> expression = parseOr();
+        skipWhitespaces();
+        if (position < text.length()) {
+            throw error("Unexpected character '" + text.charAt(position) + "'");
+        }
+        return expression;
+    }
+
+    /**
+     * Parses a disjunction: {@code and ('||' and)*}.
+     *
+     * @return Parsed expression.
+     */
+    private Expression<?> parseOr() {
+        Expression<?> first = parseAnd();
+        if (!lookingAt("||")) {
+            return first;
+        }
+        List<Expression<?>> operands = new ArrayList<>();
+        operands.add(first);
+        while (accept("||")) {
+            operands.add(parseAnd());
+        }
+        return new Expression.Junction(false, operands);
+    }
+
+    /**
+     * Parses a conjunction: {@code equality ('&&' equality)*}.
+     *
+     * @return Parsed expression.
+     */
+    private Expression<?> parseAnd() {
+        Expression<?> first = parseEquality();
+        if (!lookingAt("&&")) {
+            return first;
+        }
+        List<Expression<?>> operands = new ArrayList<>();
+        operands.add(first);
+        while (accept("&&")) {
+            operands.add(parseEquality());
+        }
+        return new Expression.Junction(true, operands);
+    }
+
+    /**
+     * Parses an equality: {@code relational (('==' | '!=') relational)*}.
+     *
+     * @return Parsed expression.
+     */
+    private Expression<?> parseEquality() {
+        Expression<?> expression = parseRelational();
+        while (true) {
+            if (accept("==")) {
+                expression = new Expression.Equality(true, expression, parseRelational());
+            } else if (accept("!=")) {
+                expression = new Expression.Equality(false, expression, parseRelational());
+            } else {
+                return expression;
+            }
+        }
+    }
+
+    /**
+     * Parses a comparison: {@code additive (('<=' | '<' | '>=' | '>') additive)?}.
+     *
+     * @return Parsed expression.
+     */
+    private Expression<?> parseRelational() {
+        Expression<?> expression = parseAdditive();
+        for (String operator : new String[]{"<=", ">=", "<", ">"}) {
+            if (accept(operator)) {
+                return new Expression.Comparison(operator, expression, parseAdditive());
+            }
+        }
+        return expression;
+    }
+
+    /**
+     * Parses an addition or subtraction: {@code multiplicative (('+' | '-') multiplicative)*}.
+     *
+     * @return Parsed expression.
+     */
+    private Expression<?> parseAdditive() {
+        Expression<?> expression = parseMultiplicative();
+        while (true) {
+            if (accept("+")) {
+                expression = new Expression.Arithmetic('+', expression, parseMultiplicative());
+            } else if (accept("-")) {
+                expression = new Expression.Arithmetic('-', expression, parseMultiplicative());
+            } else {
+                return expression;
+            }
+        }
+    }
+
+    /**
+     * Parses a multiplication or division: {@code unary (('*' | '/') unary)*}.
+     *
+     * @return Parsed expression.
+     */
+    private Expression<?> parseMultiplicative() {
+        Expression<?> expression = parseUnary();
+        while (true) {
+            if (accept("*")) {
+                expression = new Expression.Arithmetic('*', expression, parseUnary());
+            } else if (accept("/")) {
+                expression = new Expression.Arithmetic('/', expression, parseUnary());
+            } else {
+                return expression;
+            }
+        }
+    }
+
+    /**
+     * Parses a negation: {@code ('!' | '-') unary | primary}.
+     *
+     * @return Parsed expression.
+     */
+    private Expression<?> parseUnary() {
+        Expression<?> expression;
+        if (lookingAt("!") && !lookingAt("!=")) {
+            accept("!");
+            expression = new Expression.Not(parseUnary());
+        } else if (accept("-")) {
+            expression = new Expression.Arithmetic('-', null, parseUnary());
+        } else {
+            expression = parsePrimary();
+        }
+        return expression;
+    }
+
+    /**
+     * Parses a literal, a property name or a parenthesized expression.
+     *
+     * @return Parsed expression.
+     */
+    private Expression<?> parsePrimary() {
+        skipWhitespaces();
+        if (position >= text.length()) {
+            throw error("Unexpected end of expression");
+        }
+
+        Expression<?> expression;
+        char c = text.charAt(position);
+        if (c == '(') {
+            position++;
+            expression = parseOr();
+            if (!accept(")")) {
+                throw error("Missing ')'");
+            }
+        } else if (c == '\'') {
+            int end = text.indexOf('\'', position + 1);
+            if (end < 0) {
+                throw error("Unterminated string");
+            }
+            expression = new Expression.Constant<>(text.substring(position + 1, end));
+            position = end + 1;
+        } else if (Character.isDigit(c) || (c == '.')) {
+            int start = position;
+            while ((position < text.length()) && (Character.isDigit(text.charAt(position)) || (text.charAt
+                    (position) == '.'))) {
+                position++;
+            }
+            try {
+                expression = new Expression.Constant<>(Double.valueOf(text.substring(start, position)));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("Invalid number");
+            }
+        } else if (Character.isJavaIdentifierStart(c)) {
+            int start = position;
+            while ((position < text.length()) && (Character.isJavaIdentifierPart(text.charAt(position)) || (text
+                    .charAt(position) == '.'))) {
+                position++;
+            }
+            expression = resolveIdentifier(text.substring(start, position), start);
+        } else {
+            throw error("Unexpected character '" + c + "'");
+        }
+        return expression;
+    }
+
+    /**
+     * Resolves the specified identifier into a literal or a property.
+     *
+     * @param identifier Identifier.
+     * @param start      Position of the identifier in the text.
+     * @return Resolved expression.
+     */
+    private Expression<?> resolveIdentifier(String identifier, int start) {
+        Expression<?> expression;
+        switch (identifier) {
+            case "true":
+                expression = new Expression.Constant<>(Boolean.TRUE);
+                break;
+            case "false":
+                expression = new Expression.Constant<>(Boolean.FALSE);
+                break;
+            case "null":
+                expression = new Expression.Constant<>(null);
+                break;
+            default:
+                ReadableProperty<?> property = resolver.apply(identifier);
+                if (property == null) {
+                    position = start;
+                    throw error("Unknown property '" + identifier + "'");
+                }
+                expression = new Expression.Variable<>(property);
+                break;
+        }
+        return expression;
+    }
+
+    /**
+     * Skips the whitespaces at the current position.
+     */
+    private void skipWhitespaces() {
+        while ((position < text.length()) && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * States whether the specified token is at the current position, after whitespaces.
+     *
+     * @param token Expected token.
+     * @return True if the token is found, false otherwise.
+     */
+    private boolean lookingAt(String token) {
+        skipWhitespaces();
+        return text.startsWith(token, position);
+    }
+
+    /**
+     * Consumes the specified token if it is at the current position, after whitespaces.
+     *
+     * @param token Expected token.
+     * @return True if the token has been consumed, false otherwise.
+     */
+    private boolean accept(String token) {
+        boolean found = lookingAt(token);
+        if (found) {
+            position += token.length();
+        }
+        return found;
+    }
+
+    /**
+     * Creates a syntax error at the current position.
+     *
+     * @param message Description of the error.
+     * @return Syntax error.
+     */
+    private ExpressionSyntaxException error(String message) {
+        return new ExpressionSyntaxException(message, text, position);
+    }
+}
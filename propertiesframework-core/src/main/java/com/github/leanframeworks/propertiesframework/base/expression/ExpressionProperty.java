@@ -0,0 +1,215 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.expression;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerOwner;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableProperty;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only property holding the value of a compiled {@link Expression}.
+ * <p>
+ * The property subscribes directly to the input properties of the expression, keeps their current values in an array,
+ * and re-evaluates the compiled expression whenever one of them changes. The listeners are notified only if the value
+ * of the expression actually changes.
+ * <p>
+ * Disposing this property removes its listeners from the input properties, but does not dispose them.
+ *
+ * @param <T> Type of value of the expression.
+ * @see Expression#toProperty()
+ * @see Expressions
+ */
+public class ExpressionProperty<T> extends AbstractReadableProperty<T> implements Disposable, GraphNode {
+
+    /**
+     * Input properties, by slot.
+     */
+    private final ReadableProperty<?>[] inputs;
+
+    /**
+     * Listeners to the input properties, by slot.
+     */
+    private final InputAdapter[] inputAdapters;
+
+    /**
+     * Current values of the input properties, by slot.
+     */
+    private final Object[] inputValues;
+
+    /**
+     * Compiled expression.
+     */
+    private final Expression.Evaluator evaluator;
+
+    /**
+     * Current value of the expression.
+     */
+    private T value;
+
+    /**
+     * Flag indicating whether the property has been disposed.
+     */
+    private boolean disposed = false;
+
+    /**
+     * Constructor compiling the specified expression.
+     *
+     * @param expression Expression to be compiled.
+     */
+    @SuppressWarnings("unchecked")
+    ExpressionProperty(Expression<T> expression) {
+        super();
+        Expression.Slots slots = new Expression.Slots();
+        evaluator = expression.compile(slots);
+        inputs = slots.getProperties().toArray(new ReadableProperty<?>[0]);
+        inputAdapters = new InputAdapter[inputs.length];
+        inputValues = new Object[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            inputValues[i] = inputs[i].getValue();
+            inputAdapters[i] = new InputAdapter(this, i);
+            ((ReadableProperty<Object>) inputs[i]).addChangeListener(inputAdapters[i]);
+        }
+        value = (T) evaluator.evaluate(inputValues);
+    }
+
+    /**
+     * Gets the input properties of the expression.
+     *
+     * @return Unmodifiable list of input properties.
+     */
+    public List<ReadableProperty<?>> getInputs() {
+        return Collections.unmodifiableList(Arrays.asList(inputs));
+    }
+
+    /**
+     * @see AbstractReadableProperty#getValue()
+     */
+    @Override
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Re-evaluates the expression after a change of an input property.
+     *
+     * @param slot     Slot of the changed input property.
+     * @param newValue New value of the input property.
+     */
+    @SuppressWarnings("unchecked")
+    private void inputChanged(int slot, Object newValue) {
+        inputValues[slot] = newValue;
+        T oldValue = value;
+        value = (T) evaluator.evaluate(inputValues);
+        maybeNotifyListeners(oldValue, value);
+    }
+
+    /**
+     * @see AbstractReadableProperty#dispose()
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (!disposed) {
+            disposed = true;
+            for (int i = 0; i < inputs.length; i++) {
+                ((ReadableProperty<Object>) inputs[i]).removeChangeListener(inputAdapters[i]);
+            }
+        }
+    }
+
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return disposed ? Collections.emptyList() : getInputs();
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Listener to changes of the value of an input property.
+     */
+    private static final class InputAdapter implements PropertyChangeListener<Object>, ListenerOwner {
+
+        /**
+         * Expression property to be re-evaluated.
+         */
+        private final ExpressionProperty<?> owner;
+
+        /**
+         * Slot of the input property.
+         */
+        private final int slot;
+
+        /**
+         * Constructor.
+         *
+         * @param owner Expression property to be re-evaluated.
+         * @param slot  Slot of the input property.
+         */
+        InputAdapter(ExpressionProperty<?> owner, int slot) {
+            this.owner = owner;
+            this.slot = slot;
+        }
+
+        /**
+         * @see ListenerOwner#getListenerOwner()
+         */
+        @Override
+        public Object getListenerOwner() {
+            return owner;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void propertyChanged(PropertyChange<?> e) {
+            owner.inputChanged(slot, e.getNewValue());
+        }
+    }
+}
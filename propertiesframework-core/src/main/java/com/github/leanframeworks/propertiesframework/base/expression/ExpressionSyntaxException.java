@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.expression;
+
+/**
+ * Exception thrown when an expression text cannot be parsed.
+ */
+public class ExpressionSyntaxException extends IllegalArgumentException {
+
+    /**
+     * Generated serial UID.
+     */
+    private static final long serialVersionUID = -3921547095213457412L;
+
+    /**
+     * Parsed expression text.
+     */
+    private final String expression;
+
+    /**
+     * Position of the error in the expression text.
+     */
+    private final int position;
+
+    /**
+     * Constructor.
+     *
+     * @param message    Description of the error.
+     * @param expression Parsed expression text.
+     * @param position   Position of the error in the expression text.
+     */
+    public ExpressionSyntaxException(String message, String expression, int position) {
+        super(message + " at position " + position + " in: " + expression);
+        this.expression = expression;
+        this.position = position;
+    }
+
+    /**
+     * Gets the parsed expression text.
+     *
+     * @return Expression text.
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Gets the position of the error in the expression text.
+     *
+     * @return Position of the error.
+     */
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,279 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.expression;
+
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Factory methods to create {@link Expression}s, either as typed trees or by parsing a text.
+ * <p>
+ * For instance, the following property is true when the form is dirty and valid and no task is running:
+ * <pre>
+ * ExpressionProperty&lt;Boolean&gt; canSave = Expressions.and(
+ *         Expressions.property(dirty),
+ *         Expressions.property(valid),
+ *         Expressions.not(Expressions.property(busy))).toProperty();
+ * </pre>
+ * which can also be written:
+ * <pre>
+ * Map&lt;String, ReadableProperty&lt;?&gt;&gt; variables = new HashMap&lt;&gt;();
+ * variables.put("dirty", dirty);
+ * variables.put("valid", valid);
+ * variables.put("busy", busy);
+ * ExpressionProperty&lt;Boolean&gt; canSave = Expressions.parseBoolean("dirty &amp;&amp; valid &amp;&amp; !busy",
+ *         variables).toProperty();
+ * </pre>
+ *
+ * @see Expression
+ * @see ExpressionProperty
+ */
+public final class Expressions {
+
+    /**
+     * Private constructor for utility class.
+     */
+    private Expressions() {
+        // Nothing to be done
+    }
+
+    /**
+     * Creates an expression reading the value of the specified property.
+     *
+     * @param property Property to be read.
+     * @param <T>      Type of value of the property.
+     * @return Expression.
+     */
+    public static <T> Expression<T> property(ReadableProperty<? extends T> property) {
+        if (property == null) {
+            throw new IllegalArgumentException("Property cannot be null");
+        }
+        return new Expression.Variable<>(property);
+    }
+
+    /**
+     * Creates an expression always having the specified value.
+     *
+     * @param value Value of the expression.
+     * @param <T>   Type of value.
+     * @return Expression.
+     */
+    public static <T> Expression<T> constant(T value) {
+        return new Expression.Constant<>(value);
+    }
+
+    /**
+     * Creates an expression negating the specified boolean expression.
+     *
+     * @param operand Expression to be negated.
+     * @return Expression.
+     */
+    public static Expression<Boolean> not(Expression<Boolean> operand) {
+        return new Expression.Not(operand);
+    }
+
+    /**
+     * Creates an expression that is true if and only if all the specified expressions are true.
+     *
+     * @param operands Boolean expressions.
+     * @return Expression.
+     */
+    @SafeVarargs
+    public static Expression<Boolean> and(Expression<Boolean>... operands) {
+        return new Expression.Junction(true, Arrays.asList(operands));
+    }
+
+    /**
+     * Creates an expression that is true if and only if at least one of the specified expressions is true.
+     *
+     * @param operands Boolean expressions.
+     * @return Expression.
+     */
+    @SafeVarargs
+    public static Expression<Boolean> or(Expression<Boolean>... operands) {
+        return new Expression.Junction(false, Arrays.asList(operands));
+    }
+
+    /**
+     * Creates an expression that is true if and only if both specified expressions have equal values.
+     *
+     * @param left  First expression.
+     * @param right Second expression.
+     * @return Expression.
+     */
+    public static Expression<Boolean> equalTo(Expression<?> left, Expression<?> right) {
+        return new Expression.Equality(true, left, right);
+    }
+
+    /**
+     * Creates an expression that is true if and only if both specified expressions have different values.
+     *
+     * @param left  First expression.
+     * @param right Second expression.
+     * @return Expression.
+     */
+    public static Expression<Boolean> notEqualTo(Expression<?> left, Expression<?> right) {
+        return new Expression.Equality(false, left, right);
+    }
+
+    /**
+     * Creates an expression that is true if and only if the first number is less than the second one.
+     *
+     * @param left  First expression.
+     * @param right Second expression.
+     * @return Expression.
+     */
+    public static Expression<Boolean> lessThan(Expression<? extends Number> left, Expression<? extends Number> right) {
+        return new Expression.Comparison("<", left, right);
+    }
+
+    /**
+     * Creates an expression that is true if and only if the first number is less than or equal to the second one.
+     *
+     * @param left  First expression.
+     * @param right Second expression.
+     * @return Expression.
+     */
+    public static Expression<Boolean> lessThanOrEqualTo(Expression<? extends Number> left,
+                                                        Expression<? extends Number> right) {
+        return new Expression.Comparison("<=", left, right);
+    }
+
+    /**
+     * Creates an expression that is true if and only if the first number is greater than the second one.
+     *
+     * @param left  First expression.
+     * @param right Second expression.
+     * @return Expression.
+     */
+    public static Expression<Boolean> greaterThan(Expression<? extends Number> left,
+                                                  Expression<? extends Number> right) {
+        return new Expression.Comparison(">", left, right);
+    }
+
+    /**
+     * Creates an expression that is true if and only if the first number is greater than or equal to the second one.
+     *
+     * @param left  First expression.
+     * @param right Second expression.
+     * @return Expression.
+     */
+    public static Expression<Boolean> greaterThanOrEqualTo(Expression<? extends Number> left,
+                                                           Expression<? extends Number> right) {
+        return new Expression.Comparison(">=", left, right);
+    }
+
+    /**
+     * Parses the specified text into an expression, resolving the property names using the specified map.
+     *
+     * @param text      Expression text.
+     * @param variables Properties by name.
+     * @return Parsed expression.
+     * @throws ExpressionSyntaxException If the text is not a valid expression or refers to an unknown property.
+     * @see #parse(String, Function)
+     */
+    public static Expression<?> parse(String text, Map<String, ? extends ReadableProperty<?>> variables) {
+        return parse(text, variables::get);
+    }
+
+    /**
+     * Parses the specified text into an expression, resolving the property names using the specified function.
+     * <p>
+     * The supported syntax is the following, by increasing precedence:
+     * <ul>
+     * <li>disjunction: {@code a || b};</li>
+     * <li>conjunction: {@code a && b};</li>
+     * <li>equality: {@code a == b} and {@code a != b};</li>
+     * <li>comparison: {@code a < b}, {@code a <= b}, {@code a > b} and {@code a >= b};</li>
+     * <li>addition and subtraction: {@code a + b} and {@code a - b};</li>
+     * <li>multiplication and division: {@code a * b} and {@code a / b};</li>
+     * <li>negation: {@code !a} and {@code -a};</li>
+     * <li>parenthesized expressions, numbers (e.g. {@code 42} or {@code 0.5}), single-quoted strings (e.g.
+     * {@code 'text'}), {@code true}, {@code false}, {@code null} and property names (Java identifiers, possibly
+     * containing dots).</li>
+     * </ul>
+     *
+     * @param text     Expression text.
+     * @param resolver Function returning the property of a given name, or null if there is no such property.
+     * @return Parsed expression.
+     * @throws ExpressionSyntaxException If the text is not a valid expression or refers to an unknown property.
+     */
+    public static Expression<?> parse(String text, Function<? super String, ? extends ReadableProperty<?>> resolver) {
+        if (text == null) {
+            throw new IllegalArgumentException("Expression text cannot be null");
+        }
+        return new ExpressionParser(text, resolver).parse();
+    }
+
+    /**
+     * Parses the specified text into a boolean expression, resolving the property names using the specified map.
+     * <p>
+     * If the parsed expression is not a boolean operation, its value is considered true if and only if it is
+     * {@link Boolean#TRUE}.
+     *
+     * @param text      Expression text.
+     * @param variables Properties by name.
+     * @return Parsed expression.
+     * @throws ExpressionSyntaxException If the text is not a valid expression or refers to an unknown property.
+     * @see #parse(String, Function)
+     */
+    public static Expression<Boolean> parseBoolean(String text, Map<String, ? extends ReadableProperty<?>>
+            variables) {
+        return parseBoolean(text, variables::get);
+    }
+
+    /**
+     * Parses the specified text into a boolean expression, resolving the property names using the specified function.
+     * <p>
+     * If the parsed expression is not a boolean operation, its value is considered true if and only if it is
+     * {@link Boolean#TRUE}.
+     *
+     * @param text     Expression text.
+     * @param resolver Function returning the property of a given name, or null if there is no such property.
+     * @return Parsed expression.
+     * @throws ExpressionSyntaxException If the text is not a valid expression or refers to an unknown property.
+     * @see #parse(String, Function)
+     */
+    @SuppressWarnings("unchecked")
+    public static Expression<Boolean> parseBoolean(String text, Function<? super String, ? extends
+            ReadableProperty<?>> resolver) {
+        Expression<?> expression = parse(text, resolver);
+        Expression<Boolean> result;
+        if (expression.isBoolean()) {
+            result = (Expression<Boolean>) expression;
+        } else {
+            result = new Expression.ToBoolean(expression);
+        }
+        return result;
+    }
+}
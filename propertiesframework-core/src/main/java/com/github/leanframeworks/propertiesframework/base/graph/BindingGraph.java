@@ -0,0 +1,689 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.graph;
+
+import com.github.leanframeworks.propertiesframework.api.transform.Transformer;
+import com.github.leanframeworks.propertiesframework.base.binding.SimpleBinding;
+import com.github.leanframeworks.propertiesframework.base.transform.ChainedTransformer;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of the graph formed by properties, bindings, composite properties, wrappers and listeners, as reachable
+ * from some root entities.
+ * <p>
+ * The graph is discovered by following, in both directions, the references exposed by the entities implementing
+ * {@link GraphNode}, and by following the listeners registered on the entities implementing {@link ListenerSource},
+ * as the properties of this framework do. Listeners implementing {@link ListenerOwner} are represented by their
+ * owner; other listeners are represented by themselves. Edges are directed in the direction of the data flow.
+ * <p>
+ * Note that a property does not know which bindings write to it, so the walk should start from the most upstream
+ * properties, or from the bindings themselves.
+ * <p>
+ * The graph can then be analyzed (fan-in, fan-out, depth, cycles, transformers, duplicates) and exported to the DOT
+ * and GraphML formats, for instance, to find unexpected wiring in large forms.
+ * <p>
+ * Note that the graph is not updated when the entities are modified after the walk.
+ */
+public class BindingGraph {
+
+    /**
+     * Nodes of the graph, in the order in which they were discovered.
+     */
+    private final List<Object> nodes = new ArrayList<>();
+
+    /**
+     * Indices of the nodes, by identity.
+     */
+    private final Map<Object, Integer> indices = new IdentityHashMap<>();
+
+    /**
+     * Indices of the downstream nodes of each node.
+     */
+    private final List<List<Integer>> successors = new ArrayList<>();
+
+    /**
+     * Indices of the upstream nodes of each node.
+     */
+    private final List<List<Integer>> predecessors = new ArrayList<>();
+
+    /**
+     * Edges already added to the graph, encoded as a long made of the indices of both ends.
+     */
+    private final Set<Long> edgeKeys = new HashSet<>();
+
+    /**
+     * Cycles found in the graph, computed lazily.
+     */
+    private List<List<Object>> cycles = null;
+
+    /**
+     * Depth of the graph, computed lazily.
+     */
+    private int depth = -1;
+
+    /**
+     * Private constructor, use the walk methods instead.
+     */
+    private BindingGraph() {
+        // Nothing to be done
+    }
+
+    /**
+     * Walks the graph from the specified root entities.
+     *
+     * @param roots Entities to start walking from (typically, properties or bindings).
+     * @return Graph of all entities reachable from the roots.
+     */
+    public static BindingGraph walk(Object... roots) {
+        return walk(Arrays.asList(roots));
+    }
+
+    /**
+     * Walks the graph from the specified root entities.
+     *
+     * @param roots Entities to start walking from (typically, properties or bindings).
+     * @return Graph of all entities reachable from the roots.
+     */
+    public static BindingGraph walk(Collection<?> roots) {
+        BindingGraph graph = new BindingGraph();
+
+        Deque<Object> toBeVisited = new ArrayDeque<>();
+        for (Object root : roots) {
+            if ((root != null) && graph.addNode(root)) {
+                toBeVisited.add(root);
+            }
+        }
+
+        while (!toBeVisited.isEmpty()) {
+            Object node = toBeVisited.poll();
+
+            if (node instanceof GraphNode) {
+                for (Object upstream : ((GraphNode) node).getUpstreamNodes()) {
+                    graph.visitEdge(upstream, node, upstream, toBeVisited);
+                }
+                for (Object downstream : ((GraphNode) node).getDownstreamNodes()) {
+                    graph.visitEdge(node, downstream, downstream, toBeVisited);
+                }
+            }
+
+            for (Object listener : getListeners(node)) {
+                Object owner = listener;
+                if (listener instanceof ListenerOwner) {
+                    owner = ((ListenerOwner) listener).getListenerOwner();
+                }
+                graph.visitEdge(node, owner, owner, toBeVisited);
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Finds a cycle going through the specified entity, by following only the data flow from that entity.
+     * <p>
+     * This is cheaper than walking the whole graph, and can be used, for instance, to check whether a new binding
+     * closes a cycle.
+     *
+     * @param node Entity that may be part of a cycle (typically, a binding).
+     * @return Shortest cycle going through the entity, starting and ending with it, in the direction of the data flow,
+     * or an empty list if there is no such cycle.
+     */
+    public static List<Object> findCycle(Object node) {
+        List<Object> cycle = Collections.emptyList();
+
+        Map<Object, Object> parents = new IdentityHashMap<>();
+        Deque<Object> toBeVisited = new ArrayDeque<>();
+        toBeVisited.add(node);
+        while (!toBeVisited.isEmpty() && cycle.isEmpty()) {
+            Object current = toBeVisited.poll();
+            for (Object successor : getSuccessors(current)) {
+                if (successor == node) {
+                    // Back to the start: rebuild the path from the parents
+                    List<Object> path = new ArrayList<>();
+                    path.add(node);
+                    for (Object step = current; step != node; step = parents.get(step)) {
+                        path.add(step);
+                    }
+                    path.add(node);
+                    Collections.reverse(path);
+                    cycle = path;
+                    break;
+                } else if ((successor != null) && !parents.containsKey(successor)) {
+                    parents.put(successor, current);
+                    toBeVisited.add(successor);
+                }
+            }
+        }
+
+        return cycle;
+    }
+
+    /**
+     * Gets the entities directly downstream of the specified entity.
+     *
+     * @param node Entity to get the successors of.
+     * @return Downstream entities, possibly containing duplicates.
+     */
+    private static List<Object> getSuccessors(Object node) {
+        List<Object> successors = new ArrayList<>();
+        if (node instanceof GraphNode) {
+            successors.addAll(((GraphNode) node).getDownstreamNodes());
+        }
+        for (Object listener : getListeners(node)) {
+            if (listener instanceof ListenerOwner) {
+                successors.add(((ListenerOwner) listener).getListenerOwner());
+            } else {
+                successors.add(listener);
+            }
+        }
+        return successors;
+    }
+
+    /**
+     * Gets the change listeners of the specified entity, if it exposes them.
+     *
+     * @param node Entity to get the listeners of.
+     * @return Change listeners of the entity, possibly empty.
+     * @see ListenerSource
+     */
+    private static Collection<?> getListeners(Object node) {
+        Collection<?> listeners;
+
+        if (node instanceof ListenerSource) {
+            listeners = ((ListenerSource) node).getRegisteredListeners();
+        } else {
+            listeners = Collections.emptyList();
+        }
+
+        return listeners;
+    }
+
+    /**
+     * Adds the specified edge, and schedules the visit of the specified node if it was not discovered yet.
+     *
+     * @param from        Upstream end of the edge.
+     * @param to          Downstream end of the edge.
+     * @param node        End of the edge that may not have been discovered yet.
+     * @param toBeVisited Nodes to be visited.
+     */
+    private void visitEdge(Object from, Object to, Object node, Deque<Object> toBeVisited) {
+        if ((from != null) && (to != null)) {
+            if (addNode(node)) {
+                toBeVisited.add(node);
+            }
+            addEdge(indices.get(from), indices.get(to));
+        }
+    }
+
+    /**
+     * Adds the specified node to the graph if it is not already in it.
+     *
+     * @param node Node to be added.
+     * @return True if the node was added, false if it was already in the graph.
+     */
+    private boolean addNode(Object node) {
+        boolean added = false;
+        if (!indices.containsKey(node)) {
+            indices.put(node, nodes.size());
+            nodes.add(node);
+            successors.add(new ArrayList<>());
+            predecessors.add(new ArrayList<>());
+            added = true;
+        }
+        return added;
+    }
+
+    /**
+     * Adds the specified edge to the graph if it is not already in it.
+     *
+     * @param from Index of the upstream end of the edge.
+     * @param to   Index of the downstream end of the edge.
+     */
+    private void addEdge(int from, int to) {
+        if (edgeKeys.add(((long) from << 32) | to)) {
+            successors.get(from).add(to);
+            predecessors.get(to).add(from);
+        }
+    }
+
+    /**
+     * Gets all the nodes of the graph.
+     *
+     * @return Unmodifiable list of nodes, in the order in which they were discovered.
+     */
+    public List<Object> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Gets the number of nodes in the graph.
+     *
+     * @return Number of nodes.
+     */
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Gets the number of edges in the graph.
+     *
+     * @return Number of edges.
+     */
+    public int getEdgeCount() {
+        return edgeKeys.size();
+    }
+
+    /**
+     * States whether the specified entity is a node of the graph.
+     *
+     * @param node Entity.
+     * @return True if the entity is a node of the graph, false otherwise.
+     */
+    public boolean contains(Object node) {
+        return indices.containsKey(node);
+    }
+
+    /**
+     * Gets the nodes directly upstream of the specified node.
+     *
+     * @param node Node of the graph.
+     * @return Upstream nodes.
+     */
+    public List<Object> getUpstreamNodes(Object node) {
+        return toNodes(predecessors.get(indexOf(node)));
+    }
+
+    /**
+     * Gets the nodes directly downstream of the specified node.
+     *
+     * @param node Node of the graph.
+     * @return Downstream nodes.
+     */
+    public List<Object> getDownstreamNodes(Object node) {
+        return toNodes(successors.get(indexOf(node)));
+    }
+
+    /**
+     * Gets the number of nodes directly upstream of the specified node.
+     *
+     * @param node Node of the graph.
+     * @return Fan-in of the node.
+     */
+    public int getFanIn(Object node) {
+        return predecessors.get(indexOf(node)).size();
+    }
+
+    /**
+     * Gets the number of nodes directly downstream of the specified node.
+     *
+     * @param node Node of the graph.
+     * @return Fan-out of the node.
+     */
+    public int getFanOut(Object node) {
+        return successors.get(indexOf(node)).size();
+    }
+
+    /**
+     * Gets the maximum fan-in of all the nodes of the graph.
+     *
+     * @return Maximum fan-in.
+     */
+    public int getMaxFanIn() {
+        int max = 0;
+        for (List<Integer> nodePredecessors : predecessors) {
+            max = Math.max(max, nodePredecessors.size());
+        }
+        return max;
+    }
+
+    /**
+     * Gets the maximum fan-out of all the nodes of the graph.
+     *
+     * @return Maximum fan-out.
+     */
+    public int getMaxFanOut() {
+        int max = 0;
+        for (List<Integer> nodeSuccessors : successors) {
+            max = Math.max(max, nodeSuccessors.size());
+        }
+        return max;
+    }
+
+    /**
+     * Gets the depth of the graph, that is the number of edges of the longest path.
+     * <p>
+     * Edges closing cycles are ignored.
+     *
+     * @return Depth of the graph.
+     */
+    public int getDepth() {
+        if (depth < 0) {
+            analyzeCycles();
+        }
+        return depth;
+    }
+
+    /**
+     * States whether the graph contains at least one cycle.
+     *
+     * @return True if there is a cycle, false otherwise.
+     */
+    public boolean hasCycles() {
+        return !getCycles().isEmpty();
+    }
+
+    /**
+     * Gets cycles found in the graph.
+     * <p>
+     * One cycle is reported for each edge closing a cycle during a depth-first traversal, so every node involved in a
+     * cycle belongs to at least one reported cycle, but not all possible cycles are reported.
+     *
+     * @return Unmodifiable list of cycles, each one being the list of its nodes in the direction of the data flow.
+     */
+    public List<List<Object>> getCycles() {
+        if (cycles == null) {
+            analyzeCycles();
+        }
+        return Collections.unmodifiableList(cycles);
+    }
+
+    /**
+     * Gets the number of uses of each type of transformer by the bindings of the graph.
+     * <p>
+     * The transformers of {@link ChainedTransformer}s are counted individually.
+     *
+     * @return Number of uses of each transformer type.
+     */
+    public Map<Class<?>, Integer> getTransformerTypes() {
+        Map<Class<?>, Integer> types = new LinkedHashMap<>();
+        for (Object node : nodes) {
+            if (node instanceof SimpleBinding) {
+                countTransformer(((SimpleBinding<?, ?>) node).getTransformer(), types);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Counts the specified transformer, or its sub-transformers if it is a {@link ChainedTransformer}.
+     *
+     * @param transformer Transformer to be counted.
+     * @param types       Number of uses of each transformer type.
+     */
+    private static void countTransformer(Transformer<?, ?> transformer, Map<Class<?>, Integer> types) {
+        if (transformer instanceof ChainedTransformer) {
+            for (Transformer<?, ?> subTransformer : ((ChainedTransformer<?, ?>) transformer).getTransformers()) {
+                countTransformer(subTransformer, types);
+            }
+        } else if (transformer != null) {
+            types.merge(transformer.getClass(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Gets groups of duplicate nodes.
+     * <p>
+     * Nodes implementing {@link GraphNode} are considered duplicates when they are of the same type and have exactly
+     * the same upstream and downstream nodes, for instance, two bindings between the same properties.
+     *
+     * @return Groups of duplicate nodes, each group containing at least two nodes.
+     */
+    public List<List<Object>> getDuplicateNodes() {
+        Map<List<Object>, List<Object>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            Object node = nodes.get(i);
+            if (node instanceof GraphNode) {
+                List<Integer> upstream = new ArrayList<>(predecessors.get(i));
+                List<Integer> downstream = new ArrayList<>(successors.get(i));
+                Collections.sort(upstream);
+                Collections.sort(downstream);
+                List<Object> key = Arrays.asList(node.getClass(), upstream, downstream);
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(node);
+            }
+        }
+
+        List<List<Object>> duplicates = new ArrayList<>();
+        for (List<Object> group : groups.values()) {
+            if (group.size() > 1) {
+                duplicates.add(group);
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Finds the cycles and computes the depth of the graph using an iterative depth-first traversal.
+     */
+    private void analyzeCycles() {
+        int count = nodes.size();
+        List<List<Object>> foundCycles = new ArrayList<>();
+        // 0 = not visited, 1 = on the stack, 2 = done
+        int[] states = new int[count];
+        int[] nextSuccessor = new int[count];
+        // Length of the longest path starting from each node, ignoring edges closing cycles
+        int[] heights = new int[count];
+        Deque<Integer> stack = new ArrayDeque<>();
+        List<Integer> path = new ArrayList<>();
+        int maxDepth = 0;
+
+        for (int root = 0; root < count; root++) {
+            if (states[root] == 0) {
+                states[root] = 1;
+                stack.push(root);
+                path.add(root);
+
+                while (!stack.isEmpty()) {
+                    int node = stack.peek();
+                    List<Integer> nodeSuccessors = successors.get(node);
+                    if (nextSuccessor[node] < nodeSuccessors.size()) {
+                        int successor = nodeSuccessors.get(nextSuccessor[node]++);
+                        if (states[successor] == 0) {
+                            states[successor] = 1;
+                            stack.push(successor);
+                            path.add(successor);
+                        } else if (states[successor] == 1) {
+                            // Edge closing a cycle
+                            foundCycles.add(toNodes(path.subList(path.lastIndexOf(successor), path.size())));
+                        } else {
+                            heights[node] = Math.max(heights[node], heights[successor] + 1);
+                        }
+                    } else {
+                        states[node] = 2;
+                        stack.pop();
+                        path.remove(path.size() - 1);
+                        if (!stack.isEmpty()) {
+                            int parent = stack.peek();
+                            heights[parent] = Math.max(heights[parent], heights[node] + 1);
+                        }
+                        maxDepth = Math.max(maxDepth, heights[node]);
+                    }
+                }
+            }
+        }
+
+        cycles = foundCycles;
+        depth = maxDepth;
+    }
+
+    /**
+     * Writes the graph in the DOT format of Graphviz.
+     *
+     * @param out Output to write to.
+     * @throws IOException If the graph could not be written.
+     */
+    public void writeDot(Appendable out) throws IOException {
+        out.append("digraph bindings {\n");
+        for (int i = 0; i < nodes.size(); i++) {
+            out.append("  n").append(Integer.toString(i)).append(" [label=\"")
+                    .append(getLabel(nodes.get(i)).replace("\\", "\\\\").replace("\"", "\\\"")).append("\"];\n");
+        }
+        for (int from = 0; from < successors.size(); from++) {
+            for (int to : successors.get(from)) {
+                out.append("  n").append(Integer.toString(from)).append(" -> n").append(Integer.toString(to))
+                        .append(";\n");
+            }
+        }
+        out.append("}\n");
+    }
+
+    /**
+     * Gets the graph in the DOT format of Graphviz.
+     *
+     * @return DOT representation of the graph.
+     */
+    public String toDot() {
+        StringBuilder out = new StringBuilder();
+        try {
+            writeDot(out);
+        } catch (IOException e) {
+            // Cannot happen with a string builder
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the graph in the GraphML format.
+     *
+     * @param out Output to write to.
+     * @throws IOException If the graph could not be written.
+     */
+    public void writeGraphML(Appendable out) throws IOException {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.append("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+        out.append("  <key id=\"label\" for=\"node\" attr.name=\"label\" attr.type=\"string\"/>\n");
+        out.append("  <key id=\"type\" for=\"node\" attr.name=\"type\" attr.type=\"string\"/>\n");
+        out.append("  <graph id=\"bindings\" edgedefault=\"directed\">\n");
+        for (int i = 0; i < nodes.size(); i++) {
+            Object node = nodes.get(i);
+            out.append("    <node id=\"n").append(Integer.toString(i)).append("\">\n");
+            out.append("      <data key=\"label\">").append(escapeXml(getLabel(node))).append("</data>\n");
+            out.append("      <data key=\"type\">").append(escapeXml(node.getClass().getName())).append("</data>\n");
+            out.append("    </node>\n");
+        }
+        for (int from = 0; from < successors.size(); from++) {
+            for (int to : successors.get(from)) {
+                out.append("    <edge source=\"n").append(Integer.toString(from)).append("\" target=\"n")
+                        .append(Integer.toString(to)).append("\"/>\n");
+            }
+        }
+        out.append("  </graph>\n");
+        out.append("</graphml>\n");
+    }
+
+    /**
+     * Gets the graph in the GraphML format.
+     *
+     * @return GraphML representation of the graph.
+     */
+    public String toGraphML() {
+        StringBuilder out = new StringBuilder();
+        try {
+            writeGraphML(out);
+        } catch (IOException e) {
+            // Cannot happen with a string builder
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Gets the label of the specified node in the exported graphs.
+     *
+     * @param node Node of the graph.
+     * @return Label made of the type of the node and its identity hash code, and of the type of transformer for
+     * bindings.
+     */
+    private static String getLabel(Object node) {
+        String name = node.getClass().getName();
+        String label = name.substring(name.lastIndexOf('.') + 1) + "@" + Integer.toHexString(System
+                .identityHashCode(node));
+        if (node instanceof SimpleBinding) {
+            Transformer<?, ?> transformer = ((SimpleBinding<?, ?>) node).getTransformer();
+            if (transformer != null) {
+                String transformerName = transformer.getClass().getName();
+                label += " (" + transformerName.substring(transformerName.lastIndexOf('.') + 1) + ")";
+            }
+        }
+        return label;
+    }
+
+    /**
+     * Escapes the special XML characters of the specified text.
+     *
+     * @param text Text to be escaped.
+     * @return Escaped text.
+     */
+    private static String escapeXml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * Gets the index of the specified node.
+     *
+     * @param node Node of the graph.
+     * @return Index of the node.
+     * @throws IllegalArgumentException If the entity is not a node of the graph.
+     */
+    private int indexOf(Object node) {
+        Integer index = indices.get(node);
+        if (index == null) {
+            throw new IllegalArgumentException("Not a node of the graph: " + node);
+        }
+        return index;
+    }
+
+    /**
+     * Converts the specified node indices to nodes.
+     *
+     * @param nodeIndices Indices of nodes.
+     * @return Nodes.
+     */
+    private List<Object> toNodes(List<Integer> nodeIndices) {
+        List<Object> result = new ArrayList<>(nodeIndices.size());
+        for (int index : nodeIndices) {
+            result.add(nodes.get(index));
+        }
+        return result;
+    }
+}
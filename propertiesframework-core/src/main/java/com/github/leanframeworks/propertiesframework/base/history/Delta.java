@@ -0,0 +1,431 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.history;
+
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableListProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableMapProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableSetProperty;
+import com.github.leanframeworks.propertiesframework.api.property.WritableProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Change of a single property, that can be reverted and re-applied.
+ * <p>
+ * A delta only holds the values that have changed, so that its size is proportional to the change and not to the
+ * content of the property.
+ */
+abstract class Delta {
+
+    /**
+     * Estimated size of a delta, not counting its values, in bytes.
+     */
+    static final long OVERHEAD = 32;
+
+    /**
+     * Gets the property changed by this delta.
+     *
+     * @return Changed property.
+     */
+    abstract Object getProperty();
+
+    /**
+     * Reverts the change on the property.
+     */
+    abstract void undo();
+
+    /**
+     * Applies the change again on the property.
+     */
+    abstract void redo();
+
+    /**
+     * Estimates the memory retained by this delta.
+     *
+     * @param sizeEstimator Estimator of the size of the values.
+     * @return Estimated size, in bytes.
+     */
+    abstract long estimateSize(ToLongFunction<Object> sizeEstimator);
+
+    /**
+     * Estimates the memory retained by the specified values.
+     *
+     * @param values        Values.
+     * @param sizeEstimator Estimator of the size of each value.
+     * @return Estimated size, in bytes.
+     */
+    static long estimateSize(Iterable<?> values, ToLongFunction<Object> sizeEstimator) {
+        long size = 0;
+        for (Object value : values) {
+            size += sizeEstimator.applyAsLong(value);
+        }
+        return size;
+    }
+
+    /**
+     * Change of the value of a single-value property.
+     */
+    static final class ValueDelta extends Delta {
+
+        /**
+         * Changed property.
+         */
+        private final WritableProperty<Object> property;
+
+        /**
+         * Value before the change.
+         */
+        private final Object oldValue;
+
+        /**
+         * Value after the change.
+         */
+        private Object newValue;
+
+        /**
+         * Constructor.
+         *
+         * @param property Changed property.
+         * @param oldValue Value before the change.
+         * @param newValue Value after the change.
+         */
+        ValueDelta(WritableProperty<Object> property, Object oldValue, Object newValue) {
+            this.property = property;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        /**
+         * Merges the specified subsequent change of the same property into this delta.
+         *
+         * @param newValue Value after the subsequent change.
+         */
+        void merge(Object newValue) {
+            this.newValue = newValue;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Object getProperty() {
+            return property;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void undo() {
+            property.setValue(oldValue);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void redo() {
+            property.setValue(newValue);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        long estimateSize(ToLongFunction<Object> sizeEstimator) {
+            return OVERHEAD + sizeEstimator.applyAsLong(oldValue) + sizeEstimator.applyAsLong(newValue);
+        }
+    }
+
+    /**
+     * Addition, replacement or removal of items in a list property.
+     */
+    static final class ListDelta extends Delta {
+
+        /**
+         * Changed property.
+         */
+        private final ReadableWritableListProperty<Object> property;
+
+        /**
+         * Index of the first changed item.
+         */
+        private final int startIndex;
+
+        /**
+         * Items replaced or removed by the change.
+         */
+        private final List<Object> oldItems;
+
+        /**
+         * Items added or replacing the old items.
+         */
+        private final List<Object> newItems;
+
+        /**
+         * Constructor.
+         *
+         * @param property   Changed property.
+         * @param startIndex Index of the first changed item.
+         * @param oldItems   Items replaced or removed by the change.
+         * @param newItems   Items added or replacing the old items.
+         */
+        ListDelta(ReadableWritableListProperty<Object> property, int startIndex, List<?> oldItems,
+                  List<?> newItems) {
+            this.property = property;
+            this.startIndex = startIndex;
+            this.oldItems = new ArrayList<>(oldItems);
+            this.newItems = new ArrayList<>(newItems);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Object getProperty() {
+            return property;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void undo() {
+            apply(newItems, oldItems);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void redo() {
+            apply(oldItems, newItems);
+        }
+
+        /**
+         * Replaces the specified current items by the specified target items, using range operations so that the
+         * listeners of the property are notified once.
+         *
+         * @param currentItems Items currently in the property at the start index.
+         * @param targetItems  Items to be put in the property instead.
+         */
+        private void apply(List<Object> currentItems, List<Object> targetItems) {
+            if (currentItems.isEmpty()) {
+                property.addAll(startIndex, targetItems);
+            } else if (targetItems.isEmpty()) {
+                property.removeRange(startIndex, startIndex + currentItems.size());
+            } else {
+                property.setAll(startIndex, targetItems);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        long estimateSize(ToLongFunction<Object> sizeEstimator) {
+            return OVERHEAD + estimateSize(oldItems, sizeEstimator) + estimateSize(newItems, sizeEstimator);
+        }
+    }
+
+    /**
+     * Addition or removal of items in a set property.
+     */
+    static final class SetDelta extends Delta {
+
+        /**
+         * Changed property.
+         */
+        private final ReadableWritableSetProperty<Object> property;
+
+        /**
+         * Items removed by the change.
+         */
+        private final Set<Object> oldItems;
+
+        /**
+         * Items added by the change.
+         */
+        private final Set<Object> newItems;
+
+        /**
+         * Constructor.
+         *
+         * @param property Changed property.
+         * @param oldItems Items removed by the change.
+         * @param newItems Items added by the change.
+         */
+        SetDelta(ReadableWritableSetProperty<Object> property, Set<?> oldItems, Set<?> newItems) {
+            this.property = property;
+            this.oldItems = new HashSet<>(oldItems);
+            this.newItems = new HashSet<>(newItems);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Object getProperty() {
+            return property;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void undo() {
+            if (!newItems.isEmpty()) {
+                property.removeAll(newItems);
+            }
+            if (!oldItems.isEmpty()) {
+                property.addAll(oldItems);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void redo() {
+            if (!oldItems.isEmpty()) {
+                property.removeAll(oldItems);
+            }
+            if (!newItems.isEmpty()) {
+                property.addAll(newItems);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        long estimateSize(ToLongFunction<Object> sizeEstimator) {
+            return OVERHEAD + estimateSize(oldItems, sizeEstimator) + estimateSize(newItems, sizeEstimator);
+        }
+    }
+
+    /**
+     * Addition, replacement or removal of entries in a map property.
+     */
+    static final class MapDelta extends Delta {
+
+        /**
+         * Changed property.
+         */
+        private final ReadableWritableMapProperty<Object, Object> property;
+
+        /**
+         * Entries replaced or removed by the change.
+         */
+        private final Map<Object, Object> oldEntries;
+
+        /**
+         * Entries added or replacing the old entries.
+         */
+        private final Map<Object, Object> newEntries;
+
+        /**
+         * Constructor.
+         *
+         * @param property   Changed property.
+         * @param oldEntries Entries replaced or removed by the change.
+         * @param newEntries Entries added or replacing the old entries.
+         */
+        MapDelta(ReadableWritableMapProperty<Object, Object> property, Map<?, ?> oldEntries,
+                 Map<?, ?> newEntries) {
+            this.property = property;
+            this.oldEntries = new HashMap<>(oldEntries);
+            this.newEntries = new HashMap<>(newEntries);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Object getProperty() {
+            return property;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void undo() {
+            apply(newEntries, oldEntries);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void redo() {
+            apply(oldEntries, newEntries);
+        }
+
+        /**
+         * Replaces the specified current entries by the specified target entries, using bulk operations so that the
+         * listeners of the property are notified once for all the removed entries, and once for all the put entries.
+         *
+         * @param currentEntries Entries currently in the property.
+         * @param targetEntries  Entries to be put in the property instead.
+         */
+        private void apply(Map<Object, Object> currentEntries, Map<Object, Object> targetEntries) {
+            List<Object> removedKeys = new ArrayList<>();
+            for (Object key : currentEntries.keySet()) {
+                if (!targetEntries.containsKey(key)) {
+                    removedKeys.add(key);
+                }
+            }
+            if (!removedKeys.isEmpty()) {
+                property.removeAll(removedKeys);
+            }
+            if (!targetEntries.isEmpty()) {
+                property.putAll(targetEntries);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        long estimateSize(ToLongFunction<Object> sizeEstimator) {
+            return OVERHEAD + estimateSize(oldEntries.keySet(), sizeEstimator) +
+                    estimateSize(oldEntries.values(), sizeEstimator) +
+                    estimateSize(newEntries.keySet(), sizeEstimator) +
+                    estimateSize(newEntries.values(), sizeEstimator);
+        }
+    }
+}
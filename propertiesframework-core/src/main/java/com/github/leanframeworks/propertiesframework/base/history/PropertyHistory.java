@@ -0,0 +1,666 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.history;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableListProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableMapProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableSetProperty;
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleBooleanProperty;
+import com.github.leanframeworks.propertiesframework.base.property.wrap.ReadOnlyPropertyWrapper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded undo/redo history of the changes of a group of properties.
+ * <p>
+ * Instead of copying the content of the tracked properties, the history records the deltas provided by their change
+ * events: the old and new values of single-value properties, and the changed items of list, set and map properties.
+ * Undoing or redoing a step therefore costs in proportion to the size of the change, not to the size of the
+ * properties.
+ * <p>
+ * Each change is recorded as a separate step, unless it occurs between {@link #beginTransaction()} and {@link
+ * #endTransaction()}, in which case all the changes of the transaction are grouped into a single step. Consecutive
+ * changes of the same single-value property within a step are merged.
+ * <p>
+ * The number of steps is bounded, as well as the estimated memory retained by their deltas: when either bound is
+ * exceeded, the oldest steps are discarded. The memory is estimated using a size estimator that can be replaced to
+ * better fit the values of the tracked properties.
+ * <p>
+ * The {@link #getUndoableProperty() undoable} and {@link #getRedoableProperty() redoable} properties can be bound to
+ * the enabled state of undo and redo actions. They are updated once per recorded step, undo or redo, whatever the
+ * number of deltas involved.
+ * <p>
+ * While a step is undone or redone, the tracked single-value properties extending {@link AbstractReadableProperty} are
+ * inhibited, so that their listeners are notified at most once per step, with the final value. The changes of list
+ * properties are reverted and re-applied using range operations, so that their listeners are notified once per delta.
+ * The changes of set and map properties are reverted and re-applied using bulk removals and additions, so that their
+ * listeners are notified a few times per delta at most, whatever the number of changed elements or entries.
+ * <p>
+ * Note that this class is not thread-safe: it is meant to be used on the thread modifying the tracked properties.
+ */
+public class PropertyHistory implements Disposable {
+
+    /**
+     * Default maximum number of steps.
+     */
+    public static final int DEFAULT_MAX_STEPS = 100;
+
+    /**
+     * Default maximum estimated memory retained by the steps, in bytes.
+     */
+    public static final long DEFAULT_MAX_MEMORY = 16 * 1024 * 1024;
+
+    /**
+     * Maximum number of steps that can be undone and redone.
+     */
+    private final int maxSteps;
+
+    /**
+     * Maximum estimated memory retained by the steps, in bytes.
+     */
+    private final long maxMemory;
+
+    /**
+     * Steps that can be undone, the most recent one last.
+     */
+    private final Deque<Step> undoSteps = new ArrayDeque<>();
+
+    /**
+     * Steps that can be redone, the next one first.
+     */
+    private final Deque<Step> redoSteps = new ArrayDeque<>();
+
+    /**
+     * Listener unsubscribers of the tracked properties.
+     */
+    private final Map<Object, Runnable> registrations = new IdentityHashMap<>();
+
+    /**
+     * Property stating whether a step can be undone.
+     */
+    private final SimpleBooleanProperty undoable = new SimpleBooleanProperty(false);
+
+    /**
+     * Property stating whether a step can be redone.
+     */
+    private final SimpleBooleanProperty redoable = new SimpleBooleanProperty(false);
+
+    /**
+     * Read-only view of {@link #undoable}.
+     */
+    private final ReadableProperty<Boolean> undoableWrapper = new ReadOnlyPropertyWrapper<>(undoable);
+
+    /**
+     * Read-only view of {@link #redoable}.
+     */
+    private final ReadableProperty<Boolean> redoableWrapper = new ReadOnlyPropertyWrapper<>(redoable);
+
+    /**
+     * Estimator of the memory retained by the values of the tracked properties.
+     */
+    private ToLongFunction<Object> sizeEstimator = PropertyHistory::estimateDefaultSize;
+
+    /**
+     * Step being recorded in the current transaction, or null if no transaction is in progress.
+     */
+    private Step currentStep = null;
+
+    /**
+     * Number of nested transactions in progress.
+     */
+    private int transactionDepth = 0;
+
+    /**
+     * Flag indicating whether a step is being undone or redone, in which case changes are not recorded.
+     */
+    private boolean applying = false;
+
+    /**
+     * Estimated memory retained by all the undo and redo steps, in bytes.
+     */
+    private long memoryUsage = 0;
+
+    /**
+     * Constructor using the default bounds.
+     *
+     * @see #DEFAULT_MAX_STEPS
+     * @see #DEFAULT_MAX_MEMORY
+     */
+    public PropertyHistory() {
+        this(DEFAULT_MAX_STEPS, DEFAULT_MAX_MEMORY);
+    }
+
+    /**
+     * Constructor specifying the bounds of the history.
+     *
+     * @param maxSteps  Maximum number of steps that can be undone and redone.
+     * @param maxMemory Maximum estimated memory retained by the steps, in bytes.
+     */
+    public PropertyHistory(int maxSteps, long maxMemory) {
+        if ((maxSteps < 1) || (maxMemory < 1)) {
+            throw new IllegalArgumentException("Invalid history bounds: " + maxSteps + " steps, " + maxMemory +
+                    " bytes");
+        }
+        this.maxSteps = maxSteps;
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Default estimator of the memory retained by a value.
+     *
+     * @param value Value.
+     * @return Estimated size, in bytes.
+     */
+    private static long estimateDefaultSize(Object value) {
+        long size;
+        if (value == null) {
+            size = 0;
+        } else if (value instanceof CharSequence) {
+            size = 40 + 2L * ((CharSequence) value).length();
+        } else {
+            size = 16;
+        }
+        return size;
+    }
+
+    /**
+     * Gets the estimator of the memory retained by the values of the tracked properties.
+     *
+     * @return Size estimator.
+     */
+    public ToLongFunction<Object> getSizeEstimator() {
+        return sizeEstimator;
+    }
+
+    /**
+     * Sets the estimator of the memory retained by the values of the tracked properties.
+     * <p>
+     * It only applies to the steps recorded after the call.
+     *
+     * @param sizeEstimator Size estimator, returning a size in bytes.
+     */
+    public void setSizeEstimator(ToLongFunction<Object> sizeEstimator) {
+        this.sizeEstimator = sizeEstimator;
+    }
+
+    /**
+     * Starts tracking the changes of the specified single-value property.
+     *
+     * @param property Property to be tracked.
+     */
+    @SuppressWarnings("unchecked")
+    public void track(ReadableWritableProperty<?> property) {
+        ReadableWritableProperty<Object> target = (ReadableWritableProperty<Object>) property;
+        PropertyChangeListener<Object> listener = e -> {
+            if (!applying) {
+                recordValue(target, e.getOldValue(), e.getNewValue());
+            }
+        };
+        target.addChangeListener(listener);
+        replaceRegistration(property, () -> target.removeChangeListener(listener));
+    }
+
+    /**
+     * Starts tracking the changes of the specified list property.
+     *
+     * @param property Property to be tracked.
+     */
+    @SuppressWarnings("unchecked")
+    public void trackList(ReadableWritableListProperty<?> property) {
+        ReadableWritableListProperty<Object> target = (ReadableWritableListProperty<Object>) property;
+        ListPropertyChangeListener<Object> listener = e -> record(new Delta.ListDelta(target, e.getStartIndex(), e
+                .getOldValues(), e.getNewValues()));
+        target.addChangeListener(listener);
+        replaceRegistration(property, () -> target.removeChangeListener(listener));
+    }
+
+    /**
+     * Starts tracking the changes of the specified set property.
+     *
+     * @param property Property to be tracked.
+     */
+    @SuppressWarnings("unchecked")
+    public void trackSet(ReadableWritableSetProperty<?> property) {
+        ReadableWritableSetProperty<Object> target = (ReadableWritableSetProperty<Object>) property;
+        SetPropertyChangeListener<Object> listener = e -> record(new Delta.SetDelta(target, e.getOldValues(), e
+                .getNewValues()));
+        target.addChangeListener(listener);
+        replaceRegistration(property, () -> target.removeChangeListener(listener));
+    }
+
+    /**
+     * Starts tracking the changes of the specified map property.
+     *
+     * @param property Property to be tracked.
+     */
+    @SuppressWarnings("unchecked")
+    public void trackMap(ReadableWritableMapProperty<?, ?> property) {
+        ReadableWritableMapProperty<Object, Object> target = (ReadableWritableMapProperty<Object, Object>) property;
+        MapPropertyChangeListener<Object, Object> listener = e -> record(new Delta.MapDelta(target, e.getOldValues
+                (), e.getNewValues()));
+        target.addChangeListener(listener);
+        replaceRegistration(property, () -> target.removeChangeListener(listener));
+    }
+
+    /**
+     * Stops tracking the changes of the specified property.
+     * <p>
+     * The steps already recorded for this property are kept.
+     *
+     * @param property Property that is no longer to be tracked.
+     */
+    public void untrack(Object property) {
+        replaceRegistration(property, null);
+    }
+
+    /**
+     * Replaces the registration of the specified property.
+     *
+     * @param property     Tracked property.
+     * @param unsubscriber Listener unsubscriber of the new registration, or null to only remove the old one.
+     */
+    private void replaceRegistration(Object property, Runnable unsubscriber) {
+        Runnable oldUnsubscriber;
+        if (unsubscriber == null) {
+            oldUnsubscriber = registrations.remove(property);
+        } else {
+            oldUnsubscriber = registrations.put(property, unsubscriber);
+        }
+        if (oldUnsubscriber != null) {
+            oldUnsubscriber.run();
+        }
+    }
+
+    /**
+     * Starts a transaction grouping all the subsequent changes into a single step, until the matching call to {@link
+     * #endTransaction()}.
+     * <p>
+     * Transactions can be nested: only the outermost one produces a step.
+     */
+    public void beginTransaction() {
+        if (transactionDepth == 0) {
+            currentStep = new Step();
+        }
+        transactionDepth++;
+    }
+
+    /**
+     * Ends the transaction started by the matching call to {@link #beginTransaction()}.
+     *
+     * @throws IllegalStateException If no transaction is in progress.
+     */
+    public void endTransaction() {
+        if (transactionDepth == 0) {
+            throw new IllegalStateException("No transaction in progress");
+        }
+        transactionDepth--;
+        if (transactionDepth == 0) {
+            Step step = currentStep;
+            currentStep = null;
+            commit(step);
+        }
+    }
+
+    /**
+     * States whether a transaction is in progress.
+     *
+     * @return True if a transaction is in progress, false otherwise.
+     */
+    public boolean isInTransaction() {
+        return transactionDepth > 0;
+    }
+
+    /**
+     * Records the change of a single-value property, merging it with the previous change of the same property in the
+     * current transaction if possible.
+     *
+     * @param property Changed property.
+     * @param oldValue Value before the change.
+     * @param newValue Value after the change.
+     */
+    private void recordValue(ReadableWritableProperty<Object> property, Object oldValue, Object newValue) {
+        Delta last = (currentStep == null) ? null : currentStep.getLastDelta();
+        if ((last instanceof Delta.ValueDelta) && (last.getProperty() == property)) {
+            ((Delta.ValueDelta) last).merge(newValue);
+        } else {
+            record(new Delta.ValueDelta(property, oldValue, newValue));
+        }
+    }
+
+    /**
+     * Records the specified delta, in the current transaction if any, or as a new step otherwise.
+     *
+     * @param delta Delta to be recorded.
+     */
+    private void record(Delta delta) {
+        if (!applying) {
+            if (currentStep == null) {
+                Step step = new Step();
+                step.add(delta);
+                commit(step);
+            } else {
+                currentStep.add(delta);
+            }
+        }
+    }
+
+    /**
+     * Adds the specified step to the undo steps, discarding the redo steps and the oldest undo steps exceeding the
+     * bounds.
+     *
+     * @param step Step to be added.
+     */
+    private void commit(Step step) {
+        if (!step.isEmpty()) {
+            step.weigh(sizeEstimator);
+            for (Step redoStep : redoSteps) {
+                memoryUsage -= redoStep.getWeight();
+            }
+            redoSteps.clear();
+            undoSteps.addLast(step);
+            memoryUsage += step.getWeight();
+            while (!undoSteps.isEmpty() && ((undoSteps.size() > maxSteps) || (memoryUsage > maxMemory))) {
+                memoryUsage -= undoSteps.removeFirst().getWeight();
+            }
+            updateStateProperties();
+        }
+    }
+
+    /**
+     * Undoes the most recent step, if any.
+     *
+     * @return True if a step has been undone, false if there was nothing to undo.
+     * @throws IllegalStateException If a transaction is in progress.
+     */
+    public boolean undo() {
+        checkNoTransaction();
+        Step step = undoSteps.pollLast();
+        if (step != null) {
+            applying = true;
+            try {
+                step.undo();
+            } finally {
+                applying = false;
+            }
+            redoSteps.addFirst(step);
+            updateStateProperties();
+        }
+        return step != null;
+    }
+
+    /**
+     * Redoes the most recently undone step, if any.
+     *
+     * @return True if a step has been redone, false if there was nothing to redo.
+     * @throws IllegalStateException If a transaction is in progress.
+     */
+    public boolean redo() {
+        checkNoTransaction();
+        Step step = redoSteps.pollFirst();
+        if (step != null) {
+            applying = true;
+            try {
+                step.redo();
+            } finally {
+                applying = false;
+            }
+            undoSteps.addLast(step);
+            updateStateProperties();
+        }
+        return step != null;
+    }
+
+    /**
+     * Checks that no transaction is in progress.
+     */
+    private void checkNoTransaction() {
+        if (transactionDepth > 0) {
+            throw new IllegalStateException("Cannot undo or redo during a transaction");
+        }
+    }
+
+    /**
+     * Discards all the undo and redo steps.
+     */
+    public void clear() {
+        undoSteps.clear();
+        redoSteps.clear();
+        memoryUsage = 0;
+        updateStateProperties();
+    }
+
+    /**
+     * Updates the undoable and redoable properties.
+     */
+    private void updateStateProperties() {
+        undoable.setValue(!undoSteps.isEmpty());
+        redoable.setValue(!redoSteps.isEmpty());
+    }
+
+    /**
+     * Gets the read-only property stating whether a step can be undone.
+     *
+     * @return Undoable property.
+     */
+    public ReadableProperty<Boolean> getUndoableProperty() {
+        return undoableWrapper;
+    }
+
+    /**
+     * Gets the read-only property stating whether a step can be redone.
+     *
+     * @return Redoable property.
+     */
+    public ReadableProperty<Boolean> getRedoableProperty() {
+        return redoableWrapper;
+    }
+
+    /**
+     * Gets the number of steps that can be undone.
+     *
+     * @return Number of undo steps.
+     */
+    public int getUndoSize() {
+        return undoSteps.size();
+    }
+
+    /**
+     * Gets the number of steps that can be redone.
+     *
+     * @return Number of redo steps.
+     */
+    public int getRedoSize() {
+        return redoSteps.size();
+    }
+
+    /**
+     * Gets the estimated memory retained by all the undo and redo steps.
+     *
+     * @return Estimated memory usage, in bytes.
+     */
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * Stops tracking all the properties and discards all the steps.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        for (Runnable unsubscriber : registrations.values()) {
+            unsubscriber.run();
+        }
+        registrations.clear();
+        currentStep = null;
+        transactionDepth = 0;
+        clear();
+        undoable.dispose();
+        redoable.dispose();
+    }
+
+    /**
+     * Group of deltas undone and redone together.
+     */
+    private static final class Step {
+
+        /**
+         * Deltas in the order of the changes.
+         */
+        private final List<Delta> deltas = new ArrayList<>(2);
+
+        /**
+         * Estimated memory retained by the deltas, in bytes.
+         */
+        private long weight = 0;
+
+        /**
+         * Adds the specified delta.
+         *
+         * @param delta Delta to be added.
+         */
+        void add(Delta delta) {
+            deltas.add(delta);
+        }
+
+        /**
+         * Gets the last added delta.
+         *
+         * @return Last delta, or null if the step is empty.
+         */
+        Delta getLastDelta() {
+            return deltas.isEmpty() ? null : deltas.get(deltas.size() - 1);
+        }
+
+        /**
+         * States whether the step contains any delta.
+         *
+         * @return True if the step is empty, false otherwise.
+         */
+        boolean isEmpty() {
+            return deltas.isEmpty();
+        }
+
+        /**
+         * Estimates the memory retained by the deltas.
+         *
+         * @param sizeEstimator Estimator of the size of the values.
+         */
+        void weigh(ToLongFunction<Object> sizeEstimator) {
+            weight = 0;
+            for (Delta delta : deltas) {
+                weight += delta.estimateSize(sizeEstimator);
+            }
+        }
+
+        /**
+         * Gets the estimated memory retained by the deltas.
+         *
+         * @return Estimated size, in bytes.
+         */
+        long getWeight() {
+            return weight;
+        }
+
+        /**
+         * Reverts the deltas, the most recent one first.
+         */
+        void undo() {
+            List<AbstractReadableProperty<?>> inhibitedProperties = inhibitValueProperties();
+            try {
+                for (int i = deltas.size() - 1; i >= 0; i--) {
+                    deltas.get(i).undo();
+                }
+            } finally {
+                uninhibit(inhibitedProperties);
+            }
+        }
+
+        /**
+         * Applies the deltas again, in the order of the changes.
+         */
+        void redo() {
+            List<AbstractReadableProperty<?>> inhibitedProperties = inhibitValueProperties();
+            try {
+                for (Delta delta : deltas) {
+                    delta.redo();
+                }
+            } finally {
+                uninhibit(inhibitedProperties);
+            }
+        }
+
+        /**
+         * Inhibits the single-value properties changed by the deltas that support it and that are not already
+         * inhibited.
+         *
+         * @return Inhibited properties.
+         */
+        private List<AbstractReadableProperty<?>> inhibitValueProperties() {
+            List<AbstractReadableProperty<?>> inhibitedProperties = new ArrayList<>();
+            for (Delta delta : deltas) {
+                if ((delta instanceof Delta.ValueDelta) && (delta.getProperty() instanceof AbstractReadableProperty)) {
+                    AbstractReadableProperty<?> property = (AbstractReadableProperty<?>) delta.getProperty();
+                    if (!property.isInhibited()) {
+                        property.setInhibited(true);
+                        inhibitedProperties.add(property);
+                    }
+                }
+            }
+            return inhibitedProperties;
+        }
+
+        /**
+         * Un-inhibits the specified properties, notifying their listeners of their final values.
+         *
+         * @param inhibitedProperties Properties inhibited by {@link #inhibitValueProperties()}.
+         */
+        private static void uninhibit(List<AbstractReadableProperty<?>> inhibitedProperties) {
+            for (AbstractReadableProperty<?> property : inhibitedProperties) {
+                property.setInhibited(false);
+            }
+        }
+    }
+}
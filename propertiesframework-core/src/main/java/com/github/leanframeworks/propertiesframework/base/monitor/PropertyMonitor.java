@@ -0,0 +1,77 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.monitor;
+
+/**
+ * Interface to be implemented by profilers to monitor the activity of properties and bindings.
+ * <p>
+ * Each method is called at the start of a monitored operation and returns the scope of this operation, which will be
+ * ended once the operation is complete. Implementations should return null for operations they do not record, so
+ * that nothing needs to be ended, and should not throw any exception.
+ * <p>
+ * A monitor can be installed using {@link PropertyMonitors#install(PropertyMonitor)}, or declared as a service
+ * provider in {@code META-INF/services/com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor} to
+ * be installed automatically.
+ *
+ * @see PropertyMonitors
+ */
+public interface PropertyMonitor {
+
+    /**
+     * Starts the notification of the listeners of a property.
+     * <p>
+     * Notifications triggered by the listeners are nested in this notification on the same thread.
+     *
+     * @param property      Property notifying its listeners.
+     * @param listenerCount Number of listeners to be notified.
+     * @return Scope of the notification, or null if it is not to be recorded.
+     */
+    MonitorScope beginNotification(Object property, int listenerCount);
+
+    /**
+     * Starts the evaluation of a transformer, for instance by a binding.
+     *
+     * @param transformer Transformer to be evaluated.
+     * @param stageCount  Number of stages of the transformer, greater than one for transformer chains.
+     * @return Scope of the evaluation, or null if it is not to be recorded.
+     */
+    MonitorScope beginEvaluation(Object transformer, int stageCount);
+
+    /**
+     * Starts the hand-off of a property change to another thread, for instance to the Event Dispatch Thread.
+     * <p>
+     * The scope is started on the thread scheduling the hand-off and ended on the target thread once the change has
+     * been processed, so that it covers both the waiting time and the processing time.
+     *
+     * @param property Property whose change is handed off.
+     * @return Scope of the hand-off, or null if it is not to be recorded.
+     */
+    MonitorScope beginHandOff(Object property);
+}
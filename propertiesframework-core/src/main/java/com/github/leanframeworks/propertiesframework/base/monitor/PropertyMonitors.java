@@ -0,0 +1,96 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.monitor;
+
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Entry point to install the {@link PropertyMonitor} to be used by all properties and bindings.
+ * <p>
+ * Upon initialization, the first {@link PropertyMonitor} service provider found by the {@link ServiceLoader}, if any,
+ * is installed. When no monitor is installed, monitoring only costs a null check at each monitored operation.
+ */
+public final class PropertyMonitors {
+
+    /**
+     * Installed monitor, or null if none.
+     */
+    private static volatile PropertyMonitor installed = loadProvider();
+
+    /**
+     * Private constructor for utility class.
+     */
+    private PropertyMonitors() {
+        // Nothing to be done
+    }
+
+    /**
+     * Loads the first monitor service provider.
+     *
+     * @return Monitor, or null if none is available.
+     */
+    private static PropertyMonitor loadProvider() {
+        PropertyMonitor provider = null;
+        try {
+            Iterator<PropertyMonitor> providers = ServiceLoader.load(PropertyMonitor.class,
+                    PropertyMonitor.class.getClassLoader()).iterator();
+            if (providers.hasNext()) {
+                provider = providers.next();
+            }
+        } catch (ServiceConfigurationError | LinkageError e) {
+            LoggerFactory.getLogger(PropertyMonitors.class).warn("Property monitor could not be loaded", e);
+        }
+        return provider;
+    }
+
+    /**
+     * Gets the installed monitor.
+     *
+     * @return Installed monitor, or null if none.
+     */
+    public static PropertyMonitor getInstalled() {
+        return installed;
+    }
+
+    /**
+     * Installs the specified monitor, replacing the previously installed one.
+     * <p>
+     * Scopes started by the previous monitor will still be ended.
+     *
+     * @param monitor Monitor to be installed, or null to disable monitoring.
+     */
+    public static void install(PropertyMonitor monitor) {
+        installed = monitor;
+    }
+}
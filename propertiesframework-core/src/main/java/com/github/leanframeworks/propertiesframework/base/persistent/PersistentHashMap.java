@@ -0,0 +1,739 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.persistent;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable map backed by a hash array mapped trie.
+ * <p>
+ * Each node of the trie uses 5 bits of the hash of the keys to dispatch the entries to at most 32 children, and a
+ * bitmap so that only the children that actually exist take memory. Deriving a new map from an existing one (with
+ * {@link #plus(Object, Object)} or {@link #minus(Object)}) only copies the path from the root to the modified entry,
+ * so that both maps share all the other nodes. Lookups and modifications are therefore in O(log32(n)).
+ * <p>
+ * Null keys and null values are supported.
+ * <p>
+ * Maps are immutable: all the mutators inherited from {@link Map} throw an {@link UnsupportedOperationException}.
+ *
+ * @param <K> Type of keys.
+ * @param <V> Type of values.
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * Number of bits of the hash consumed by each level of the trie.
+     */
+    private static final int BITS = 5;
+
+    /**
+     * Maximum depth of the trie, including the collision nodes.
+     */
+    private static final int MAX_DEPTH = 10;
+
+    /**
+     * Empty map.
+     */
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    /**
+     * Root node of the trie, or null if the map is empty.
+     */
+    private final Node<K, V> root;
+
+    /**
+     * Number of entries in the map.
+     */
+    private final int count;
+
+    /**
+     * Entry set view of the map.
+     */
+    private Set<Entry<K, V>> entrySet = null;
+
+    /**
+     * Constructor.
+     *
+     * @param root  Root node of the trie, or null if the map is empty.
+     * @param count Number of entries in the map.
+     */
+    private PersistentHashMap(Node<K, V> root, int count) {
+        this.root = root;
+        this.count = count;
+    }
+
+    /**
+     * Gets the empty map.
+     *
+     * @param <K> Type of keys.
+     * @param <V> Type of values.
+     * @return Empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Creates a map containing the entries of the specified map.
+     *
+     * @param entries Entries to be put in the map.
+     * @param <K>     Type of keys.
+     * @param <V>     Type of values.
+     * @return Map containing the specified entries.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> of(Map<? extends K, ? extends V> entries) {
+        if (entries instanceof PersistentHashMap) {
+            return (PersistentHashMap<K, V>) entries;
+        }
+        return PersistentHashMap.<K, V>empty().plusAll(entries);
+    }
+
+    /**
+     * @see AbstractMap#size()
+     */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @see AbstractMap#containsKey(Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return (root != null) && (root.find(0, hash(key), key) != null);
+    }
+
+    /**
+     * @see AbstractMap#get(Object)
+     */
+    @Override
+    public V get(Object key) {
+        Leaf<K, V> leaf = (root == null) ? null : root.find(0, hash(key), key);
+        return (leaf == null) ? null : leaf.getValue();
+    }
+
+    /**
+     * @see AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Creates a map containing all the entries of this map, plus the specified entry.
+     * <p>
+     * If this map already contains an entry for the specified key, its value is replaced in the new map.
+     *
+     * @param key   Key of the entry.
+     * @param value Value of the entry.
+     * @return New map, or this map if it already maps the specified key to the very same value.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        Leaf<K, V> leaf = new Leaf<>(hash(key), key, value);
+        int[] added = new int[1];
+        Node<K, V> newRoot = (root == null) ? new BitmapNode<K, V>(0, new Object[0]).put(0, leaf, added) :
+                root.put(0, leaf, added);
+        return (newRoot == root) ? this : new PersistentHashMap<>(newRoot, count + added[0]);
+    }
+
+    /**
+     * Creates a map containing all the entries of this map, plus the specified entries.
+     *
+     * @param entries Entries to be put.
+     * @return New map, or this map if nothing changed.
+     */
+    public PersistentHashMap<K, V> plusAll(Map<? extends K, ? extends V> entries) {
+        PersistentHashMap<K, V> result = this;
+        for (Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            result = result.plus(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Creates a map containing all the entries of this map, except the entry for the specified key.
+     *
+     * @param key Key of the entry to be removed.
+     * @return New map, or this map if it does not contain the specified key.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        if (root == null) {
+            return this;
+        }
+        Node<K, V> newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        } else if (count == 1) {
+            return empty();
+        }
+        return new PersistentHashMap<>(newRoot, count - 1);
+    }
+
+    /**
+     * Computes the hash of the specified key, spreading the higher bits to the lower ones.
+     *
+     * @param key Key, possibly null.
+     * @return Hash of the key.
+     */
+    private static int hash(Object key) {
+        int hash = (key == null) ? 0 : key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Gets the bit of a bitmap node corresponding to the specified hash at the specified level.
+     *
+     * @param hash  Hash of a key.
+     * @param shift Number of bits of the hash consumed by the upper levels.
+     * @return Bit corresponding to the hash.
+     */
+    private static int bitFor(int hash, int shift) {
+        return 1 << ((hash >>> shift) & 0x1F);
+    }
+
+    /**
+     * Entry stored in the trie, along with the hash of its key.
+     *
+     * @param <K> Type of key.
+     * @param <V> Type of value.
+     */
+    private static final class Leaf<K, V> extends SimpleImmutableEntry<K, V> {
+
+        /**
+         * Generated serial UID.
+         */
+        private static final long serialVersionUID = -3264410417349573862L;
+
+        /**
+         * Hash of the key.
+         */
+        private final int hash;
+
+        /**
+         * Constructor.
+         *
+         * @param hash  Hash of the key.
+         * @param key   Key.
+         * @param value Value.
+         */
+        Leaf(int hash, K key, V value) {
+            super(key, value);
+            this.hash = hash;
+        }
+
+        /**
+         * States whether this entry is for the specified key.
+         *
+         * @param hash Hash of the key.
+         * @param key  Key.
+         * @return True if this entry is for the key, false otherwise.
+         */
+        boolean isFor(int hash, Object key) {
+            return (this.hash == hash) && Objects.equals(getKey(), key);
+        }
+    }
+
+    /**
+     * Node of the trie.
+     *
+     * @param <K> Type of keys.
+     * @param <V> Type of values.
+     */
+    private abstract static class Node<K, V> {
+
+        /**
+         * Finds the entry for the specified key in this node or its children.
+         *
+         * @param shift Number of bits of the hash consumed by the upper levels.
+         * @param hash  Hash of the key.
+         * @param key   Key.
+         * @return Entry for the key, or null if there is none.
+         */
+        abstract Leaf<K, V> find(int shift, int hash, Object key);
+
+        /**
+         * Creates a copy of this node with the specified entry added or replaced.
+         *
+         * @param shift Number of bits of the hash consumed by the upper levels.
+         * @param leaf  Entry to be put.
+         * @param added Array whose first item is set to 1 if the entry was added rather than replaced.
+         * @return New node, or this node if it already contains the very same entry.
+         */
+        abstract Node<K, V> put(int shift, Leaf<K, V> leaf, int[] added);
+
+        /**
+         * Creates a copy of this node without the entry for the specified key.
+         *
+         * @param shift Number of bits of the hash consumed by the upper levels.
+         * @param hash  Hash of the key.
+         * @param key   Key.
+         * @return New node, this node if it does not contain the key, or null if the new node would be empty.
+         */
+        abstract Node<K, V> remove(int shift, int hash, Object key);
+
+        /**
+         * Gets the children of this node, that are either entries or other nodes.
+         *
+         * @return Children of the node.
+         */
+        abstract Object[] children();
+
+        /**
+         * Gets the only entry of this node, so that the node can be replaced by its entry in its parent.
+         *
+         * @return Only entry of the node, or null if the node has several children or a child node.
+         */
+        Leaf<K, V> singleLeaf() {
+            Object[] children = children();
+            return ((children.length == 1) && (children[0] instanceof Leaf)) ? toLeaf(children[0]) : null;
+        }
+
+        /**
+         * Casts the specified child to an entry.
+         *
+         * @param child Child of the node.
+         * @return Entry.
+         */
+        @SuppressWarnings("unchecked")
+        Leaf<K, V> toLeaf(Object child) {
+            return (Leaf<K, V>) child;
+        }
+
+        /**
+         * Casts the specified child to a node.
+         *
+         * @param child Child of the node.
+         * @return Node.
+         */
+        @SuppressWarnings("unchecked")
+        Node<K, V> toNode(Object child) {
+            return (Node<K, V>) child;
+        }
+    }
+
+    /**
+     * Node dispatching its children according to 5 bits of the hash of the keys.
+     *
+     * @param <K> Type of keys.
+     * @param <V> Type of values.
+     */
+    private static final class BitmapNode<K, V> extends Node<K, V> {
+
+        /**
+         * Bitmap telling which of the 32 possible children exist.
+         */
+        private final int bitmap;
+
+        /**
+         * Existing children, in the order of their bits.
+         */
+        private final Object[] array;
+
+        /**
+         * Constructor.
+         *
+         * @param bitmap Bitmap telling which of the 32 possible children exist.
+         * @param array  Existing children.
+         */
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        /**
+         * Gets the position in the array of the child corresponding to the specified bit.
+         *
+         * @param bit Bit of the child.
+         * @return Position of the child.
+         */
+        private int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Leaf<K, V> find(int shift, int hash, Object key) {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = array[indexOf(bit)];
+            if (child instanceof Leaf) {
+                Leaf<K, V> leaf = toLeaf(child);
+                return leaf.isFor(hash, key) ? leaf : null;
+            }
+            return toNode(child).find(shift + BITS, hash, key);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Node<K, V> put(int shift, Leaf<K, V> leaf, int[] added) {
+            int bit = bitFor(leaf.hash, shift);
+            int index = indexOf(bit);
+
+            if ((bitmap & bit) == 0) {
+                // New child
+                Object[] newArray = new Object[array.length + 1];
+                System.arraycopy(array, 0, newArray, 0, index);
+                newArray[index] = leaf;
+                System.arraycopy(array, index, newArray, index + 1, array.length - index);
+                added[0] = 1;
+                return new BitmapNode<>(bitmap | bit, newArray);
+            }
+
+            Object child = array[index];
+            Object newChild;
+            if (child instanceof Leaf) {
+                Leaf<K, V> existing = toLeaf(child);
+                if (existing.isFor(leaf.hash, leaf.getKey())) {
+                    if (existing.getValue() == leaf.getValue()) {
+                        return this;
+                    }
+                    newChild = leaf;
+                } else {
+                    newChild = createNode(shift + BITS, existing, leaf);
+                    added[0] = 1;
+                }
+            } else {
+                newChild = toNode(child).put(shift + BITS, leaf, added);
+                if (newChild == child) {
+                    return this;
+                }
+            }
+            Object[] newArray = array.clone();
+            newArray[index] = newChild;
+            return new BitmapNode<>(bitmap, newArray);
+        }
+
+        /**
+         * Creates the node containing the two specified entries, whose keys are different.
+         *
+         * @param shift  Number of bits of the hash consumed by the upper levels.
+         * @param first  First entry.
+         * @param second Second entry.
+         * @return Node containing both entries.
+         */
+        private Node<K, V> createNode(int shift, Leaf<K, V> first, Leaf<K, V> second) {
+            if (first.hash == second.hash) {
+                return new CollisionNode<>(first.hash, new Object[]{first, second});
+            }
+            int[] ignored = new int[1];
+            return new BitmapNode<K, V>(0, new Object[0]).put(shift, first, ignored).put(shift, second, ignored);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Node<K, V> remove(int shift, int hash, Object key) {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = indexOf(bit);
+            Object child = array[index];
+
+            Object newChild;
+            if (child instanceof Leaf) {
+                if (!toLeaf(child).isFor(hash, key)) {
+                    return this;
+                }
+                newChild = null;
+            } else {
+                Node<K, V> newNode = toNode(child).remove(shift + BITS, hash, key);
+                if (newNode == child) {
+                    return this;
+                }
+                Leaf<K, V> single = (newNode == null) ? null : newNode.singleLeaf();
+                newChild = (single == null) ? newNode : single;
+            }
+
+            if (newChild != null) {
+                Object[] newArray = array.clone();
+                newArray[index] = newChild;
+                return new BitmapNode<>(bitmap, newArray);
+            } else if (array.length == 1) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 1];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 1, newArray, index, array.length - index - 1);
+            return new BitmapNode<>(bitmap & ~bit, newArray);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Object[] children() {
+            return array;
+        }
+    }
+
+    /**
+     * Node holding the entries whose keys have the same hash.
+     *
+     * @param <K> Type of keys.
+     * @param <V> Type of values.
+     */
+    private static final class CollisionNode<K, V> extends Node<K, V> {
+
+        /**
+         * Hash shared by all the keys of the node.
+         */
+        private final int hash;
+
+        /**
+         * Entries of the node.
+         */
+        private final Object[] leaves;
+
+        /**
+         * Constructor.
+         *
+         * @param hash   Hash shared by all the keys of the node.
+         * @param leaves Entries of the node.
+         */
+        CollisionNode(int hash, Object[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        /**
+         * Gets the position of the entry for the specified key.
+         *
+         * @param key Key.
+         * @return Position of the entry, or -1 if there is none.
+         */
+        private int indexOf(Object key) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (Objects.equals(toLeaf(leaves[i]).getKey(), key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Leaf<K, V> find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int index = indexOf(key);
+            return (index < 0) ? null : toLeaf(leaves[index]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Node<K, V> put(int shift, Leaf<K, V> leaf, int[] added) {
+            if (leaf.hash != hash) {
+                // Nest this node in a bitmap node to dispatch it and the new entry
+                return new BitmapNode<K, V>(bitFor(hash, shift), new Object[]{this}).put(shift, leaf, added);
+            }
+
+            int index = indexOf(leaf.getKey());
+            Object[] newLeaves;
+            if (index < 0) {
+                newLeaves = new Object[leaves.length + 1];
+                System.arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+                newLeaves[leaves.length] = leaf;
+                added[0] = 1;
+            } else if (toLeaf(leaves[index]).getValue() == leaf.getValue()) {
+                return this;
+            } else {
+                newLeaves = leaves.clone();
+                newLeaves[index] = leaf;
+            }
+            return new CollisionNode<>(hash, newLeaves);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Node<K, V> remove(int shift, int hash, Object key) {
+            int index = (hash == this.hash) ? indexOf(key) : -1;
+            if (index < 0) {
+                return this;
+            } else if (leaves.length == 1) {
+                return null;
+            }
+            Object[] newLeaves = new Object[leaves.length - 1];
+            System.arraycopy(leaves, 0, newLeaves, 0, index);
+            System.arraycopy(leaves, index + 1, newLeaves, index, leaves.length - index - 1);
+            return new CollisionNode<>(hash, newLeaves);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Object[] children() {
+            return leaves;
+        }
+    }
+
+    /**
+     * Entry set view of the map.
+     */
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return count;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            Leaf<K, V> leaf = (root == null) ? null : root.find(0, hash(entry.getKey()), entry.getKey());
+            return (leaf != null) && Objects.equals(leaf.getValue(), entry.getValue());
+        }
+    }
+
+    /**
+     * Depth-first iterator over the entries of the trie.
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+
+        /**
+         * Children of the nodes on the path from the root to the current position.
+         */
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+
+        /**
+         * Position of the next child to be visited in each of the arrays.
+         */
+        private final int[] positions = new int[MAX_DEPTH];
+
+        /**
+         * Depth of the current node.
+         */
+        private int depth = -1;
+
+        /**
+         * Next entry to be returned.
+         */
+        private Leaf<K, V> next = null;
+
+        /**
+         * Constructor.
+         */
+        EntryIterator() {
+            if (root != null) {
+                depth = 0;
+                arrays[0] = root.children();
+                advance();
+            }
+        }
+
+        /**
+         * Moves to the next entry.
+         */
+        private void advance() {
+            next = null;
+            while ((next == null) && (depth >= 0)) {
+                if (positions[depth] < arrays[depth].length) {
+                    Object child = arrays[depth][positions[depth]++];
+                    if (child instanceof Leaf) {
+                        next = root.toLeaf(child);
+                    } else {
+                        depth++;
+                        arrays[depth] = root.toNode(child).children();
+                        positions[depth] = 0;
+                    }
+                } else {
+                    arrays[depth] = null;
+                    depth--;
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Leaf<K, V> result = next;
+            advance();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.persistent;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Immutable set backed by a {@link PersistentHashMap}.
+ * <p>
+ * Deriving a new set from an existing one (with {@link #plus(Object)} or {@link #minus(Object)}) is in O(log32(n)),
+ * and both sets share most of their structure.
+ * <p>
+ * Sets are immutable: all the mutators inherited from {@link java.util.Set} throw an
+ * {@link UnsupportedOperationException}.
+ *
+ * @param <E> Type of items in the set.
+ */
+public final class PersistentHashSet<E> extends AbstractSet<E> {
+
+    /**
+     * Empty set.
+     */
+    private static final PersistentHashSet<?> EMPTY = new PersistentHashSet<>(PersistentHashMap.empty());
+
+    /**
+     * Map whose keys are the items of the set.
+     */
+    private final PersistentHashMap<E, Boolean> map;
+
+    /**
+     * Constructor.
+     *
+     * @param map Map whose keys are the items of the set.
+     */
+    private PersistentHashSet(PersistentHashMap<E, Boolean> map) {
+        this.map = map;
+    }
+
+    /**
+     * Gets the empty set.
+     *
+     * @param <E> Type of items in the set.
+     * @return Empty set.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentHashSet<E> empty() {
+        return (PersistentHashSet<E>) EMPTY;
+    }
+
+    /**
+     * Creates a set containing the specified items.
+     *
+     * @param items Items to be put in the set.
+     * @param <E>   Type of items in the set.
+     * @return Set containing the specified items.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentHashSet<E> of(Collection<? extends E> items) {
+        if (items instanceof PersistentHashSet) {
+            return (PersistentHashSet<E>) items;
+        }
+        return PersistentHashSet.<E>empty().plusAll(items);
+    }
+
+    /**
+     * @see AbstractSet#size()
+     */
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * @see AbstractSet#contains(Object)
+     */
+    @Override
+    public boolean contains(Object item) {
+        return map.containsKey(item);
+    }
+
+    /**
+     * @see AbstractSet#iterator()
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return map.keySet().iterator();
+    }
+
+    /**
+     * Creates a set containing all the items of this set, plus the specified item.
+     *
+     * @param item Item to be added.
+     * @return New set, or this set if it already contains the item.
+     */
+    public PersistentHashSet<E> plus(E item) {
+        PersistentHashMap<E, Boolean> newMap = map.plus(item, Boolean.TRUE);
+        return (newMap == map) ? this : new PersistentHashSet<>(newMap);
+    }
+
+    /**
+     * Creates a set containing all the items of this set, plus the specified items.
+     *
+     * @param items Items to be added.
+     * @return New set, or this set if it already contains all the items.
+     */
+    public PersistentHashSet<E> plusAll(Iterable<? extends E> items) {
+        PersistentHashSet<E> result = this;
+        for (E item : items) {
+            result = result.plus(item);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a set containing all the items of this set, except the specified item.
+     *
+     * @param item Item to be removed.
+     * @return New set, or this set if it does not contain the item.
+     */
+    public PersistentHashSet<E> minus(Object item) {
+        PersistentHashMap<E, Boolean> newMap = map.minus(item);
+        if (newMap == map) {
+            return this;
+        } else if (newMap.isEmpty()) {
+            return empty();
+        }
+        return new PersistentHashSet<>(newMap);
+    }
+}
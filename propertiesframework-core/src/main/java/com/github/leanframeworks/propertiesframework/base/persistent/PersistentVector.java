@@ -0,0 +1,477 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.persistent;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list backed by a 32-way bit-partitioned trie, with a tail buffer for the last items.
+ * <p>
+ * Deriving a new vector from an existing one (for instance, with {@link #plus(Object)} or {@link #with(int, Object)})
+ * only copies the path from the root to the modified leaf, so that both vectors share all the other nodes. Reading,
+ * appending, replacing and removing the last item are therefore in O(log32(n)), which is almost constant in practice.
+ * <p>
+ * Inserting or removing items in the middle of the vector re-appends all the items following the modified index, in
+ * O(n - index). This keeps the implementation simple while remaining cheap for the typical usages of list properties,
+ * where most changes are made at the end of the list.
+ * <p>
+ * Vectors are immutable: all the mutators inherited from {@link java.util.List} throw an
+ * {@link UnsupportedOperationException}.
+ *
+ * @param <E> Type of items in the vector.
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * Number of bits of the index consumed by each level of the trie.
+     */
+    private static final int BITS = 5;
+
+    /**
+     * Number of children per node of the trie, and maximum size of the tail.
+     */
+    private static final int WIDTH = 1 << BITS;
+
+    /**
+     * Mask to get the index of a child in a node of the trie.
+     */
+    private static final int MASK = WIDTH - 1;
+
+    /**
+     * Node without any children.
+     */
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+
+    /**
+     * Empty vector.
+     */
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    /**
+     * Number of items in the vector.
+     */
+    private final int count;
+
+    /**
+     * Number of bits of the index to be shifted to get the index of a child in the root node.
+     */
+    private final int shift;
+
+    /**
+     * Root node of the trie, containing all the items except the ones in the tail.
+     */
+    private final Object[] root;
+
+    /**
+     * Last items of the vector, not yet pushed in the trie.
+     */
+    private final Object[] tail;
+
+    /**
+     * Constructor.
+     *
+     * @param count Number of items in the vector.
+     * @param shift Number of bits of the index to be shifted to get the index of a child in the root node.
+     * @param root  Root node of the trie.
+     * @param tail  Last items of the vector.
+     */
+    private PersistentVector(int count, int shift, Object[] root, Object[] tail) {
+        this.count = count;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Gets the empty vector.
+     *
+     * @param <E> Type of items in the vector.
+     * @return Empty vector.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Creates a vector containing the specified items, in the iteration order of the collection.
+     *
+     * @param items Items to be put in the vector.
+     * @param <E>   Type of items in the vector.
+     * @return Vector containing the specified items.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> of(Collection<? extends E> items) {
+        if (items instanceof PersistentVector) {
+            return (PersistentVector<E>) items;
+        }
+        return PersistentVector.<E>empty().plusAll(items);
+    }
+
+    /**
+     * @see AbstractList#size()
+     */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @see AbstractList#get(int)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public E get(int index) {
+        checkIndex(index, count);
+        return (E) arrayFor(index)[index & MASK];
+    }
+
+    /**
+     * @see AbstractList#iterator()
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new VectorIterator();
+    }
+
+    /**
+     * Creates a vector containing all the items of this vector, plus the specified item at the end.
+     *
+     * @param item Item to be appended.
+     * @return New vector.
+     */
+    public PersistentVector<E> plus(E item) {
+        if (count - tailOffset() < WIDTH) {
+            // Room left in the tail
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = item;
+            return new PersistentVector<>(count + 1, shift, root, newTail);
+        }
+
+        // Tail is full: push it into the trie
+        Object[] newRoot;
+        int newShift = shift;
+        if ((count >>> BITS) > (1 << shift)) {
+            // Root is full: add a level to the trie
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<>(count + 1, newShift, newRoot, new Object[]{item});
+    }
+
+    /**
+     * Creates a vector containing all the items of this vector, plus the specified items at the end.
+     *
+     * @param items Items to be appended.
+     * @return New vector, or this vector if the specified collection is empty.
+     */
+    public PersistentVector<E> plusAll(Iterable<? extends E> items) {
+        PersistentVector<E> result = this;
+        for (E item : items) {
+            result = result.plus(item);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a vector containing all the items of this vector, except the item at the specified index that is
+     * replaced by the specified item.
+     *
+     * @param index Index of the item to be replaced.
+     * @param item  Replacing item.
+     * @return New vector.
+     */
+    public PersistentVector<E> with(int index, E item) {
+        checkIndex(index, count);
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = item;
+            return new PersistentVector<>(count, shift, root, newTail);
+        }
+        return new PersistentVector<>(count, shift, assoc(shift, root, index, item), tail);
+    }
+
+    /**
+     * Creates a vector containing all the items of this vector, with the specified items inserted at the specified
+     * index.
+     *
+     * @param index Index at which the first item is to be inserted.
+     * @param items Items to be inserted.
+     * @return New vector, or this vector if the specified collection is empty.
+     */
+    public PersistentVector<E> insert(int index, Collection<? extends E> items) {
+        checkIndex(index, count + 1);
+        if (items.isEmpty()) {
+            return this;
+        }
+        return take(index).plusAll(items).plusAll(subList(index, count));
+    }
+
+    /**
+     * Creates a vector containing all the items of this vector, except the items from the specified start index
+     * (inclusive) to the specified end index (exclusive).
+     *
+     * @param fromIndex Index of the first item to be removed.
+     * @param toIndex   Index after the last item to be removed.
+     * @return New vector, or this vector if there is no item to be removed.
+     */
+    public PersistentVector<E> without(int fromIndex, int toIndex) {
+        if ((fromIndex < 0) || (toIndex > count) || (fromIndex > toIndex)) {
+            throw new IndexOutOfBoundsException("From index: " + fromIndex + ", to index: " + toIndex + ", size: " +
+                    count);
+        }
+        if (fromIndex == toIndex) {
+            return this;
+        }
+        return take(fromIndex).plusAll(subList(toIndex, count));
+    }
+
+    /**
+     * Creates a vector containing all the items of this vector, except the last one.
+     *
+     * @return New vector.
+     * @throws IllegalStateException If the vector is empty.
+     */
+    public PersistentVector<E> pop() {
+        if (count == 0) {
+            throw new IllegalStateException("Cannot remove the last item of an empty vector");
+        } else if (count == 1) {
+            return empty();
+        } else if (count - tailOffset() > 1) {
+            // Just shrink the tail
+            return new PersistentVector<>(count - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+
+        // Pull the last leaf of the trie to make it the new tail
+        Object[] newTail = arrayFor(count - 2);
+        Object[] newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null) {
+            newRoot = EMPTY_NODE;
+        }
+        if ((shift > BITS) && (newRoot[1] == null)) {
+            // Remove a level of the trie
+            newRoot = (Object[]) newRoot[0];
+            newShift -= BITS;
+        }
+        return new PersistentVector<>(count - 1, newShift, newRoot, newTail);
+    }
+
+    /**
+     * Creates a vector containing only the specified number of items from the start of this vector.
+     * <p>
+     * The shortest of removing the trailing items one by one and rebuilding the vector from scratch is used.
+     *
+     * @param size Number of items to be kept.
+     * @return New vector, or this vector if all items are kept.
+     */
+    private PersistentVector<E> take(int size) {
+        PersistentVector<E> result;
+        if (size >= count / 2) {
+            result = this;
+            while (result.count > size) {
+                result = result.pop();
+            }
+        } else {
+            result = PersistentVector.<E>empty().plusAll(subList(0, size));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the index of the first item in the tail.
+     *
+     * @return Offset of the tail.
+     */
+    private int tailOffset() {
+        return (count < WIDTH) ? 0 : (((count - 1) >>> BITS) << BITS);
+    }
+
+    /**
+     * Gets the leaf array containing the item at the specified index.
+     *
+     * @param index Index of the item.
+     * @return Leaf array, or the tail.
+     */
+    private Object[] arrayFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    /**
+     * Copies the path from the specified node to the first free leaf slot, and puts the specified tail in it.
+     *
+     * @param level    Level of the node.
+     * @param parent   Node to push the tail into.
+     * @param tailNode Full tail to be pushed.
+     * @return Copy of the node.
+     */
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((count - 1) >>> level) & MASK;
+        Object[] result = parent.clone();
+        Object[] nodeToInsert;
+        if (level == BITS) {
+            nodeToInsert = tailNode;
+        } else {
+            Object[] child = (Object[]) parent[subIndex];
+            nodeToInsert = (child == null) ? newPath(level - BITS, tailNode) : pushTail(level - BITS, child, tailNode);
+        }
+        result[subIndex] = nodeToInsert;
+        return result;
+    }
+
+    /**
+     * Copies the path from the specified node to the last leaf, and removes the last leaf from it.
+     *
+     * @param level Level of the node.
+     * @param node  Node to remove the last leaf from.
+     * @return Copy of the node, or null if the node would become empty.
+     */
+    private Object[] popTail(int level, Object[] node) {
+        int subIndex = ((count - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Object[] newChild = popTail(level - BITS, (Object[]) node[subIndex]);
+            if ((newChild == null) && (subIndex == 0)) {
+                return null;
+            }
+            Object[] result = node.clone();
+            result[subIndex] = newChild;
+            return result;
+        } else if (subIndex == 0) {
+            return null;
+        }
+        Object[] result = node.clone();
+        result[subIndex] = null;
+        return result;
+    }
+
+    /**
+     * Creates the chain of nodes leading to the specified leaf.
+     *
+     * @param level Level of the first node of the chain.
+     * @param leaf  Leaf at the end of the chain.
+     * @return First node of the chain.
+     */
+    private static Object[] newPath(int level, Object[] leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+        Object[] result = new Object[WIDTH];
+        result[0] = newPath(level - BITS, leaf);
+        return result;
+    }
+
+    /**
+     * Copies the path from the specified node to the leaf containing the specified index, and replaces the item at
+     * this index.
+     *
+     * @param level Level of the node.
+     * @param node  Node containing the item.
+     * @param index Index of the item.
+     * @param item  Replacing item.
+     * @return Copy of the node.
+     */
+    private static Object[] assoc(int level, Object[] node, int index, Object item) {
+        Object[] result = node.clone();
+        if (level == 0) {
+            result[index & MASK] = item;
+        } else {
+            int subIndex = (index >>> level) & MASK;
+            result[subIndex] = assoc(level - BITS, (Object[]) node[subIndex], index, item);
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the specified index is in the range [0, limit[.
+     *
+     * @param index Index to be checked.
+     * @param limit Exclusive upper bound.
+     */
+    private void checkIndex(int index, int limit) {
+        if ((index < 0) || (index >= limit)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + count);
+        }
+    }
+
+    /**
+     * Iterator walking through the leaves of the trie rather than looking up each item from the root.
+     */
+    private class VectorIterator implements Iterator<E> {
+
+        /**
+         * Index of the next item.
+         */
+        private int index = 0;
+
+        /**
+         * Leaf array containing the next item.
+         */
+        private Object[] array = null;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return index < count;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        public E next() {
+            if (index >= count) {
+                throw new NoSuchElementException();
+            }
+            if ((index & MASK) == 0) {
+                array = arrayFor(index);
+            }
+            return (E) array[index++ & MASK];
+        }
+    }
+}
@@ -30,9 +30,14 @@
 package com.github.leanframeworks.propertiesframework.base.property;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
 import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableListProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerSource;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -44,13 +49,26 @@ import java.util.List;
  *
  * @param <R> Type of values that can be read from this list.
  */
-public abstract class AbstractReadableListProperty<R> implements ReadableListProperty<R>, Disposable {
+public abstract class AbstractReadableListProperty<R> implements ReadableListProperty<R>, Versioned, Disposable,
+        ListenerSource {
 
     /**
      * Listeners to changes in the list property.
      */
     private final List<ListPropertyChangeListener<? super R>> listeners = new ArrayList<>();
 
+    /**
+     * Listeners to changes in ranges of indices, indexed by range.
+     */
+    private final IntervalIndex<ListRangeSubscription<R>> rangeListeners = new IntervalIndex<>();
+
+    /**
+     * Version number of the property content.
+     * <p>
+     * It is only modified by the thread changing the property content, but it can be read from any thread.
+     */
+    private volatile long version = 0;
+
     /**
      * Constructor adding no listener.
      */
@@ -82,6 +100,11 @@ public abstract class AbstractReadableListProperty<R> implements ReadableListPro
     @Override
     public void dispose() {
         listeners.clear();
+        List<ListRangeSubscription<R>> subscriptions = new ArrayList<>();
+        rangeListeners.query(0, Integer.MAX_VALUE, subscriptions);
+        for (ListRangeSubscription<R> subscription : subscriptions) {
+            subscription.dispose();
+        }
     }
 
     /**
@@ -95,6 +118,22 @@ public abstract class AbstractReadableListProperty<R> implements ReadableListPro
         return Collections.unmodifiableList(listeners);
     }
 
+    /**
+     * @see ListenerSource#getRegisteredListeners()
+     */
+    @Override
+    public Collection<?> getRegisteredListeners() {
+        return getChangeListeners();
+    }
+
+    /**
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * @see ReadableListProperty#addChangeListener(ListPropertyChangeListener)
      */
@@ -111,6 +150,27 @@ public abstract class AbstractReadableListProperty<R> implements ReadableListPro
         listeners.remove(listener);
     }
 
+    /**
+     * Adds a listener to be notified only of the changes that may affect the specified range of indices.
+     * <p>
+     * A replacement of items affects the range only if it replaces items in the range. An addition or removal of items
+     * affects the range if it occurs before or in the range, because the items of the range are shifted. The listener
+     * receives the whole change, and it is notified after the listeners added with
+     * {@link #addChangeListener(ListPropertyChangeListener)}.
+     * <p>
+     * Routing the changes to the range listeners is done using an interval index, so that it is in
+     * O(log(n) + k), where n is the number of range listeners and k the number of range listeners to be notified.
+     *
+     * @param fromIndex Index of the first item of the range.
+     * @param toIndex   Index after the last item of the range.
+     * @param listener  Listener to be added.
+     * @return Subscription that can be used to move the range or to remove the listener.
+     */
+    public ListRangeSubscription<R> addRangeListener(int fromIndex, int toIndex,
+                                                     ListPropertyChangeListener<? super R> listener) {
+        return new ListRangeSubscription<>(rangeListeners, fromIndex, toIndex, listener);
+    }
+
     /**
      * Notifies the change listeners that items have been added.
      * <p>
@@ -162,9 +222,31 @@ public abstract class AbstractReadableListProperty<R> implements ReadableListPro
      * @param event Event to be passed to the listeners.
      */
     protected void doNotifyListeners(ListPropertyChange<? extends R> event) {
+        version++;
         List<ListPropertyChangeListener<? super R>> listenersCopy = new ArrayList<>(listeners);
-        for (ListPropertyChangeListener<? super R> listener : listenersCopy) {
-            listener.listPropertyChanged(event);
+        PropertyMonitor monitor = PropertyMonitors.getInstalled();
+        MonitorScope scope = (monitor == null) ? null : monitor.beginNotification(this,
+                listenersCopy.size() + rangeListeners.size());
+        try {
+            for (ListPropertyChangeListener<? super R> listener : listenersCopy) {
+                listener.listPropertyChanged(event);
+            }
+
+            if (rangeListeners.size() > 0) {
+                int start = event.getStartIndex();
+                int end = event.valuesReplaced() ? (start + event.getNewValues().size()) : Integer.MAX_VALUE;
+                List<ListRangeSubscription<R>> subscriptions = new ArrayList<>();
+                rangeListeners.query(start, end, subscriptions);
+                for (ListRangeSubscription<R> subscription : subscriptions) {
+                    if (subscription.isActive()) {
+                        subscription.getListener().listPropertyChanged(event);
+                    }
+                }
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
         }
     }
 }
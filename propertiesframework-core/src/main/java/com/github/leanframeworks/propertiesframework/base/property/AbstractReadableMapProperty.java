@@ -30,9 +30,14 @@
 package com.github.leanframeworks.propertiesframework.base.property;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
 import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableMapProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerSource;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -46,7 +51,8 @@ import java.util.Map;
  * @param <K> Type of keys maintained by this map property.
  * @param <R> Type of mapped values in this map property.
  */
-public abstract class AbstractReadableMapProperty<K, R> implements ReadableMapProperty<K, R>, Disposable {
+public abstract class AbstractReadableMapProperty<K, R> implements ReadableMapProperty<K, R>, Versioned, Disposable,
+        ListenerSource {
 
     /**
      * Listeners to changes in the list property.
@@ -54,6 +60,13 @@ public abstract class AbstractReadableMapProperty<K, R> implements ReadableMapPr
     private final List<MapPropertyChangeListener<? super K, ? super R>> listeners = new
             ArrayList<>();
 
+    /**
+     * Version number of the property content.
+     * <p>
+     * It is only modified by the thread changing the property content, but it can be read from any thread.
+     */
+    private volatile long version = 0;
+
     /**
      * Constructor adding no listener.
      */
@@ -98,6 +111,22 @@ public abstract class AbstractReadableMapProperty<K, R> implements ReadableMapPr
         return Collections.unmodifiableList(listeners);
     }
 
+    /**
+     * @see ListenerSource#getRegisteredListeners()
+     */
+    @Override
+    public Collection<?> getRegisteredListeners() {
+        return getChangeListeners();
+    }
+
+    /**
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * @see ReadableMapProperty#addChangeListener(MapPropertyChangeListener)
      */
@@ -161,9 +190,18 @@ public abstract class AbstractReadableMapProperty<K, R> implements ReadableMapPr
      * @param event Event to be passed to the listeners.
      */
     protected void doNotifyListeners(MapPropertyChange<? extends K, ? extends R> event) {
+        version++;
         List<MapPropertyChangeListener<? super K, ? super R>> listenersCopy = new ArrayList<>(listeners);
-        for (MapPropertyChangeListener<? super K, ? super R> listener : listenersCopy) {
-            listener.mapPropertyChanged(event);
+        PropertyMonitor monitor = PropertyMonitors.getInstalled();
+        MonitorScope scope = (monitor == null) ? null : monitor.beginNotification(this, listenersCopy.size());
+        try {
+            for (MapPropertyChangeListener<? super K, ? super R> listener : listenersCopy) {
+                listener.mapPropertyChanged(event);
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
         }
     }
 }
@@ -30,10 +30,16 @@
 package com.github.leanframeworks.propertiesframework.base.property;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.EqualityStrategy;
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
-import com.github.leanframeworks.propertiesframework.base.utils.ValueUtils;
+import com.github.leanframeworks.propertiesframework.base.common.ValueEqualityStrategy;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerSource;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -44,8 +50,11 @@ import java.util.List;
  * Abstract implementation of a {@link ReadableProperty}.
  * <p>
  * Sub-classes should call the {@link #maybeNotifyListeners(Object, Object)} method whenever the property value changes.
- * Sub-classes that are also writable should prevent recursion by checking the result of {@link #isNotifyingListeners()}
- * when setting the new value.
+ * Sub-classes that are also writable should prevent recursion by checking the result of {@link
+ * #isNestedChangeIgnored()} when setting the new value.
+ * <p>
+ * By default, the listeners are notified immediately and new values set while notifying are ignored. Alternatively,
+ * the notifications can be queued so that such nested changes are not lost (see {@link NotificationMode}).
  * <p>
  * This abstract implementation allows to inhibit the firing of value change events. When the property is inhibited,
  * changing its value will not fire any value change event. When the property is un-inhibited again, one single value
@@ -54,11 +63,34 @@ import java.util.List;
  * <p>
  * By default, the property is not inhibited.
  * <p>
+ * Whether the old and new values are different is decided by an {@link EqualityStrategy}. By default, values are
+ * compared using {@link ValueEqualityStrategy}, but another strategy can be set, for instance, to compare large
+ * immutable values by reference.
+ * <p>
+ * After a change that is not notified because the old and new values are equal according to the strategy, the next new
+ * value is compared to the value before that change rather than to the old value. This way, a tolerant strategy like
+ * {@link com.github.leanframeworks.propertiesframework.base.common.EpsilonEqualityStrategy} cannot let the value drift
+ * indefinitely through small steps that are each considered equal. Sub-classes should therefore pass as old value the
+ * very same instance they passed as new value in the previous call, which they usually do by passing their stored
+ * value.
+ * <p>
+ * The notifications are subject to the installed {@link PropagationBudget}, if any.
+ * <p>
+ * The property also maintains a version number that is incremented each time its value effectively changes, even if
+ * the property is inhibited. This version number can be read from any thread, for instance to cheaply find out whether
+ * the value changed since it was last read.
+ * <p>
  * Note that this class is not thread-safe.
  *
  * @param <R> Type of data that can be read from this property.
  */
-public abstract class AbstractReadableProperty<R> implements ReadableProperty<R>, Disposable {
+public abstract class AbstractReadableProperty<R> implements ReadableProperty<R>, Versioned, Disposable,
+        ListenerSource {
+
+    /**
+     * Default strategy used to compare the old and new values.
+     */
+    private static final EqualityStrategy<Object> DEFAULT_EQUALITY_STRATEGY = new ValueEqualityStrategy<>();
 
     /**
      * Writable properties to be updated.
@@ -98,6 +130,43 @@ public abstract class AbstractReadableProperty<R> implements ReadableProperty<R>
      */
     private boolean notifyingListeners = false;
 
+    /**
+     * Strategy used to compare the old and new values.
+     */
+    private EqualityStrategy<? super R> equalityStrategy = DEFAULT_EQUALITY_STRATEGY;
+
+    /**
+     * Flag indicating whether the last changes were not notified because they were considered equal by the equality
+     * strategy.
+     */
+    private boolean suppressingChanges = false;
+
+    /**
+     * Value before the first of the last changes that were not notified, to which the next new value is to be compared.
+     * <p>
+     * It should be read only if {@link #suppressingChanges} is true.
+     */
+    private R lastSignificantValue = null;
+
+    /**
+     * New value of the last change that was not notified.
+     * <p>
+     * It should be read only if {@link #suppressingChanges} is true.
+     */
+    private R lastSuppressedValue = null;
+
+    /**
+     * Version number of the property value.
+     * <p>
+     * It is only modified by the thread changing the property value, but it can be read from any thread.
+     */
+    private volatile long version = 0;
+
+    /**
+     * Way the value change listeners are notified.
+     */
+    private NotificationMode notificationMode = NotificationMode.IMMEDIATE;
+
     /**
      * Disposes this readable property by removing any references to any listener.
      * <p>
@@ -123,6 +192,14 @@ public abstract class AbstractReadableProperty<R> implements ReadableProperty<R>
         return Collections.unmodifiableList(listeners);
     }
 
+    /**
+     * @see ListenerSource#getRegisteredListeners()
+     */
+    @Override
+    public Collection<?> getRegisteredListeners() {
+        return getChangeListeners();
+    }
+
     /**
      * @see ReadableProperty#addChangeListener(PropertyChangeListener)
      */
@@ -139,6 +216,94 @@ public abstract class AbstractReadableProperty<R> implements ReadableProperty<R>
         listeners.remove(listener);
     }
 
+    /**
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the strategy used to decide whether the old and new values are different.
+     *
+     * @return Equality strategy.
+     */
+    public EqualityStrategy<? super R> getEqualityStrategy() {
+        return equalityStrategy;
+    }
+
+    /**
+     * Sets the strategy used to decide whether the old and new values are different.
+     * <p>
+     * The listeners will only be notified of changes for which the old and new values are different according to
+     * this strategy.
+     *
+     * @param equalityStrategy Equality strategy, or null to use the default one.
+     * @see ValueEqualityStrategy
+     */
+    public void setEqualityStrategy(EqualityStrategy<? super R> equalityStrategy) {
+        if (equalityStrategy == null) {
+            this.equalityStrategy = DEFAULT_EQUALITY_STRATEGY;
+        } else {
+            this.equalityStrategy = equalityStrategy;
+        }
+        clearSuppressedChanges();
+    }
+
+    /**
+     * Gets the way the value change listeners are notified.
+     *
+     * @return Notification mode.
+     */
+    public NotificationMode getNotificationMode() {
+        return notificationMode;
+    }
+
+    /**
+     * Sets the way the value change listeners are notified.
+     *
+     * @param notificationMode Notification mode, or null to use {@link NotificationMode#IMMEDIATE}.
+     */
+    public void setNotificationMode(NotificationMode notificationMode) {
+        if (notificationMode == null) {
+            this.notificationMode = NotificationMode.IMMEDIATE;
+        } else {
+            this.notificationMode = notificationMode;
+        }
+    }
+
+    /**
+     * Gets the maximum number of times a property in {@link NotificationMode#QUEUED} mode can be notified within the
+     * same cascade.
+     *
+     * @return Maximum number of notifications per property and per cascade.
+     * @see #setMaxQueuedNotificationsPerCascade(int)
+     */
+    public static int getMaxQueuedNotificationsPerCascade() {
+        return NotificationQueue.getMaxNotificationsPerCascade();
+    }
+
+    /**
+     * Sets the maximum number of times a property in {@link NotificationMode#QUEUED} mode can be notified within the
+     * same cascade, for all properties on all threads.
+     * <p>
+     * A property exceeding this limit is considered as being part of a cycle, and a {@link NotificationCycleException}
+     * is thrown. This is a heuristic: the limit should be well above the number of times a property legitimately
+     * changes within a cascade (for instance, a property accumulating the changes of many other properties), but low
+     * enough to stop a cycle quickly. The default limit is 1000. To bound the total work done by a cascade instead, see
+     * {@link PropagationBudget}.
+     *
+     * @param maxNotifications Maximum number of notifications per property and per cascade.
+     * @throws IllegalArgumentException If the specified limit is not positive.
+     */
+    public static void setMaxQueuedNotificationsPerCascade(int maxNotifications) {
+        if (maxNotifications <= 0) {
+            throw new IllegalArgumentException("Invalid maximum number of notifications: " + maxNotifications);
+        }
+        NotificationQueue.setMaxNotificationsPerCascade(maxNotifications);
+    }
+
     /**
      * States whether this property is inhibited.
      *
@@ -158,8 +323,17 @@ public abstract class AbstractReadableProperty<R> implements ReadableProperty<R>
         this.inhibited = inhibited;
 
         if (wasInhibited && !inhibited) {
+            // Version already incremented while inhibited
             if (inhibitCount > 0) {
-                maybeNotifyListeners(lastNonInhibitedValue, lastInhibitedValue);
+                if (equalityStrategy.areEqual(lastNonInhibitedValue, lastInhibitedValue)) {
+                    // Next changes are to be compared to the last notified value
+                    suppressingChanges = true;
+                    lastSignificantValue = lastNonInhibitedValue;
+                    lastSuppressedValue = lastInhibitedValue;
+                } else {
+                    clearSuppressedChanges();
+                    notifyListenersIfUninhibited(lastNonInhibitedValue, lastInhibitedValue);
+                }
             }
             inhibitCount = 0;
         }
@@ -167,11 +341,15 @@ public abstract class AbstractReadableProperty<R> implements ReadableProperty<R>
 
     /**
      * Notifies the listeners that the property value has changed, if all the conditions are fulfilled (typically, if
-     * the old and new values are different, and if the property is not inhibited).
+     * the old and new values are different according to the equality strategy, and if the property is not inhibited).
      * <p>
      * Sub-classes should typically call this method when they are ready to fire value change events.
      * <p>
      * However, sub-classes may override this method to perform additional checks.
+     * <p>
+     * If the previous changes were not notified because they were considered equal by the equality strategy, and if the
+     * old value is the new value of the last of these changes, then the new value is compared to the value before these
+     * changes, so that small changes cannot accumulate unnoticed.
      *
      * @param oldValue Previous value.
      * @param newValue New value.
@@ -179,11 +357,32 @@ public abstract class AbstractReadableProperty<R> implements ReadableProperty<R>
      * @see #doNotifyListeners(Object, Object)
      */
     protected void maybeNotifyListeners(R oldValue, R newValue) {
-        if (!ValueUtils.areEqual(oldValue, newValue)) {
+        R referenceValue = (suppressingChanges && (oldValue == lastSuppressedValue)) ? lastSignificantValue : oldValue;
+        if (equalityStrategy.areEqual(referenceValue, newValue)) {
+            suppressingChanges = true;
+            lastSignificantValue = referenceValue;
+            lastSuppressedValue = newValue;
+            if (inhibited && (inhibitCount > 0)) {
+                // Make sure the value notified when un-inhibiting is the latest one
+                lastInhibitedValue = newValue;
+            }
+        } else {
+            clearSuppressedChanges();
+            version++;
             notifyListenersIfUninhibited(oldValue, newValue);
         }
     }
 
+    /**
+     * Forgets the changes that were not notified because they were considered equal by the equality strategy.
+     */
+    private void clearSuppressedChanges() {
+        suppressingChanges = false;
+        // Do not keep references to old values
+        lastSignificantValue = null;
+        lastSuppressedValue = null;
+    }
+
     /**
      * Notifies the listeners that the property value has changed, if the property is not inhibited.
      *
@@ -213,18 +412,79 @@ public abstract class AbstractReadableProperty<R> implements ReadableProperty<R>
     }
 
     /**
-     * Notifies the listeners that the property value has changed, unconditionally.
+     * States whether a new value set while the property is notifying its listeners should be ignored.
+     * <p>
+     * This is the case in {@link NotificationMode#IMMEDIATE} mode, to prevent infinite recursion. In
+     * {@link NotificationMode#QUEUED} mode, the new value is never ignored because its notification will only be
+     * executed after the current one.
+     *
+     * @return True if the new value should be ignored, false otherwise.
+     * @see #isNotifyingListeners()
+     */
+    protected boolean isNestedChangeIgnored() {
+        return notifyingListeners && (notificationMode == NotificationMode.IMMEDIATE);
+    }
+
+    /**
+     * Notifies the listeners that the property value has changed, unconditionally, according to the notification
+     * mode.
      *
      * @param oldValue Previous value.
      * @param newValue New value.
      */
     private void doNotifyListeners(R oldValue, R newValue) {
-        List<PropertyChangeListener<? super R>> listenersCopy = new ArrayList<>(listeners);
-        notifyingListeners = true;
-        PropertyChange<R> event = new PropertyChange<>(this, oldValue, newValue);
-        for (PropertyChangeListener<? super R> listener : listenersCopy) {
-            listener.propertyChanged(event);
+        if (notificationMode == NotificationMode.QUEUED) {
+            NotificationQueue.enqueue(this, () -> notifyListenersNow(oldValue, newValue));
+        } else {
+            notifyListenersNow(oldValue, newValue);
+        }
+    }
+
+    /**
+     * Notifies the listeners again after their notification was skipped because the {@link PropagationBudget} was
+     * exceeded, if the value is still different.
+     *
+     * @param oldValue Value of the property when its notification was first skipped.
+     * @see Cascade
+     */
+    @SuppressWarnings("unchecked")
+    void notifyDeferred(Object oldValue) {
+        R newValue = getValue();
+        if (!equalityStrategy.areEqual((R) oldValue, newValue)) {
+            notifyListenersIfUninhibited((R) oldValue, newValue);
+        }
+    }
+
+    /**
+     * Notifies the listeners that the property value has changed, immediately.
+     *
+     * @param oldValue Previous value.
+     * @param newValue New value.
+     */
+    private void notifyListenersNow(R oldValue, R newValue) {
+        Cascade cascade = Cascade.enter();
+        try {
+            if ((cascade == null) || cascade.hop(this, oldValue)) {
+                List<PropertyChangeListener<? super R>> listenersCopy = new ArrayList<>(listeners);
+                PropertyMonitor monitor = PropertyMonitors.getInstalled();
+                MonitorScope scope = (monitor == null) ? null : monitor.beginNotification(this, listenersCopy.size());
+                notifyingListeners = true;
+                try {
+                    PropertyChange<R> event = new PropertyChange<>(this, oldValue, newValue);
+                    for (PropertyChangeListener<? super R> listener : listenersCopy) {
+                        listener.propertyChanged(event);
+                    }
+                } finally {
+                    notifyingListeners = false;
+                    if (scope != null) {
+                        scope.close();
+                    }
+                }
+            }
+        } finally {
+            if (cascade != null) {
+                cascade.exit();
+            }
         }
-        notifyingListeners = false;
     }
 }
@@ -30,9 +30,14 @@
 package com.github.leanframeworks.propertiesframework.base.property;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableSetProperty;
 import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerSource;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -45,13 +50,21 @@ import java.util.Set;
  *
  * @param <R> Type of values that can be read from this set.
  */
-public abstract class AbstractReadableSetProperty<R> implements ReadableSetProperty<R>, Disposable {
+public abstract class AbstractReadableSetProperty<R> implements ReadableSetProperty<R>, Versioned, Disposable,
+        ListenerSource {
 
     /**
      * Listeners to changes in the list property.
      */
     private final List<SetPropertyChangeListener<? super R>> listeners = new ArrayList<>();
 
+    /**
+     * Version number of the property content.
+     * <p>
+     * It is only modified by the thread changing the property content, but it can be read from any thread.
+     */
+    private volatile long version = 0;
+
     /**
      * Constructor adding no listener.
      */
@@ -96,6 +109,22 @@ public abstract class AbstractReadableSetProperty<R> implements ReadableSetPrope
         return Collections.unmodifiableList(listeners);
     }
 
+    /**
+     * @see ListenerSource#getRegisteredListeners()
+     */
+    @Override
+    public Collection<?> getRegisteredListeners() {
+        return getChangeListeners();
+    }
+
+    /**
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * @see ReadableSetProperty#addChangeListener(SetPropertyChangeListener)
      */
@@ -139,9 +168,18 @@ public abstract class AbstractReadableSetProperty<R> implements ReadableSetPrope
      * @param event Event to be passed to the listeners.
      */
     protected void doNotifyListeners(SetPropertyChange<? extends R> event) {
+        version++;
         List<SetPropertyChangeListener<? super R>> listenersCopy = new ArrayList<>(listeners);
-        for (SetPropertyChangeListener<? super R> listener : listenersCopy) {
-            listener.setPropertyChanged(event);
+        PropertyMonitor monitor = PropertyMonitors.getInstalled();
+        MonitorScope scope = (monitor == null) ? null : monitor.beginNotification(this, listenersCopy.size());
+        try {
+            for (SetPropertyChangeListener<? super R> listener : listenersCopy) {
+                listener.setPropertyChanged(event);
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
         }
     }
 }
@@ -35,7 +35,7 @@ import com.github.leanframeworks.propertiesframework.api.property.ReadableWritab
  * Abstract implementation of a {@link ReadableWritableProperty}.
  * <p>
  * Sub-classes should call the {@link #maybeNotifyListeners(Object, Object)} method whenever the property value changes.
- * Sub-classes should prevent recursion by checking the result of {@link #isNotifyingListeners()} when setting the new
+ * Sub-classes should prevent recursion by checking the result of {@link #isNestedChangeIgnored()} when setting the new
  * value.
  * <p>
  * Note that this class is not thread-safe.
@@ -0,0 +1,251 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+import com.github.leanframeworks.propertiesframework.base.common.ThrowableHandler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Per-thread tracker of the cascade of value change notifications in progress, used to enforce the installed
+ * {@link PropagationBudget}.
+ *
+ * @see PropagationBudget
+ */
+final class Cascade {
+
+    /**
+     * Maximum number of hops kept to describe the path of a cascade exceeding its budget.
+     */
+    private static final int MAX_PATH_LENGTH = 64;
+
+    /**
+     * Cascade tracker of the current thread.
+     */
+    private static final ThreadLocal<Cascade> CASCADES = ThreadLocal.withInitial(Cascade::new);
+
+    /**
+     * Last hops of the cascade.
+     */
+    private final Deque<Object> path = new ArrayDeque<>();
+
+    /**
+     * Properties whose notifications were skipped, mapped to their value when they were first skipped, in case the
+     * skipped notifications are deferred.
+     */
+    private final Map<AbstractReadableProperty<?>, Object> skippedValues = new IdentityHashMap<>();
+
+    /**
+     * Properties whose notifications were skipped, in the order in which they were first skipped.
+     */
+    private final List<AbstractReadableProperty<?>> skippedProperties = new ArrayList<>();
+
+    /**
+     * Budget of the cascade in progress.
+     */
+    private PropagationBudget budget = null;
+
+    /**
+     * Number of nested notifications (or queue drains) in progress.
+     */
+    private int depth = 0;
+
+    /**
+     * Number of hops since the beginning of the cascade.
+     */
+    private int hops = 0;
+
+    /**
+     * Time at which the cascade started.
+     */
+    private long startNanos = 0;
+
+    /**
+     * Flag indicating whether the cascade exceeded its budget.
+     */
+    private boolean aborted = false;
+
+    /**
+     * Private constructor for per-thread instances.
+     */
+    private Cascade() {
+        // Nothing to be done
+    }
+
+    /**
+     * Enters a notification (or a queue drain) on the current thread, starting a new cascade if none is in progress.
+     * <p>
+     * Every call returning a non-null tracker must be followed by a call to {@link #exit()}.
+     *
+     * @return Tracker of the current thread, or null if no budget is installed.
+     */
+    static Cascade enter() {
+        Cascade cascade = null;
+
+        PropagationBudget installed = PropagationBudget.getInstalled();
+        if (installed != null) {
+            cascade = CASCADES.get();
+            if (cascade.depth == 0) {
+                cascade.budget = installed;
+                cascade.hops = 0;
+                cascade.startNanos = System.nanoTime();
+                cascade.aborted = false;
+            }
+            cascade.depth++;
+        }
+
+        return cascade;
+    }
+
+    /**
+     * Exits a notification (or queue drain) previously entered.
+     */
+    void exit() {
+        depth--;
+        if (depth == 0) {
+            Executor deferralExecutor = budget.getDeferralExecutor();
+            DeferredCascade deferredCascade = null;
+            if (!skippedProperties.isEmpty() && (deferralExecutor != null)) {
+                deferredCascade = new DeferredCascade(skippedProperties, skippedValues);
+            }
+
+            // Do not keep references to the properties
+            path.clear();
+            skippedProperties.clear();
+            skippedValues.clear();
+            budget = null;
+
+            if (deferredCascade != null) {
+                deferralExecutor.execute(deferredCascade);
+            }
+        }
+    }
+
+    /**
+     * Records a hop through the specified property, and checks the budget.
+     * <p>
+     * When the budget is exceeded for the first time, the handler of the budget is called. If the budget defers the
+     * skipped notifications, the property is recorded (before calling the handler, which may throw) so that it is
+     * notified again after the cascade.
+     *
+     * @param property Property about to notify its listeners.
+     * @param oldValue Old value of the notification.
+     * @return True if the property can notify its listeners, false if the cascade is aborted.
+     */
+    boolean hop(AbstractReadableProperty<?> property, Object oldValue) {
+        if (aborted) {
+            skip(property, oldValue);
+        } else if (budget != null) {
+            hops++;
+            path.add(property);
+            if (path.size() > MAX_PATH_LENGTH) {
+                path.poll();
+            }
+
+            long elapsedNanos = System.nanoTime() - startNanos;
+            if ((hops > budget.getMaxHops()) || (elapsedNanos > budget.getMaxDurationNanos())) {
+                aborted = true;
+                skip(property, oldValue);
+                ThrowableHandler<? super PropagationBudgetExceededException> handler = budget.getHandler();
+                if (handler != null) {
+                    handler.handleThrowable(new PropagationBudgetExceededException(path, hops, elapsedNanos));
+                }
+            }
+        }
+        return !aborted;
+    }
+
+    /**
+     * Records a skipped notification, if the budget defers them.
+     *
+     * @param property Property whose notification is skipped.
+     * @param oldValue Old value of the skipped notification.
+     */
+    private void skip(AbstractReadableProperty<?> property, Object oldValue) {
+        if ((budget.getDeferralExecutor() != null) && !skippedValues.containsKey(property)) {
+            skippedValues.put(property, oldValue);
+            skippedProperties.add(property);
+        }
+    }
+
+    /**
+     * Cascade notifying again the properties whose notifications were skipped.
+     */
+    private static final class DeferredCascade implements Runnable {
+
+        /**
+         * Properties to be notified, in order.
+         */
+        private final List<AbstractReadableProperty<?>> properties;
+
+        /**
+         * Values of the properties when their notifications were first skipped.
+         */
+        private final List<Object> oldValues;
+
+        /**
+         * Constructor.
+         *
+         * @param properties Properties to be notified, in order.
+         * @param oldValues  Values of the properties when their notifications were first skipped.
+         */
+        DeferredCascade(List<AbstractReadableProperty<?>> properties, Map<AbstractReadableProperty<?>, Object>
+                oldValues) {
+            this.properties = new ArrayList<>(properties);
+            this.oldValues = new ArrayList<>(properties.size());
+            for (AbstractReadableProperty<?> property : properties) {
+                this.oldValues.add(oldValues.get(property));
+            }
+        }
+
+        /**
+         * @see Runnable#run()
+         */
+        @Override
+        public void run() {
+            Cascade cascade = enter();
+            try {
+                for (int i = 0; i < properties.size(); i++) {
+                    properties.get(i).notifyDeferred(oldValues.get(i));
+                }
+            } finally {
+                if (cascade != null) {
+                    cascade.exit();
+                }
+            }
+        }
+    }
+}
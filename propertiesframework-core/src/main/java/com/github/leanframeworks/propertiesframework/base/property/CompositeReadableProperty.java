@@ -33,6 +33,8 @@ import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerOwner;
 import com.github.leanframeworks.propertiesframework.base.utils.ValueUtils;
 
 import java.util.ArrayList;
@@ -50,7 +52,8 @@ import java.util.List;
  *
  * @param <R> Type of data that can be read from the sub-properties.
  */
-public class CompositeReadableProperty<R> extends AbstractReadableProperty<Collection<R>> implements Disposable {
+public class CompositeReadableProperty<R> extends AbstractReadableProperty<Collection<R>> implements Disposable,
+        GraphNode {
 
     /**
      * Sub-properties.
@@ -202,10 +205,34 @@ public class CompositeReadableProperty<R> extends AbstractReadableProperty<Colle
         setValue(newValues);
     }
 
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return getProperties();
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return Collections.emptyList();
+    }
+
     /**
      * Listener to changes in the sub-properties.
      */
-    private class PropertyChangeAdapter implements PropertyChangeListener<R> {
+    private class PropertyChangeAdapter implements PropertyChangeListener<R>, ListenerOwner {
+
+        /**
+         * @see ListenerOwner#getListenerOwner()
+         */
+        @Override
+        public Object getListenerOwner() {
+            return CompositeReadableProperty.this;
+        }
 
         /**
          * {@inheritDoc}
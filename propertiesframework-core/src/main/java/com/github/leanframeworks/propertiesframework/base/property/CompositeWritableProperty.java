@@ -31,6 +31,7 @@ package com.github.leanframeworks.propertiesframework.base.property;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.api.property.WritableProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -43,7 +44,7 @@ import java.util.Collections;
  *
  * @param <W> Type of data that can be set on the sub-properties.
  */
-public class CompositeWritableProperty<W> implements WritableProperty<W>, Disposable {
+public class CompositeWritableProperty<W> implements WritableProperty<W>, Disposable, GraphNode {
 
     /**
      * Sub-properties.
@@ -181,4 +182,20 @@ public class CompositeWritableProperty<W> implements WritableProperty<W>, Dispos
             property.setValue(value);
         }
     }
+
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return getProperties();
+    }
 }
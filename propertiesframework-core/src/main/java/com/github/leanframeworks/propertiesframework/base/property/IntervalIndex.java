@@ -0,0 +1,378 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+import java.util.List;
+
+/**
+ * Index of half-open integer intervals, finding the intervals overlapping a given interval in O(log(n) + k), where n is
+ * the number of intervals in the index and k the number of overlapping intervals.
+ * <p>
+ * It is implemented as a treap ordered by interval start, in which each node also holds the largest interval end of
+ * its subtree, so that whole subtrees can be skipped during queries.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <T> Type of values associated to the intervals.
+ */
+class IntervalIndex<T> {
+
+    /**
+     * Root of the treap, or null if the index is empty.
+     */
+    private Entry<T> root = null;
+
+    /**
+     * Sequence number of the next entry, used to order entries having the same start.
+     */
+    private long nextSequence = 0;
+
+    /**
+     * Number of entries in the index.
+     */
+    private int size = 0;
+
+    /**
+     * Gets the number of intervals in the index.
+     *
+     * @return Number of intervals.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds the specified interval to the index.
+     *
+     * @param start Start of the interval (inclusive).
+     * @param end   End of the interval (exclusive).
+     * @param value Value associated to the interval.
+     * @return Entry to be used to move or remove the interval.
+     */
+    Entry<T> add(int start, int end, T value) {
+        Entry<T> entry = new Entry<>(start, end, value, nextSequence++);
+        root = insert(root, entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Removes the specified entry from the index.
+     *
+     * @param entry Entry to be removed.
+     */
+    void remove(Entry<T> entry) {
+        if (entry.indexed) {
+            root = delete(root, entry);
+            entry.indexed = false;
+            entry.left = null;
+            entry.right = null;
+            size--;
+        }
+    }
+
+    /**
+     * Changes the interval of the specified entry.
+     *
+     * @param entry Entry to be moved.
+     * @param start New start of the interval (inclusive).
+     * @param end   New end of the interval (exclusive).
+     */
+    void move(Entry<T> entry, int start, int end) {
+        if (entry.indexed) {
+            root = delete(root, entry);
+            entry.start = start;
+            entry.end = end;
+            entry.left = null;
+            entry.right = null;
+            entry.maxEnd = end;
+            root = insert(root, entry);
+        } else {
+            entry.start = start;
+            entry.end = end;
+        }
+    }
+
+    /**
+     * Collects the values of all intervals overlapping the specified interval, by ascending interval start.
+     *
+     * @param start  Start of the interval (inclusive).
+     * @param end    End of the interval (exclusive).
+     * @param result List to which the values are to be added.
+     */
+    void query(int start, int end, List<? super T> result) {
+        query(root, start, end, result);
+    }
+
+    /**
+     * Collects the values of the intervals of the specified subtree that overlap the specified interval.
+     *
+     * @param node   Root of the subtree.
+     * @param start  Start of the interval (inclusive).
+     * @param end    End of the interval (exclusive).
+     * @param result List to which the values are to be added.
+     */
+    private static <T> void query(Entry<T> node, int start, int end, List<? super T> result) {
+        if ((node != null) && (node.maxEnd > start)) {
+            query(node.left, start, end, result);
+            if (node.start < end) {
+                if (node.end > start) {
+                    result.add(node.value);
+                }
+                query(node.right, start, end, result);
+            }
+            // Otherwise, all the intervals of the right subtree start after the queried interval
+        }
+    }
+
+    /**
+     * Inserts the specified entry in the specified subtree.
+     *
+     * @param node  Root of the subtree.
+     * @param entry Entry to be inserted.
+     * @return New root of the subtree.
+     */
+    private static <T> Entry<T> insert(Entry<T> node, Entry<T> entry) {
+        if (node == null) {
+            entry.indexed = true;
+            return entry;
+        }
+        Entry<T> result = node;
+        if (entry.compareTo(node) < 0) {
+            node.left = insert(node.left, entry);
+            if (node.left.priority > node.priority) {
+                result = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, entry);
+            if (node.right.priority > node.priority) {
+                result = rotateLeft(node);
+            }
+        }
+        update(node);
+        update(result);
+        return result;
+    }
+
+    /**
+     * Deletes the specified entry from the specified subtree.
+     *
+     * @param node  Root of the subtree.
+     * @param entry Entry to be deleted.
+     * @return New root of the subtree.
+     */
+    private static <T> Entry<T> delete(Entry<T> node, Entry<T> entry) {
+        if (node == null) {
+            return null;
+        }
+        Entry<T> result = node;
+        if (node == entry) {
+            result = merge(node.left, node.right);
+        } else if (entry.compareTo(node) < 0) {
+            node.left = delete(node.left, entry);
+        } else {
+            node.right = delete(node.right, entry);
+        }
+        update(result);
+        return result;
+    }
+
+    /**
+     * Merges the two specified subtrees, all entries of the left one being before all entries of the right one.
+     *
+     * @param left  Left subtree.
+     * @param right Right subtree.
+     * @return Root of the merged subtree.
+     */
+    private static <T> Entry<T> merge(Entry<T> left, Entry<T> right) {
+        Entry<T> result;
+        if (left == null) {
+            result = right;
+        } else if (right == null) {
+            result = left;
+        } else if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            result = left;
+        } else {
+            right.left = merge(left, right.left);
+            result = right;
+        }
+        update(result);
+        return result;
+    }
+
+    /**
+     * Rotates the specified subtree to the right.
+     *
+     * @param node Root of the subtree.
+     * @return New root of the subtree.
+     */
+    private static <T> Entry<T> rotateRight(Entry<T> node) {
+        Entry<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        return pivot;
+    }
+
+    /**
+     * Rotates the specified subtree to the left.
+     *
+     * @param node Root of the subtree.
+     * @return New root of the subtree.
+     */
+    private static <T> Entry<T> rotateLeft(Entry<T> node) {
+        Entry<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        return pivot;
+    }
+
+    /**
+     * Recomputes the largest interval end of the specified subtree from its children.
+     *
+     * @param node Root of the subtree, possibly null.
+     */
+    private static <T> void update(Entry<T> node) {
+        if (node != null) {
+            int maxEnd = node.end;
+            if ((node.left != null) && (node.left.maxEnd > maxEnd)) {
+                maxEnd = node.left.maxEnd;
+            }
+            if ((node.right != null) && (node.right.maxEnd > maxEnd)) {
+                maxEnd = node.right.maxEnd;
+            }
+            node.maxEnd = maxEnd;
+        }
+    }
+
+    /**
+     * Interval of the index, also being a node of the treap.
+     *
+     * @param <T> Type of value associated to the interval.
+     */
+    static final class Entry<T> implements Comparable<Entry<T>> {
+
+        /**
+         * Value associated to the interval.
+         */
+        private final T value;
+
+        /**
+         * Sequence number ordering entries having the same start.
+         */
+        private final long sequence;
+
+        /**
+         * Heap priority of the node, derived from the sequence number.
+         */
+        private final int priority;
+
+        /**
+         * Start of the interval (inclusive).
+         */
+        private int start;
+
+        /**
+         * End of the interval (exclusive).
+         */
+        private int end;
+
+        /**
+         * Largest interval end in the subtree of this node.
+         */
+        private int maxEnd;
+
+        /**
+         * Left child.
+         */
+        private Entry<T> left = null;
+
+        /**
+         * Right child.
+         */
+        private Entry<T> right = null;
+
+        /**
+         * Flag indicating whether the entry is in the index.
+         */
+        private boolean indexed = false;
+
+        /**
+         * Constructor.
+         *
+         * @param start    Start of the interval (inclusive).
+         * @param end      End of the interval (exclusive).
+         * @param value    Value associated to the interval.
+         * @param sequence Sequence number ordering entries having the same start.
+         */
+        Entry(int start, int end, T value, long sequence) {
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+            this.value = value;
+            this.sequence = sequence;
+            this.priority = mix(sequence);
+        }
+
+        /**
+         * Scrambles the specified sequence number into a pseudo-random priority.
+         *
+         * @param sequence Sequence number.
+         * @return Priority.
+         */
+        private static int mix(long sequence) {
+            long z = sequence * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return (int) (z ^ (z >>> 31));
+        }
+
+        /**
+         * States whether the entry is in the index.
+         *
+         * @return True if the entry is in the index, false if it has been removed.
+         */
+        boolean isIndexed() {
+            return indexed;
+        }
+
+        /**
+         * @see Comparable#compareTo(Object)
+         */
+        @Override
+        public int compareTo(Entry<T> other) {
+            int result = Integer.compare(start, other.start);
+            if (result == 0) {
+                result = Long.compare(sequence, other.sequence);
+            }
+            return result;
+        }
+    }
+}
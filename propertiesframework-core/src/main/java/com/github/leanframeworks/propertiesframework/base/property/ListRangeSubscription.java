@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChangeListener;
+
+/**
+ * Subscription of a listener to the changes of a range of indices of a list property.
+ * <p>
+ * The range can be moved at any time, for instance to follow the rows visible in a scrolled table. Disposing the
+ * subscription removes the listener from the list property.
+ *
+ * @param <R> Type of values in the list property.
+ * @see AbstractReadableListProperty#addRangeListener(int, int, ListPropertyChangeListener)
+ */
+public final class ListRangeSubscription<R> implements Disposable {
+
+    /**
+     * Index in which the subscription is registered.
+     */
+    private final IntervalIndex<ListRangeSubscription<R>> index;
+
+    /**
+     * Listener to be notified of the changes in the range.
+     */
+    private final ListPropertyChangeListener<? super R> listener;
+
+    /**
+     * Entry of the subscription in the index.
+     */
+    private final IntervalIndex.Entry<ListRangeSubscription<R>> entry;
+
+    /**
+     * Index of the first item of the range.
+     */
+    private int fromIndex;
+
+    /**
+     * Index after the last item of the range.
+     */
+    private int toIndex;
+
+    /**
+     * Constructor registering the subscription in the specified index.
+     *
+     * @param index     Index in which the subscription is to be registered.
+     * @param fromIndex Index of the first item of the range.
+     * @param toIndex   Index after the last item of the range.
+     * @param listener  Listener to be notified of the changes in the range.
+     */
+    ListRangeSubscription(IntervalIndex<ListRangeSubscription<R>> index, int fromIndex, int toIndex,
+                          ListPropertyChangeListener<? super R> listener) {
+        checkRange(fromIndex, toIndex);
+        this.index = index;
+        this.listener = listener;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        this.entry = index.add(fromIndex, toIndex, this);
+    }
+
+    /**
+     * Checks that the specified range is valid.
+     *
+     * @param fromIndex Index of the first item of the range.
+     * @param toIndex   Index after the last item of the range.
+     */
+    private static void checkRange(int fromIndex, int toIndex) {
+        if ((fromIndex < 0) || (toIndex < fromIndex)) {
+            throw new IllegalArgumentException("Invalid range: [" + fromIndex + ", " + toIndex + "[");
+        }
+    }
+
+    /**
+     * Gets the listener to be notified of the changes in the range.
+     *
+     * @return Listener.
+     */
+    public ListPropertyChangeListener<? super R> getListener() {
+        return listener;
+    }
+
+    /**
+     * Gets the index of the first item of the range.
+     *
+     * @return Index of the first item.
+     */
+    public int getFromIndex() {
+        return fromIndex;
+    }
+
+    /**
+     * Gets the index after the last item of the range.
+     *
+     * @return Index after the last item.
+     */
+    public int getToIndex() {
+        return toIndex;
+    }
+
+    /**
+     * Moves the range, for instance to follow a viewport.
+     *
+     * @param fromIndex Index of the first item of the range.
+     * @param toIndex   Index after the last item of the range.
+     */
+    public void moveTo(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        index.move(entry, fromIndex, toIndex);
+    }
+
+    /**
+     * States whether the subscription is still active.
+     *
+     * @return False if the subscription has been disposed, true otherwise.
+     */
+    public boolean isActive() {
+        return entry.isIndexed();
+    }
+
+    /**
+     * Removes the listener from the list property.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        index.remove(entry);
+    }
+}
@@ -0,0 +1,70 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+/**
+ * Exception thrown when a property in {@link NotificationMode#QUEUED} mode notifies its listeners too many times within
+ * the same cascade of notifications, which typically means that it is part of a cycle of bindings that never settles.
+ *
+ * @see NotificationMode#QUEUED
+ */
+public class NotificationCycleException extends IllegalStateException {
+
+    /**
+     * Generated serial UID.
+     */
+    private static final long serialVersionUID = -2750912461436012258L;
+
+    /**
+     * Property that notified its listeners too many times.
+     */
+    private final transient Object property;
+
+    /**
+     * Constructor.
+     *
+     * @param property          Property that notified its listeners too many times.
+     * @param notificationCount Number of notifications of the property within the cascade.
+     */
+    public NotificationCycleException(Object property, int notificationCount) {
+        super("Property notified its listeners " + notificationCount + " times in the same cascade, probably due to " +
+                "a cycle: " + property);
+        this.property = property;
+    }
+
+    /**
+     * Gets the property that notified its listeners too many times.
+     *
+     * @return Property that is probably part of a cycle.
+     */
+    public Object getProperty() {
+        return property;
+    }
+}
@@ -0,0 +1,62 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+/**
+ * Enumeration of the ways a property can notify its value change listeners.
+ *
+ * @see AbstractReadableProperty#setNotificationMode(NotificationMode)
+ */
+public enum NotificationMode {
+
+    /**
+     * The listeners are notified immediately, on the stack of the method changing the property value.
+     * <p>
+     * A new value set while the property is already notifying its listeners (for instance, by one of its listeners, or
+     * through a bi-directional binding) is ignored to prevent infinite recursion.
+     * <p>
+     * This is the default mode.
+     */
+    IMMEDIATE,
+
+    /**
+     * The notifications are put on a work queue that is specific to the calling thread and that is drained
+     * iteratively by the first notification of the cascade.
+     * <p>
+     * A new value set while the property is already notifying its listeners is not lost: it is applied and the
+     * corresponding notification is queued behind the current one. Also, long chains of bound properties do not consume
+     * stack depth proportional to their length.
+     * <p>
+     * A property notifying its listeners too many times within the same cascade is considered as being part of a cycle,
+     * in which case a {@link NotificationCycleException} is thrown and the remaining notifications are dropped. The
+     * limit can be changed using {@link AbstractReadableProperty#setMaxQueuedNotificationsPerCascade(int)}.
+     */
+    QUEUED
+}
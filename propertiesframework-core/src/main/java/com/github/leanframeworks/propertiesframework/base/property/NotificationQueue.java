@@ -0,0 +1,161 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Per-thread work queue of notifications for properties in {@link NotificationMode#QUEUED} mode.
+ * <p>
+ * The first notification of a cascade drains the queue in a loop, so that notifications triggered while notifying
+ * listeners are executed after the current one rather than recursively.
+ * <p>
+ * Because queued notifications are not nested, a cycle cannot be detected by looking for a property already being
+ * notified on the call stack. Instead, a property notified more than a configurable number of times within the same
+ * cascade is considered as being part of a cycle.
+ *
+ * @see NotificationMode#QUEUED
+ */
+final class NotificationQueue {
+
+    /**
+     * Default maximum number of notifications of the same property within a cascade.
+     */
+    static final int DEFAULT_MAX_NOTIFICATIONS_PER_CASCADE = 1000;
+
+    /**
+     * Maximum number of notifications of the same property within a cascade, before considering it as a cycle.
+     */
+    private static volatile int maxNotificationsPerCascade = DEFAULT_MAX_NOTIFICATIONS_PER_CASCADE;
+
+    /**
+     * Queue of the current thread.
+     */
+    private static final ThreadLocal<NotificationQueue> QUEUES = ThreadLocal.withInitial(NotificationQueue::new);
+
+    /**
+     * Notifications still to be executed in the current cascade.
+     */
+    private final Deque<Runnable> pending = new ArrayDeque<>();
+
+    /**
+     * Number of notifications of each property in the current cascade.
+     */
+    private final Map<Object, Integer> notificationCounts = new IdentityHashMap<>();
+
+    /**
+     * Flag indicating whether the queue is currently being drained.
+     */
+    private boolean draining = false;
+
+    /**
+     * Private constructor for per-thread instances.
+     */
+    private NotificationQueue() {
+        // Nothing to be done
+    }
+
+    /**
+     * Gets the maximum number of notifications of the same property within a cascade.
+     *
+     * @return Maximum number of notifications.
+     */
+    static int getMaxNotificationsPerCascade() {
+        return maxNotificationsPerCascade;
+    }
+
+    /**
+     * Sets the maximum number of notifications of the same property within a cascade, for all threads.
+     *
+     * @param maxNotifications Maximum number of notifications.
+     */
+    static void setMaxNotificationsPerCascade(int maxNotifications) {
+        maxNotificationsPerCascade = maxNotifications;
+    }
+
+    /**
+     * Queues the specified notification on the queue of the current thread, and drains the queue if no cascade is
+     * already in progress on this thread.
+     *
+     * @param property     Property to be notified.
+     * @param notification Notification to be executed.
+     * @throws NotificationCycleException If the property is notified too many times within the same cascade.
+     */
+    static void enqueue(Object property, Runnable notification) {
+        QUEUES.get().add(property, notification);
+    }
+
+    /**
+     * Queues the specified notification and drains the queue if it is not already being drained.
+     *
+     * @param property     Property to be notified.
+     * @param notification Notification to be executed.
+     * @throws NotificationCycleException If the property is notified too many times within the same cascade.
+     */
+    private void add(Object property, Runnable notification) {
+        int count = notificationCounts.merge(property, 1, Integer::sum);
+        if (count > maxNotificationsPerCascade) {
+            pending.clear();
+            notificationCounts.clear();
+            throw new NotificationCycleException(property, count);
+        }
+
+        pending.add(notification);
+        if (!draining) {
+            drain();
+        }
+    }
+
+    /**
+     * Executes all the queued notifications, including the ones queued while draining.
+     */
+    private void drain() {
+        draining = true;
+        Cascade cascade = Cascade.enter();
+        try {
+            Runnable notification = pending.poll();
+            while (notification != null) {
+                notification.run();
+                notification = pending.poll();
+            }
+        } finally {
+            // Drop anything left behind by a failing listener, so that the next cascade starts afresh
+            pending.clear();
+            notificationCounts.clear();
+            draining = false;
+            if (cascade != null) {
+                cascade.exit();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+import com.github.leanframeworks.propertiesframework.base.common.ThrowableHandler;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget limiting the number of hops and the time spent in a cascade of value change notifications.
+ * <p>
+ * A cascade starts when a property notifies its listeners while no other notification is in progress on the same
+ * thread, and it ends when that notification returns. Every notification of a property within the cascade is a hop,
+ * whether it is executed immediately or queued (see {@link NotificationMode}).
+ * <p>
+ * When a cascade exceeds the budget, the remaining notifications of that cascade are skipped (the property values are
+ * changed, but their listeners are not notified), and a {@link PropagationBudgetExceededException} describing the last
+ * hops is passed to the handler of the budget. This protects, for instance, the Event Dispatch Thread from runaway
+ * cascades caused by pathological bindings.
+ * <p>
+ * By default, the skipped notifications are dropped, so the listeners of the skipped properties (for instance, the
+ * slaves of their bindings) are left stale until these properties change again. Alternatively, a deferral executor can
+ * be given to the budget: when the cascade ends, the skipped properties are then notified again in a new cascade,
+ * submitted to this executor. Each skipped property is notified once, from its value when it was first skipped to its
+ * current value, so that a deferred notification never overwrites a more recent one. The executor should run the
+ * deferred cascade on the thread owning the properties, for instance using {@code SwingUtilities::invokeLater} for
+ * properties used on the Event Dispatch Thread, but it should not run it synchronously. Note that, if a cycle causes
+ * the budget to be exceeded, the deferred cascade will exceed it again and be deferred again: the cycle is then spread
+ * over several cascades instead of blocking the thread.
+ * <p>
+ * The budget applies to the properties extending {@link AbstractReadableProperty}. It is disabled by default, and it
+ * can be installed for all threads using {@link #install(PropagationBudget)}.
+ *
+ * @see PropagationBudgetExceededException
+ */
+public class PropagationBudget {
+
+    /**
+     * Budget currently installed, or null if cascades are not limited.
+     */
+    private static volatile PropagationBudget installed = null;
+
+    /**
+     * Maximum number of hops in a cascade.
+     */
+    private final int maxHops;
+
+    /**
+     * Maximum duration of a cascade, in nanoseconds.
+     */
+    private final long maxDurationNanos;
+
+    /**
+     * Handler of the cascades exceeding the budget.
+     */
+    private final ThrowableHandler<? super PropagationBudgetExceededException> handler;
+
+    /**
+     * Executor of the notifications skipped when exceeding the budget, or null if they are dropped.
+     */
+    private final Executor deferralExecutor;
+
+    /**
+     * Constructor dropping the notifications skipped when exceeding the budget.
+     *
+     * @param maxHops     Maximum number of hops in a cascade.
+     * @param maxDuration Maximum duration of a cascade.
+     * @param unit        Unit of the maximum duration.
+     * @param handler     Handler of the cascades exceeding the budget.
+     * @throws IllegalArgumentException If the maximum number of hops or the maximum duration is not positive, or if
+     *                                  the unit or the handler is null.
+     */
+    public PropagationBudget(int maxHops, long maxDuration, TimeUnit unit,
+                             ThrowableHandler<? super PropagationBudgetExceededException> handler) {
+        this(maxHops, maxDuration, unit, handler, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxHops          Maximum number of hops in a cascade.
+     * @param maxDuration      Maximum duration of a cascade.
+     * @param unit             Unit of the maximum duration.
+     * @param handler          Handler of the cascades exceeding the budget.
+     * @param deferralExecutor Executor of the notifications skipped when exceeding the budget, or null to drop them.
+     * @throws IllegalArgumentException If the maximum number of hops or the maximum duration is not positive, or if
+     *                                  the unit or the handler is null.
+     */
+    public PropagationBudget(int maxHops, long maxDuration, TimeUnit unit,
+                             ThrowableHandler<? super PropagationBudgetExceededException> handler,
+                             Executor deferralExecutor) {
+        if (maxHops <= 0) {
+            throw new IllegalArgumentException("Invalid maximum number of hops: " + maxHops);
+        }
+        if (maxDuration <= 0) {
+            throw new IllegalArgumentException("Invalid maximum duration: " + maxDuration);
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("Invalid unit: null");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Invalid handler: null");
+        }
+        this.maxHops = maxHops;
+        this.maxDurationNanos = unit.toNanos(maxDuration);
+        this.handler = handler;
+        this.deferralExecutor = deferralExecutor;
+    }
+
+    /**
+     * Gets the budget currently applied to all cascades.
+     *
+     * @return Installed budget, or null if cascades are not limited.
+     */
+    public static PropagationBudget getInstalled() {
+        return installed;
+    }
+
+    /**
+     * Installs the specified budget for all cascades on all threads.
+     * <p>
+     * The budget of a cascade is the one installed when it started.
+     *
+     * @param budget Budget to be applied, or null to stop limiting cascades.
+     */
+    public static void install(PropagationBudget budget) {
+        installed = budget;
+    }
+
+    /**
+     * Gets the maximum number of hops in a cascade.
+     *
+     * @return Maximum number of hops.
+     */
+    public int getMaxHops() {
+        return maxHops;
+    }
+
+    /**
+     * Gets the maximum duration of a cascade.
+     *
+     * @param unit Unit in which the duration is to be returned.
+     * @return Maximum duration.
+     */
+    public long getMaxDuration(TimeUnit unit) {
+        return unit.convert(maxDurationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the maximum duration of a cascade, in nanoseconds.
+     *
+     * @return Maximum duration in nanoseconds.
+     */
+    long getMaxDurationNanos() {
+        return maxDurationNanos;
+    }
+
+    /**
+     * Gets the handler of the cascades exceeding the budget.
+     *
+     * @return Handler, possibly null if exceeding cascades are just aborted.
+     */
+    public ThrowableHandler<? super PropagationBudgetExceededException> getHandler() {
+        return handler;
+    }
+
+    /**
+     * Gets the executor of the notifications skipped when exceeding the budget.
+     *
+     * @return Deferral executor, or null if the skipped notifications are dropped.
+     */
+    public Executor getDeferralExecutor() {
+        return deferralExecutor;
+    }
+}
@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception reported when a cascade of value change notifications exceeds the installed {@link PropagationBudget}.
+ *
+ * @see PropagationBudget
+ */
+public class PropagationBudgetExceededException extends IllegalStateException {
+
+    /**
+     * Generated serial UID.
+     */
+    private static final long serialVersionUID = -6032415847330725419L;
+
+    /**
+     * Last properties notified in the cascade.
+     */
+    private final transient List<Object> path;
+
+    /**
+     * Number of hops when the budget was exceeded.
+     */
+    private final int hops;
+
+    /**
+     * Duration of the cascade when the budget was exceeded, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param path         Last properties notified in the cascade, in the order of the notifications.
+     * @param hops         Number of hops when the budget was exceeded.
+     * @param elapsedNanos Duration of the cascade when the budget was exceeded, in nanoseconds.
+     */
+    public PropagationBudgetExceededException(Collection<?> path, int hops, long elapsedNanos) {
+        super("Propagation budget exceeded after " + hops + " hops and " + elapsedNanos + " ns, last hops: " + path);
+        this.path = Collections.unmodifiableList(new ArrayList<>(path));
+        this.hops = hops;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the last properties notified in the cascade, including the one that exceeded the budget.
+     * <p>
+     * In case of a cycle, the path typically shows the properties forming the cycle several times.
+     *
+     * @return Unmodifiable list of properties, in the order of the notifications.
+     */
+    public List<Object> getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the number of hops when the budget was exceeded.
+     *
+     * @return Number of hops.
+     */
+    public int getHops() {
+        return hops;
+    }
+
+    /**
+     * Gets the duration of the cascade when the budget was exceeded.
+     *
+     * @return Duration in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
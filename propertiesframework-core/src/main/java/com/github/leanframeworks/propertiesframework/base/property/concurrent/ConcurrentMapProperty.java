@@ -0,0 +1,692 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableMapProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerSource;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
+import com.github.leanframeworks.propertiesframework.base.utils.ValueUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Thread-safe map property backed by a {@link ConcurrentHashMap}.
+ * <p>
+ * Entries can be read and written from any thread, and the {@link ConcurrentMap} operations (for instance,
+ * {@link #putIfAbsent(Object, Object)} or {@link #compute(Object, BiFunction)}) are atomic. Like in a
+ * {@link ConcurrentHashMap}, null keys and null values are not supported.
+ * <p>
+ * Two kinds of listeners can be registered:
+ * <ul>
+ * <li>key listeners, registered with {@link #addKeyListener(Object, MapPropertyChangeListener)}, that are only notified
+ * of the changes of the entry for their key, so that a change only wakes up the listeners of the changed entry;</li>
+ * <li>global listeners, registered with {@link #addChangeListener(MapPropertyChangeListener)}, that are notified of all
+ * changes.</li>
+ * </ul>
+ * The change of a single entry is notified with a {@link MapEntryChange} that is shared by the key listeners and the
+ * global listeners, and that does not allocate any map unless asked to. Bulk operations ({@link #putAll(Map)} and
+ * {@link #clear()}) notify the key listeners of each entry separately and the global listeners only once per kind of
+ * change.
+ * <p>
+ * Listeners are notified after the change has been applied, and only if the value has effectively changed. Notification
+ * ordering is well-defined: each change is queued atomically with its application to the entry, so that the changes
+ * of the same entry are notified in the order in which they were applied, without gaps (the new value of an event is
+ * the old value of the next event of the same entry). The listeners are never notified concurrently: the thread that
+ * applied a change notifies the listeners, unless another thread is already notifying them, in which case that other
+ * thread will also notify the listeners of the new change. Consequently, the listeners may be notified after the
+ * method changing the map has returned, and on another thread than the one that changed the map. A change made by a
+ * listener while being notified is notified after the current one. The global events of the bulk operations are
+ * queued after the changes of all their entries.
+ * <p>
+ * The notifications are reported to the installed {@link PropertyMonitor}, if any, and the listeners are visible to the
+ * {@link com.github.leanframeworks.propertiesframework.base.graph.BindingGraph}. However, since the listeners may be
+ * notified on any thread, this property cannot be inhibited, does not support the {@link
+ * com.github.leanframeworks.propertiesframework.base.property.NotificationMode#QUEUED} notification mode and is not
+ * subject to the {@link com.github.leanframeworks.propertiesframework.base.property.PropagationBudget}.
+ *
+
+ * @param <K> Type of keys maintained by this map property.
+ * @param <V> Type of mapped values.
+ * @see ConcurrentSimpleProperty
+ */
+public class ConcurrentMapProperty<K, V> implements ReadableWritableMapProperty<K, V>, ConcurrentMap<K, V>,
+        Versioned, Disposable, ListenerSource {
+
+    /**
+     * Proxied map.
+     */
+    private final ConcurrentHashMap<K, V> internal;
+
+    /**
+     * Read-only version of the proxied map.
+     */
+    private final Map<K, V> unmodifiable;
+
+    /**
+     * Listeners notified of all changes.
+     */
+    private final ConcurrentListenerList<MapPropertyChangeListener<? super K, ? super V>> listeners = new
+            ConcurrentListenerList<>();
+
+    /**
+     * Listeners notified of the changes of a single entry, indexed by the key of the entry.
+     */
+    private final ConcurrentHashMap<K, ConcurrentListenerList<MapPropertyChangeListener<? super K, ? super V>>>
+            keyListeners = new ConcurrentHashMap<>();
+
+    /**
+     * Number of effective changes.
+     */
+    private final AtomicLong version = new AtomicLong(0);
+
+    /**
+     * Changes applied but not notified yet, in the order in which they were applied.
+     */
+    private final Queue<PendingChange<K, V>> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Flag indicating whether a thread is currently notifying the listeners.
+     */
+    private final AtomicBoolean notifying = new AtomicBoolean(false);
+
+    /**
+     * Constructor.
+     */
+    public ConcurrentMapProperty() {
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * Constructor specifying the initial entries.
+     *
+     * @param entries Initial entries.
+     */
+    public ConcurrentMapProperty(Map<? extends K, ? extends V> entries) {
+        internal = new ConcurrentHashMap<>(entries);
+        unmodifiable = Collections.unmodifiableMap(internal);
+    }
+
+    /**
+     * Removes all the global and key listeners.
+     * <p>
+     * Note that the listeners will not be disposed.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        listeners.clear();
+        keyListeners.clear();
+    }
+
+    /**
+     * Gets a snapshot of the registered global listeners.
+     * <p>
+     * Note that the returned collection is not modifiable.
+     *
+     * @return Global change listeners.
+     */
+    public Collection<MapPropertyChangeListener<? super K, ? super V>> getChangeListeners() {
+        return listeners.snapshot();
+    }
+
+    /**
+     * Gets a snapshot of the global listeners followed by the listeners of all the keys.
+     *
+     * @see ListenerSource#getRegisteredListeners()
+     */
+    @Override
+    public Collection<?> getRegisteredListeners() {
+        List<Object> registeredListeners = new ArrayList<>(listeners.snapshot());
+        for (ConcurrentListenerList<MapPropertyChangeListener<? super K, ? super V>> list : keyListeners.values()) {
+            registeredListeners.addAll(list.snapshot());
+        }
+        return Collections.unmodifiableList(registeredListeners);
+    }
+
+    /**
+     * Gets a snapshot of the listeners registered for the specified key.
+     * <p>
+     * Note that the returned collection is not modifiable.
+     *
+     * @param key Key of the entry.
+     * @return Key listeners, possibly empty.
+     */
+    public Collection<MapPropertyChangeListener<? super K, ? super V>> getKeyListeners(K key) {
+        ConcurrentListenerList<MapPropertyChangeListener<? super K, ? super V>> list = keyListeners.get(key);
+        return (list == null) ? Collections.emptyList() : list.snapshot();
+    }
+
+    /**
+     * @see ReadableWritableMapProperty#addChangeListener(MapPropertyChangeListener)
+     */
+    @Override
+    public void addChangeListener(MapPropertyChangeListener<? super K, ? super V> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @see ReadableWritableMapProperty#removeChangeListener(MapPropertyChangeListener)
+     */
+    @Override
+    public void removeChangeListener(MapPropertyChangeListener<? super K, ? super V> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener to be notified only of the changes of the entry for the specified key.
+     * <p>
+     * The entry does not need to exist: the listener will be notified when it is added.
+     *
+     * @param key      Key of the entry.
+     * @param listener Listener to be added.
+     */
+    public void addKeyListener(K key, MapPropertyChangeListener<? super K, ? super V> listener) {
+        keyListeners.compute(key, (k, list) -> {
+            ConcurrentListenerList<MapPropertyChangeListener<? super K, ? super V>> result = list;
+            if (result == null) {
+                result = new ConcurrentListenerList<>();
+            }
+            result.add(listener);
+            return result;
+        });
+    }
+
+    /**
+     * Removes the specified listener of the entry for the specified key.
+     *
+     * @param key      Key of the entry.
+     * @param listener Listener to be removed.
+     */
+    public void removeKeyListener(K key, MapPropertyChangeListener<? super K, ? super V> listener) {
+        keyListeners.computeIfPresent(key, (k, list) -> {
+            list.remove(listener);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @see Map#size()
+     */
+    @Override
+    public int size() {
+        return internal.size();
+    }
+
+    /**
+     * @see Map#isEmpty()
+     */
+    @Override
+    public boolean isEmpty() {
+        return internal.isEmpty();
+    }
+
+    /**
+     * @see Map#containsKey(Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return internal.containsKey(key);
+    }
+
+    /**
+     * @see Map#containsValue(Object)
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        return internal.containsValue(value);
+    }
+
+    /**
+     * @see Map#get(Object)
+     */
+    @Override
+    public V get(Object key) {
+        return internal.get(key);
+    }
+
+    /**
+     * @see Map#put(Object, Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        checkValue(value);
+        V oldValue = update(key, (k, v) -> value, true);
+        notifyPendingChanges();
+        return oldValue;
+    }
+
+    /**
+     * @see ConcurrentMap#putIfAbsent(Object, Object)
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        checkValue(value);
+        V oldValue = internal.get(key);
+        if (oldValue == null) {
+            oldValue = update(key, (k, v) -> (v == null) ? value : v, true);
+            notifyPendingChanges();
+        }
+        return oldValue;
+    }
+
+    /**
+     * @see ConcurrentMap#replace(Object, Object)
+     */
+    @Override
+    public V replace(K key, V value) {
+        checkValue(value);
+        V oldValue = update(key, (k, v) -> (v == null) ? null : value, true);
+        notifyPendingChanges();
+        return oldValue;
+    }
+
+    /**
+     * @see ConcurrentMap#replace(Object, Object, Object)
+     */
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        checkValue(oldValue);
+        checkValue(newValue);
+        V previousValue = update(key, (k, v) -> oldValue.equals(v) ? newValue : v, true);
+        notifyPendingChanges();
+        return oldValue.equals(previousValue);
+    }
+
+    /**
+     * @see Map#putAll(Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        boolean global = !listeners.isEmpty();
+        Map<K, V> addedValues = global ? new HashMap<>() : null;
+        Map<K, V> changedOldValues = global ? new HashMap<>() : null;
+        Map<K, V> changedNewValues = global ? new HashMap<>() : null;
+
+        for (Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            K key = entry.getKey();
+            V value = entry.getValue();
+            checkValue(value);
+            V oldValue = update(key, (k, v) -> value, false);
+
+            if (!ValueUtils.areEqual(oldValue, value)) {
+                if (global && (oldValue == null)) {
+                    addedValues.put(key, value);
+                } else if (global) {
+                    changedOldValues.put(key, oldValue);
+                    changedNewValues.put(key, value);
+                }
+            }
+        }
+
+        if (global) {
+            if (!addedValues.isEmpty()) {
+                pendingChanges.add(new PendingChange<>(null, new MapPropertyChange<>(this, null, addedValues), true));
+            }
+            if (!changedNewValues.isEmpty()) {
+                pendingChanges.add(new PendingChange<>(null, new MapPropertyChange<>(this, changedOldValues,
+                        changedNewValues), true));
+            }
+        }
+        notifyPendingChanges();
+    }
+
+    /**
+     * @see Map#remove(Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(Object key) {
+        V oldValue = update((K) key, (k, v) -> null, true);
+        notifyPendingChanges();
+        return oldValue;
+    }
+
+    /**
+     * @see ConcurrentMap#remove(Object, Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean remove(Object key, Object value) {
+        boolean removed = false;
+        if (value != null) {
+            V oldValue = update((K) key, (k, v) -> value.equals(v) ? null : v, true);
+            notifyPendingChanges();
+            removed = value.equals(oldValue);
+        }
+        return removed;
+    }
+
+    /**
+     * @see ReadableWritableMapProperty#removeAll(Collection)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public void removeAll(Collection<?> keys) {
+        boolean global = !listeners.isEmpty();
+        Map<K, V> removedValues = global ? new HashMap<>() : null;
+
+        for (Object key : keys) {
+            V oldValue = update((K) key, (k, v) -> null, false);
+            if (global && (oldValue != null)) {
+                removedValues.put((K) key, oldValue);
+            }
+        }
+
+        if (global && !removedValues.isEmpty()) {
+            pendingChanges.add(new PendingChange<>(null, new MapPropertyChange<>(this, removedValues, null), true));
+        }
+        notifyPendingChanges();
+    }
+
+    /**
+     * @see Map#clear()
+     */
+    @Override
+    public void clear() {
+        boolean global = !listeners.isEmpty();
+        Map<K, V> removedValues = global ? new HashMap<>() : null;
+
+        for (K key : internal.keySet()) {
+            V oldValue = update(key, (k, v) -> null, false);
+            if (global && (oldValue != null)) {
+                removedValues.put(key, oldValue);
+            }
+        }
+
+        if (global && !removedValues.isEmpty()) {
+            pendingChanges.add(new PendingChange<>(null, new MapPropertyChange<>(this, removedValues, null), true));
+        }
+        notifyPendingChanges();
+    }
+
+    /**
+     * Atomically computes the new value of the entry for the specified key, and notifies the listeners if it has
+     * changed.
+     * <p>
+     * As in {@link ConcurrentHashMap#compute(Object, BiFunction)}, the function is applied while other updates of the
+     * same entry are blocked, so it should be short and must not modify this map property.
+     *
+     * @see ConcurrentMap#compute(Object, BiFunction)
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        V newValue = internal.compute(key, (k, v) -> {
+            V result = remappingFunction.apply(k, v);
+            entryChanged(k, v, result, true);
+            return result;
+        });
+        notifyPendingChanges();
+        return newValue;
+    }
+
+    /**
+     * @see #compute(Object, BiFunction)
+     * @see ConcurrentMap#computeIfAbsent(Object, Function)
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = internal.get(key);
+        if (value == null) {
+            value = compute(key, (k, v) -> (v == null) ? mappingFunction.apply(k) : v);
+        }
+        return value;
+    }
+
+    /**
+     * @see #compute(Object, BiFunction)
+     * @see ConcurrentMap#computeIfPresent(Object, BiFunction)
+     */
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return compute(key, (k, v) -> (v == null) ? null : remappingFunction.apply(k, v));
+    }
+
+    /**
+     * @see #compute(Object, BiFunction)
+     * @see ConcurrentMap#merge(Object, Object, BiFunction)
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        return compute(key, (k, v) -> (v == null) ? value : remappingFunction.apply(v, value));
+    }
+
+    /**
+     * Gets a set containing all keys in the read-only version of the proxied map.
+     *
+     * @return Key set that cannot be used to modify the proxied map.
+     * @see Map#keySet()
+     */
+    @Override
+    public Set<K> keySet() {
+        return unmodifiable.keySet();
+    }
+
+    /**
+     * Gets a collection containing all values in the read-only version of the proxied map.
+     *
+     * @return Value collection that cannot be used to modified the proxied map.
+     * @see Map#values()
+     */
+    @Override
+    public Collection<V> values() {
+        return unmodifiable.values();
+    }
+
+    /**
+     * Gets a set containing all entries in the read-only version of the proxied map.
+     *
+     * @return Entry set that cannot be use to modified the proxied map.
+     * @see Map#entrySet()
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return unmodifiable.entrySet();
+    }
+
+    /**
+     * @see ReadableWritableMapProperty#asUnmodifiableMap()
+     */
+    @Override
+    public Map<K, V> asUnmodifiableMap() {
+        return unmodifiable;
+    }
+
+    /**
+     * Checks that the specified value is not null, as null values are not supported.
+     *
+     * @param value Value to be checked.
+     */
+    private static void checkValue(Object value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+    }
+
+    /**
+     * Atomically updates the entry for the specified key and queues the notification of its change, if any.
+     *
+     * @param key      Key of the entry.
+     * @param function Function giving the new value from the key and the old value, or null to remove the entry.
+     * @param global   True to notify the key listeners and the global listeners, false to only notify the key
+     *                 listeners.
+     * @return Old value, or null if the entry did not exist.
+     */
+    @SuppressWarnings("unchecked")
+    private V update(K key, BiFunction<? super K, ? super V, ? extends V> function, boolean global) {
+        Object[] oldValue = new Object[1];
+        internal.compute(key, (k, v) -> {
+            oldValue[0] = v;
+            V newValue = function.apply(k, v);
+            entryChanged(k, v, newValue, global);
+            return newValue;
+        });
+        return (V) oldValue[0];
+    }
+
+    /**
+     * Queues the notification of the change of the specified entry, if its value has effectively changed.
+     * <p>
+     * This method is to be called while the entry is being updated, so that the changes of the same entry are queued in
+     * the order in which they are applied.
+     *
+     * @param key      Key of the entry.
+     * @param oldValue Old value, or null if the entry has been added.
+     * @param newValue New value, or null if the entry has been removed.
+     * @param global   True to notify the key listeners and the global listeners, false to only notify the key
+     *                 listeners.
+     */
+    private void entryChanged(K key, V oldValue, V newValue, boolean global) {
+        if (!ValueUtils.areEqual(oldValue, newValue)) {
+            version.incrementAndGet();
+            if (keyListeners.containsKey(key) || (global && !listeners.isEmpty())) {
+                pendingChanges.add(new PendingChange<>(key, new MapEntryChange<>(this, key, oldValue, newValue),
+                        global));
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners of all the changes that have not been notified yet, in order, unless another thread is
+     * already doing it.
+     */
+    private void notifyPendingChanges() {
+        while (!pendingChanges.isEmpty() && notifying.compareAndSet(false, true)) {
+            try {
+                PendingChange<K, V> change;
+                while ((change = pendingChanges.poll()) != null) {
+                    if (change.key != null) {
+                        ConcurrentListenerList<MapPropertyChangeListener<? super K, ? super V>> list = keyListeners
+                                .get(change.key);
+                        if (list != null) {
+                            fire(list, change.event);
+                        }
+                    }
+                    if (change.global && !listeners.isEmpty()) {
+                        fire(listeners, change.event);
+                    }
+                }
+            } finally {
+                notifying.set(false);
+            }
+        }
+    }
+
+    /**
+     * Notifies the specified listeners of the specified change.
+     *
+     * @param list  Listeners to be notified.
+     * @param event Change to be notified.
+     */
+    @SuppressWarnings("unchecked")
+    private void fire(ConcurrentListenerList<MapPropertyChangeListener<? super K, ? super V>> list,
+                      MapPropertyChange<K, V> event) {
+        Object[] listenersCopy = list.array();
+        PropertyMonitor monitor = PropertyMonitors.getInstalled();
+        MonitorScope scope = (monitor == null) ? null : monitor.beginNotification(this, listenersCopy.length);
+        try {
+            for (Object listener : listenersCopy) {
+                ((MapPropertyChangeListener<? super K, ? super V>) listener).mapPropertyChanged(event);
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+
+    /**
+     * Change applied to the map but not notified yet.
+     *
+     * @param <K> Type of keys.
+     * @param <V> Type of values.
+     */
+    private static final class PendingChange<K, V> {
+
+        /**
+         * Key of the changed entry, whose key listeners are to be notified, or null for a bulk change.
+         */
+        private final K key;
+
+        /**
+         * Change to be notified.
+         */
+        private final MapPropertyChange<K, V> event;
+
+        /**
+         * True if the global listeners are to be notified, false otherwise.
+         */
+        private final boolean global;
+
+        /**
+         * Constructor.
+         *
+         * @param key    Key of the changed entry, or null for a bulk change.
+         * @param event  Change to be notified.
+         * @param global True if the global listeners are to be notified, false otherwise.
+         */
+        PendingChange(K key, MapPropertyChange<K, V> event, boolean global) {
+            this.key = key;
+            this.event = event;
+            this.global = global;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.EqualityStrategy;
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableProperty;
+import com.github.leanframeworks.propertiesframework.base.common.ValueEqualityStrategy;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerSource;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe and lock-free implementation of a property that is both readable and writable.
+ * <p>
+ * The value can be read and written from any thread. It is stored in an {@link AtomicReference}, so that it can also be
+ * changed atomically using {@link #compareAndSet(Object, Object)} and {@link #updateAndGet(UnaryOperator)}. Listeners
+ * can also be added and removed from any thread.
+ * <p>
+ * Notification ordering is well-defined: every effective change is given a version number in the order in which it
+ * was atomically applied, and the listeners are notified of the changes in that order, without gaps (the new value of
+ * an event is the old value of the next event). The listeners of a property are never notified concurrently: the
+ * thread that applied a change notifies the listeners, unless another thread is already notifying them, in which case
+ * that other thread will also notify the listeners of the new change. Consequently, the listeners may be notified after
+ * the method changing the value has returned, and on another thread than the one that changed the value.
+ * <p>
+ * A value set by a listener while being notified is not ignored: its notification will follow the current one.
+ * <p>
+ * If a listener throws an exception, the exception is propagated to the notifying thread and the following listeners
+ * are not notified of that change. The changes that were not notified yet are not lost: they will be notified along
+ * with the next change.
+ * <p>
+ * Slaved properties will only be updated if the new value differs from the previous one, according to the equality
+ * strategy.
+ * <p>
+ * The notifications are reported to the installed {@link PropertyMonitor}, if any, and the listeners are visible to the
+ * {@link com.github.leanframeworks.propertiesframework.base.graph.BindingGraph}. However, since the listeners may be
+ * notified on any thread, this property cannot be inhibited, does not support the {@link
+ * com.github.leanframeworks.propertiesframework.base.property.NotificationMode#QUEUED} notification mode and is not
+ * subject to the {@link com.github.leanframeworks.propertiesframework.base.property.PropagationBudget}, which are all
+ * confined to the thread making the change.
+ *
+ * @param <T> Type of data that can be read from and written to this property.
+ * @see ConcurrentListenerList
+ */
+public class ConcurrentSimpleProperty<T> implements ReadableWritableProperty<T>, Versioned, Disposable, ListenerSource {
+
+    /**
+     * Default strategy used to compare the old and new values.
+     */
+    private static final EqualityStrategy<Object> DEFAULT_EQUALITY_STRATEGY = new ValueEqualityStrategy<>();
+
+    /**
+     * Value change listeners.
+     */
+    private final ConcurrentListenerList<PropertyChangeListener<? super T>> listeners = new
+            ConcurrentListenerList<>();
+
+    /**
+     * Latest state of the property, linked to the previous states that have not been notified yet.
+     */
+    private final AtomicReference<State<T>> state;
+
+    /**
+     * Flag indicating whether a thread is currently notifying the listeners.
+     */
+    private final AtomicBoolean notifying = new AtomicBoolean(false);
+
+    /**
+     * Last state of which the listeners were notified.
+     * <p>
+     * It is only modified by the notifying thread.
+     */
+    private volatile State<T> lastNotifiedState;
+
+    /**
+     * Strategy used to compare the old and new values.
+     */
+    private volatile EqualityStrategy<? super T> equalityStrategy = DEFAULT_EQUALITY_STRATEGY;
+
+    /**
+     * Constructor using null as the initial property value.
+     */
+    public ConcurrentSimpleProperty() {
+        this(null);
+    }
+
+    /**
+     * Constructor specifying the initial property value.
+     *
+     * @param value Initial property value.
+     */
+    public ConcurrentSimpleProperty(T value) {
+        State<T> initialState = new State<>(value, 0, null);
+        state = new AtomicReference<>(initialState);
+        lastNotifiedState = initialState;
+    }
+
+    /**
+     * Removes all the listeners.
+     * <p>
+     * Note that the listeners will not be disposed.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        listeners.clear();
+    }
+
+    /**
+     * Gets a snapshot of the registered value change listeners.
+     * <p>
+     * Note that the returned collection is not modifiable.
+     *
+     * @return Value change listeners.
+     */
+    public Collection<PropertyChangeListener<? super T>> getChangeListeners() {
+        return listeners.snapshot();
+    }
+
+    /**
+     * @see ListenerSource#getRegisteredListeners()
+     */
+    @Override
+    public Collection<?> getRegisteredListeners() {
+        return getChangeListeners();
+    }
+
+    /**
+     * @see ReadableWritableProperty#addChangeListener(PropertyChangeListener)
+     */
+    @Override
+    public void addChangeListener(PropertyChangeListener<? super T> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @see ReadableWritableProperty#removeChangeListener(PropertyChangeListener)
+     */
+    @Override
+    public void removeChangeListener(PropertyChangeListener<? super T> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the strategy used to decide whether the old and new values are different.
+     *
+     * @return Equality strategy.
+     */
+    public EqualityStrategy<? super T> getEqualityStrategy() {
+        return equalityStrategy;
+    }
+
+    /**
+     * Sets the strategy used to decide whether the old and new values are different.
+     * <p>
+     * The strategy may be called concurrently from several threads, so it must be thread-safe.
+     *
+     * @param equalityStrategy Equality strategy, or null to use the default one.
+     */
+    public void setEqualityStrategy(EqualityStrategy<? super T> equalityStrategy) {
+        if (equalityStrategy == null) {
+            this.equalityStrategy = DEFAULT_EQUALITY_STRATEGY;
+        } else {
+            this.equalityStrategy = equalityStrategy;
+        }
+    }
+
+    /**
+     * Gets the version number of the property value.
+     * <p>
+     * It is incremented atomically with every effective change of the value.
+     *
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return state.get().version;
+    }
+
+    /**
+     * @see ReadableWritableProperty#getValue()
+     */
+    @Override
+    public T getValue() {
+        return state.get().value;
+    }
+
+    /**
+     * @see ReadableWritableProperty#setValue(Object)
+     */
+    @Override
+    public void setValue(T value) {
+        getAndSet(value);
+    }
+
+    /**
+     * Sets the specified value and returns the previous one, atomically.
+     *
+     * @param value New value.
+     * @return Previous value.
+     */
+    public T getAndSet(T value) {
+        State<T> current;
+        boolean changed;
+        do {
+            current = state.get();
+            changed = !equalityStrategy.areEqual(current.value, value);
+        } while (changed && !state.compareAndSet(current, new State<>(value, current.version + 1, current)));
+
+        if (changed) {
+            notifyListeners();
+        }
+        return current.value;
+    }
+
+    /**
+     * Sets the specified new value, atomically, only if the current value is equal to the expected one according to
+     * the equality strategy.
+     *
+     * @param expectedValue Expected current value.
+     * @param newValue      New value.
+     * @return True if the current value was the expected one, false otherwise.
+     */
+    public boolean compareAndSet(T expectedValue, T newValue) {
+        EqualityStrategy<? super T> strategy = equalityStrategy;
+        State<T> current;
+        boolean changed;
+        do {
+            current = state.get();
+            if (!strategy.areEqual(current.value, expectedValue)) {
+                return false;
+            }
+            changed = !strategy.areEqual(current.value, newValue);
+        } while (changed && !state.compareAndSet(current, new State<>(newValue, current.version + 1, current)));
+
+        if (changed) {
+            notifyListeners();
+        }
+        return true;
+    }
+
+    /**
+     * Atomically updates the value with the result of the specified function, and returns the new value.
+     * <p>
+     * The function may be called several times in case of contention, so it should be free of side effects.
+     *
+     * @param updateFunction Function computing the new value from the current one.
+     * @return New value.
+     */
+    public T updateAndGet(UnaryOperator<T> updateFunction) {
+        return update(updateFunction).value;
+    }
+
+    /**
+     * Atomically updates the value with the result of the specified function, and returns the previous value.
+     * <p>
+     * The function may be called several times in case of contention, so it should be free of side effects.
+     *
+     * @param updateFunction Function computing the new value from the current one.
+     * @return Previous value.
+     */
+    public T getAndUpdate(UnaryOperator<T> updateFunction) {
+        return update(updateFunction).previousValue;
+    }
+
+    /**
+     * Atomically updates the value with the result of the specified function.
+     *
+     * @param updateFunction Function computing the new value from the current one.
+     * @return State after the update, whose previous value is the value before the update.
+     */
+    private State<T> update(UnaryOperator<T> updateFunction) {
+        EqualityStrategy<? super T> strategy = equalityStrategy;
+        State<T> current;
+        State<T> updated;
+        do {
+            current = state.get();
+            T newValue = updateFunction.apply(current.value);
+            if (strategy.areEqual(current.value, newValue)) {
+                // Not published, just to return both values
+                return new State<>(current.value, current.version, current);
+            }
+            updated = new State<>(newValue, current.version + 1, current);
+        } while (!state.compareAndSet(current, updated));
+
+        notifyListeners();
+        return updated;
+    }
+
+    /**
+     * Notifies the listeners of all the changes that have not been notified yet, in order, unless another thread is
+     * already doing it.
+     */
+    private void notifyListeners() {
+        while ((state.get() != lastNotifiedState) && notifying.compareAndSet(false, true)) {
+            try {
+                State<T> latest = state.get();
+                State<T> lastNotified = lastNotifiedState;
+
+                // Link the changes forward, from the last notified one to the latest one
+                for (State<T> s = latest; s != lastNotified; s = s.previous) {
+                    s.previous.next = s;
+                }
+
+                while (lastNotified != latest) {
+                    State<T> change = lastNotified.next;
+
+                    // Mark the change as notified before notifying it, so that a failing listener does not cause the
+                    // change to be notified twice, and forget the notified states so that they can be garbage collected
+                    lastNotified.next = null;
+                    change.previous = null;
+                    lastNotifiedState = change;
+                    lastNotified = change;
+
+                    fire(new PropertyChange<>(this, change.previousValue, change.value));
+                }
+            } finally {
+                notifying.set(false);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners of the specified change.
+     *
+     * @param event Change to be notified.
+     */
+    @SuppressWarnings("unchecked")
+    private void fire(PropertyChange<T> event) {
+        Object[] listenersCopy = listeners.array();
+        PropertyMonitor monitor = PropertyMonitors.getInstalled();
+        MonitorScope scope = (monitor == null) ? null : monitor.beginNotification(this, listenersCopy.length);
+        try {
+            for (Object listener : listenersCopy) {
+                ((PropertyChangeListener<? super T>) listener).propertyChanged(event);
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+
+    /**
+     * Immutable value of the property, except for the link to the previous state.
+     *
+     * @param <T> Type of value.
+     */
+    private static final class State<T> {
+
+        /**
+         * Value of the property.
+         */
+        private final T value;
+
+        /**
+         * Version of the value.
+         */
+        private final long version;
+
+        /**
+         * Value of the previous state, kept after the link to the previous state is cut.
+         */
+        private final T previousValue;
+
+        /**
+         * Previous state, until the listeners are notified of this state.
+         */
+        private volatile State<T> previous;
+
+        /**
+         * Next state, linked by the notifying thread before notifying the listeners of it.
+         * <p>
+         * It is only accessed by the notifying thread.
+         */
+        private State<T> next;
+
+        /**
+         * Constructor.
+         *
+         * @param value    Value of the property.
+         * @param version  Version of the value.
+         * @param previous Previous state, or null for the initial state.
+         */
+        private State(T value, long version, State<T> previous) {
+            this.value = value;
+            this.version = version;
+            this.previous = previous;
+            this.previousValue = (previous == null) ? null : previous.value;
+        }
+    }
+}
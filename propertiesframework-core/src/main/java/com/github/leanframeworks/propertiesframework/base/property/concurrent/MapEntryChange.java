@@ -0,0 +1,146 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableMapProperty;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Change of a single entry in a {@link ConcurrentMapProperty}.
+ * <p>
+ * This event only holds the key and the old and new values: the maps returned by {@link #getOldValues()} and
+ * {@link #getNewValues()} are only created when called. Listeners interested in a single entry should rather use
+ * {@link #getKey()}, {@link #getOldValue()} and {@link #getNewValue()}.
+ *
+ * @param <K> Type of keys in the map property.
+ * @param <R> Type of values in the map property.
+ */
+public class MapEntryChange<K, R> extends MapPropertyChange<K, R> {
+
+    /**
+     * Key of the changed entry.
+     */
+    private final K key;
+
+    /**
+     * Old value of the entry, or null if the entry has been added.
+     */
+    private final R oldValue;
+
+    /**
+     * New value of the entry, or null if the entry has been removed.
+     */
+    private final R newValue;
+
+    /**
+     * Constructor.
+     *
+     * @param source   Map property that has changed.
+     * @param key      Key of the changed entry.
+     * @param oldValue Old value of the entry, or null if the entry has been added.
+     * @param newValue New value of the entry, or null if the entry has been removed.
+     */
+    public MapEntryChange(ReadableMapProperty<? extends K, ? extends R> source, K key, R oldValue, R newValue) {
+        super(source, null, null);
+        this.key = key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Gets the key of the changed entry.
+     *
+     * @return Key of the entry.
+     */
+    public K getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the old value of the entry.
+     *
+     * @return Old value, or null if the entry has been added.
+     */
+    public R getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Gets the new value of the entry.
+     *
+     * @return New value, or null if the entry has been removed.
+     */
+    public R getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * @see MapPropertyChange#getOldValues()
+     */
+    @Override
+    public Map<? extends K, ? extends R> getOldValues() {
+        return (oldValue == null) ? Collections.emptyMap() : Collections.singletonMap(key, oldValue);
+    }
+
+    /**
+     * @see MapPropertyChange#getNewValues()
+     */
+    @Override
+    public Map<? extends K, ? extends R> getNewValues() {
+        return (newValue == null) ? Collections.emptyMap() : Collections.singletonMap(key, newValue);
+    }
+
+    /**
+     * @see MapPropertyChange#valuesAdded()
+     */
+    @Override
+    public boolean valuesAdded() {
+        return oldValue == null;
+    }
+
+    /**
+     * @see MapPropertyChange#valuesReplaced()
+     */
+    @Override
+    public boolean valuesReplaced() {
+        return (oldValue != null) && (newValue != null);
+    }
+
+    /**
+     * @see MapPropertyChange#valuesRemoved()
+     */
+    @Override
+    public boolean valuesRemoved() {
+        return newValue == null;
+    }
+}
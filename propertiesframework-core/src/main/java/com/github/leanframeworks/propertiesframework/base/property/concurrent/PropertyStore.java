@@ -0,0 +1,415 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Store of related properties supporting multi-version concurrency control.
+ * <p>
+ * The store keeps immutable versions of the values of all its properties. Readers can take a consistent
+ * {@link StoreSnapshot} of all the properties at once, without any lock, so that they never observe a torn combination
+ * of values (for instance, a price, a quantity and a currency). Writers can change several properties atomically using
+ * a {@link StoreTransaction}, with optimistic conflict detection: a transaction cannot be committed if any of the
+ * properties it read or wrote was changed by another commit since the transaction began.
+ * <p>
+ * Every commit effectively changing values creates a new version of the store. The commit listeners are notified once
+ * per commit with the net changes, and then the listeners of the individual properties are notified. The notifications
+ * are delivered in the order of the versions, never concurrently, by one of the committing threads. Consequently, they
+ * may be delivered after the commit has returned, and on another thread than the committing one.
+ * <p>
+ * Note that every commit copies the values of all the properties of the store, so a store is meant for a moderate
+ * number of related properties.
+ *
+ * @see StoreProperty
+ * @see StoreSnapshot
+ * @see StoreTransaction
+ */
+public class PropertyStore implements Versioned {
+
+    /**
+     * Number of properties created so far, used to give indices to new properties.
+     */
+    private final AtomicInteger propertyCount = new AtomicInteger(0);
+
+    /**
+     * Latest version of the store, linked to the previous versions that have not been notified yet.
+     */
+    private final AtomicReference<StoreState> state = new AtomicReference<>(StoreState.INITIAL);
+
+    /**
+     * Listeners to the commits.
+     */
+    private final ConcurrentListenerList<Consumer<? super StoreCommit>> commitListeners = new
+            ConcurrentListenerList<>();
+
+    /**
+     * Flag indicating whether a thread is currently notifying the listeners.
+     */
+    private final AtomicBoolean notifying = new AtomicBoolean(false);
+
+    /**
+     * Last version of which the listeners were notified.
+     */
+    private volatile StoreState lastNotifiedState = StoreState.INITIAL;
+
+    /**
+     * Creates a new property in this store.
+     * <p>
+     * The property holds the specified initial value in all the snapshots of the store, including the ones taken
+     * before the creation of the property, until it is changed by a commit.
+     *
+     * @param initialValue Initial value of the property.
+     * @param <T>          Type of value.
+     * @return New property.
+     */
+    public <T> StoreProperty<T> createProperty(T initialValue) {
+        return new StoreProperty<>(this, propertyCount.getAndIncrement(), initialValue);
+    }
+
+    /**
+     * Adds a listener to be notified once per commit, with the net changes of the commit.
+     * <p>
+     * It is notified before the listeners of the individual properties.
+     *
+     * @param listener Commit listener.
+     */
+    public void addCommitListener(Consumer<? super StoreCommit> listener) {
+        commitListeners.add(listener);
+    }
+
+    /**
+     * Removes the specified commit listener.
+     *
+     * @param listener Commit listener.
+     */
+    public void removeCommitListener(Consumer<? super StoreCommit> listener) {
+        commitListeners.remove(listener);
+    }
+
+    /**
+     * Gets the version of the store, incremented by every commit effectively changing values.
+     *
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return state.get().version;
+    }
+
+    /**
+     * Takes a consistent snapshot of the values of all the properties of the store.
+     * <p>
+     * This method does not lock anything and the returned snapshot is immutable.
+     *
+     * @return Snapshot of the latest version of the store.
+     */
+    public StoreSnapshot snapshot() {
+        return new StoreSnapshot(this, state.get());
+    }
+
+    /**
+     * Begins a transaction based on the latest version of the store.
+     *
+     * @return New transaction.
+     */
+    public StoreTransaction begin() {
+        return new StoreTransaction(this, state.get());
+    }
+
+    /**
+     * Executes the specified changes in a transaction, retrying with a new transaction as long as the commit fails
+     * because of conflicting commits.
+     * <p>
+     * The changes may then be executed several times, so they should only read and write properties through the
+     * transaction.
+     *
+     * @param changes Changes to be executed in a transaction.
+     * @return Number of attempts that were needed.
+     */
+    public int update(Consumer<? super StoreTransaction> changes) {
+        int attempts = 0;
+        boolean committed = false;
+        while (!committed) {
+            StoreTransaction transaction = begin();
+            changes.accept(transaction);
+            committed = transaction.commit();
+            attempts++;
+        }
+        return attempts;
+    }
+
+    /**
+     * Reads the latest value of the specified property.
+     *
+     * @param property Property of this store.
+     * @param <T>      Type of value.
+     * @return Latest value.
+     */
+    <T> T getLatestValue(StoreProperty<T> property) {
+        return state.get().getValue(property);
+    }
+
+    /**
+     * Gets the latest version in which the specified property was changed.
+     *
+     * @param property Property of this store.
+     * @return Version of the property.
+     */
+    long getLatestVersion(StoreProperty<?> property) {
+        return state.get().getModifiedVersion(property.getIndex());
+    }
+
+    /**
+     * Commits the specified changes, if none of the specified properties was changed since the base version.
+     *
+     * @param base          Version of the store on which the changes are based, or null to commit unconditionally.
+     * @param checked       Properties that must not have been changed since the base version.
+     * @param writtenValues New values of the written properties.
+     * @return True if the changes were committed (or if there was nothing to change), false in case of conflict.
+     */
+    boolean commit(StoreState base, Collection<StoreProperty<?>> checked,
+                   Map<StoreProperty<?>, Object> writtenValues) {
+        StoreState latest;
+        StoreState committed;
+        do {
+            latest = state.get();
+
+            // Optimistic conflict detection
+            if ((base != null) && (latest != base)) {
+                for (StoreProperty<?> property : checked) {
+                    if (latest.getModifiedVersion(property.getIndex()) > base.version) {
+                        return false;
+                    }
+                }
+            }
+
+            committed = latest.apply(writtenValues);
+            if (committed == latest) {
+                // Nothing effectively changed
+                return true;
+            }
+        } while (!state.compareAndSet(latest, committed));
+
+        notifyListeners();
+        return true;
+    }
+
+    /**
+     * Checks that the specified property belongs to this store.
+     *
+     * @param property Property to be checked.
+     */
+    void checkOwnership(StoreProperty<?> property) {
+        if (property.getStore() != this) {
+            throw new IllegalArgumentException("Property does not belong to this store: " + property);
+        }
+    }
+
+    /**
+     * Notifies the listeners of all the commits that have not been notified yet, in order, unless another thread is
+     * already doing it.
+     */
+    private void notifyListeners() {
+        Deque<StoreState> pending = new ArrayDeque<>();
+        while ((state.get() != lastNotifiedState) && notifying.compareAndSet(false, true)) {
+            try {
+                StoreState latest = state.get();
+                StoreState lastNotified = lastNotifiedState;
+                for (StoreState s = latest; s != lastNotified; s = s.previous) {
+                    pending.push(s);
+                }
+
+                // Forget the notified versions so that they can be garbage collected
+                latest.previous = null;
+                lastNotifiedState = latest;
+
+                while (!pending.isEmpty()) {
+                    StoreCommit commit = pending.pop().commit;
+                    for (Consumer<? super StoreCommit> listener : commitListeners.snapshot()) {
+                        listener.accept(commit);
+                    }
+                    for (StoreProperty<?> property : commit.getChangedProperties()) {
+                        property.notifyListeners(commit);
+                    }
+                }
+            } finally {
+                pending.clear();
+                notifying.set(false);
+            }
+        }
+    }
+
+    /**
+     * Immutable version of the values of the store, except for the link to the previous version.
+     */
+    static final class StoreState {
+
+        /**
+         * Initial version of any store.
+         */
+        static final StoreState INITIAL = new StoreState(0, new Object[0], new long[0], null, null);
+
+        /**
+         * Marker of the properties that still hold their initial value.
+         */
+        private static final Object UNSET = new Object();
+
+        /**
+         * Version number.
+         */
+        final long version;
+
+        /**
+         * Values of the properties, by index.
+         * <p>
+         * Properties whose index is beyond the length of the array, or whose value is {@link #UNSET}, hold their
+         * initial value.
+         */
+        private final Object[] values;
+
+        /**
+         * Versions in which the properties were last changed, by index.
+         */
+        private final long[] modifiedVersions;
+
+        /**
+         * Net changes that led to this version.
+         */
+        final StoreCommit commit;
+
+        /**
+         * Previous version, until the listeners are notified of this version.
+         */
+        volatile StoreState previous;
+
+        /**
+         * Constructor.
+         *
+         * @param version          Version number.
+         * @param values           Values of the properties.
+         * @param modifiedVersions Versions in which the properties were last changed.
+         * @param commit           Net changes that led to this version.
+         * @param previous         Previous version.
+         */
+        private StoreState(long version, Object[] values, long[] modifiedVersions, StoreCommit commit,
+                           StoreState previous) {
+            this.version = version;
+            this.values = values;
+            this.modifiedVersions = modifiedVersions;
+            this.commit = commit;
+            this.previous = previous;
+        }
+
+        /**
+         * Gets the value of the specified property in this version.
+         *
+         * @param property Property.
+         * @param <T>      Type of value.
+         * @return Value of the property.
+         */
+        @SuppressWarnings("unchecked")
+        <T> T getValue(StoreProperty<T> property) {
+            int index = property.getIndex();
+            Object value = (index < values.length) ? values[index] : UNSET;
+            return (value == UNSET) ? property.getInitialValue() : (T) value;
+        }
+
+        /**
+         * Gets the version in which the specified property was last changed.
+         *
+         * @param index Index of the property.
+         * @return Version of the property.
+         */
+        long getModifiedVersion(int index) {
+            return (index < modifiedVersions.length) ? modifiedVersions[index] : 0;
+        }
+
+        /**
+         * Creates the next version by applying the specified values.
+         *
+         * @param writtenValues New values of the written properties.
+         * @return New version, or this version if none of the values effectively changes.
+         */
+        StoreState apply(Map<StoreProperty<?>, Object> writtenValues) {
+            int length = values.length;
+            int changeCount = 0;
+            for (Map.Entry<StoreProperty<?>, Object> entry : writtenValues.entrySet()) {
+                if (!Objects.equals(getValue(entry.getKey()), entry.getValue())) {
+                    length = Math.max(length, entry.getKey().getIndex() + 1);
+                    changeCount++;
+                }
+            }
+
+            StoreState next = this;
+            if (changeCount > 0) {
+                long nextVersion = version + 1;
+                Object[] nextValues = Arrays.copyOf(values, length);
+                long[] nextModifiedVersions = Arrays.copyOf(modifiedVersions, length);
+                for (int i = values.length; i < length; i++) {
+                    // Properties never changed so far, possibly not written in this commit
+                    nextValues[i] = UNSET;
+                }
+
+                StoreProperty<?>[] changed = new StoreProperty<?>[changeCount];
+                Object[] oldValues = new Object[changeCount];
+                Object[] newValues = new Object[changeCount];
+                int i = 0;
+                for (Map.Entry<StoreProperty<?>, Object> entry : writtenValues.entrySet()) {
+                    StoreProperty<?> property = entry.getKey();
+                    Object oldValue = getValue(property);
+                    if (!Objects.equals(oldValue, entry.getValue())) {
+                        nextValues[property.getIndex()] = entry.getValue();
+                        nextModifiedVersions[property.getIndex()] = nextVersion;
+                        changed[i] = property;
+                        oldValues[i] = oldValue;
+                        newValues[i] = entry.getValue();
+                        i++;
+                    }
+                }
+
+                next = new StoreState(nextVersion, nextValues, nextModifiedVersions, new StoreCommit(nextVersion,
+                        changed, oldValues, newValues), this);
+            }
+            return next;
+        }
+    }
+}
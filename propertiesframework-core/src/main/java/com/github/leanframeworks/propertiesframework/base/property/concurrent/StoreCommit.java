@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Net changes of a commit to a {@link PropertyStore}.
+ *
+ * @see PropertyStore#addCommitListener(java.util.function.Consumer)
+ */
+public class StoreCommit implements Versioned {
+
+    /**
+     * Version of the store created by the commit.
+     */
+    private final long version;
+
+    /**
+     * Properties whose value changed.
+     */
+    private final StoreProperty<?>[] changedProperties;
+
+    /**
+     * Old values of the changed properties.
+     */
+    private final Object[] oldValues;
+
+    /**
+     * New values of the changed properties.
+     */
+    private final Object[] newValues;
+
+    /**
+     * Constructor.
+     *
+     * @param version           Version of the store created by the commit.
+     * @param changedProperties Properties whose value changed.
+     * @param oldValues         Old values of the changed properties.
+     * @param newValues         New values of the changed properties.
+     */
+    StoreCommit(long version, StoreProperty<?>[] changedProperties, Object[] oldValues, Object[] newValues) {
+        this.version = version;
+        this.changedProperties = changedProperties;
+        this.oldValues = oldValues;
+        this.newValues = newValues;
+    }
+
+    /**
+     * Gets the version of the store created by the commit.
+     *
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the properties whose value was effectively changed by the commit.
+     *
+     * @return Unmodifiable list of changed properties.
+     */
+    public List<StoreProperty<?>> getChangedProperties() {
+        return Collections.unmodifiableList(Arrays.asList(changedProperties));
+    }
+
+    /**
+     * States whether the value of the specified property was changed by the commit.
+     *
+     * @param property Property of the store.
+     * @return True if the property changed, false otherwise.
+     */
+    public boolean isChanged(StoreProperty<?> property) {
+        return indexOf(property) >= 0;
+    }
+
+    /**
+     * Gets the value of the specified property before the commit.
+     *
+     * @param property Property changed by the commit.
+     * @param <T>      Type of value.
+     * @return Old value, or null if the property was not changed by the commit.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOldValue(StoreProperty<T> property) {
+        int index = indexOf(property);
+        return (index < 0) ? null : (T) oldValues[index];
+    }
+
+    /**
+     * Gets the value of the specified property after the commit.
+     *
+     * @param property Property changed by the commit.
+     * @param <T>      Type of value.
+     * @return New value, or null if the property was not changed by the commit.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getNewValue(StoreProperty<T> property) {
+        int index = indexOf(property);
+        return (index < 0) ? null : (T) newValues[index];
+    }
+
+    /**
+     * Finds the specified property among the changed properties.
+     *
+     * @param property Property to be found.
+     * @return Index of the property, or -1 if it was not changed.
+     */
+    private int indexOf(StoreProperty<?> property) {
+        int index = -1;
+        for (int i = 0; (i < changedProperties.length) && (index < 0); i++) {
+            if (changedProperties[i] == property) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "StoreCommit{version=" + version + ", old=" + Arrays.toString(oldValues) + ", new=" + Arrays.toString
+                (newValues) + "}";
+    }
+}
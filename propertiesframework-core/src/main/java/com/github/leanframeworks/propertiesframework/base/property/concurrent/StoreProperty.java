@@ -0,0 +1,226 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerSource;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Property whose value is held by a {@link PropertyStore}.
+ * <p>
+ * Reading the value gives the value in the latest version of the store, and setting the value commits a single change
+ * to the store. To read or write several properties consistently, use {@link PropertyStore#snapshot()} or
+ * {@link PropertyStore#begin()} instead.
+ * <p>
+ * The listeners of the property are notified once per commit changing its value, after the commit listeners of the
+ * store.
+ * <p>
+ * The notifications are reported to the installed {@link PropertyMonitor}, if any, and the listeners are visible to the
+ * {@link com.github.leanframeworks.propertiesframework.base.graph.BindingGraph}. However, since its changes are applied
+ * by committing to the store, this property cannot be inhibited, does not support the {@link
+ * com.github.leanframeworks.propertiesframework.base.property.NotificationMode#QUEUED} notification mode and is not
+ * subject to the {@link com.github.leanframeworks.propertiesframework.base.property.PropagationBudget}.
+ *
+
+ * @param <T> Type of data that can be read from and written to this property.
+ * @see PropertyStore#createProperty(Object)
+ */
+public class StoreProperty<T> implements ReadableWritableProperty<T>, Versioned, Disposable, ListenerSource {
+
+    /**
+     * Store holding the value of this property.
+     */
+    private final PropertyStore store;
+
+    /**
+     * Index of this property in the store.
+     */
+    private final int index;
+
+    /**
+     * Value of this property until it is changed by a commit.
+     */
+    private final T initialValue;
+
+    /**
+     * Value change listeners.
+     */
+    private final ConcurrentListenerList<PropertyChangeListener<? super T>> listeners = new
+            ConcurrentListenerList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param store        Store holding the value of this property.
+     * @param index        Index of this property in the store.
+     * @param initialValue Value of this property until it is changed by a commit.
+     */
+    StoreProperty(PropertyStore store, int index, T initialValue) {
+        this.store = store;
+        this.index = index;
+        this.initialValue = initialValue;
+    }
+
+    /**
+     * Gets the store holding the value of this property.
+     *
+     * @return Property store.
+     */
+    public PropertyStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the index of this property in the store.
+     *
+     * @return Index of the property.
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the value of this property until it is changed by a commit.
+     *
+     * @return Initial value.
+     */
+    T getInitialValue() {
+        return initialValue;
+    }
+
+    /**
+     * Removes all the listeners.
+     * <p>
+     * Note that the listeners will not be disposed.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        listeners.clear();
+    }
+
+    /**
+     * Gets a snapshot of the registered value change listeners.
+     * <p>
+     * Note that the returned collection is not modifiable.
+     *
+     * @return Value change listeners.
+     */
+    public Collection<PropertyChangeListener<? super T>> getChangeListeners() {
+        return listeners.snapshot();
+    }
+
+    /**
+     * @see ListenerSource#getRegisteredListeners()
+     */
+    @Override
+    public Collection<?> getRegisteredListeners() {
+        return getChangeListeners();
+    }
+
+    /**
+     * @see ReadableWritableProperty#addChangeListener(PropertyChangeListener)
+     */
+    @Override
+    public void addChangeListener(PropertyChangeListener<? super T> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @see ReadableWritableProperty#removeChangeListener(PropertyChangeListener)
+     */
+    @Override
+    public void removeChangeListener(PropertyChangeListener<? super T> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the version of the store in which the value of this property was last changed.
+     *
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return store.getLatestVersion(this);
+    }
+
+    /**
+     * Gets the value of this property in the latest version of the store.
+     *
+     * @see ReadableWritableProperty#getValue()
+     */
+    @Override
+    public T getValue() {
+        return store.getLatestValue(this);
+    }
+
+    /**
+     * Commits the specified value to the store, whatever the concurrent commits.
+     *
+     * @see ReadableWritableProperty#setValue(Object)
+     */
+    @Override
+    public void setValue(T value) {
+        store.commit(null, Collections.emptyList(), Collections.singletonMap(this, value));
+    }
+
+    /**
+     * Notifies the listeners of the change of this property in the specified commit.
+     *
+     * @param commit Commit changing the value of this property.
+     */
+    void notifyListeners(StoreCommit commit) {
+        PropertyChange<T> event = new PropertyChange<>(this, commit.getOldValue(this), commit.getNewValue(this));
+        List<PropertyChangeListener<? super T>> listenersCopy = listeners.snapshot();
+        PropertyMonitor monitor = PropertyMonitors.getInstalled();
+        MonitorScope scope = (monitor == null) ? null : monitor.beginNotification(this, listenersCopy.size());
+        try {
+            for (PropertyChangeListener<? super T> listener : listenersCopy) {
+                listener.propertyChanged(event);
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+
+/**
+ * Immutable and consistent view of the values of all the properties of a {@link PropertyStore} at a given version.
+ *
+ * @see PropertyStore#snapshot()
+ */
+public class StoreSnapshot implements Versioned {
+
+    /**
+     * Store this snapshot was taken from.
+     */
+    private final PropertyStore store;
+
+    /**
+     * Version of the store.
+     */
+    private final PropertyStore.StoreState state;
+
+    /**
+     * Constructor.
+     *
+     * @param store Store this snapshot was taken from.
+     * @param state Version of the store.
+     */
+    StoreSnapshot(PropertyStore store, PropertyStore.StoreState state) {
+        this.store = store;
+        this.state = state;
+    }
+
+    /**
+     * Gets the value of the specified property in this snapshot.
+     *
+     * @param property Property of the store.
+     * @param <T>      Type of value.
+     * @return Value of the property at the version of this snapshot.
+     * @throws IllegalArgumentException If the property does not belong to the store.
+     */
+    public <T> T get(StoreProperty<T> property) {
+        store.checkOwnership(property);
+        return state.getValue(property);
+    }
+
+    /**
+     * Gets the version of the store when this snapshot was taken.
+     *
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return state.version;
+    }
+}
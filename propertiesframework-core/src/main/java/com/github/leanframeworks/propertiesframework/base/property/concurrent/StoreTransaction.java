@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Group of changes to the properties of a {@link PropertyStore}, to be committed atomically.
+ * <p>
+ * The transaction reads the values from the version of the store at which it began, except for the values it wrote
+ * itself. Committing the transaction fails if any of the properties it read or wrote was changed by another commit in
+ * the meantime (optimistic concurrency control). Otherwise, all its changes become visible at once.
+ * <p>
+ * A transaction is meant to be used by a single thread.
+ *
+ * @see PropertyStore#begin()
+ * @see PropertyStore#update(java.util.function.Consumer)
+ */
+public class StoreTransaction implements Versioned {
+
+    /**
+     * Store to commit to.
+     */
+    private final PropertyStore store;
+
+    /**
+     * Version of the store at which the transaction began.
+     */
+    private final PropertyStore.StoreState base;
+
+    /**
+     * Properties read or written by the transaction, which must not be changed by other commits.
+     */
+    private final Set<StoreProperty<?>> checkedProperties = new LinkedHashSet<>();
+
+    /**
+     * Values written by the transaction.
+     */
+    private final Map<StoreProperty<?>, Object> writtenValues = new LinkedHashMap<>();
+
+    /**
+     * Flag indicating whether the transaction was committed (successfully or not).
+     */
+    private boolean completed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param store Store to commit to.
+     * @param base  Version of the store at which the transaction begins.
+     */
+    StoreTransaction(PropertyStore store, PropertyStore.StoreState base) {
+        this.store = store;
+        this.base = base;
+    }
+
+    /**
+     * Gets the version of the store at which the transaction began.
+     *
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return base.version;
+    }
+
+    /**
+     * Reads the value of the specified property, as written by this transaction or as of the version at which this
+     * transaction began.
+     *
+     * @param property Property of the store.
+     * @param <T>      Type of value.
+     * @return Value of the property.
+     * @throws IllegalArgumentException If the property does not belong to the store.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(StoreProperty<T> property) {
+        store.checkOwnership(property);
+        checkedProperties.add(property);
+        T value;
+        if (writtenValues.containsKey(property)) {
+            value = (T) writtenValues.get(property);
+        } else {
+            value = base.getValue(property);
+        }
+        return value;
+    }
+
+    /**
+     * Writes the specified value to the specified property, to be committed later.
+     *
+     * @param property Property of the store.
+     * @param value    New value.
+     * @param <T>      Type of value.
+     * @throws IllegalArgumentException If the property does not belong to the store.
+     * @throws IllegalStateException    If the transaction was already committed.
+     */
+    public <T> void set(StoreProperty<T> property, T value) {
+        store.checkOwnership(property);
+        if (completed) {
+            throw new IllegalStateException("Transaction already committed");
+        }
+        checkedProperties.add(property);
+        writtenValues.put(property, value);
+    }
+
+    /**
+     * Commits all the changes of this transaction atomically.
+     * <p>
+     * Changes that do not effectively change any value do not create a new version of the store.
+     *
+     * @return True if the changes were committed, false if another commit changed any of the properties read or written
+     * by this transaction since it began.
+     * @throws IllegalStateException If the transaction was already committed.
+     */
+    public boolean commit() {
+        if (completed) {
+            throw new IllegalStateException("Transaction already committed");
+        }
+        completed = true;
+        return writtenValues.isEmpty() || store.commit(base, checkedProperties, writtenValues);
+    }
+}
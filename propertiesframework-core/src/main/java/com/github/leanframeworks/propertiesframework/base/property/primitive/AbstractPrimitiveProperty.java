@@ -0,0 +1,226 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.primitive;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerSource;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Abstract implementation of a property holding a primitive value, managing both its boxed and primitive listeners.
+ * <p>
+ * The listeners are kept in copy-on-write arrays: adding or removing a listener allocates a new array, but notifying
+ * the listeners does not allocate anything. The boxed listeners are only notified, and the corresponding {@link
+ * PropertyChange} event only created, if there is at least one of them.
+ * <p>
+ * The notifications are reported to the installed {@link PropertyMonitor}, if any, and the listeners are visible to the
+ * {@link com.github.leanframeworks.propertiesframework.base.graph.BindingGraph}. However, to keep the notifications
+ * allocation-free, these properties cannot be inhibited, always notify their listeners immediately and are not subject
+ * to the {@link com.github.leanframeworks.propertiesframework.base.property.PropagationBudget}.
+ *
+ * @param <R> Type of boxed value.
+ */
+abstract class AbstractPrimitiveProperty<R> implements ReadableProperty<R>, Versioned, Disposable, ListenerSource {
+
+    /**
+     * Empty listener array.
+     */
+    static final Object[] NO_LISTENERS = new Object[0];
+
+    /**
+     * Listeners to the boxed value.
+     */
+    private Object[] listeners = NO_LISTENERS;
+
+    /**
+     * Listeners to the primitive value, managed by the sub-classes.
+     */
+    Object[] primitiveListeners = NO_LISTENERS;
+
+    /**
+     * Version of the value, incremented on each change.
+     */
+    private volatile long version = 0;
+
+    /**
+     * Creates a copy of the specified array with the specified listener appended.
+     *
+     * @param array    Listener array.
+     * @param listener Listener to be appended.
+     * @return New listener array.
+     */
+    static Object[] append(Object[] array, Object listener) {
+        Object[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = listener;
+        return result;
+    }
+
+    /**
+     * Creates a copy of the specified array without the first occurrence of the specified listener.
+     *
+     * @param array    Listener array.
+     * @param listener Listener to be removed.
+     * @return New listener array, or the same array if it does not contain the listener.
+     */
+    static Object[] remove(Object[] array, Object listener) {
+        Object[] result = array;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i].equals(listener)) {
+                if (array.length == 1) {
+                    result = NO_LISTENERS;
+                } else {
+                    result = new Object[array.length - 1];
+                    System.arraycopy(array, 0, result, 0, i);
+                    System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+                }
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Disposes this property by removing any references to any listener.
+     * <p>
+     * Sub-classes should call the dispose() method of their parent class.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        listeners = NO_LISTENERS;
+        primitiveListeners = NO_LISTENERS;
+    }
+
+    /**
+     * Gets the registered boxed value change listeners.
+     *
+     * @return Unmodifiable collection of registered listeners.
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<PropertyChangeListener<? super R>> getChangeListeners() {
+        return Collections.unmodifiableList(Arrays.asList((PropertyChangeListener<? super R>[]) Arrays.copyOf
+                (listeners, listeners.length, PropertyChangeListener[].class)));
+    }
+
+    /**
+     * Gets the primitive listeners followed by the boxed listeners.
+     *
+     * @see ListenerSource#getRegisteredListeners()
+     */
+    @Override
+    public Collection<?> getRegisteredListeners() {
+        Object[] registeredListeners = Arrays.copyOf(primitiveListeners, primitiveListeners.length + listeners.length);
+        System.arraycopy(listeners, 0, registeredListeners, primitiveListeners.length, listeners.length);
+        return Collections.unmodifiableList(Arrays.asList(registeredListeners));
+    }
+
+    /**
+     * @see ReadableProperty#addChangeListener(PropertyChangeListener)
+     */
+    @Override
+    public void addChangeListener(PropertyChangeListener<? super R> listener) {
+        listeners = append(listeners, listener);
+    }
+
+    /**
+     * @see ReadableProperty#removeChangeListener(PropertyChangeListener)
+     */
+    @Override
+    public void removeChangeListener(PropertyChangeListener<? super R> listener) {
+        listeners = remove(listeners, listener);
+    }
+
+    /**
+     * @see Versioned#getVersion()
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Increments the version of the value.
+     * <p>
+     * This method is to be called by sub-classes before notifying a change.
+     */
+    void incrementVersion() {
+        version++;
+    }
+
+    /**
+     * Starts the notification of a change to the installed monitor, if any.
+     * <p>
+     * This method is to be called by sub-classes before notifying a change, and the returned scope is to be closed once
+     * all the listeners have been notified.
+     *
+     * @return Scope of the notification, or null if it is not to be recorded.
+     */
+    MonitorScope beginNotification() {
+        PropertyMonitor monitor = PropertyMonitors.getInstalled();
+        return (monitor == null) ? null : monitor.beginNotification(this, primitiveListeners.length + listeners.length);
+    }
+
+    /**
+     * States whether there is at least one boxed listener.
+     * <p>
+     * Sub-classes should check this before boxing the values to be passed to {@link #notifyBoxedListeners(Object,
+     * Object)}.
+     *
+     * @return True if there is at least one boxed listener, false otherwise.
+     */
+    boolean hasBoxedListeners() {
+        return listeners.length > 0;
+    }
+
+    /**
+     * Notifies the boxed listeners of a change.
+     *
+     * @param oldValue Previous value.
+     * @param newValue New value.
+     */
+    @SuppressWarnings("unchecked")
+    void notifyBoxedListeners(R oldValue, R newValue) {
+        PropertyChange<R> event = new PropertyChange<>(this, oldValue, newValue);
+        for (Object listener : listeners) {
+            ((PropertyChangeListener<? super R>) listener).propertyChanged(event);
+        }
+    }
+}
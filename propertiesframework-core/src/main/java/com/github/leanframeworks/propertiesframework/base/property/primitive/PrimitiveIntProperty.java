@@ -0,0 +1,140 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.primitive;
+
+import com.github.leanframeworks.propertiesframework.api.property.IntPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableIntProperty;
+import com.github.leanframeworks.propertiesframework.api.property.WritableIntProperty;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+
+/**
+ * Readable/writable property holding an int value.
+ * <p>
+ * The value can be read, written and listened to as a primitive: as long as only {@link IntPropertyChangeListener}s
+ * are registered, changing the value does not involve any boxing nor allocation. Regular {@link
+ * com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener}s are also supported and are
+ * notified after the primitive listeners.
+ * <p>
+ * As a primitive cannot be null, setting a null boxed value sets the value to 0.
+ * <p>
+ * Note that this property is meant to be used by a single thread at a time.
+ *
+ * @see com.github.leanframeworks.propertiesframework.base.binding.PrimitiveBinder
+ */
+public class PrimitiveIntProperty extends AbstractPrimitiveProperty<Integer> implements ReadableIntProperty,
+        WritableIntProperty {
+
+    /**
+     * Current value.
+     */
+    private int value;
+
+    /**
+     * Constructor setting the initial value to 0.
+     */
+    public PrimitiveIntProperty() {
+        this(0);
+    }
+
+    /**
+     * Constructor specifying the initial value.
+     *
+     * @param value Initial value.
+     */
+    public PrimitiveIntProperty(int value) {
+        super();
+        this.value = value;
+    }
+
+    /**
+     * @see ReadableIntProperty#addIntChangeListener(IntPropertyChangeListener)
+     */
+    @Override
+    public void addIntChangeListener(IntPropertyChangeListener listener) {
+        primitiveListeners = append(primitiveListeners, listener);
+    }
+
+    /**
+     * @see ReadableIntProperty#removeIntChangeListener(IntPropertyChangeListener)
+     */
+    @Override
+    public void removeIntChangeListener(IntPropertyChangeListener listener) {
+        primitiveListeners = remove(primitiveListeners, listener);
+    }
+
+    /**
+     * @see ReadableIntProperty#getAsInt()
+     */
+    @Override
+    public int getAsInt() {
+        return value;
+    }
+
+    /**
+     * @see WritableIntProperty#setAsInt(int)
+     */
+    @Override
+    public void setAsInt(int value) {
+        int oldValue = this.value;
+        if (oldValue != value) {
+            this.value = value;
+            incrementVersion();
+            MonitorScope scope = beginNotification();
+            try {
+                for (Object listener : primitiveListeners) {
+                    ((IntPropertyChangeListener) listener).intPropertyChanged(this, oldValue, value);
+                }
+                if (hasBoxedListeners()) {
+                    notifyBoxedListeners(oldValue, value);
+                }
+            } finally {
+                if (scope != null) {
+                    scope.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * @see ReadableIntProperty#getValue()
+     */
+    @Override
+    public Integer getValue() {
+        return value;
+    }
+
+    /**
+     * @see WritableIntProperty#setValue(Object)
+     */
+    @Override
+    public void setValue(Integer value) {
+        setAsInt((value == null) ? 0 : value);
+    }
+}
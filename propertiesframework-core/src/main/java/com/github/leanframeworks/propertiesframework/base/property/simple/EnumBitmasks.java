@@ -0,0 +1,168 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import java.util.EnumSet;
+
+/**
+ * Utility methods to handle sets of enum constants as bitmasks, in which the bit at index i of word i / 64 is set if
+ * the enum constant of ordinal i is in the set.
+ */
+final class EnumBitmasks {
+
+    /**
+     * Private constructor for utility class.
+     */
+    private EnumBitmasks() {
+        // Nothing to be done
+    }
+
+    /**
+     * Creates an empty bitmask for the specified number of enum constants.
+     *
+     * @param universeSize Number of constants of the enum type.
+     * @return Empty bitmask.
+     */
+    static long[] create(int universeSize) {
+        return new long[(universeSize + 63) >>> 6];
+    }
+
+    /**
+     * Gets the index of the word holding the bit of the specified ordinal.
+     *
+     * @param ordinal Ordinal of the enum constant.
+     * @return Word index.
+     */
+    static int word(int ordinal) {
+        return ordinal >>> 6;
+    }
+
+    /**
+     * Gets the mask of the bit of the specified ordinal in its word.
+     *
+     * @param ordinal Ordinal of the enum constant.
+     * @return Bit mask.
+     */
+    static long bit(int ordinal) {
+        return 1L << ordinal; // Only the 6 lowest bits of the ordinal are used
+    }
+
+    /**
+     * Tests the bit of the specified ordinal.
+     *
+     * @param bitmask Bitmask.
+     * @param ordinal Ordinal of the enum constant.
+     * @return True if the bit is set, false otherwise.
+     */
+    static boolean get(long[] bitmask, int ordinal) {
+        return (bitmask[word(ordinal)] & bit(ordinal)) != 0;
+    }
+
+    /**
+     * Sets the bit of the specified ordinal.
+     *
+     * @param bitmask Bitmask to be modified.
+     * @param ordinal Ordinal of the enum constant.
+     */
+    static void set(long[] bitmask, int ordinal) {
+        bitmask[word(ordinal)] |= bit(ordinal);
+    }
+
+    /**
+     * States whether the specified bitmask has no bit set.
+     *
+     * @param bitmask Bitmask.
+     * @return True if no bit is set, false otherwise.
+     */
+    static boolean isEmpty(long[] bitmask) {
+        for (long word : bitmask) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the bits set in the specified bitmask.
+     *
+     * @param bitmask Bitmask.
+     * @return Number of bits set.
+     */
+    static int count(long[] bitmask) {
+        int count = 0;
+        for (long word : bitmask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the ordinal of the first bit set at or after the specified ordinal.
+     *
+     * @param bitmask Bitmask.
+     * @param from    Ordinal from which to search.
+     * @return Ordinal of the next bit set, or -1 if there is none.
+     */
+    static int next(long[] bitmask, int from) {
+        int wordIndex = word(from);
+        if (wordIndex >= bitmask.length) {
+            return -1;
+        }
+        long word = bitmask[wordIndex] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            wordIndex++;
+            if (wordIndex == bitmask.length) {
+                return -1;
+            }
+            word = bitmask[wordIndex];
+        }
+    }
+
+    /**
+     * Creates an enum set containing the constants whose bits are set in the specified bitmask.
+     *
+     * @param enumType Enum type.
+     * @param universe Constants of the enum type, by ordinal.
+     * @param bitmask  Bitmask.
+     * @param <E>      Enum type.
+     * @return New enum set.
+     */
+    static <E extends Enum<E>> EnumSet<E> toEnumSet(Class<E> enumType, E[] universe, long[] bitmask) {
+        EnumSet<E> set = EnumSet.noneOf(enumType);
+        for (int i = next(bitmask, 0); i >= 0; i = next(bitmask, i + 1)) {
+            set.add(universe[i]);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,489 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableWritableMapProperty;
+import com.github.leanframeworks.propertiesframework.base.utils.ValueUtils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Readable/writable map property with enum keys, backed by an array of values indexed by key ordinal.
+ * <p>
+ * This is meant for state attached to a small set of known keys, for instance the width of each table column: reading
+ * and writing an entry only involves the ordinal of its key, without hashing nor allocating any entry. Listeners are
+ * notified with {@link EnumMapPropertyChange} events describing the changes as a bitmask of the changed keys along with
+ * arrays of the old and new values indexed by key ordinal.
+ *
+ * @param <K> Type of enum keys maintained by this map property.
+ * @param <V> Type mapped values.
+ * @see SimpleMapProperty
+ */
+public class EnumMapProperty<K extends Enum<K>, V> extends AbstractReadableWritableMapProperty<K, V> implements
+        Map<K, V> {
+
+    /**
+     * Enum type of the keys.
+     */
+    private final Class<K> keyType;
+
+    /**
+     * Keys of the enum type, by ordinal.
+     */
+    private final K[] universe;
+
+    /**
+     * Bitmask of the keys present in the map.
+     */
+    private final long[] keyBits;
+
+    /**
+     * Values by key ordinal.
+     */
+    private final Object[] values;
+
+    /**
+     * Read-only view of the map.
+     */
+    private final Map<K, V> unmodifiable = Collections.unmodifiableMap(new View());
+
+    /**
+     * Number of entries in the map.
+     */
+    private int size = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param keyType Enum type of the keys.
+     */
+    public EnumMapProperty(Class<K> keyType) {
+        this(keyType, Collections.emptyMap());
+    }
+
+    /**
+     * Constructor specifying the initial entries and adding the specified listeners.
+     * <p>
+     * Note that the specified listeners will not be notified for the addition of the specified initial entries.
+     *
+     * @param keyType   Enum type of the keys.
+     * @param entries   Initial entries.
+     * @param listeners Listeners to be added.
+     */
+    @SafeVarargs
+    public EnumMapProperty(Class<K> keyType, Map<K, V> entries, MapPropertyChangeListener<K, V>... listeners) {
+        super(); // Without listeners
+
+        this.keyType = keyType;
+        this.universe = keyType.getEnumConstants();
+        this.keyBits = EnumBitmasks.create(universe.length);
+        this.values = new Object[universe.length];
+        for (Entry<K, V> entry : entries.entrySet()) {
+            int ordinal = entry.getKey().ordinal();
+            EnumBitmasks.set(keyBits, ordinal);
+            values[ordinal] = entry.getValue();
+        }
+        this.size = EnumBitmasks.count(keyBits);
+
+        for (MapPropertyChangeListener<K, V> listener : listeners) {
+            addChangeListener(listener);
+        }
+    }
+
+    /**
+     * Gets the enum type of the keys.
+     *
+     * @return Enum type.
+     */
+    public Class<K> getKeyType() {
+        return keyType;
+    }
+
+    /**
+     * Gets the keys of the enum type, by ordinal.
+     *
+     * @return Shared array of keys, not to be modified.
+     */
+    K[] getUniverse() {
+        return universe;
+    }
+
+    /**
+     * Gets the bitmask of the keys present in the map.
+     *
+     * @return Copy of the bitmask, in which the bit at index i of word i / 64 is set if the key of ordinal i is in the
+     * map.
+     */
+    public long[] getKeyBits() {
+        return keyBits.clone();
+    }
+
+    /**
+     * Gets the ordinal of the specified key.
+     *
+     * @param key Key.
+     * @return Ordinal of the key, or -1 if the key is not of the enum type.
+     */
+    private int ordinalOf(Object key) {
+        return keyType.isInstance(key) ? ((Enum<?>) key).ordinal() : -1;
+    }
+
+    /**
+     * @see Map#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @see Map#isEmpty()
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @see Map#containsKey(Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        int ordinal = ordinalOf(key);
+        return (ordinal >= 0) && EnumBitmasks.get(keyBits, ordinal);
+    }
+
+    /**
+     * @see Map#containsValue(Object)
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = EnumBitmasks.next(keyBits, 0); i >= 0; i = EnumBitmasks.next(keyBits, i + 1)) {
+            if (ValueUtils.areEqual(values[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @see Map#get(Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        int ordinal = ordinalOf(key);
+        return (ordinal < 0) ? null : (V) values[ordinal];
+    }
+
+    /**
+     * @see Map#put(Object, Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public V put(K key, V value) {
+        int ordinal = key.ordinal();
+        V oldValue = (V) values[ordinal];
+        long[] changedBits = EnumBitmasks.create(universe.length);
+        EnumBitmasks.set(changedBits, ordinal);
+        Object[] newValues = new Object[universe.length];
+        newValues[ordinal] = value;
+
+        if (EnumBitmasks.get(keyBits, ordinal)) {
+            // Changed existing entry
+            if (!ValueUtils.areEqual(oldValue, value)) {
+                Object[] oldValues = new Object[universe.length];
+                oldValues[ordinal] = oldValue;
+                values[ordinal] = value;
+                doNotifyListeners(new EnumMapPropertyChange<>(this, changedBits, oldValues, newValues));
+            }
+        } else {
+            // Added new entry
+            EnumBitmasks.set(keyBits, ordinal);
+            values[ordinal] = value;
+            size++;
+            doNotifyListeners(new EnumMapPropertyChange<>(this, changedBits, null, newValues));
+        }
+
+        return oldValue;
+    }
+
+    /**
+     * @see Map#putAll(Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        long[] addedBits = EnumBitmasks.create(universe.length);
+        Object[] addedValues = new Object[universe.length];
+        long[] changedBits = EnumBitmasks.create(universe.length);
+        Object[] changedOldValues = new Object[universe.length];
+        Object[] changedNewValues = new Object[universe.length];
+
+        for (Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            int ordinal = entry.getKey().ordinal();
+            V value = entry.getValue();
+            if (EnumBitmasks.get(keyBits, ordinal)) {
+                // Changed existing entry
+                if (!ValueUtils.areEqual(values[ordinal], value)) {
+                    EnumBitmasks.set(changedBits, ordinal);
+                    changedOldValues[ordinal] = values[ordinal];
+                    changedNewValues[ordinal] = value;
+                    values[ordinal] = value;
+                }
+            } else {
+                // Added new entry
+                EnumBitmasks.set(keyBits, ordinal);
+                EnumBitmasks.set(addedBits, ordinal);
+                addedValues[ordinal] = value;
+                values[ordinal] = value;
+                size++;
+            }
+        }
+
+        // Notify the listeners
+        if (!EnumBitmasks.isEmpty(addedBits)) {
+            doNotifyListeners(new EnumMapPropertyChange<>(this, addedBits, null, addedValues));
+        }
+        if (!EnumBitmasks.isEmpty(changedBits)) {
+            doNotifyListeners(new EnumMapPropertyChange<>(this, changedBits, changedOldValues, changedNewValues));
+        }
+    }
+
+    /**
+     * @see Map#remove(Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(Object key) {
+        V previousValue = null;
+
+        if (containsKey(key)) {
+            int ordinal = ((Enum<?>) key).ordinal();
+            previousValue = (V) values[ordinal];
+            long[] removedBits = EnumBitmasks.create(universe.length);
+            EnumBitmasks.set(removedBits, ordinal);
+            Object[] oldValues = new Object[universe.length];
+            oldValues[ordinal] = previousValue;
+
+            keyBits[EnumBitmasks.word(ordinal)] &= ~EnumBitmasks.bit(ordinal);
+            values[ordinal] = null;
+            size--;
+            doNotifyListeners(new EnumMapPropertyChange<>(this, removedBits, oldValues, null));
+        }
+
+        return previousValue;
+    }
+
+    /**
+     * @see AbstractReadableWritableMapProperty#removeAll(Collection)
+     */
+    @Override
+    public void removeAll(Collection<?> keys) {
+        long[] removedBits = null;
+        Object[] oldValues = null;
+
+        for (Object key : keys) {
+            if (containsKey(key)) {
+                int ordinal = ((Enum<?>) key).ordinal();
+                if (removedBits == null) {
+                    removedBits = EnumBitmasks.create(universe.length);
+                    oldValues = new Object[universe.length];
+                }
+                EnumBitmasks.set(removedBits, ordinal);
+                oldValues[ordinal] = values[ordinal];
+
+                keyBits[EnumBitmasks.word(ordinal)] &= ~EnumBitmasks.bit(ordinal);
+                values[ordinal] = null;
+                size--;
+            }
+        }
+
+        if (removedBits != null) {
+            doNotifyListeners(new EnumMapPropertyChange<>(this, removedBits, oldValues, null));
+        }
+    }
+
+    /**
+     * @see Map#clear()
+     */
+    @Override
+    public void clear() {
+        if (size > 0) {
+            long[] removedBits = keyBits.clone();
+            Object[] oldValues = values.clone();
+
+            for (int i = 0; i < keyBits.length; i++) {
+                keyBits[i] = 0;
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = null;
+            }
+            size = 0;
+            doNotifyListeners(new EnumMapPropertyChange<>(this, removedBits, oldValues, null));
+        }
+    }
+
+    /**
+     * Gets a set containing all keys in the read-only view of the map.
+     *
+     * @return Key set that cannot be used to modify the map.
+     * @see Map#keySet()
+     */
+    @Override
+    public Set<K> keySet() {
+        return unmodifiable.keySet();
+    }
+
+    /**
+     * Gets a collection containing all values in the read-only view of the map.
+     *
+     * @return Value collection that cannot be used to modified the map.
+     * @see Map#values()
+     */
+    @Override
+    public Collection<V> values() {
+        return unmodifiable.values();
+    }
+
+    /**
+     * Gets a set containing all entries in the read-only view of the map.
+     *
+     * @return Entry set that cannot be use to modified the map.
+     * @see Map#entrySet()
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return unmodifiable.entrySet();
+    }
+
+    /**
+     * @see AbstractReadableWritableMapProperty#asUnmodifiableMap()
+     */
+    @Override
+    public Map<K, V> asUnmodifiableMap() {
+        return unmodifiable;
+    }
+
+    /**
+     * Live view of the entries of the map, by ascending key ordinal.
+     */
+    private class View extends AbstractMap<K, V> {
+
+        /**
+         * Entries of the map.
+         */
+        private final Set<Entry<K, V>> entries = new AbstractSet<Entry<K, V>>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int size() {
+                return size;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+
+                    /**
+                     * Ordinal of the key of the next entry, or -1 if there is none.
+                     */
+                    private int next = EnumBitmasks.next(keyBits, 0);
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public Entry<K, V> next() {
+                        if (next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<K, V> entry = new SimpleImmutableEntry<>(universe[next], (V) values[next]);
+                        next = EnumBitmasks.next(keyBits, next + 1);
+                        return entry;
+                    }
+                };
+            }
+        };
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return entries;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean containsKey(Object key) {
+            return EnumMapProperty.this.containsKey(key);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V get(Object key) {
+            return EnumMapProperty.this.get(key);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Change of an {@link EnumMapProperty}, described as a bitmask of the changed keys along with their old and new values.
+ * <p>
+ * The maps returned by {@link #getOldValues()} and {@link #getNewValues()} are only created when called. Listeners
+ * can rather use {@link #getKeyBits()}, in which the bit at index i of word i / 64 is set if the entry of the key of
+ * ordinal i has changed, and {@link #getOldValue(Enum)} and {@link #getNewValue(Enum)}.
+ *
+ * @param <K> Type of enum keys in the map property.
+ * @param <R> Type of values in the map property.
+ */
+public class EnumMapPropertyChange<K extends Enum<K>, R> extends MapPropertyChange<K, R> {
+
+    /**
+     * Enum type of the keys.
+     */
+    private final Class<K> keyType;
+
+    /**
+     * Keys of the enum type, by ordinal.
+     */
+    private final K[] universe;
+
+    /**
+     * Bitmask of the changed keys.
+     */
+    private final long[] keyBits;
+
+    /**
+     * Old values of the changed entries by key ordinal, or null if the entries have been added.
+     */
+    private final Object[] oldValues;
+
+    /**
+     * New values of the changed entries by key ordinal, or null if the entries have been removed.
+     */
+    private final Object[] newValues;
+
+    /**
+     * Old values as a map, created on demand.
+     */
+    private Map<K, R> oldValueMap = null;
+
+    /**
+     * New values as a map, created on demand.
+     */
+    private Map<K, R> newValueMap = null;
+
+    /**
+     * Constructor.
+     *
+     * @param source    Map property that has changed.
+     * @param keyBits   Bitmask of the changed keys.
+     * @param oldValues Old values of the changed entries by key ordinal, or null if the entries have been added.
+     * @param newValues New values of the changed entries by key ordinal, or null if the entries have been removed.
+     */
+    public EnumMapPropertyChange(EnumMapProperty<K, ? extends R> source, long[] keyBits, Object[] oldValues,
+                                 Object[] newValues) {
+        super(source, null, null);
+        this.keyType = source.getKeyType();
+        this.universe = source.getUniverse();
+        this.keyBits = keyBits;
+        this.oldValues = oldValues;
+        this.newValues = newValues;
+    }
+
+    /**
+     * Gets the bitmask of the changed keys.
+     *
+     * @return Copy of the bitmask of the changed keys.
+     */
+    public long[] getKeyBits() {
+        return keyBits.clone();
+    }
+
+    /**
+     * Gets the old value of the entry of the specified key.
+     *
+     * @param key Key of a changed entry.
+     * @return Old value, or null if the entry has been added or has not changed.
+     */
+    @SuppressWarnings("unchecked")
+    public R getOldValue(K key) {
+        return (oldValues == null) ? null : (R) oldValues[key.ordinal()];
+    }
+
+    /**
+     * Gets the new value of the entry of the specified key.
+     *
+     * @param key Key of a changed entry.
+     * @return New value, or null if the entry has been removed or has not changed.
+     */
+    @SuppressWarnings("unchecked")
+    public R getNewValue(K key) {
+        return (newValues == null) ? null : (R) newValues[key.ordinal()];
+    }
+
+    /**
+     * Creates a map of the specified values of the changed keys.
+     *
+     * @param values Values by key ordinal, or null.
+     * @return Unmodifiable map, empty if the values are null.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<K, R> toMap(Object[] values) {
+        Map<K, R> map;
+        if (values == null) {
+            map = Collections.emptyMap();
+        } else {
+            EnumMap<K, R> enumMap = new EnumMap<>(keyType);
+            for (int i = EnumBitmasks.next(keyBits, 0); i >= 0; i = EnumBitmasks.next(keyBits, i + 1)) {
+                enumMap.put(universe[i], (R) values[i]);
+            }
+            map = Collections.unmodifiableMap(enumMap);
+        }
+        return map;
+    }
+
+    /**
+     * @see MapPropertyChange#getOldValues()
+     */
+    @Override
+    public Map<? extends K, ? extends R> getOldValues() {
+        if (oldValueMap == null) {
+            oldValueMap = toMap(oldValues);
+        }
+        return oldValueMap;
+    }
+
+    /**
+     * @see MapPropertyChange#getNewValues()
+     */
+    @Override
+    public Map<? extends K, ? extends R> getNewValues() {
+        if (newValueMap == null) {
+            newValueMap = toMap(newValues);
+        }
+        return newValueMap;
+    }
+
+    /**
+     * @see MapPropertyChange#valuesAdded()
+     */
+    @Override
+    public boolean valuesAdded() {
+        return oldValues == null;
+    }
+
+    /**
+     * @see MapPropertyChange#valuesReplaced()
+     */
+    @Override
+    public boolean valuesReplaced() {
+        return (oldValues != null) && (newValues != null);
+    }
+
+    /**
+     * @see MapPropertyChange#valuesRemoved()
+     */
+    @Override
+    public boolean valuesRemoved() {
+        return newValues == null;
+    }
+}
@@ -0,0 +1,422 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableWritableSetProperty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Readable/writable set property of enum constants, backed by a bitmask.
+ * <p>
+ * This is meant for sets of flags, for instance enabled features or visible table columns: adding, removing and
+ * testing a constant only involves its ordinal, without hashing nor allocating any entry. Listeners are notified with
+ * {@link EnumSetPropertyChange} events describing the changes as bitmasks of the removed and added constants.
+ *
+ * @param <E> Type of enum constants handled by this set property.
+ * @see SimpleSetProperty
+ */
+public class EnumSetProperty<E extends Enum<E>> extends AbstractReadableWritableSetProperty<E> implements Set<E> {
+
+    /**
+     * Enum type of the constants in the set.
+     */
+    private final Class<E> enumType;
+
+    /**
+     * Constants of the enum type, by ordinal.
+     */
+    private final E[] universe;
+
+    /**
+     * Bitmask of the constants in the set.
+     */
+    private final long[] bits;
+
+    /**
+     * Read-only view of the set.
+     */
+    private final Set<E> unmodifiable = Collections.unmodifiableSet(this);
+
+    /**
+     * Number of constants in the set.
+     */
+    private int size = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param enumType Enum type of the constants in the set.
+     */
+    public EnumSetProperty(Class<E> enumType) {
+        this(enumType, Collections.emptySet());
+    }
+
+    /**
+     * Constructor specifying the initial items and adding the specified listeners.
+     * <p>
+     * Note that the specified listeners will not be notified for the addition of the specified initial items.
+     *
+     * @param enumType  Enum type of the constants in the set.
+     * @param items     Initial items.
+     * @param listeners Listeners to be added.
+     */
+    @SafeVarargs
+    public EnumSetProperty(Class<E> enumType, Set<E> items, SetPropertyChangeListener<E>... listeners) {
+        super(); // Without listeners
+
+        this.enumType = enumType;
+        this.universe = enumType.getEnumConstants();
+        this.bits = EnumBitmasks.create(universe.length);
+        for (E item : items) {
+            EnumBitmasks.set(bits, item.ordinal());
+        }
+        this.size = EnumBitmasks.count(bits);
+
+        for (SetPropertyChangeListener<E> listener : listeners) {
+            addChangeListener(listener);
+        }
+    }
+
+    /**
+     * Gets the enum type of the constants in the set.
+     *
+     * @return Enum type.
+     */
+    public Class<E> getEnumType() {
+        return enumType;
+    }
+
+    /**
+     * Gets the constants of the enum type, by ordinal.
+     *
+     * @return Shared array of constants, not to be modified.
+     */
+    E[] getUniverse() {
+        return universe;
+    }
+
+    /**
+     * Gets the bitmask of the constants in the set.
+     *
+     * @return Copy of the bitmask, in which the bit at index i of word i / 64 is set if the constant of ordinal i is in
+     * the set.
+     */
+    public long[] getBits() {
+        return bits.clone();
+    }
+
+    /**
+     * Replaces the content of the set by the constants whose bits are set in the specified bitmask.
+     * <p>
+     * Listeners are notified once for the removed constants, if any, and once for the added constants, if any.
+     *
+     * @param bits Bitmask, in which the bit at index i of word i / 64 is set if the constant of ordinal i is to be in
+     *             the set.
+     */
+    public void setBits(long... bits) {
+        long[] removedBits = EnumBitmasks.create(universe.length);
+        long[] addedBits = EnumBitmasks.create(universe.length);
+        for (int i = 0; i < this.bits.length; i++) {
+            long target = (i < bits.length) ? bits[i] : 0;
+            if (i == this.bits.length - 1) {
+                target &= lastWordMask();
+            }
+            removedBits[i] = this.bits[i] & ~target;
+            addedBits[i] = target & ~this.bits[i];
+        }
+        remove(removedBits);
+        add(addedBits);
+    }
+
+    /**
+     * Gets the mask of the bits of the last word corresponding to constants of the enum type.
+     *
+     * @return Mask of the valid bits of the last word.
+     */
+    private long lastWordMask() {
+        int remainder = universe.length & 63;
+        return (remainder == 0) ? -1L : ((1L << remainder) - 1);
+    }
+
+    /**
+     * Converts the specified collection into a bitmask, ignoring the objects that are not constants of the enum type.
+     *
+     * @param items Collection to be converted.
+     * @return Bitmask of the constants in the collection.
+     */
+    private long[] toBits(Collection<?> items) {
+        long[] result;
+        if ((items instanceof EnumSetProperty) && (((EnumSetProperty<?>) items).enumType == enumType)) {
+            result = ((EnumSetProperty<?>) items).getBits();
+        } else {
+            result = EnumBitmasks.create(universe.length);
+            for (Object item : items) {
+                if (enumType.isInstance(item)) {
+                    EnumBitmasks.set(result, ((Enum<?>) item).ordinal());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the constants whose bits are set in the specified bitmask, and notifies the listeners if the set changed.
+     *
+     * @param addedBits Bitmask of the constants to be added, modified to only keep the effectively added constants.
+     * @return True if the set changed, false otherwise.
+     */
+    private boolean add(long[] addedBits) {
+        boolean modified = false;
+        for (int i = 0; i < bits.length; i++) {
+            addedBits[i] &= ~bits[i];
+            if (addedBits[i] != 0) {
+                bits[i] |= addedBits[i];
+                size += Long.bitCount(addedBits[i]);
+                modified = true;
+            }
+        }
+        if (modified) {
+            doNotifyListeners(new EnumSetPropertyChange<>(this, EnumBitmasks.create(0), addedBits));
+        }
+        return modified;
+    }
+
+    /**
+     * Removes the constants whose bits are set in the specified bitmask, and notifies the listeners if the set
+     * changed.
+     *
+     * @param removedBits Bitmask of the constants to be removed, modified to only keep the effectively removed
+     *                    constants.
+     * @return True if the set changed, false otherwise.
+     */
+    private boolean remove(long[] removedBits) {
+        boolean modified = false;
+        for (int i = 0; i < bits.length; i++) {
+            removedBits[i] &= bits[i];
+            if (removedBits[i] != 0) {
+                bits[i] &= ~removedBits[i];
+                size -= Long.bitCount(removedBits[i]);
+                modified = true;
+            }
+        }
+        if (modified) {
+            doNotifyListeners(new EnumSetPropertyChange<>(this, removedBits, EnumBitmasks.create(0)));
+        }
+        return modified;
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#size()
+     * @see Set#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#isEmpty()
+     * @see Set#isEmpty()
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#add(Object)
+     * @see Set#add(Object)
+     */
+    @Override
+    public boolean add(E item) {
+        long[] addedBits = EnumBitmasks.create(universe.length);
+        EnumBitmasks.set(addedBits, item.ordinal());
+        return add(addedBits);
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#addAll(Collection)
+     * @see Set#addAll(Collection)
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> items) {
+        return add(toBits(items));
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#remove(Object)
+     * @see Set#remove(Object)
+     */
+    @Override
+    public boolean remove(Object item) {
+        return removeAll(Collections.singleton(item));
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#removeAll(Collection)
+     * @see Set#removeAll(Collection)
+     */
+    @Override
+    public boolean removeAll(Collection<?> items) {
+        return remove(toBits(items));
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#retainAll(Collection)
+     * @see Set#retainAll(Collection)
+     */
+    @Override
+    public boolean retainAll(Collection<?> items) {
+        long[] removedBits = toBits(items);
+        for (int i = 0; i < removedBits.length; i++) {
+            removedBits[i] = ~removedBits[i];
+        }
+        return remove(removedBits);
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#clear()
+     * @see Set#clear()
+     */
+    @Override
+    public void clear() {
+        remove(getBits());
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#contains(Object)
+     * @see Set#contains(Object)
+     */
+    @Override
+    public boolean contains(Object item) {
+        return enumType.isInstance(item) && EnumBitmasks.get(bits, ((Enum<?>) item).ordinal());
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#containsAll(Collection)
+     * @see Set#containsAll(Collection)
+     */
+    @Override
+    public boolean containsAll(Collection<?> items) {
+        for (Object item : items) {
+            if (!contains(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see Set#toArray()
+     */
+    @Override
+    public Object[] toArray() {
+        return toList().toArray();
+    }
+
+    /**
+     * @see Set#toArray(Object[])
+     */
+    @Override
+    public <U> U[] toArray(U[] a) {
+        return toList().toArray(a);
+    }
+
+    /**
+     * Copies the constants of the set into a list, by ascending ordinal.
+     *
+     * @return New list.
+     */
+    private List<E> toList() {
+        List<E> list = new ArrayList<>(size);
+        for (E item : this) {
+            list.add(item);
+        }
+        return list;
+    }
+
+    /**
+     * Gets an iterator over the content of the set at the time of the call, by ascending ordinal.
+     * <p>
+     * The iterator is not affected by any later change of the property.
+     *
+     * @return Read-only iterator.
+     * @see AbstractReadableWritableSetProperty#iterator()
+     * @see Set#iterator()
+     */
+    @Override
+    public Iterator<E> iterator() {
+        long[] snapshot = getBits();
+        return new Iterator<E>() {
+
+            /**
+             * Ordinal of the next constant, or -1 if there is none.
+             */
+            private int next = EnumBitmasks.next(snapshot, 0);
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public E next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                E item = universe[next];
+                next = EnumBitmasks.next(snapshot, next + 1);
+                return item;
+            }
+        };
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#asUnmodifiableSet()
+     */
+    @Override
+    public Set<E> asUnmodifiableSet() {
+        return unmodifiable;
+    }
+}
@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChange;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Change of an {@link EnumSetProperty}, described as bitmasks of the removed and added enum constants.
+ * <p>
+ * The sets returned by {@link #getOldValues()} and {@link #getNewValues()} are only created when called. Listeners
+ * can rather use {@link #getRemovedBits()} and {@link #getAddedBits()}, in which the bit at index i of word i / 64 is
+ * set if the enum constant of ordinal i has been removed or added.
+ *
+ * @param <E> Type of enum constants in the set property.
+ */
+public class EnumSetPropertyChange<E extends Enum<E>> extends SetPropertyChange<E> {
+
+    /**
+     * Enum type of the set property.
+     */
+    private final Class<E> enumType;
+
+    /**
+     * Constants of the enum type, by ordinal.
+     */
+    private final E[] universe;
+
+    /**
+     * Bitmask of the removed constants.
+     */
+    private final long[] removedBits;
+
+    /**
+     * Bitmask of the added constants.
+     */
+    private final long[] addedBits;
+
+    /**
+     * Removed constants, created on demand.
+     */
+    private Set<E> oldValues = null;
+
+    /**
+     * Added constants, created on demand.
+     */
+    private Set<E> newValues = null;
+
+    /**
+     * Constructor.
+     *
+     * @param source      Set property that has changed.
+     * @param removedBits Bitmask of the removed constants.
+     * @param addedBits   Bitmask of the added constants.
+     */
+    public EnumSetPropertyChange(EnumSetProperty<E> source, long[] removedBits, long[] addedBits) {
+        super(source, null, null);
+        this.enumType = source.getEnumType();
+        this.universe = source.getUniverse();
+        this.removedBits = removedBits;
+        this.addedBits = addedBits;
+    }
+
+    /**
+     * Gets the bitmask of the removed constants.
+     *
+     * @return Copy of the bitmask of the removed constants.
+     */
+    public long[] getRemovedBits() {
+        return removedBits.clone();
+    }
+
+    /**
+     * Gets the bitmask of the added constants.
+     *
+     * @return Copy of the bitmask of the added constants.
+     */
+    public long[] getAddedBits() {
+        return addedBits.clone();
+    }
+
+    /**
+     * @see SetPropertyChange#getOldValues()
+     */
+    @Override
+    public Set<? extends E> getOldValues() {
+        if (oldValues == null) {
+            oldValues = Collections.unmodifiableSet(EnumBitmasks.toEnumSet(enumType, universe, removedBits));
+        }
+        return oldValues;
+    }
+
+    /**
+     * @see SetPropertyChange#getNewValues()
+     */
+    @Override
+    public Set<? extends E> getNewValues() {
+        if (newValues == null) {
+            newValues = Collections.unmodifiableSet(EnumBitmasks.toEnumSet(enumType, universe, addedBits));
+        }
+        return newValues;
+    }
+
+    /**
+     * @see SetPropertyChange#valuesAdded()
+     */
+    @Override
+    public boolean valuesAdded() {
+        return EnumBitmasks.isEmpty(removedBits);
+    }
+
+    /**
+     * @see SetPropertyChange#valuesRemoved()
+     */
+    @Override
+    public boolean valuesRemoved() {
+        return EnumBitmasks.isEmpty(addedBits);
+    }
+}
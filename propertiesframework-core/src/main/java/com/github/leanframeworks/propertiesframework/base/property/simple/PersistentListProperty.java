@@ -0,0 +1,460 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.persistent.PersistentVector;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableWritableListProperty;
+import com.github.leanframeworks.propertiesframework.base.utils.ValueUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Readable/writable list property backed by a {@link PersistentVector}.
+ * <p>
+ * Every change replaces the internal vector by a new one sharing most of its structure with the previous one. As a
+ * consequence, {@link #snapshot()} is in O(1), iterating over the property never fails because of a concurrent
+ * change, and the snapshots can be read from any thread. Listeners are notified with
+ * {@link PersistentListPropertyChange} events providing the content of the list before and after each change.
+ * <p>
+ * Note that, like {@link SimpleListProperty}, this property is meant to be modified by a single thread at a time.
+ *
+ * @param <T> Type of values handled by this list property.
+ * @see SimpleListProperty
+ */
+public class PersistentListProperty<T> extends AbstractReadableWritableListProperty<T> implements List<T> {
+
+    /**
+     * Current content of the list.
+     */
+    private volatile PersistentVector<T> items = PersistentVector.empty();
+
+    /**
+     * Read-only view of the current content of the list.
+     */
+    private final List<T> unmodifiable = Collections.unmodifiableList(this);
+
+    /**
+     * Constructor.
+     */
+    public PersistentListProperty() {
+        super();
+    }
+
+    /**
+     * Constructor adding the specified listeners.
+     *
+     * @param listeners Listeners to be added.
+     */
+    @SafeVarargs
+    public PersistentListProperty(ListPropertyChangeListener<T>... listeners) {
+        super(listeners);
+    }
+
+    /**
+     * Constructor specifying the initial items.
+     *
+     * @param items Initial items.
+     */
+    public PersistentListProperty(List<T> items) {
+        super();
+        this.items = PersistentVector.of(items);
+    }
+
+    /**
+     * Constructor specifying the initial items and adding the specified listeners.
+     * <p>
+     * Note that the specified listeners will not be notified for the addition of the specified initial items.
+     *
+     * @param items     Initial items.
+     * @param listeners Listeners to be added.
+     */
+    @SafeVarargs
+    public PersistentListProperty(List<T> items, ListPropertyChangeListener<T>... listeners) {
+        super(); // Without listeners
+
+        this.items = PersistentVector.of(items);
+
+        for (ListPropertyChangeListener<T> listener : listeners) {
+            addChangeListener(listener);
+        }
+    }
+
+    /**
+     * Gets an immutable snapshot of the current content of the list.
+     * <p>
+     * This is in O(1) and the snapshot is not affected by any later change of the property.
+     *
+     * @return Immutable snapshot.
+     */
+    public PersistentVector<T> snapshot() {
+        return items;
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#size()
+     * @see List#size()
+     */
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#isEmpty()
+     * @see List#isEmpty()
+     */
+    @Override
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#get(int)
+     * @see List#get(int)
+     */
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#set(int, Object)
+     * @see List#set(int, Object)
+     */
+    @Override
+    public T set(int index, T item) {
+        PersistentVector<T> before = items;
+        T oldItem = before.get(index);
+        PersistentVector<T> after = before.with(index, item);
+        items = after;
+
+        if (!ValueUtils.areEqual(oldItem, item)) {
+            notifyListeners(index, Collections.singletonList(oldItem), Collections.singletonList(item), before,
+                    after);
+        }
+
+        return oldItem;
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#setAll(int, Collection)
+     */
+    @Override
+    public void setAll(int index, Collection<? extends T> items) {
+        PersistentVector<T> before = this.items;
+        List<T> newItems = new ArrayList<>(items);
+        if ((index < 0) || (index + newItems.size() > before.size())) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", items: " + newItems.size() + ", size: " +
+                    before.size());
+        }
+
+        PersistentVector<T> after = before;
+        boolean changed = false;
+        for (int i = 0; i < newItems.size(); i++) {
+            after = after.with(index + i, newItems.get(i));
+            changed |= !ValueUtils.areEqual(before.get(index + i), newItems.get(i));
+        }
+        this.items = after;
+
+        if (changed) {
+            // The previous snapshot is immutable, so there is no need to copy the replaced items
+            notifyListeners(index, before.subList(index, index + newItems.size()), newItems, before, after);
+        }
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#add(Object)
+     * @see List#add(Object)
+     */
+    @Override
+    public boolean add(T item) {
+        PersistentVector<T> before = items;
+        PersistentVector<T> after = before.plus(item);
+        items = after;
+        notifyListeners(before.size(), null, Collections.singletonList(item), before, after);
+        return true;
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#add(int, Object)
+     * @see List#add(int, Object)
+     */
+    @Override
+    public void add(int index, T item) {
+        PersistentVector<T> before = items;
+        List<T> added = Collections.singletonList(item);
+        PersistentVector<T> after = before.insert(index, added);
+        items = after;
+        notifyListeners(index, null, added, before, after);
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#remove(Object)
+     * @see List#remove(Object)
+     */
+    @Override
+    public boolean remove(Object item) {
+        int index = items.indexOf(item);
+        if (index >= 0) {
+            remove(index);
+        }
+        return index >= 0;
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#remove(int)
+     * @see List#remove(int)
+     */
+    @Override
+    public T remove(int index) {
+        PersistentVector<T> before = items;
+        T oldItem = before.get(index);
+        PersistentVector<T> after = (index == before.size() - 1) ? before.pop() : before.without(index, index + 1);
+        items = after;
+        notifyListeners(index, Collections.singletonList(oldItem), null, before, after);
+        return oldItem;
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#addAll(Collection)
+     * @see List#addAll(Collection)
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> items) {
+        return addAll(this.items.size(), items);
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#addAll(int, Collection)
+     * @see List#addAll(int, Collection)
+     */
+    @Override
+    public boolean addAll(int index, Collection<? extends T> items) {
+        PersistentVector<T> before = this.items;
+        List<T> added = new ArrayList<>(items);
+        PersistentVector<T> after = before.insert(index, added);
+        this.items = after;
+        if (!added.isEmpty()) {
+            notifyListeners(index, null, added, before, after);
+        }
+        return !added.isEmpty();
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#removeRange(int, int)
+     */
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        PersistentVector<T> before = items;
+        PersistentVector<T> after = before.without(fromIndex, toIndex);
+        if (after != before) {
+            items = after;
+            // The previous snapshot is immutable, so there is no need to copy the removed items
+            notifyListeners(fromIndex, before.subList(fromIndex, toIndex), null, before, after);
+        }
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#removeAll(Collection)
+     * @see List#removeAll(Collection)
+     */
+    @Override
+    public boolean removeAll(Collection<?> items) {
+        boolean removed = false;
+        for (Object item : items) {
+            removed |= remove(item);
+        }
+        return removed;
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#retainAll(Collection)
+     * @see List#retainAll(Collection)
+     */
+    @Override
+    public boolean retainAll(Collection<?> items) {
+        Collection<T> toBeRemoved = new ArrayList<>();
+
+        for (T item : this.items) {
+            if (!items.contains(item)) {
+                toBeRemoved.add(item);
+            }
+        }
+
+        return removeAll(toBeRemoved);
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#clear()
+     * @see List#clear()
+     */
+    @Override
+    public void clear() {
+        PersistentVector<T> before = items;
+        if (!before.isEmpty()) {
+            PersistentVector<T> after = PersistentVector.empty();
+            items = after;
+            // The previous snapshot is immutable, so there is no need to copy the removed items
+            notifyListeners(0, before, null, before, after);
+        }
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#contains(Object)
+     * @see List#contains(Object)
+     */
+    @Override
+    public boolean contains(Object item) {
+        return items.contains(item);
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#containsAll(Collection)
+     * @see List#containsAll(Collection)
+     */
+    @Override
+    public boolean containsAll(Collection<?> items) {
+        return this.items.containsAll(items);
+    }
+
+    /**
+     * @see List#indexOf(Object)
+     */
+    @Override
+    public int indexOf(Object item) {
+        return items.indexOf(item);
+    }
+
+    /**
+     * @see List#lastIndexOf(Object)
+     */
+    @Override
+    public int lastIndexOf(Object item) {
+        return items.lastIndexOf(item);
+    }
+
+    /**
+     * @see List#toArray()
+     */
+    @Override
+    public Object[] toArray() {
+        return items.toArray();
+    }
+
+    /**
+     * @see List#toArray(Object[])
+     */
+    @Override
+    public <U> U[] toArray(U[] a) {
+        return items.toArray(a);
+    }
+
+    /**
+     * Gets an iterator over the content of the list at the time of the call.
+     * <p>
+     * The iterator is not affected by any later change of the property.
+     *
+     * @return Read-only iterator.
+     * @see AbstractReadableWritableListProperty#iterator()
+     * @see List#iterator()
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return items.iterator();
+    }
+
+    /**
+     * Gets an iterator over the content of the list at the time of the call.
+     * <p>
+     * The iterator is not affected by any later change of the property.
+     *
+     * @return Read-only iterator.
+     * @see List#listIterator()
+     */
+    @Override
+    public ListIterator<T> listIterator() {
+        return items.listIterator();
+    }
+
+    /**
+     * Gets an iterator over the content of the list at the time of the call.
+     * <p>
+     * The iterator is not affected by any later change of the property.
+     *
+     * @param index Index of the first item to be returned.
+     * @return Read-only iterator.
+     * @see List#listIterator(int)
+     */
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        return items.listIterator(index);
+    }
+
+    /**
+     * Gets a read-only view of a portion of the content of the list at the time of the call.
+     *
+     * @param fromIndex Index of the first item of the view.
+     * @param toIndex   Index after the last item of the view.
+     * @return Read-only view of the snapshot.
+     * @see List#subList(int, int)
+     */
+    @Override
+    public List<T> subList(int fromIndex, int toIndex) {
+        return items.subList(fromIndex, toIndex);
+    }
+
+    /**
+     * @see AbstractReadableWritableListProperty#asUnmodifiableList()
+     */
+    @Override
+    public List<T> asUnmodifiableList() {
+        return unmodifiable;
+    }
+
+    /**
+     * Notifies the change listeners of a change, along with the snapshots before and after the change.
+     *
+     * @param startIndex Index of the first changed item.
+     * @param oldItems   Replaced or removed items, or null if items have only been added.
+     * @param newItems   Added or replacing items, or null if items have only been removed.
+     * @param before     Content of the list before the change.
+     * @param after      Content of the list after the change.
+     */
+    private void notifyListeners(int startIndex, List<T> oldItems, List<T> newItems, PersistentVector<T> before,
+                                 PersistentVector<T> after) {
+        doNotifyListeners(new PersistentListPropertyChange<>(this, startIndex, oldItems, newItems, before, after));
+    }
+}
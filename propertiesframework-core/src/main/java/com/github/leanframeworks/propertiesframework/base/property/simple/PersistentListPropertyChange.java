@@ -0,0 +1,96 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableListProperty;
+import com.github.leanframeworks.propertiesframework.base.persistent.PersistentVector;
+
+import java.util.List;
+
+/**
+ * Change in a {@link PersistentListProperty}, also providing the whole content of the list before and after the
+ * change.
+ * <p>
+ * The snapshots are immutable and can be kept or passed to other threads without copying them.
+ *
+ * @param <R> Type of values in the list property.
+ */
+public class PersistentListPropertyChange<R> extends ListPropertyChange<R> {
+
+    /**
+     * Content of the list property before the change.
+     */
+    private final PersistentVector<? extends R> snapshotBefore;
+
+    /**
+     * Content of the list property after the change.
+     */
+    private final PersistentVector<? extends R> snapshotAfter;
+
+    /**
+     * Constructor.
+     *
+     * @param source         List property that has changed.
+     * @param startIndex     Start index of the change.
+     * @param oldValues      Old values that have been replaced or removed.
+     * @param newValues      New Values that have been added or that are replacing the old values.
+     * @param snapshotBefore Content of the list property before the change.
+     * @param snapshotAfter  Content of the list property after the change.
+     */
+    public PersistentListPropertyChange(ReadableListProperty<? extends R> source,
+                                        int startIndex,
+                                        List<? extends R> oldValues,
+                                        List<? extends R> newValues,
+                                        PersistentVector<? extends R> snapshotBefore,
+                                        PersistentVector<? extends R> snapshotAfter) {
+        super(source, startIndex, oldValues, newValues);
+        this.snapshotBefore = snapshotBefore;
+        this.snapshotAfter = snapshotAfter;
+    }
+
+    /**
+     * Gets the content of the list property before the change.
+     *
+     * @return Immutable snapshot of the list.
+     */
+    public PersistentVector<? extends R> getSnapshotBefore() {
+        return snapshotBefore;
+    }
+
+    /**
+     * Gets the content of the list property after the change.
+     *
+     * @return Immutable snapshot of the list.
+     */
+    public PersistentVector<? extends R> getSnapshotAfter() {
+        return snapshotAfter;
+    }
+}
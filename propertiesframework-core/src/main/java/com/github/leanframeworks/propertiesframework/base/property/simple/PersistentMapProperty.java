@@ -0,0 +1,463 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.persistent.PersistentHashMap;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableWritableMapProperty;
+import com.github.leanframeworks.propertiesframework.base.utils.ValueUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Readable/writable map property backed by a {@link PersistentHashMap}.
+ * <p>
+ * Every change replaces the internal map by a new one sharing most of its structure with the previous one. As a
+ * consequence, {@link #snapshot()} is in O(1), iterating over the property never fails because of a concurrent
+ * change, and the snapshots can be read from any thread. Listeners are notified with
+ * {@link PersistentMapPropertyChange} events providing the content of the map before and after each change.
+ * <p>
+ * Note that, like {@link SimpleMapProperty}, this property is meant to be modified by a single thread at a time.
+ *
+ * @param <K> Type of keys maintained by this map property.
+ * @param <V> Type mapped values.
+ * @see SimpleMapProperty
+ */
+public class PersistentMapProperty<K, V> extends AbstractReadableWritableMapProperty<K, V> implements Map<K, V> {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentMapProperty.class);
+
+    /**
+     * Current content of the map.
+     */
+    private volatile PersistentHashMap<K, V> entries = PersistentHashMap.empty();
+
+    /**
+     * Read-only view of the keys of the current content of the map.
+     */
+    private final Set<K> keySet = new KeySet();
+
+    /**
+     * Read-only view of the values of the current content of the map.
+     */
+    private final Collection<V> values = new Values();
+
+    /**
+     * Read-only view of the entries of the current content of the map.
+     */
+    private final Set<Entry<K, V>> entrySet = new EntrySet();
+
+    /**
+     * Read-only view of the current content of the map.
+     */
+    private final Map<K, V> unmodifiable = Collections.unmodifiableMap(this);
+
+    /**
+     * Constructor.
+     */
+    public PersistentMapProperty() {
+        super();
+    }
+
+    /**
+     * Constructor adding the specified listeners.
+     *
+     * @param listeners Listeners to be added.
+     */
+    @SafeVarargs
+    public PersistentMapProperty(MapPropertyChangeListener<K, V>... listeners) {
+        super(listeners);
+    }
+
+    /**
+     * Constructor specifying the initial entries.
+     *
+     * @param entries Initial entries.
+     */
+    public PersistentMapProperty(Map<K, V> entries) {
+        super();
+        this.entries = PersistentHashMap.of(entries);
+    }
+
+    /**
+     * Constructor specifying the initial entries and adding the specified listeners.
+     * <p>
+     * Note that the specified listeners will not be notified for the addition of the specified initial entries.
+     *
+     * @param entries   Initial entries.
+     * @param listeners Listeners to be added.
+     */
+    @SafeVarargs
+    public PersistentMapProperty(Map<K, V> entries, MapPropertyChangeListener<K, V>... listeners) {
+        super(); // Without listeners
+
+        this.entries = PersistentHashMap.of(entries);
+
+        for (MapPropertyChangeListener<K, V> listener : listeners) {
+            addChangeListener(listener);
+        }
+    }
+
+    /**
+     * Gets an immutable snapshot of the current content of the map.
+     * <p>
+     * This is in O(1) and the snapshot is not affected by any later change of the property.
+     *
+     * @return Immutable snapshot.
+     */
+    public PersistentHashMap<K, V> snapshot() {
+        return entries;
+    }
+
+    /**
+     * @see Map#size()
+     */
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @see Map#isEmpty()
+     */
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * @see Map#containsKey(Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * @see Map#containsValue(Object)
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        return entries.containsValue(value);
+    }
+
+    /**
+     * @see Map#get(Object)
+     */
+    @Override
+    public V get(Object key) {
+        return entries.get(key);
+    }
+
+    /**
+     * @see Map#put(Object, Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        PersistentHashMap<K, V> before = entries;
+        boolean alreadyExists = before.containsKey(key);
+        V oldValue = before.get(key);
+        PersistentHashMap<K, V> after = before.plus(key, value);
+        entries = after;
+
+        if (alreadyExists) {
+            // Changed existing entry
+            if (!ValueUtils.areEqual(oldValue, value)) {
+                notifyListeners(Collections.singletonMap(key, oldValue), Collections.singletonMap(key, value),
+                        before, after);
+            }
+        } else {
+            // Added new entry
+            notifyListeners(null, Collections.singletonMap(key, value), before, after);
+        }
+
+        return oldValue;
+    }
+
+    /**
+     * @see Map#putAll(Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        PersistentHashMap<K, V> before = this.entries;
+        PersistentHashMap<K, V> after = before;
+        Map<K, V> newAddedValues = new HashMap<>();
+        Map<K, V> changedOldValues = new HashMap<>();
+        Map<K, V> changedNewValues = new HashMap<>();
+
+        for (Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            boolean alreadyExists = after.containsKey(entry.getKey());
+            V oldValue = after.get(entry.getKey());
+            after = after.plus(entry.getKey(), entry.getValue());
+
+            if (alreadyExists) {
+                // Changed existing entry
+                if (!ValueUtils.areEqual(oldValue, entry.getValue())) {
+                    changedOldValues.put(entry.getKey(), oldValue);
+                    changedNewValues.put(entry.getKey(), entry.getValue());
+                }
+            } else {
+                // Added new entry
+                newAddedValues.put(entry.getKey(), entry.getValue());
+            }
+        }
+        this.entries = after;
+
+        // Notify the listeners, with the intermediate snapshot in case of both additions and replacements
+        PersistentHashMap<K, V> afterAdditions = before;
+        if (!newAddedValues.isEmpty()) {
+            afterAdditions = changedNewValues.isEmpty() ? after : before.plusAll(newAddedValues);
+            notifyListeners(null, newAddedValues, before, afterAdditions);
+        }
+        if (!changedNewValues.isEmpty()) {
+            notifyListeners(changedOldValues, changedNewValues, afterAdditions, after);
+        }
+    }
+
+    /**
+     * @see Map#remove(Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(Object key) {
+        PersistentHashMap<K, V> before = entries;
+        PersistentHashMap<K, V> after = before.minus(key);
+        V previousValue = null;
+
+        if (after != before) {
+            previousValue = before.get(key);
+            entries = after;
+
+            try {
+                notifyListeners(Collections.singletonMap((K) key, previousValue), null, before, after);
+            } catch (ClassCastException e) {
+                // Just in case
+                LOGGER.error("Inconsistent type of key: " + key);
+            }
+        }
+
+        return previousValue;
+    }
+
+    /**
+     * @see AbstractReadableWritableMapProperty#removeAll(Collection)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public void removeAll(Collection<?> keys) {
+        PersistentHashMap<K, V> before = entries;
+        PersistentHashMap<K, V> after = before;
+        Map<K, V> removed = new HashMap<>();
+
+        for (Object key : keys) {
+            PersistentHashMap<K, V> afterRemoval = after.minus(key);
+            if (afterRemoval != after) {
+                removed.put((K) key, after.get(key));
+                after = afterRemoval;
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            entries = after;
+            notifyListeners(removed, null, before, after);
+        }
+    }
+
+    /**
+     * @see Map#clear()
+     */
+    @Override
+    public void clear() {
+        PersistentHashMap<K, V> before = entries;
+        if (!before.isEmpty()) {
+            PersistentHashMap<K, V> after = PersistentHashMap.empty();
+            entries = after;
+            // The previous snapshot is immutable, so there is no need to copy the removed entries
+            notifyListeners(before, null, before, after);
+        }
+    }
+
+    /**
+     * Gets a read-only view of the keys of the map.
+     * <p>
+     * The view follows the changes of the property, but each iterator over it iterates over the content of the map at
+     * the time the iterator was created.
+     *
+     * @return Key set that cannot be used to modify the map.
+     * @see Map#keySet()
+     */
+    @Override
+    public Set<K> keySet() {
+        return keySet;
+    }
+
+    /**
+     * Gets a read-only view of the values of the map.
+     * <p>
+     * The view follows the changes of the property, but each iterator over it iterates over the content of the map at
+     * the time the iterator was created.
+     *
+     * @return Value collection that cannot be used to modify the map.
+     * @see Map#values()
+     */
+    @Override
+    public Collection<V> values() {
+        return values;
+    }
+
+    /**
+     * Gets a read-only view of the entries of the map.
+     * <p>
+     * The view follows the changes of the property, but each iterator over it iterates over the content of the map at
+     * the time the iterator was created.
+     *
+     * @return Entry set that cannot be used to modify the map.
+     * @see Map#entrySet()
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+    /**
+     * @see AbstractReadableWritableMapProperty#asUnmodifiableMap()
+     */
+    @Override
+    public Map<K, V> asUnmodifiableMap() {
+        return unmodifiable;
+    }
+
+    /**
+     * Notifies the change listeners of a change, along with the snapshots before and after the change.
+     *
+     * @param oldValues Replaced or removed entries, or null if entries have only been added.
+     * @param newValues Added or replacing entries, or null if entries have only been removed.
+     * @param before    Content of the map before the change.
+     * @param after     Content of the map after the change.
+     */
+    private void notifyListeners(Map<K, V> oldValues, Map<K, V> newValues, PersistentHashMap<K, V> before,
+                                 PersistentHashMap<K, V> after) {
+        doNotifyListeners(new PersistentMapPropertyChange<>(this, oldValues, newValues, before, after));
+    }
+
+    /**
+     * Read-only view of the keys of the current content of the map.
+     */
+    private class KeySet extends AbstractSet<K> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<K> iterator() {
+            return entries.keySet().iterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean contains(Object o) {
+            return entries.containsKey(o);
+        }
+    }
+
+    /**
+     * Read-only view of the values of the current content of the map.
+     */
+    private class Values extends AbstractCollection<V> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<V> iterator() {
+            return entries.values().iterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Read-only view of the entries of the current content of the map.
+     */
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return entries.entrySet().iterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean contains(Object o) {
+            return entries.entrySet().contains(o);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableMapProperty;
+import com.github.leanframeworks.propertiesframework.base.persistent.PersistentHashMap;
+
+import java.util.Map;
+
+/**
+ * Change in a {@link PersistentMapProperty}, also providing the whole content of the map before and after the change.
+ * <p>
+ * The snapshots are immutable and can be kept or passed to other threads without copying them.
+ *
+ * @param <K> Type of keys in the map property.
+ * @param <R> Type of values in the map property.
+ */
+public class PersistentMapPropertyChange<K, R> extends MapPropertyChange<K, R> {
+
+    /**
+     * Content of the map property before the change.
+     */
+    private final PersistentHashMap<? extends K, ? extends R> snapshotBefore;
+
+    /**
+     * Content of the map property after the change.
+     */
+    private final PersistentHashMap<? extends K, ? extends R> snapshotAfter;
+
+    /**
+     * Constructor.
+     *
+     * @param source         Map property that has changed.
+     * @param oldValues      Old values that have been replaced or removed.
+     * @param newValues      New Values that have been added or that are replacing the old values.
+     * @param snapshotBefore Content of the map property before the change.
+     * @param snapshotAfter  Content of the map property after the change.
+     */
+    public PersistentMapPropertyChange(ReadableMapProperty<? extends K, ? extends R> source,
+                                       Map<? extends K, ? extends R> oldValues,
+                                       Map<? extends K, ? extends R> newValues,
+                                       PersistentHashMap<? extends K, ? extends R> snapshotBefore,
+                                       PersistentHashMap<? extends K, ? extends R> snapshotAfter) {
+        super(source, oldValues, newValues);
+        this.snapshotBefore = snapshotBefore;
+        this.snapshotAfter = snapshotAfter;
+    }
+
+    /**
+     * Gets the content of the map property before the change.
+     *
+     * @return Immutable snapshot of the map.
+     */
+    public PersistentHashMap<? extends K, ? extends R> getSnapshotBefore() {
+        return snapshotBefore;
+    }
+
+    /**
+     * Gets the content of the map property after the change.
+     *
+     * @return Immutable snapshot of the map.
+     */
+    public PersistentHashMap<? extends K, ? extends R> getSnapshotAfter() {
+        return snapshotAfter;
+    }
+}
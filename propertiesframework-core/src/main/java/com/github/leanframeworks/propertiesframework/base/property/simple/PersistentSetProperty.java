@@ -0,0 +1,332 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.persistent.PersistentHashSet;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableWritableSetProperty;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Readable/writable set property backed by a {@link PersistentHashSet}.
+ * <p>
+ * Every change replaces the internal set by a new one sharing most of its structure with the previous one. As a
+ * consequence, {@link #snapshot()} is in O(1), iterating over the property never fails because of a concurrent
+ * change, and the snapshots can be read from any thread. Listeners are notified with
+ * {@link PersistentSetPropertyChange} events providing the content of the set before and after each change.
+ * <p>
+ * Note that, like {@link SimpleSetProperty}, this property is meant to be modified by a single thread at a time.
+ *
+ * @param <T> Type of values handled by this set property.
+ * @see SimpleSetProperty
+ */
+public class PersistentSetProperty<T> extends AbstractReadableWritableSetProperty<T> implements Set<T> {
+
+    /**
+     * Current content of the set.
+     */
+    private volatile PersistentHashSet<T> items = PersistentHashSet.empty();
+
+    /**
+     * Read-only view of the current content of the set.
+     */
+    private final Set<T> unmodifiable = Collections.unmodifiableSet(this);
+
+    /**
+     * Constructor.
+     */
+    public PersistentSetProperty() {
+        super();
+    }
+
+    /**
+     * Constructor adding the specified listeners.
+     *
+     * @param listeners Listeners to be added.
+     */
+    @SafeVarargs
+    public PersistentSetProperty(SetPropertyChangeListener<T>... listeners) {
+        super(listeners);
+    }
+
+    /**
+     * Constructor specifying the initial items.
+     *
+     * @param items Initial items.
+     */
+    public PersistentSetProperty(Set<T> items) {
+        super();
+        this.items = PersistentHashSet.of(items);
+    }
+
+    /**
+     * Constructor specifying the initial items and adding the specified listeners.
+     * <p>
+     * Note that the specified listeners will not be notified for the addition of the specified initial items.
+     *
+     * @param items     Initial items.
+     * @param listeners Listeners to be added.
+     */
+    @SafeVarargs
+    public PersistentSetProperty(Set<T> items, SetPropertyChangeListener<T>... listeners) {
+        super(); // Without listeners
+
+        this.items = PersistentHashSet.of(items);
+
+        for (SetPropertyChangeListener<T> listener : listeners) {
+            addChangeListener(listener);
+        }
+    }
+
+    /**
+     * Gets an immutable snapshot of the current content of the set.
+     * <p>
+     * This is in O(1) and the snapshot is not affected by any later change of the property.
+     *
+     * @return Immutable snapshot.
+     */
+    public PersistentHashSet<T> snapshot() {
+        return items;
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#size()
+     * @see Set#size()
+     */
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#isEmpty()
+     * @see Set#isEmpty()
+     */
+    @Override
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#add(Object)
+     * @see Set#add(Object)
+     */
+    @Override
+    public boolean add(T item) {
+        PersistentHashSet<T> before = items;
+        PersistentHashSet<T> after = before.plus(item);
+        boolean modified = after != before;
+
+        if (modified) {
+            items = after;
+            notifyListeners(null, Collections.singleton(item), before, after);
+        }
+
+        return modified;
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#addAll(Collection)
+     * @see Set#addAll(Collection)
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> items) {
+        PersistentHashSet<T> before = this.items;
+        PersistentHashSet<T> after = before;
+        Set<T> added = new HashSet<>();
+
+        for (T item : items) {
+            PersistentHashSet<T> next = after.plus(item);
+            if (next != after) {
+                added.add(item);
+                after = next;
+            }
+        }
+
+        if (!added.isEmpty()) {
+            this.items = after;
+            notifyListeners(null, added, before, after);
+        }
+
+        return !added.isEmpty();
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#remove(Object)
+     * @see Set#remove(Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean remove(Object item) {
+        PersistentHashSet<T> before = items;
+        PersistentHashSet<T> after = before.minus(item);
+        boolean modified = after != before;
+
+        if (modified) {
+            items = after;
+            notifyListeners(Collections.singleton((T) item), null, before, after);
+        }
+
+        return modified;
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#removeAll(Collection)
+     * @see Set#removeAll(Collection)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean removeAll(Collection<?> items) {
+        PersistentHashSet<T> before = this.items;
+        PersistentHashSet<T> after = before;
+        Set<T> removed = new HashSet<>();
+
+        for (Object item : items) {
+            PersistentHashSet<T> next = after.minus(item);
+            if (next != after) {
+                removed.add((T) item);
+                after = next;
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            this.items = after;
+            notifyListeners(removed, null, before, after);
+        }
+
+        return !removed.isEmpty();
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#retainAll(Collection)
+     * @see Set#retainAll(Collection)
+     */
+    @Override
+    public boolean retainAll(Collection<?> items) {
+        Set<T> toBeRemoved = new HashSet<>();
+
+        for (T item : this.items) {
+            if (!items.contains(item)) {
+                toBeRemoved.add(item);
+            }
+        }
+
+        return removeAll(toBeRemoved);
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#clear()
+     * @see Set#clear()
+     */
+    @Override
+    public void clear() {
+        PersistentHashSet<T> before = items;
+        if (!before.isEmpty()) {
+            PersistentHashSet<T> after = PersistentHashSet.empty();
+            items = after;
+            // The previous snapshot is immutable, so there is no need to copy the removed items
+            notifyListeners(before, null, before, after);
+        }
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#contains(Object)
+     * @see Set#contains(Object)
+     */
+    @Override
+    public boolean contains(Object item) {
+        return items.contains(item);
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#containsAll(Collection)
+     * @see Set#containsAll(Collection)
+     */
+    @Override
+    public boolean containsAll(Collection<?> items) {
+        return this.items.containsAll(items);
+    }
+
+    /**
+     * @see Set#toArray()
+     */
+    @Override
+    public Object[] toArray() {
+        return items.toArray();
+    }
+
+    /**
+     * @see Set#toArray(Object[])
+     */
+    @Override
+    public <U> U[] toArray(U[] a) {
+        return items.toArray(a);
+    }
+
+    /**
+     * Gets an iterator over the content of the set at the time of the call.
+     * <p>
+     * The iterator is not affected by any later change of the property.
+     *
+     * @return Read-only iterator.
+     * @see AbstractReadableWritableSetProperty#iterator()
+     * @see Set#iterator()
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return items.iterator();
+    }
+
+    /**
+     * @see AbstractReadableWritableSetProperty#asUnmodifiableSet()
+     */
+    @Override
+    public Set<T> asUnmodifiableSet() {
+        return unmodifiable;
+    }
+
+    /**
+     * Notifies the change listeners of a change, along with the snapshots before and after the change.
+     *
+     * @param oldItems Removed items, or null if items have only been added.
+     * @param newItems Added items, or null if items have only been removed.
+     * @param before   Content of the set before the change.
+     * @param after    Content of the set after the change.
+     */
+    private void notifyListeners(Set<T> oldItems, Set<T> newItems, PersistentHashSet<T> before,
+                                 PersistentHashSet<T> after) {
+        doNotifyListeners(new PersistentSetPropertyChange<>(this, oldItems, newItems, before, after));
+    }
+}
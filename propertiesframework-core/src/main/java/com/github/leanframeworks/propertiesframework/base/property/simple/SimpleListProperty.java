@@ -140,13 +140,34 @@ public class SimpleListProperty<T> extends AbstractReadableWritableListProperty<
 
         if (!ValueUtils.areEqual(oldItem, item)) {
             List<T> oldItems = Collections.unmodifiableList(Collections.singletonList(oldItem));
-            List<T> newItems = Collections.unmodifiableList(Collections.singletonList(oldItem));
+            List<T> newItems = Collections.unmodifiableList(Collections.singletonList(item));
             doNotifyListenersOfChangedValues(index, oldItems, newItems);
         }
 
         return oldItem;
     }
 
+    /**
+     * @see AbstractReadableWritableListProperty#setAll(int, Collection)
+     */
+    @Override
+    public void setAll(int index, Collection<? extends T> items) {
+        List<T> newItems = new ArrayList<>(items);
+        List<T> range = internal.subList(index, index + newItems.size());
+        List<T> oldItems = new ArrayList<>(range);
+
+        boolean changed = false;
+        for (int i = 0; i < newItems.size(); i++) {
+            T oldItem = range.set(i, newItems.get(i));
+            changed |= !ValueUtils.areEqual(oldItem, newItems.get(i));
+        }
+
+        if (changed) {
+            doNotifyListenersOfChangedValues(index, Collections.unmodifiableList(oldItems), Collections
+                    .unmodifiableList(newItems));
+        }
+    }
+
     /**
      * @see AbstractReadableWritableListProperty#add(Object)
      * @see List#add(Object)
@@ -220,6 +241,19 @@ public class SimpleListProperty<T> extends AbstractReadableWritableListProperty<
         return added;
     }
 
+    /**
+     * @see AbstractReadableWritableListProperty#removeRange(int, int)
+     */
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        List<T> range = internal.subList(fromIndex, toIndex);
+        if (!range.isEmpty()) {
+            List<T> removed = new ArrayList<>(range);
+            range.clear();
+            doNotifyListenersOfRemovedValues(fromIndex, Collections.unmodifiableList(removed));
+        }
+    }
+
     /**
      * @see AbstractReadableWritableListProperty#removeAll(Collection)
      * @see List#removeAll(Collection)
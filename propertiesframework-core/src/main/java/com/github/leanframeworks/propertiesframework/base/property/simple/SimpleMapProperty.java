@@ -40,6 +40,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Readable/writable map property backed by a {@link Map}.
@@ -57,18 +58,18 @@ public class SimpleMapProperty<K, V> extends AbstractReadableWritableMapProperty
     /**
      * Proxied map.
      */
-    private final Map<K, V> internal = new HashMap<>();
+    private final Map<K, V> internal;
 
     /**
      * Read-only version of the proxied map.
      */
-    private final Map<K, V> unmodifiable = Collections.unmodifiableMap(internal);
+    private final Map<K, V> unmodifiable;
 
     /**
      * Constructor.
      */
     public SimpleMapProperty() {
-        super();
+        this(HashMap::new);
     }
 
     /**
@@ -78,7 +79,7 @@ public class SimpleMapProperty<K, V> extends AbstractReadableWritableMapProperty
      */
     @SafeVarargs
     public SimpleMapProperty(MapPropertyChangeListener<K, V>... listeners) {
-        super(listeners);
+        this(HashMap::new, Collections.emptyMap(), listeners);
     }
 
     /**
@@ -87,8 +88,7 @@ public class SimpleMapProperty<K, V> extends AbstractReadableWritableMapProperty
      * @param entries Initial entries.
      */
     public SimpleMapProperty(Map<K, V> entries) {
-        super();
-        internal.putAll(entries);
+        this(HashMap::new, entries);
     }
 
     /**
@@ -101,8 +101,38 @@ public class SimpleMapProperty<K, V> extends AbstractReadableWritableMapProperty
      */
     @SafeVarargs
     public SimpleMapProperty(Map<K, V> entries, MapPropertyChangeListener<K, V>... listeners) {
+        this(HashMap::new, entries, listeners);
+    }
+
+    /**
+     * Constructor specifying the factory of the proxied map.
+     * <p>
+     * This allows, for instance, to keep the keys sorted using a {@link java.util.TreeMap}, in insertion order using a
+     * {@link java.util.LinkedHashMap}, or to use a concurrent map.
+     *
+     * @param mapFactory Factory creating the empty map to be proxied.
+     */
+    public SimpleMapProperty(Supplier<? extends Map<K, V>> mapFactory) {
+        this(mapFactory, Collections.emptyMap());
+    }
+
+    /**
+     * Constructor specifying the factory of the proxied map and the initial entries, and adding the specified
+     * listeners.
+     * <p>
+     * Note that the specified listeners will not be notified for the addition of the specified initial entries.
+     *
+     * @param mapFactory Factory creating the empty map to be proxied.
+     * @param entries    Initial entries.
+     * @param listeners  Listeners to be added.
+     */
+    @SafeVarargs
+    public SimpleMapProperty(Supplier<? extends Map<K, V>> mapFactory, Map<K, V> entries,
+                             MapPropertyChangeListener<K, V>... listeners) {
         super(); // Without listeners
 
+        internal = mapFactory.get();
+        unmodifiable = Collections.unmodifiableMap(internal);
         internal.putAll(entries);
 
         for (MapPropertyChangeListener<K, V> listener : listeners) {
@@ -236,6 +266,25 @@ public class SimpleMapProperty<K, V> extends AbstractReadableWritableMapProperty
         return previousValue;
     }
 
+    /**
+     * @see AbstractReadableWritableMapProperty#removeAll(Collection)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public void removeAll(Collection<?> keys) {
+        Map<K, V> removed = new HashMap<>();
+
+        for (Object key : keys) {
+            if (internal.containsKey(key)) {
+                removed.put((K) key, internal.remove(key));
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            doNotifyListenersOfRemovedValues(removed);
+        }
+    }
+
     /**
      * @see Map#clear()
      */
@@ -79,7 +79,7 @@ public class SimpleProperty<T> extends AbstractReadableWritableProperty<T> {
      */
     @Override
     public void setValue(T value) {
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             // Update slaves only if the new value is different than the previous value
             T oldValue = this.value;
             this.value = value;
@@ -37,6 +37,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Readable/writable set property backed by a {@link Set}.
@@ -48,18 +49,18 @@ public class SimpleSetProperty<T> extends AbstractReadableWritableSetProperty<T>
     /**
      * Proxied set.
      */
-    private final Set<T> internal = new HashSet<>();
+    private final Set<T> internal;
 
     /**
      * Read-only version of the proxied set.
      */
-    private final Set<T> unmodifiable = Collections.unmodifiableSet(internal);
+    private final Set<T> unmodifiable;
 
     /**
      * Constructor.
      */
     public SimpleSetProperty() {
-        super();
+        this(HashSet::new);
     }
 
     /**
@@ -69,7 +70,7 @@ public class SimpleSetProperty<T> extends AbstractReadableWritableSetProperty<T>
      */
     @SafeVarargs
     public SimpleSetProperty(SetPropertyChangeListener<T>... listeners) {
-        super(listeners);
+        this(HashSet::new, Collections.emptySet(), listeners);
     }
 
     /**
@@ -78,8 +79,7 @@ public class SimpleSetProperty<T> extends AbstractReadableWritableSetProperty<T>
      * @param items Initial items.
      */
     public SimpleSetProperty(Set<T> items) {
-        super();
-        internal.addAll(items);
+        this(HashSet::new, items);
     }
 
     /**
@@ -92,8 +92,38 @@ public class SimpleSetProperty<T> extends AbstractReadableWritableSetProperty<T>
      */
     @SafeVarargs
     public SimpleSetProperty(Set<T> items, SetPropertyChangeListener<T>... listeners) {
+        this(HashSet::new, items, listeners);
+    }
+
+    /**
+     * Constructor specifying the factory of the proxied set.
+     * <p>
+     * This allows, for instance, to keep the items sorted using a {@link java.util.TreeSet}, in insertion order using a
+     * {@link java.util.LinkedHashSet}, or to use a concurrent set.
+     *
+     * @param setFactory Factory creating the empty set to be proxied.
+     */
+    public SimpleSetProperty(Supplier<? extends Set<T>> setFactory) {
+        this(setFactory, Collections.emptySet());
+    }
+
+    /**
+     * Constructor specifying the factory of the proxied set and the initial items, and adding the specified
+     * listeners.
+     * <p>
+     * Note that the specified listeners will not be notified for the addition of the specified initial items.
+     *
+     * @param setFactory Factory creating the empty set to be proxied.
+     * @param items      Initial items.
+     * @param listeners  Listeners to be added.
+     */
+    @SafeVarargs
+    public SimpleSetProperty(Supplier<? extends Set<T>> setFactory, Set<T> items,
+                             SetPropertyChangeListener<T>... listeners) {
         super(); // Without listeners
 
+        internal = setFactory.get();
+        unmodifiable = Collections.unmodifiableSet(internal);
         internal.addAll(items);
 
         for (SetPropertyChangeListener<T> listener : listeners) {
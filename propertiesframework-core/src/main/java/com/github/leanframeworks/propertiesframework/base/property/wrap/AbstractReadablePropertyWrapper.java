@@ -30,15 +30,28 @@
 package com.github.leanframeworks.propertiesframework.base.property.wrap;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.EqualityStrategy;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.common.StatefulEqualityStrategy;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerOwner;
 import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableProperty;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Abstract implementation of a wrapper for a readable property.
+ * <p>
+ * If the wrapped property is an {@link AbstractReadableProperty}, the wrapper will use the same equality strategy by
+ * default.
+ *
+ * @param <R> Type of data that can be read from this property.
  */
-public abstract class AbstractReadablePropertyWrapper<R> extends AbstractReadableProperty<R> implements Disposable {
+public abstract class AbstractReadablePropertyWrapper<R> extends AbstractReadableProperty<R> implements Disposable,
+        GraphNode {
 
     /**
      * Listener to the wrapped property changes.
@@ -59,9 +72,19 @@ public abstract class AbstractReadablePropertyWrapper<R> extends AbstractReadabl
      *
      * @param wrappedProperty Property to be wrapped.
      */
+    @SuppressWarnings("unchecked")
     public AbstractReadablePropertyWrapper(ReadableProperty<? extends R> wrappedProperty) {
         super();
         this.wrappedProperty = wrappedProperty;
+        if (wrappedProperty instanceof AbstractReadableProperty) {
+            // Compare values the same way as the wrapped property, with its own instance of a stateful strategy
+            EqualityStrategy<? super R> equalityStrategy = (EqualityStrategy<? super R>)
+                    ((AbstractReadableProperty<? extends R>) wrappedProperty).getEqualityStrategy();
+            if (equalityStrategy instanceof StatefulEqualityStrategy) {
+                equalityStrategy = ((StatefulEqualityStrategy<? super R>) equalityStrategy).newInstance();
+            }
+            setEqualityStrategy(equalityStrategy);
+        }
         this.wrappedPropertyAdapter = new PropertyChangeAdapter();
         this.wrappedProperty.addChangeListener(wrappedPropertyAdapter);
     }
@@ -91,10 +114,34 @@ public abstract class AbstractReadablePropertyWrapper<R> extends AbstractReadabl
      */
     protected abstract void wrappedPropertyChanged(PropertyChange<? extends R> e);
 
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return (wrappedProperty == null) ? Collections.emptyList() : Collections.singletonList(wrappedProperty);
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return Collections.emptyList();
+    }
+
     /**
      * Listener to changes of the value of the wrapped property.
      */
-    private class PropertyChangeAdapter implements PropertyChangeListener<R> {
+    private class PropertyChangeAdapter implements PropertyChangeListener<R>, ListenerOwner {
+
+        /**
+         * @see ListenerOwner#getListenerOwner()
+         */
+        @Override
+        public Object getListenerOwner() {
+            return AbstractReadablePropertyWrapper.this;
+        }
 
         /**
          * {@inheritDoc}
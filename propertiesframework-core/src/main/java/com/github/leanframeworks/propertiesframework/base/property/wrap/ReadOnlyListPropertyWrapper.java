@@ -33,6 +33,8 @@ import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableListProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerOwner;
 import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableListProperty;
 
 import java.util.Collection;
@@ -49,7 +51,7 @@ import java.util.List;
  *
  * @param <R> Type of data that can be read from the wrapped list property.
  */
-public class ReadOnlyListPropertyWrapper<R> extends AbstractReadableListProperty<R> {
+public class ReadOnlyListPropertyWrapper<R> extends AbstractReadableListProperty<R> implements GraphNode {
 
     /**
      * Listener to changes on the wrapped property.
@@ -165,11 +167,35 @@ public class ReadOnlyListPropertyWrapper<R> extends AbstractReadableListProperty
         return asUnmodifiableList().iterator();
     }
 
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return (wrappedListProperty == null) ? Collections.emptyList() : Collections.singletonList(wrappedListProperty);
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return Collections.emptyList();
+    }
+
     /**
      * Entity responsible for forwarding the change events from the wrapped list property to the listeners of the
      * read-only wrapper.
      */
-    private class ListPropertyChangeForwarder implements ListPropertyChangeListener<R> {
+    private class ListPropertyChangeForwarder implements ListPropertyChangeListener<R>, ListenerOwner {
+
+        /**
+         * @see ListenerOwner#getListenerOwner()
+         */
+        @Override
+        public Object getListenerOwner() {
+            return ReadOnlyListPropertyWrapper.this;
+        }
 
         /**
          * @see ListPropertyChangeListener#listPropertyChanged(ListPropertyChange)
@@ -33,6 +33,8 @@ import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableMapProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerOwner;
 import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableMapProperty;
 
 import java.util.Collection;
@@ -50,7 +52,7 @@ import java.util.Set;
  * @param <K> Type of keys maintained by this map property.
  * @param <R> Type of mapped values in this map property.
  */
-public class ReadOnlyMapPropertyWrapper<K, R> extends AbstractReadableMapProperty<K, R> {
+public class ReadOnlyMapPropertyWrapper<K, R> extends AbstractReadableMapProperty<K, R> implements GraphNode {
 
     /**
      * Listener to changes on the wrapped property.
@@ -182,11 +184,35 @@ public class ReadOnlyMapPropertyWrapper<K, R> extends AbstractReadableMapPropert
         return unmodifiable;
     }
 
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return (wrappedMapProperty == null) ? Collections.emptyList() : Collections.singletonList(wrappedMapProperty);
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return Collections.emptyList();
+    }
+
     /**
      * Entity responsible for forwarding the change events from the wrapped map property to the listeners of the
      * read-only wrapper.
      */
-    private class MapPropertyChangeForwarder implements MapPropertyChangeListener<K, R> {
+    private class MapPropertyChangeForwarder implements MapPropertyChangeListener<K, R>, ListenerOwner {
+
+        /**
+         * @see ListenerOwner#getListenerOwner()
+         */
+        @Override
+        public Object getListenerOwner() {
+            return ReadOnlyMapPropertyWrapper.this;
+        }
 
         @Override
         public void mapPropertyChanged(MapPropertyChange<? extends K, ? extends R> e) {
@@ -33,6 +33,8 @@ import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableSetProperty;
 import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
+import com.github.leanframeworks.propertiesframework.base.graph.ListenerOwner;
 import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableSetProperty;
 
 import java.util.Collection;
@@ -49,7 +51,7 @@ import java.util.Set;
  *
  * @param <R> Type of data that can be read from the wrapped set property.
  */
-public class ReadOnlySetPropertyWrapper<R> extends AbstractReadableSetProperty<R> {
+public class ReadOnlySetPropertyWrapper<R> extends AbstractReadableSetProperty<R> implements GraphNode {
 
     /**
      * Listener to changes on the wrapped property.
@@ -151,11 +153,35 @@ public class ReadOnlySetPropertyWrapper<R> extends AbstractReadableSetProperty<R
         return asUnmodifiableSet().iterator();
     }
 
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return (wrappedSetProperty == null) ? Collections.emptyList() : Collections.singletonList(wrappedSetProperty);
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return Collections.emptyList();
+    }
+
     /**
      * Entity responsible for forwarding the change events from the wrapped set property to the listeners of the
      * read-only wrapper.
      */
-    private class SetPropertyChangeForwarder implements SetPropertyChangeListener<R> {
+    private class SetPropertyChangeForwarder implements SetPropertyChangeListener<R>, ListenerOwner {
+
+        /**
+         * @see ListenerOwner#getListenerOwner()
+         */
+        @Override
+        public Object getListenerOwner() {
+            return ReadOnlySetPropertyWrapper.this;
+        }
 
         /**
          * @see SetPropertyChangeListener#setPropertyChanged(SetPropertyChange)
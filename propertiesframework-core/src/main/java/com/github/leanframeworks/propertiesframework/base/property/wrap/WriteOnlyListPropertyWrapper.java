@@ -31,8 +31,10 @@ package com.github.leanframeworks.propertiesframework.base.property.wrap;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.api.property.WritableListProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
 
 import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Wrapper for list properties (typically both readable/writable) to make them appear as write-only.
@@ -43,7 +45,7 @@ import java.util.Collection;
  *
  * @param <W> Type of data that can be written to the wrapped set property.
  */
-public class WriteOnlyListPropertyWrapper<W> implements WritableListProperty<W>, Disposable {
+public class WriteOnlyListPropertyWrapper<W> implements WritableListProperty<W>, Disposable, GraphNode {
 
     /**
      * Wrapped list property.
@@ -201,4 +203,20 @@ public class WriteOnlyListPropertyWrapper<W> implements WritableListProperty<W>,
             wrappedListProperty.clear();
         }
     }
+
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return (wrappedListProperty == null) ? Collections.emptyList() : Collections.singletonList(wrappedListProperty);
+    }
 }
@@ -31,7 +31,10 @@ package com.github.leanframeworks.propertiesframework.base.property.wrap;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.api.property.WritableMapProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -44,7 +47,7 @@ import java.util.Map;
  * @param <K> Type of keys maintained by this map property.
  * @param <W> Type of values that can be written to this map property.
  */
-public class WriteOnlyMapPropertyWrapper<K, W> implements WritableMapProperty<K, W>, Disposable {
+public class WriteOnlyMapPropertyWrapper<K, W> implements WritableMapProperty<K, W>, Disposable, GraphNode {
 
     /**
      * Wrapped map property.
@@ -96,6 +99,14 @@ public class WriteOnlyMapPropertyWrapper<K, W> implements WritableMapProperty<K,
         wrappedMapProperty.putAll(entries);
     }
 
+    /**
+     * @see WritableMapProperty#removeAll(Collection)
+     */
+    @Override
+    public void removeAll(Collection<?> keys) {
+        wrappedMapProperty.removeAll(keys);
+    }
+
     /**
      * @see WritableMapProperty#clear()
      */
@@ -103,4 +114,20 @@ public class WriteOnlyMapPropertyWrapper<K, W> implements WritableMapProperty<K,
     public void clear() {
         wrappedMapProperty.clear();
     }
+
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return (wrappedMapProperty == null) ? Collections.emptyList() : Collections.singletonList(wrappedMapProperty);
+    }
 }
@@ -31,6 +31,10 @@ package com.github.leanframeworks.propertiesframework.base.property.wrap;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.api.property.WritableProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
+
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Wrapper for properties (typically both readable/writable) to make them appear as write-only.
@@ -41,7 +45,7 @@ import com.github.leanframeworks.propertiesframework.api.property.WritableProper
  *
  * @param <W> Type of data that can be written to the wrapped property.
  */
-public class WriteOnlyPropertyWrapper<W> implements WritableProperty<W>, Disposable {
+public class WriteOnlyPropertyWrapper<W> implements WritableProperty<W>, Disposable, GraphNode {
 
     /**
      * Wrapped property.
@@ -77,4 +81,20 @@ public class WriteOnlyPropertyWrapper<W> implements WritableProperty<W>, Disposa
             wrappedProperty.setValue(value);
         }
     }
+
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return (wrappedProperty == null) ? Collections.emptyList() : Collections.singletonList(wrappedProperty);
+    }
 }
@@ -31,8 +31,10 @@ package com.github.leanframeworks.propertiesframework.base.property.wrap;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.api.property.WritableSetProperty;
+import com.github.leanframeworks.propertiesframework.base.graph.GraphNode;
 
 import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Wrapper for set properties (typically both readable/writable) to make them appear as write-only.
@@ -43,7 +45,7 @@ import java.util.Collection;
  *
  * @param <W> Type of data that can be written to the wrapped set property.
  */
-public class WriteOnlySetPropertyWrapper<W> implements WritableSetProperty<W>, Disposable {
+public class WriteOnlySetPropertyWrapper<W> implements WritableSetProperty<W>, Disposable, GraphNode {
 
     /**
      * Wrapped set property.
@@ -150,4 +152,20 @@ public class WriteOnlySetPropertyWrapper<W> implements WritableSetProperty<W>, D
             wrappedSetProperty.clear();
         }
     }
+
+    /**
+     * @see GraphNode#getUpstreamNodes()
+     */
+    @Override
+    public Collection<?> getUpstreamNodes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @see GraphNode#getDownstreamNodes()
+     */
+    @Override
+    public Collection<?> getDownstreamNodes() {
+        return (wrappedSetProperty == null) ? Collections.emptyList() : Collections.singletonList(wrappedSetProperty);
+    }
 }
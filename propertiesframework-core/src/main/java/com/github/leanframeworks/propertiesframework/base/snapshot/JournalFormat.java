@@ -0,0 +1,274 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.snapshot;
+
+import com.github.leanframeworks.propertiesframework.base.codec.PropertyValueCodecRegistry;
+import com.github.leanframeworks.propertiesframework.base.codec.ValueDecoder;
+import com.github.leanframeworks.propertiesframework.base.codec.ValueEncoder;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Utility class defining the format of the property change journal files.
+ * <p>
+ * A journal is a directory containing segment files. Each segment starts with a header (magic number and format
+ * version) followed by records. Each record consists of the length of its payload, the CRC32 checksum of its payload,
+ * and the payload itself. The end of the records in a segment is marked by a zero length or by the end of the
+ * segment. Records whose checksum does not match (typically, after a crash) are considered as the end of the segment.
+ */
+final class JournalFormat {
+
+    /**
+     * Magic number at the beginning of all segments ("PFJN").
+     */
+    static final int MAGIC = 0x50464A4E;
+
+    /**
+     * Version of the journal format.
+     */
+    static final byte FORMAT_VERSION = 2;
+
+    /**
+     * Size of the header at the beginning of each segment.
+     */
+    static final int SEGMENT_HEADER_SIZE = 5;
+
+    /**
+     * Size of the header at the beginning of each record (payload length and checksum).
+     */
+    static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * Initial capacity of the buffer used to encode a record.
+     */
+    private static final int RECORD_INITIAL_CAPACITY = 256;
+
+    /**
+     * Types of records, indexed by ordinal.
+     */
+    private static final JournalRecordType[] RECORD_TYPES = JournalRecordType.values();
+
+    /**
+     * Prefix of the segment file names.
+     */
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    /**
+     * Suffix of the segment file names.
+     */
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Handle releasing the memory mapping of a buffer, or null if not available.
+     * <p>
+     * Java 8 has no public API to unmap a buffer before it is garbage collected, which may take a long time for such
+     * small objects while they hold large mappings. The {@code invokeCleaner} method of {@code sun.misc.Unsafe} is used
+     * from Java 9 onwards, and the cleaner of the buffer in Java 8. They are looked up reflectively so that the bundle
+     * does not need to import {@code sun.misc}.
+     */
+    private static final MethodHandle UNMAPPER = findUnmapper();
+
+    /**
+     * Private constructor for utility class.
+     */
+    private JournalFormat() {
+        // Nothing to be done
+    }
+
+    /**
+     * Gets the name of the segment file with the specified index.
+     * <p>
+     * The index is padded with zeros so that the alphabetical order of the file names is the order of the segments.
+     *
+     * @param index Index of the segment.
+     * @return Name of the segment file.
+     */
+    static String getSegmentFileName(long index) {
+        return String.format("%s%019d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Lists the segment files in the specified journal directory.
+     *
+     * @param directory Journal directory.
+     * @return Segment files, in the order in which they were written.
+     * @throws IOException If the directory could not be read.
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" +
+                SEGMENT_SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Parses the index of the specified segment file.
+     *
+     * @param segment Segment file.
+     * @return Index of the segment.
+     */
+    static long getSegmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Encodes the payload of a record.
+     *
+     * @param timestamp  Time of the change, in nanoseconds since the epoch.
+     * @param propertyId Identifier of the changed property.
+     * @param type       Type of record.
+     * @param index      Index of the first changed item for list changes, -1 otherwise.
+     * @param oldValue   Old value or items.
+     * @param newValue   New value or items.
+     * @param registry   Registry of the codecs used to encode the values.
+     * @return Encoded payload.
+     * @throws IOException If a value could not be encoded.
+     */
+    static byte[] encodeRecord(long timestamp, String propertyId, JournalRecordType type, int index, Object oldValue,
+                               Object newValue, PropertyValueCodecRegistry registry) throws IOException {
+        ValueEncoder out = new ValueEncoder(registry, RECORD_INITIAL_CAPACITY);
+        out.writeVarLong(timestamp);
+        out.writeString(propertyId);
+        out.writeByte(type.ordinal());
+        if (type == JournalRecordType.LIST) {
+            out.writeLength(index);
+        }
+        out.writeValue(oldValue);
+        out.writeValue(newValue);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes the payload of a record.
+     *
+     * @param in Input to read the payload from.
+     * @return Decoded record.
+     * @throws IOException If the payload could not be decoded.
+     */
+    static JournalRecord decodeRecord(ValueDecoder in) throws IOException {
+        long timestamp = in.readVarLong();
+        String propertyId = in.readString();
+        byte typeOrdinal = in.readByte();
+        if ((typeOrdinal < 0) || (typeOrdinal >= RECORD_TYPES.length)) {
+            throw new StreamCorruptedException("Unknown record type: " + typeOrdinal);
+        }
+        JournalRecordType type = RECORD_TYPES[typeOrdinal];
+        int index = -1;
+        if (type == JournalRecordType.LIST) {
+            index = in.readLength();
+        }
+        Object oldValue = in.readValue();
+        Object newValue = in.readValue();
+        return new JournalRecord(timestamp, propertyId, type, index, oldValue, newValue);
+    }
+
+    /**
+     * Looks up the handle releasing the memory mapping of a buffer.
+     *
+     * @return Handle taking the buffer to be unmapped, or null if not available.
+     */
+    private static MethodHandle findUnmapper() {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType unmapperType = MethodType.methodType(void.class, ByteBuffer.class);
+        MethodHandle unmapper;
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unmapper = lookup.findVirtual(unsafeClass, "invokeCleaner", unmapperType).bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            try {
+                // Java 8
+                Method cleanerMethod = Class.forName("java.nio.DirectByteBuffer").getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                MethodHandle clean = lookup.findVirtual(cleanerMethod.getReturnType(), "clean", MethodType.methodType
+                        (void.class));
+                unmapper = MethodHandles.filterReturnValue(lookup.unreflect(cleanerMethod), clean).asType
+                        (unmapperType);
+            } catch (ReflectiveOperationException | RuntimeException e2) {
+                unmapper = null;
+            }
+        }
+        return unmapper;
+    }
+
+    /**
+     * Releases the memory mapping of the specified buffer without waiting for it to be garbage collected, if possible.
+     * <p>
+     * The buffer must not be accessed afterwards.
+     *
+     * @param buffer Mapped buffer to be released.
+     */
+    static void unmap(MappedByteBuffer buffer) {
+        if (UNMAPPER != null) {
+            try {
+                UNMAPPER.invokeExact((ByteBuffer) buffer);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // The mapping will be released when the buffer is garbage collected
+            }
+        }
+    }
+
+    /**
+     * Computes the checksum of the specified record payload.
+     *
+     * @param payload Record payload.
+     * @return Checksum of the payload.
+     */
+    static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,164 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.snapshot;
+
+/**
+ * Change of a property, as recorded in a property change journal.
+ * <p>
+ * The old and new values depend on the type of the record:
+ * <ul>
+ * <li>{@link JournalRecordType#VALUE}: old and new values of the property;</li>
+ * <li>{@link JournalRecordType#LIST}: lists of removed or replaced items and of added or replacing items, starting at
+ * the index given by {@link #getIndex()};</li>
+ * <li>{@link JournalRecordType#SET}: sets of removed items and of added items;</li>
+ * <li>{@link JournalRecordType#MAP}: maps of removed or replaced entries and of added or replacing entries.</li>
+ * </ul>
+ * For lists, sets and maps, the old and new values are never null, but they may be empty.
+ *
+ * @see PropertyChangeJournal
+ * @see PropertyChangeJournalReader
+ */
+public class JournalRecord {
+
+    /**
+     * Time of the change, in nanoseconds since the epoch.
+     */
+    private final long timestamp;
+
+    /**
+     * Identifier of the changed property.
+     */
+    private final String propertyId;
+
+    /**
+     * Type of record.
+     */
+    private final JournalRecordType type;
+
+    /**
+     * Index of the first changed item for list changes, -1 otherwise.
+     */
+    private final int index;
+
+    /**
+     * Old value or items.
+     */
+    private final Object oldValue;
+
+    /**
+     * New value or items.
+     */
+    private final Object newValue;
+
+    /**
+     * Constructor.
+     *
+     * @param timestamp  Time of the change, in nanoseconds since the epoch.
+     * @param propertyId Identifier of the changed property.
+     * @param type       Type of record.
+     * @param index      Index of the first changed item for list changes, -1 otherwise.
+     * @param oldValue   Old value or items.
+     * @param newValue   New value or items.
+     */
+    public JournalRecord(long timestamp, String propertyId, JournalRecordType type, int index, Object oldValue,
+                         Object newValue) {
+        this.timestamp = timestamp;
+        this.propertyId = propertyId;
+        this.type = type;
+        this.index = index;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Gets the time of the change.
+     * <p>
+     * Note that the timestamps are only guaranteed to be precise relatively to each other within the same session.
+     *
+     * @return Time of the change, in nanoseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the identifier of the changed property.
+     *
+     * @return Identifier of the changed property.
+     */
+    public String getPropertyId() {
+        return propertyId;
+    }
+
+    /**
+     * Gets the type of record.
+     *
+     * @return Type of record.
+     */
+    public JournalRecordType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the index of the first changed item for list changes.
+     *
+     * @return Start index of the list change, or -1 for other types of records.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the old value, or the removed or replaced items.
+     *
+     * @return Old value or items.
+     */
+    public Object getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Gets the new value, or the added or replacing items.
+     *
+     * @return New value or items.
+     */
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return type + " " + propertyId + ((index < 0) ? "" : ("[" + index + "]")) + ": " + oldValue + " -> " +
+                newValue;
+    }
+}
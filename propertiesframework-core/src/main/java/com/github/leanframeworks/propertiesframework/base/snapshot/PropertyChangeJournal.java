@@ -0,0 +1,554 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.snapshot;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableListProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableMapProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableSetProperty;
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.codec.PropertyValueCodecRegistry;
+import com.github.leanframeworks.propertiesframework.base.common.LogErrorUncheckedExceptionHandler;
+import com.github.leanframeworks.propertiesframework.base.common.ThrowableHandler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Append-only journal durably recording all the effective changes of the registered properties.
+ * <p>
+ * Each property is registered with a unique identifier. The changes of single-value properties are recorded with
+ * their old and new values, and the changes of list, set and map properties are recorded with their deltas, as
+ * provided by their change events. See {@link JournalFormat} for the format of the journal files.
+ * <p>
+ * The changes are encoded on the thread notifying them (typically, the UI thread), so that the values are captured
+ * when they change, but they are written by a background thread, so that the notifying thread never waits for the
+ * disk. The records are appended to memory-mapped segment files of fixed size. After each batch of records, the
+ * current segment is forced to the disk (group commit): the more changes are notified while the disk is busy, the
+ * bigger the next batch.
+ * <p>
+ * The queue of records waiting to be written is bounded. When it is full, the notifying thread blocks until the
+ * writer thread has written the current batch, so that no change is lost and the memory used by the journal remains
+ * bounded even if the disk cannot keep up. The capacity should therefore be large enough to absorb the bursts of
+ * changes without slowing down the notifying thread. If the notifying thread is interrupted while waiting, its record
+ * is dropped and an {@link InterruptedIOException} is passed to the throwable handler.
+ * <p>
+ * Each segment is unmapped as soon as it is full and the next one is created, and the last one when the journal is
+ * disposed, so that at most one segment is mapped at any time.
+ * <p>
+ * The journal can be read using {@link PropertyChangeJournalReader} and replayed using {@link
+ * PropertyChangeJournalReplayer}.
+ * <p>
+ * Errors occurring while encoding or writing the records are passed to the throwable handler, which logs them by
+ * default. After a write error, no further record is written.
+ * <p>
+ * Note that the registration methods are not thread-safe: properties should be registered on the same thread as the
+ * one notifying their changes.
+ */
+public class PropertyChangeJournal implements Disposable {
+
+    /**
+     * Default size of the segment files, in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Default maximum number of records waiting to be written.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 64 * 1024;
+
+    /**
+     * Record put in the queue to stop the writer thread.
+     */
+    private static final byte[] END_OF_JOURNAL = new byte[0];
+
+    /**
+     * Directory containing the segment files.
+     */
+    private final Path directory;
+
+    /**
+     * Minimum size of the segment files, in bytes.
+     */
+    private final int segmentSize;
+
+    /**
+     * Encoded records waiting to be written by the writer thread.
+     */
+    private final BlockingQueue<byte[]> queue;
+
+    /**
+     * Listener unsubscribers of the registered properties, mapped to their identifiers.
+     */
+    private final Map<String, Runnable> registrations = new LinkedHashMap<>();
+
+    /**
+     * Lock guarding the record counters.
+     */
+    private final Object counterLock = new Object();
+
+    /**
+     * Epoch time when the journal was opened, in nanoseconds.
+     */
+    private final long startEpochNanos;
+
+    /**
+     * Value of {@link System#nanoTime()} when the journal was opened.
+     */
+    private final long startNanoTime;
+
+    /**
+     * Thread writing the records to the segment files.
+     */
+    private final Thread writerThread;
+
+    /**
+     * Handler of the errors occurring while encoding or writing the records.
+     */
+    private volatile ThrowableHandler<Throwable> throwableHandler = new LogErrorUncheckedExceptionHandler();
+
+    /**
+     * Registry of the codecs used to encode the values.
+     */
+    private PropertyValueCodecRegistry codecRegistry = PropertyValueCodecRegistry.getDefault();
+
+    /**
+     * Number of records put in the queue.
+     */
+    private long submittedCount = 0;
+
+    /**
+     * Number of records written and forced to the disk.
+     */
+    private long durableCount = 0;
+
+    /**
+     * True if the writer thread failed or stopped.
+     */
+    private boolean writerStopped = false;
+
+    /**
+     * Index of the next segment to be created.
+     */
+    private long nextSegmentIndex;
+
+    /**
+     * Memory-mapped buffer of the current segment, accessed only by the writer thread.
+     */
+    private MappedByteBuffer segment = null;
+
+    /**
+     * Constructor specifying the directory where to write the journal, using the default segment size.
+     *
+     * @param directory Directory where to write the journal, created if needed.
+     * @throws IOException If the directory could not be created or read.
+     */
+    public PropertyChangeJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructor specifying the directory where to write the journal and the segment size, using the default queue
+     * capacity.
+     *
+     * @param directory   Directory where to write the journal, created if needed.
+     * @param segmentSize Minimum size of the segment files, in bytes.
+     * @throws IOException If the directory could not be created or read.
+     * @see #PropertyChangeJournal(Path, int, int)
+     */
+    public PropertyChangeJournal(Path directory, int segmentSize) throws IOException {
+        this(directory, segmentSize, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor specifying the directory where to write the journal, the segment size and the queue capacity.
+     * <p>
+     * If the directory already contains a journal, new records will be written to new segments after the existing
+     * ones.
+     *
+     * @param directory     Directory where to write the journal, created if needed.
+     * @param segmentSize   Minimum size of the segment files, in bytes.
+     * @param queueCapacity Maximum number of records waiting to be written, beyond which the notifying thread blocks.
+     * @throws IOException If the directory could not be created or read.
+     */
+    public PropertyChangeJournal(Path directory, int segmentSize, int queueCapacity) throws IOException {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid queue capacity: " + queueCapacity);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.startEpochNanos = System.currentTimeMillis() * 1000000L;
+        this.startNanoTime = System.nanoTime();
+
+        Files.createDirectories(directory);
+        List<Path> existingSegments = JournalFormat.listSegments(directory);
+        if (existingSegments.isEmpty()) {
+            nextSegmentIndex = 0;
+        } else {
+            nextSegmentIndex = JournalFormat.getSegmentIndex(existingSegments.get(existingSegments.size() - 1)) + 1;
+        }
+
+        writerThread = new Thread(this::writeRecords, getClass().getSimpleName() + "-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Gets the directory containing the segment files.
+     *
+     * @return Journal directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the handler of the errors occurring while encoding or writing the records.
+     *
+     * @return Throwable handler.
+     */
+    public ThrowableHandler<Throwable> getThrowableHandler() {
+        return throwableHandler;
+    }
+
+    /**
+     * Sets the handler of the errors occurring while encoding or writing the records.
+     * <p>
+     * Note that the handler may be called on the writer thread.
+     *
+     * @param throwableHandler Throwable handler.
+     */
+    public void setThrowableHandler(ThrowableHandler<Throwable> throwableHandler) {
+        this.throwableHandler = throwableHandler;
+    }
+
+    /**
+     * Gets the registry of the codecs used to encode the values.
+     *
+     * @return Codec registry.
+     */
+    public PropertyValueCodecRegistry getCodecRegistry() {
+        return codecRegistry;
+    }
+
+    /**
+     * Sets the registry of the codecs used to encode the values.
+     * <p>
+     * By default, the {@link PropertyValueCodecRegistry#getDefault() default registry} is used. The journal should be
+     * read with a registry containing the same codecs.
+     *
+     * @param codecRegistry Codec registry.
+     */
+    public void setCodecRegistry(PropertyValueCodecRegistry codecRegistry) {
+        this.codecRegistry = codecRegistry;
+    }
+
+    /**
+     * Registers the specified single-value property so that its changes are recorded.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the journal.
+     * @param property Property to be registered.
+     */
+    public void register(String id, ReadableProperty<?> property) {
+        PropertyChangeListener<Object> listener = e -> submit(id, JournalRecordType.VALUE, -1, e.getOldValue(),
+                e.getNewValue());
+        property.addChangeListener(listener);
+        replaceRegistration(id, () -> property.removeChangeListener(listener));
+    }
+
+    /**
+     * Registers the specified list property so that its changes are recorded.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the journal.
+     * @param property Property to be registered.
+     */
+    public void registerList(String id, ReadableListProperty<?> property) {
+        ListPropertyChangeListener<Object> listener = e -> submit(id, JournalRecordType.LIST, e.getStartIndex(), e
+                .getOldValues(), e.getNewValues());
+        property.addChangeListener(listener);
+        replaceRegistration(id, () -> property.removeChangeListener(listener));
+    }
+
+    /**
+     * Registers the specified set property so that its changes are recorded.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the journal.
+     * @param property Property to be registered.
+     */
+    public void registerSet(String id, ReadableSetProperty<?> property) {
+        SetPropertyChangeListener<Object> listener = e -> submit(id, JournalRecordType.SET, -1, e.getOldValues(), e
+                .getNewValues());
+        property.addChangeListener(listener);
+        replaceRegistration(id, () -> property.removeChangeListener(listener));
+    }
+
+    /**
+     * Registers the specified map property so that its changes are recorded.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the journal.
+     * @param property Property to be registered.
+     */
+    public void registerMap(String id, ReadableMapProperty<?, ?> property) {
+        MapPropertyChangeListener<Object, Object> listener = e -> submit(id, JournalRecordType.MAP, -1, e
+                .getOldValues(), e.getNewValues());
+        property.addChangeListener(listener);
+        replaceRegistration(id, () -> property.removeChangeListener(listener));
+    }
+
+    /**
+     * Unregisters the property with the specified identifier so that its changes are no longer recorded.
+     *
+     * @param id Identifier of the property to be unregistered.
+     */
+    public void unregister(String id) {
+        replaceRegistration(id, null);
+    }
+
+    /**
+     * Replaces the registration of the property with the specified identifier.
+     *
+     * @param id           Identifier of the property.
+     * @param unsubscriber Listener unsubscriber of the new property, or null to only unregister the old property.
+     */
+    private void replaceRegistration(String id, Runnable unsubscriber) {
+        Runnable oldUnsubscriber;
+        if (unsubscriber == null) {
+            oldUnsubscriber = registrations.remove(id);
+        } else {
+            oldUnsubscriber = registrations.put(id, unsubscriber);
+        }
+        if (oldUnsubscriber != null) {
+            oldUnsubscriber.run();
+        }
+    }
+
+    /**
+     * Encodes the specified change and puts it in the queue of records to be written.
+     *
+     * @param id       Identifier of the changed property.
+     * @param type     Type of record.
+     * @param index    Index of the first changed item for list changes, -1 otherwise.
+     * @param oldValue Old value or items.
+     * @param newValue New value or items.
+     */
+    private void submit(String id, JournalRecordType type, int index, Object oldValue, Object newValue) {
+        long timestamp = startEpochNanos + (System.nanoTime() - startNanoTime);
+        try {
+            byte[] record = JournalFormat.encodeRecord(timestamp, id, type, index, oldValue, newValue,
+                    codecRegistry);
+            synchronized (counterLock) {
+                if (enqueue(record)) {
+                    submittedCount++;
+                }
+            }
+        } catch (IOException e) {
+            throwableHandler.handleThrowable(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throwableHandler.handleThrowable(new InterruptedIOException("Interrupted while waiting for room in the "
+                    + "journal queue"));
+        }
+    }
+
+    /**
+     * Puts the specified record in the queue, waiting for the writer thread to make room if the queue is full.
+     * <p>
+     * This method is to be called while holding the lock guarding the counters.
+     *
+     * @param record Record to be put in the queue.
+     * @return True if the record was put in the queue, false if the writer thread has stopped.
+     * @throws InterruptedException If the current thread was interrupted while waiting.
+     */
+    private boolean enqueue(byte[] record) throws InterruptedException {
+        boolean queued = false;
+        while (!writerStopped && !queued) {
+            queued = queue.offer(record);
+            if (!queued) {
+                // Notified by the writer thread after each batch
+                counterLock.wait();
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Waits until all the changes recorded so far are written and forced to the disk.
+     *
+     * @throws InterruptedIOException If the current thread was interrupted while waiting.
+     */
+    public void flush() throws InterruptedIOException {
+        synchronized (counterLock) {
+            long target = submittedCount;
+            while ((durableCount < target) && !writerStopped) {
+                try {
+                    counterLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while flushing the journal");
+                }
+            }
+        }
+    }
+
+    /**
+     * Unregisters all the properties, and waits until all the changes recorded so far are written and forced to the
+     * disk before stopping the writer thread.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        for (Runnable unsubscriber : registrations.values()) {
+            unsubscriber.run();
+        }
+        registrations.clear();
+
+        try {
+            synchronized (counterLock) {
+                enqueue(END_OF_JOURNAL);
+            }
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the queued records in batches until the end of the journal, forcing them to the disk after each batch.
+     * <p>
+     * This method is run by the writer thread.
+     */
+    private void writeRecords() {
+        List<byte[]> batch = new ArrayList<>();
+        boolean endReached = false;
+
+        try {
+            while (!endReached) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+
+                int written = 0;
+                for (byte[] record : batch) {
+                    if (record == END_OF_JOURNAL) {
+                        endReached = true;
+                    } else {
+                        append(record);
+                        written++;
+                    }
+                }
+                batch.clear();
+
+                // Group commit
+                if (segment != null) {
+                    segment.force();
+                }
+                synchronized (counterLock) {
+                    durableCount += written;
+                    counterLock.notifyAll();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            throwableHandler.handleThrowable(e);
+        } catch (InterruptedException e) {
+            // Stop writing
+        } finally {
+            if (segment != null) {
+                JournalFormat.unmap(segment);
+                segment = null;
+            }
+            synchronized (counterLock) {
+                writerStopped = true;
+                queue.clear();
+                counterLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Appends the specified record to the current segment, creating a new segment if needed.
+     *
+     * @param payload Encoded record.
+     * @throws IOException If a new segment could not be created.
+     */
+    private void append(byte[] payload) throws IOException {
+        int recordSize = JournalFormat.RECORD_HEADER_SIZE + payload.length;
+        if ((segment == null) || (segment.remaining() < recordSize)) {
+            if (segment != null) {
+                segment.force();
+                JournalFormat.unmap(segment);
+                segment = null;
+            }
+            openSegment(Math.max(segmentSize, JournalFormat.SEGMENT_HEADER_SIZE + recordSize));
+        }
+        segment.putInt(payload.length);
+        segment.putInt(JournalFormat.checksum(payload));
+        segment.put(payload);
+    }
+
+    /**
+     * Creates and maps a new segment file.
+     *
+     * @param size Size of the segment, in bytes.
+     * @throws IOException If the segment could not be created.
+     */
+    private void openSegment(int size) throws IOException {
+        Path file = directory.resolve(JournalFormat.getSegmentFileName(nextSegmentIndex++));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        segment.putInt(JournalFormat.MAGIC);
+        segment.put(JournalFormat.FORMAT_VERSION);
+    }
+}
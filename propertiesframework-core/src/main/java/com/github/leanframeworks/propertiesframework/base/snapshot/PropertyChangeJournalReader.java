@@ -0,0 +1,188 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.snapshot;
+
+import com.github.leanframeworks.propertiesframework.base.codec.PropertyValueCodecRegistry;
+import com.github.leanframeworks.propertiesframework.base.codec.ValueDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sequential reader of the records of a property change journal.
+ * <p>
+ * The segment files are memory-mapped one after the other. A record that is incomplete or whose checksum does not
+ * match (typically, because of a crash while it was being written) ends the reading of its segment.
+ * <p>
+ * Note that this class is not thread-safe.
+ *
+ * @see PropertyChangeJournal
+ */
+public class PropertyChangeJournalReader {
+
+    /**
+     * Segment files of the journal.
+     */
+    private final List<Path> segments;
+
+    /**
+     * Registry of the codecs used to decode the values.
+     */
+    private final PropertyValueCodecRegistry codecRegistry;
+
+    /**
+     * Index of the next segment file to be read.
+     */
+    private int nextSegment = 0;
+
+    /**
+     * Memory-mapped buffer of the segment being read, or null if no segment is being read.
+     */
+    private MappedByteBuffer segment = null;
+
+    /**
+     * Constructor specifying the directory containing the journal, using the default codec registry.
+     *
+     * @param directory Journal directory.
+     * @throws IOException If the directory could not be read.
+     */
+    public PropertyChangeJournalReader(Path directory) throws IOException {
+        this(directory, PropertyValueCodecRegistry.getDefault());
+    }
+
+    /**
+     * Constructor specifying the directory containing the journal and the registry of the codecs used to decode the
+     * values.
+     *
+     * @param directory     Journal directory.
+     * @param codecRegistry Registry of the codecs used to decode the values.
+     * @throws IOException If the directory could not be read.
+     */
+    public PropertyChangeJournalReader(Path directory, PropertyValueCodecRegistry codecRegistry) throws IOException {
+        this.segments = JournalFormat.listSegments(directory);
+        this.codecRegistry = codecRegistry;
+    }
+
+    /**
+     * Reads all the records of the journal in the specified directory.
+     *
+     * @param directory Journal directory.
+     * @param consumer  Consumer of the records, called for each record in the order in which they were recorded.
+     * @return Number of records read.
+     * @throws IOException If the journal could not be read.
+     */
+    public static long forEachRecord(Path directory, Consumer<? super JournalRecord> consumer) throws IOException {
+        PropertyChangeJournalReader reader = new PropertyChangeJournalReader(directory);
+        long count = 0;
+        JournalRecord record = reader.next();
+        while (record != null) {
+            consumer.accept(record);
+            count++;
+            record = reader.next();
+        }
+        return count;
+    }
+
+    /**
+     * Reads the next record of the journal.
+     *
+     * @return Next record, or null if the end of the journal was reached.
+     * @throws IOException If a segment could not be read or a record could not be decoded.
+     */
+    public JournalRecord next() throws IOException {
+        JournalRecord record = null;
+
+        while ((record == null) && ((segment != null) || (nextSegment < segments.size()))) {
+            if (segment == null) {
+                openSegment(segments.get(nextSegment++));
+            } else {
+                byte[] payload = readPayload();
+                if (payload == null) {
+                    // End of segment
+                    JournalFormat.unmap(segment);
+                    segment = null;
+                } else {
+                    record = JournalFormat.decodeRecord(new ValueDecoder(codecRegistry,
+                            ByteBuffer.wrap(payload)));
+                }
+            }
+        }
+
+        return record;
+    }
+
+    /**
+     * Maps the specified segment file and checks its header.
+     *
+     * @param file Segment file.
+     * @throws IOException If the segment could not be mapped.
+     */
+    private void openSegment(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if ((segment.remaining() < JournalFormat.SEGMENT_HEADER_SIZE) || (segment.getInt() != JournalFormat.MAGIC)
+                || (segment.get() != JournalFormat.FORMAT_VERSION)) {
+            // Not a valid segment, skip it
+            JournalFormat.unmap(segment);
+            segment = null;
+        }
+    }
+
+    /**
+     * Reads the payload of the next record in the current segment.
+     *
+     * @return Payload of the record, or null if there is no more valid record in the segment.
+     */
+    private byte[] readPayload() {
+        byte[] payload = null;
+
+        if (segment.remaining() >= JournalFormat.RECORD_HEADER_SIZE) {
+            int length = segment.getInt();
+            int checksum = segment.getInt();
+            if ((length > 0) && (length <= segment.remaining())) {
+                payload = new byte[length];
+                segment.get(payload);
+                if (JournalFormat.checksum(payload) != checksum) {
+                    // Torn or corrupted record
+                    payload = null;
+                }
+            }
+        }
+
+        return payload;
+    }
+}
@@ -0,0 +1,262 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.snapshot;
+
+import com.github.leanframeworks.propertiesframework.api.property.WritableListProperty;
+import com.github.leanframeworks.propertiesframework.api.property.WritableMapProperty;
+import com.github.leanframeworks.propertiesframework.api.property.WritableProperty;
+import com.github.leanframeworks.propertiesframework.api.property.WritableSetProperty;
+import com.github.leanframeworks.propertiesframework.base.codec.PropertyValueCodecRegistry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Entity replaying the changes recorded in a property change journal onto registered properties.
+ * <p>
+ * Each property is registered with the identifier used when recording its changes. The records of properties that are
+ * not registered are ignored.
+ * <p>
+ * The changes can be replayed at maximum speed, typically to rebuild the state of the properties after a crash, or at
+ * their original speed, typically to reproduce a session or to drive a realistic workload. The changes are applied on
+ * the calling thread, which should be the thread on which the registered properties are normally used.
+ *
+ * @see PropertyChangeJournal
+ */
+public class PropertyChangeJournalReplayer {
+
+    /**
+     * Appliers of the records, mapped to the identifiers of the registered properties.
+     */
+    private final Map<String, Consumer<JournalRecord>> appliers = new HashMap<>();
+
+    /**
+     * Registry of the codecs used to decode the values.
+     */
+    private PropertyValueCodecRegistry codecRegistry = PropertyValueCodecRegistry.getDefault();
+
+    /**
+     * Gets the registry of the codecs used to decode the values.
+     *
+     * @return Codec registry.
+     */
+    public PropertyValueCodecRegistry getCodecRegistry() {
+        return codecRegistry;
+    }
+
+    /**
+     * Sets the registry of the codecs used to decode the values.
+     * <p>
+     * By default, the {@link PropertyValueCodecRegistry#getDefault() default registry} is used.
+     *
+     * @param codecRegistry Codec registry.
+     */
+    public void setCodecRegistry(PropertyValueCodecRegistry codecRegistry) {
+        this.codecRegistry = codecRegistry;
+    }
+
+    /**
+     * Registers the specified single-value property.
+     *
+     * @param id       Identifier of the property in the journal.
+     * @param property Property to be registered.
+     */
+    @SuppressWarnings("unchecked")
+    public void register(String id, WritableProperty<?> property) {
+        appliers.put(id, record -> ((WritableProperty<Object>) property).setValue(record.getNewValue()));
+    }
+
+    /**
+     * Registers the specified list property.
+     *
+     * @param id       Identifier of the property in the journal.
+     * @param property Property to be registered.
+     */
+    @SuppressWarnings("unchecked")
+    public void registerList(String id, WritableListProperty<?> property) {
+        WritableListProperty<Object> listProperty = (WritableListProperty<Object>) property;
+        appliers.put(id, record -> {
+            List<Object> oldItems = (List<Object>) record.getOldValue();
+            List<Object> newItems = (List<Object>) record.getNewValue();
+            int index = record.getIndex();
+
+            if (oldItems.isEmpty()) {
+                listProperty.addAll(index, newItems);
+            } else if (newItems.isEmpty()) {
+                for (int i = 0; i < oldItems.size(); i++) {
+                    listProperty.remove(index);
+                }
+            } else {
+                for (int i = 0; i < newItems.size(); i++) {
+                    listProperty.set(index + i, newItems.get(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers the specified set property.
+     *
+     * @param id       Identifier of the property in the journal.
+     * @param property Property to be registered.
+     */
+    @SuppressWarnings("unchecked")
+    public void registerSet(String id, WritableSetProperty<?> property) {
+        WritableSetProperty<Object> setProperty = (WritableSetProperty<Object>) property;
+        appliers.put(id, record -> {
+            Set<Object> oldItems = (Set<Object>) record.getOldValue();
+            Set<Object> newItems = (Set<Object>) record.getNewValue();
+
+            if (!oldItems.isEmpty()) {
+                setProperty.removeAll(oldItems);
+            }
+            if (!newItems.isEmpty()) {
+                setProperty.addAll(newItems);
+            }
+        });
+    }
+
+    /**
+     * Registers the specified map property.
+     *
+     * @param id       Identifier of the property in the journal.
+     * @param property Property to be registered.
+     */
+    @SuppressWarnings("unchecked")
+    public void registerMap(String id, WritableMapProperty<?, ?> property) {
+        WritableMapProperty<Object, Object> mapProperty = (WritableMapProperty<Object, Object>) property;
+        appliers.put(id, record -> {
+            Map<Object, Object> oldEntries = (Map<Object, Object>) record.getOldValue();
+            Map<Object, Object> newEntries = (Map<Object, Object>) record.getNewValue();
+
+            if (newEntries.isEmpty()) {
+                for (Object key : oldEntries.keySet()) {
+                    mapProperty.remove(key);
+                }
+            } else {
+                mapProperty.putAll(newEntries);
+            }
+        });
+    }
+
+    /**
+     * Unregisters the property with the specified identifier.
+     *
+     * @param id Identifier of the property to be unregistered.
+     */
+    public void unregister(String id) {
+        appliers.remove(id);
+    }
+
+    /**
+     * Replays all the changes recorded in the journal at maximum speed.
+     *
+     * @param directory Journal directory.
+     * @return Number of records read from the journal.
+     * @throws IOException If the journal could not be read.
+     */
+    public long replay(Path directory) throws IOException {
+        return replay(directory, false);
+    }
+
+    /**
+     * Replays all the changes recorded in the journal.
+     *
+     * @param directory     Journal directory.
+     * @param originalSpeed True to wait between changes as long as between the original changes, false to replay at
+     *                      maximum speed.
+     * @return Number of records read from the journal.
+     * @throws IOException If the journal could not be read, or if the current thread was interrupted while waiting.
+     */
+    public long replay(Path directory, boolean originalSpeed) throws IOException {
+        PropertyChangeJournalReader reader = new PropertyChangeJournalReader(directory, codecRegistry);
+        long count = 0;
+        long firstTimestamp = 0;
+        long startNanoTime = System.nanoTime();
+
+        JournalRecord record = reader.next();
+        while (record != null) {
+            if (originalSpeed) {
+                if (count == 0) {
+                    firstTimestamp = record.getTimestamp();
+                }
+                waitUntil(startNanoTime + (record.getTimestamp() - firstTimestamp));
+            }
+
+            apply(record);
+            count++;
+            record = reader.next();
+        }
+
+        return count;
+    }
+
+    /**
+     * Applies the specified record onto the property registered with its identifier, if any.
+     * <p>
+     * This can be used to apply records that were not read from a journal directory, for instance records received
+     * from another process.
+     *
+     * @param record Record to be applied.
+     * @return True if a property is registered for the record, false if the record was ignored.
+     */
+    public boolean apply(JournalRecord record) {
+        Consumer<JournalRecord> applier = appliers.get(record.getPropertyId());
+        if (applier != null) {
+            applier.accept(record);
+        }
+        return applier != null;
+    }
+
+    /**
+     * Waits until the specified time.
+     *
+     * @param nanoTime Value of {@link System#nanoTime()} to wait for.
+     * @throws InterruptedIOException If the current thread was interrupted while waiting.
+     */
+    private static void waitUntil(long nanoTime) throws InterruptedIOException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while replaying the journal");
+            }
+        }
+    }
+}
@@ -0,0 +1,716 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.snapshot;
+
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableListProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableMapProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableSetProperty;
+import com.github.leanframeworks.propertiesframework.base.codec.PropertyValueCodecRegistry;
+import com.github.leanframeworks.propertiesframework.base.codec.ValueDecoder;
+import com.github.leanframeworks.propertiesframework.base.codec.ValueEncoder;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableProperty;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Entity saving the values of registered properties to compact binary snapshots, and restoring them.
+ * <p>
+ * Each property is registered with a unique identifier, which is used to match the saved values with the properties
+ * when restoring a snapshot. Values of single-value properties and contents of list, set and map properties can be
+ * saved. See {@link PropertyValueCodecRegistry} for the supported types of values and to support other types.
+ * <p>
+ * A full snapshot contains the values of all the registered properties. A delta snapshot only contains the values of
+ * the properties that changed since the previous snapshot (full or delta) was written. To find out which properties
+ * changed, the {@link Versioned} interface is used: properties that do not implement it are always written. A chain of
+ * snapshots is restored by restoring the full snapshot first, and then all the delta snapshots in the same order as
+ * they were written.
+ * <p>
+ * Each snapshot starts with a fixed-size header containing its length, so that several snapshots can be written one
+ * after the other to the same file, and restored one by one from it.
+ * <p>
+ * When a snapshot is restored, the single-value properties extending {@link AbstractReadableProperty} are inhibited
+ * until all values are restored, so that their listeners are notified only once per property, and only when the whole
+ * state is consistent. The listeners of list, set and map properties are notified at most once per type of change
+ * (added, changed and removed items).
+ * <p>
+ * Note that values that do not have a dedicated encoding are saved using Java serialization, so snapshots should only
+ * be restored from trusted files.
+ * <p>
+ * Note that this class is not thread-safe: it should be used on the same thread as the registered properties.
+ */
+public class PropertySnapshotManager {
+
+    /**
+     * Magic number at the beginning of all snapshots ("PFSN").
+     */
+    private static final int MAGIC = 0x5046534E;
+
+    /**
+     * Version of the snapshot format.
+     */
+    private static final byte FORMAT_VERSION = 3;
+
+    /**
+     * Size of the header at the beginning of all snapshots (magic number, format version and length of the content).
+     */
+    private static final int HEADER_SIZE = 9;
+
+    /**
+     * Offset of the length of the content in the header.
+     */
+    private static final int LENGTH_OFFSET = 5;
+
+    /**
+     * Initial capacity of the buffer used to encode a snapshot.
+     */
+    private static final int INITIAL_CAPACITY = 4096;
+
+    /**
+     * Type of snapshot containing all the registered properties.
+     */
+    private static final byte FULL_SNAPSHOT = 0;
+
+    /**
+     * Type of snapshot containing only the properties that changed since the previous snapshot.
+     */
+    private static final byte DELTA_SNAPSHOT = 1;
+
+    /**
+     * Type of entry for single-value properties.
+     */
+    private static final byte VALUE_ENTRY = 0;
+
+    /**
+     * Type of entry for list properties.
+     */
+    private static final byte LIST_ENTRY = 1;
+
+    /**
+     * Type of entry for set properties.
+     */
+    private static final byte SET_ENTRY = 2;
+
+    /**
+     * Type of entry for map properties.
+     */
+    private static final byte MAP_ENTRY = 3;
+
+    /**
+     * Version used when the version of a property at the time of the previous snapshot is unknown.
+     */
+    private static final long UNKNOWN_VERSION = -1;
+
+    /**
+     * Registered properties mapped to their identifiers.
+     */
+    private final Map<String, Registration> registrations = new LinkedHashMap<>();
+
+    /**
+     * Generator of identifiers for chains of snapshots.
+     */
+    private final Random random = new Random();
+
+    /**
+     * Identifier of the current chain of snapshots, starting with a full snapshot.
+     */
+    private long chainId = 0;
+
+    /**
+     * Sequence number of the last snapshot written or restored in the current chain, or -1 if there is no such
+     * snapshot.
+     */
+    private long sequence = -1;
+
+    /**
+     * Registry of the codecs used to encode and decode the values.
+     */
+    private PropertyValueCodecRegistry codecRegistry = PropertyValueCodecRegistry.getDefault();
+
+    /**
+     * Gets the registry of the codecs used to encode and decode the values.
+     *
+     * @return Codec registry.
+     */
+    public PropertyValueCodecRegistry getCodecRegistry() {
+        return codecRegistry;
+    }
+
+    /**
+     * Sets the registry of the codecs used to encode and decode the values.
+     * <p>
+     * By default, the {@link PropertyValueCodecRegistry#getDefault() default registry} is used.
+     *
+     * @param codecRegistry Codec registry.
+     */
+    public void setCodecRegistry(PropertyValueCodecRegistry codecRegistry) {
+        this.codecRegistry = codecRegistry;
+    }
+
+    /**
+     * Registers the specified single-value property.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the snapshots.
+     * @param property Property to be registered.
+     */
+    public void register(String id, ReadableWritableProperty<?> property) {
+        registrations.put(id, new ValueRegistration(property));
+    }
+
+    /**
+     * Registers the specified list property.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the snapshots.
+     * @param property Property to be registered.
+     */
+    public void registerList(String id, ReadableWritableListProperty<?> property) {
+        registrations.put(id, new ListRegistration(property));
+    }
+
+    /**
+     * Registers the specified set property.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the snapshots.
+     * @param property Property to be registered.
+     */
+    public void registerSet(String id, ReadableWritableSetProperty<?> property) {
+        registrations.put(id, new SetRegistration(property));
+    }
+
+    /**
+     * Registers the specified map property.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the snapshots.
+     * @param property Property to be registered.
+     */
+    public void registerMap(String id, ReadableWritableMapProperty<?, ?> property) {
+        registrations.put(id, new MapRegistration(property));
+    }
+
+    /**
+     * Unregisters the property with the specified identifier.
+     *
+     * @param id Identifier of the property to be unregistered.
+     */
+    public void unregister(String id) {
+        registrations.remove(id);
+    }
+
+    /**
+     * Gets the identifiers of all registered properties.
+     *
+     * @return Identifiers of the registered properties.
+     */
+    public Set<String> getRegisteredIds() {
+        return new LinkedHashSet<>(registrations.keySet());
+    }
+
+    /**
+     * Writes a full snapshot of all the registered properties to the specified channel.
+     * <p>
+     * This starts a new chain of snapshots.
+     *
+     * @param channel Channel to write the snapshot to, at its current position.
+     * @throws IOException If a value could not be encoded or if the snapshot could not be written.
+     */
+    public void writeFullSnapshot(FileChannel channel) throws IOException {
+        writeSnapshot(channel, FULL_SNAPSHOT, random.nextLong(), 0);
+    }
+
+    /**
+     * Writes a delta snapshot of the registered properties that changed since the previous snapshot to the specified
+     * channel.
+     * <p>
+     * A full snapshot must have been written or restored before.
+     *
+     * @param channel Channel to write the snapshot to, at its current position.
+     * @throws IOException           If a value could not be encoded or if the snapshot could not be written.
+     * @throws IllegalStateException If no full snapshot was written or restored before.
+     */
+    public void writeDeltaSnapshot(FileChannel channel) throws IOException {
+        if (sequence < 0) {
+            throw new IllegalStateException("A full snapshot must be written or restored first");
+        }
+        writeSnapshot(channel, DELTA_SNAPSHOT, chainId, sequence + 1);
+    }
+
+    /**
+     * Writes a snapshot to the specified channel.
+     *
+     * @param channel          Channel to write the snapshot to.
+     * @param snapshotType     Type of snapshot.
+     * @param snapshotChainId  Identifier of the chain of snapshots.
+     * @param snapshotSequence Sequence number of the snapshot in the chain.
+     * @throws IOException If a value could not be encoded or if the snapshot could not be written.
+     */
+    private void writeSnapshot(FileChannel channel, byte snapshotType, long snapshotChainId, long snapshotSequence)
+            throws IOException {
+        // Select the entries to be written
+        List<Map.Entry<String, Registration>> entries = new ArrayList<>();
+        for (Map.Entry<String, Registration> entry : registrations.entrySet()) {
+            if ((snapshotType == FULL_SNAPSHOT) || entry.getValue().hasChangedSinceSnapshot()) {
+                entries.add(entry);
+            }
+        }
+
+        // Encode everything first so that nothing is written in case of failure
+        ValueEncoder out = new ValueEncoder(codecRegistry, INITIAL_CAPACITY);
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeInt(0); // Length of the content, set once known
+        out.writeByte(snapshotType);
+        out.writeLong(snapshotChainId);
+        out.writeVarLong(snapshotSequence);
+        out.writeLength(entries.size());
+        for (Map.Entry<String, Registration> entry : entries) {
+            out.writeString(entry.getKey());
+            out.writeByte(entry.getValue().getEntryType());
+            entry.getValue().write(out);
+        }
+        ByteBuffer buffer = out.getBuffer();
+        buffer.putInt(LENGTH_OFFSET, buffer.position() - HEADER_SIZE);
+        out.writeTo(channel);
+
+        // Remember the state of the properties for the next delta snapshot
+        chainId = snapshotChainId;
+        sequence = snapshotSequence;
+        for (Map.Entry<String, Registration> entry : entries) {
+            entry.getValue().markSnapshot();
+        }
+    }
+
+    /**
+     * Restores the values of the registered properties from the snapshot read from the specified channel.
+     * <p>
+     * The snapshot can be either a full snapshot, or a delta snapshot following the previous snapshot that was written
+     * or restored. Values of properties that are not registered are ignored.
+     * <p>
+     * Exactly one snapshot is read: the channel is left positioned after it, so that the next snapshot written to the
+     * same file, if any, can be restored by calling this method again.
+     *
+     * @param channel Channel to read the snapshot from, from its current position.
+     * @throws IOException If the snapshot could not be read, is corrupted, or does not follow the previous snapshot.
+     */
+    public void restoreSnapshot(FileChannel channel) throws IOException {
+        // Read header
+        ByteBuffer header = readFully(channel, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a property snapshot");
+        }
+        byte formatVersion = header.get();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new StreamCorruptedException("Unsupported snapshot format version: " + formatVersion);
+        }
+        int length = header.getInt();
+        if (length < 0) {
+            throw new StreamCorruptedException("Invalid snapshot length: " + length);
+        }
+
+        ValueDecoder in = new ValueDecoder(codecRegistry, readFully(channel, length));
+        byte snapshotType = in.readByte();
+        long snapshotChainId = in.readLong();
+        long snapshotSequence = in.readVarLong();
+        if (snapshotType == DELTA_SNAPSHOT) {
+            if ((sequence < 0) || (snapshotChainId != chainId) || (snapshotSequence != sequence + 1)) {
+                throw new StreamCorruptedException("Delta snapshot does not follow the previous snapshot");
+            }
+        } else if (snapshotType != FULL_SNAPSHOT) {
+            throw new StreamCorruptedException("Unknown snapshot type: " + snapshotType);
+        }
+
+        // Decode everything first so that nothing is restored in case of failure
+        Map<Registration, Object> restoredValues = new LinkedHashMap<>();
+        int count = in.readLength();
+        for (int i = 0; i < count; i++) {
+            String id = in.readString();
+            byte entryType = in.readByte();
+            Object value = in.readValue();
+            Registration registration = registrations.get(id);
+            if ((registration != null) && (registration.getEntryType() == entryType)) {
+                restoredValues.put(registration, value);
+            }
+        }
+
+        restoreValues(restoredValues);
+
+        // Remember the state of the properties for the next delta snapshot
+        chainId = snapshotChainId;
+        sequence = snapshotSequence;
+        if (snapshotType == FULL_SNAPSHOT) {
+            for (Registration registration : registrations.values()) {
+                registration.resetSnapshot();
+            }
+        }
+        for (Registration registration : restoredValues.keySet()) {
+            registration.markSnapshot();
+        }
+    }
+
+    /**
+     * Reads the specified number of bytes from the specified file channel.
+     *
+     * @param channel Channel to read the data from, starting at its current position.
+     * @param size    Number of bytes to be read.
+     * @return Buffer containing the data.
+     * @throws IOException If the data could not be read.
+     */
+    private static ByteBuffer readFully(FileChannel channel, int size) throws IOException {
+        if (size > channel.size() - channel.position()) {
+            throw new EOFException("Unexpected end of snapshot");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of snapshot");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Restores the specified values into the properties, inhibiting the single-value properties meanwhile.
+     *
+     * @param restoredValues Restored values mapped to the registered properties.
+     */
+    private void restoreValues(Map<Registration, Object> restoredValues) {
+        // Inhibit properties that are not already inhibited
+        List<AbstractReadableProperty<?>> inhibitedProperties = new ArrayList<>();
+        for (Registration registration : restoredValues.keySet()) {
+            if ((registration.property instanceof AbstractReadableProperty) && !((AbstractReadableProperty<?>)
+                    registration.property).isInhibited()) {
+                AbstractReadableProperty<?> property = (AbstractReadableProperty<?>) registration.property;
+                property.setInhibited(true);
+                inhibitedProperties.add(property);
+            }
+        }
+
+        try {
+            for (Map.Entry<Registration, Object> entry : restoredValues.entrySet()) {
+                entry.getKey().restore(entry.getValue());
+            }
+        } finally {
+            // Notify the listeners
+            for (AbstractReadableProperty<?> property : inhibitedProperties) {
+                property.setInhibited(false);
+            }
+        }
+    }
+
+    /**
+     * Registered property.
+     */
+    private abstract static class Registration {
+
+        /**
+         * Registered property.
+         */
+        final Object property;
+
+        /**
+         * Version of the property when it was last written or restored.
+         */
+        private long snapshotVersion = UNKNOWN_VERSION;
+
+        /**
+         * Constructor specifying the registered property.
+         *
+         * @param property Registered property.
+         */
+        Registration(Object property) {
+            this.property = property;
+        }
+
+        /**
+         * Gets the type of entry to be used for the property in the snapshots.
+         *
+         * @return Type of entry.
+         */
+        abstract byte getEntryType();
+
+        /**
+         * Encodes the value or content of the property.
+         *
+         * @param out Output to write the encoded value or content to.
+         * @throws IOException If the value or content could not be encoded.
+         */
+        abstract void write(ValueEncoder out) throws IOException;
+
+        /**
+         * Restores the specified value or content into the property.
+         *
+         * @param value Decoded value or content.
+         */
+        abstract void restore(Object value);
+
+        /**
+         * States whether the property changed since it was last written or restored.
+         *
+         * @return True if the property changed or may have changed, false otherwise.
+         */
+        boolean hasChangedSinceSnapshot() {
+            return (snapshotVersion == UNKNOWN_VERSION) || (snapshotVersion != getVersion());
+        }
+
+        /**
+         * Remembers the current version of the property as being the version in the latest snapshot.
+         */
+        void markSnapshot() {
+            snapshotVersion = getVersion();
+        }
+
+        /**
+         * Forgets the version of the property in the latest snapshot.
+         */
+        void resetSnapshot() {
+            snapshotVersion = UNKNOWN_VERSION;
+        }
+
+        /**
+         * Gets the current version of the property.
+         *
+         * @return Current version of the property, or {@link #UNKNOWN_VERSION} if it is not {@link Versioned}.
+         */
+        private long getVersion() {
+            long version;
+            if (property instanceof Versioned) {
+                version = ((Versioned) property).getVersion();
+            } else {
+                version = UNKNOWN_VERSION;
+            }
+            return version;
+        }
+    }
+
+    /**
+     * Registered single-value property.
+     */
+    private static class ValueRegistration extends Registration {
+
+        /**
+         * Constructor specifying the registered property.
+         *
+         * @param property Registered property.
+         */
+        ValueRegistration(ReadableWritableProperty<?> property) {
+            super(property);
+        }
+
+        /**
+         * @see Registration#getEntryType()
+         */
+        @Override
+        byte getEntryType() {
+            return VALUE_ENTRY;
+        }
+
+        /**
+         * @see Registration#write(ValueEncoder)
+         */
+        @Override
+        void write(ValueEncoder out) throws IOException {
+            out.writeValue(((ReadableWritableProperty<?>) property).getValue());
+        }
+
+        /**
+         * @see Registration#restore(Object)
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        void restore(Object value) {
+            ((ReadableWritableProperty<Object>) property).setValue(value);
+        }
+    }
+
+    /**
+     * Registered list property.
+     */
+    private static class ListRegistration extends Registration {
+
+        /**
+         * Constructor specifying the registered property.
+         *
+         * @param property Registered property.
+         */
+        ListRegistration(ReadableWritableListProperty<?> property) {
+            super(property);
+        }
+
+        /**
+         * @see Registration#getEntryType()
+         */
+        @Override
+        byte getEntryType() {
+            return LIST_ENTRY;
+        }
+
+        /**
+         * @see Registration#write(ValueEncoder)
+         */
+        @Override
+        void write(ValueEncoder out) throws IOException {
+            out.writeValue(((ReadableWritableListProperty<?>) property).asUnmodifiableList());
+        }
+
+        /**
+         * @see Registration#restore(Object)
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        void restore(Object value) {
+            ReadableWritableListProperty<Object> listProperty = (ReadableWritableListProperty<Object>) property;
+            List<Object> items = (List<Object>) value;
+
+            if (!listProperty.asUnmodifiableList().equals(items)) {
+                if (!listProperty.isEmpty()) {
+                    listProperty.clear();
+                }
+                listProperty.addAll(items);
+            }
+        }
+    }
+
+    /**
+     * Registered set property.
+     */
+    private static class SetRegistration extends Registration {
+
+        /**
+         * Constructor specifying the registered property.
+         *
+         * @param property Registered property.
+         */
+        SetRegistration(ReadableWritableSetProperty<?> property) {
+            super(property);
+        }
+
+        /**
+         * @see Registration#getEntryType()
+         */
+        @Override
+        byte getEntryType() {
+            return SET_ENTRY;
+        }
+
+        /**
+         * @see Registration#write(ValueEncoder)
+         */
+        @Override
+        void write(ValueEncoder out) throws IOException {
+            out.writeValue(((ReadableWritableSetProperty<?>) property).asUnmodifiableSet());
+        }
+
+        /**
+         * @see Registration#restore(Object)
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        void restore(Object value) {
+            ReadableWritableSetProperty<Object> setProperty = (ReadableWritableSetProperty<Object>) property;
+            Set<Object> items = (Set<Object>) value;
+
+            // Only apply the differences
+            Set<Object> removedItems = new LinkedHashSet<>(setProperty.asUnmodifiableSet());
+            removedItems.removeAll(items);
+            if (!removedItems.isEmpty()) {
+                setProperty.removeAll(removedItems);
+            }
+            setProperty.addAll(items);
+        }
+    }
+
+    /**
+     * Registered map property.
+     */
+    private static class MapRegistration extends Registration {
+
+        /**
+         * Constructor specifying the registered property.
+         *
+         * @param property Registered property.
+         */
+        MapRegistration(ReadableWritableMapProperty<?, ?> property) {
+            super(property);
+        }
+
+        /**
+         * @see Registration#getEntryType()
+         */
+        @Override
+        byte getEntryType() {
+            return MAP_ENTRY;
+        }
+
+        /**
+         * @see Registration#write(ValueEncoder)
+         */
+        @Override
+        void write(ValueEncoder out) throws IOException {
+            out.writeValue(((ReadableWritableMapProperty<?, ?>) property).asUnmodifiableMap());
+        }
+
+        /**
+         * @see Registration#restore(Object)
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        void restore(Object value) {
+            ReadableWritableMapProperty<Object, Object> mapProperty = (ReadableWritableMapProperty<Object, Object>)
+                    property;
+            Map<Object, Object> entries = (Map<Object, Object>) value;
+
+            if (!entries.keySet().containsAll(mapProperty.keySet())) {
+                // Some entries must be removed
+                mapProperty.clear();
+            }
+            mapProperty.putAll(entries);
+        }
+    }
+}
@@ -30,19 +30,39 @@
 package com.github.leanframeworks.propertiesframework.base.transform;
 
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.common.EqualityStrategy;
+import com.github.leanframeworks.propertiesframework.api.property.WritableProperty;
 import com.github.leanframeworks.propertiesframework.api.transform.Transformer;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
+import com.github.leanframeworks.propertiesframework.base.utils.ValueUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * Composite transformer.
+ * <p>
+ * Besides transformers, the chain may contain filter stages (see {@link #filter(Predicate)}, {@link #distinct()} and
+ * {@link #skipNulls()}). When a value is rejected by such a stage, the subsequent transformers of the chain are not
+ * called. Rejected values can be detected by using {@link #propagate(Object, WritableProperty)} instead of {@link
+ * #transform(Object)}.
  *
  * @param <I> Type of input of the first transformer of the chain.
  * @param <O> Type of output of the last transformer of the chain.
  */
 public class ChainedTransformer<I, O> implements Transformer<I, O>, Disposable {
 
+    /**
+     * Output of the filter stages rejecting a value.
+     */
+    private static final Object REJECTED = new Object();
+
     /**
      * Transformers that are part of the chain.
      */
@@ -67,6 +87,15 @@ public class ChainedTransformer<I, O> implements Transformer<I, O>, Disposable {
         }
     }
 
+    /**
+     * Gets the transformers and stages of the chain, in the order in which they are applied.
+     *
+     * @return Unmodifiable collection of transformers.
+     */
+    public Collection<Transformer<?, ?>> getTransformers() {
+        return Collections.unmodifiableCollection(transformers);
+    }
+
     /**
      * Adds the specified transformer to the chain.
      *
@@ -82,21 +111,153 @@ public class ChainedTransformer<I, O> implements Transformer<I, O>, Disposable {
         return (ChainedTransformer<I, TO>) this;
     }
 
+    /**
+     * Adds a filter stage to the chain.
+     * <p>
+     * Values for which the specified predicate returns false will not be passed to the subsequent transformers.
+     *
+     * @param predicate Predicate that the values must satisfy to be propagated further.
+     * @return This.
+     */
+    public ChainedTransformer<I, O> filter(Predicate<? super O> predicate) {
+        if (predicate != null) {
+            transformers.add(new FilterStage<>(predicate));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a filter stage rejecting the null values to the chain.
+     *
+     * @return This.
+     */
+    public ChainedTransformer<I, O> skipNulls() {
+        return filter(Objects::nonNull);
+    }
+
+    /**
+     * Adds a filter stage rejecting the values that are equal to the last value accepted by this stage.
+     * <p>
+     * Values are compared using {@link ValueUtils#areEqual(Object, Object)}.
+     *
+     * @return This.
+     * @see #distinct(EqualityStrategy)
+     */
+    public ChainedTransformer<I, O> distinct() {
+        EqualityStrategy<Object> equalityStrategy = ValueUtils::areEqual;
+        return distinct(equalityStrategy);
+    }
+
+    /**
+     * Adds a filter stage rejecting the values that are equal to the last value accepted by this stage, according to
+     * the specified comparator.
+     *
+     * @param comparator Comparator used to compare the values when both are not null.
+     * @return This.
+     * @see #distinct(EqualityStrategy)
+     */
+    public ChainedTransformer<I, O> distinctBy(Comparator<? super O> comparator) {
+        EqualityStrategy<O> equalityStrategy = (value1, value2) -> ValueUtils.areEqual(value1, value2, comparator);
+        return distinct(equalityStrategy);
+    }
+
+    /**
+     * Adds a filter stage rejecting the values that are equal to the last value accepted by this stage, according to
+     * the specified strategy.
+     *
+     * @param equalityStrategy Strategy used to compare the values.
+     * @return This.
+     */
+    public ChainedTransformer<I, O> distinct(EqualityStrategy<? super O> equalityStrategy) {
+        if (equalityStrategy != null) {
+            transformers.add(new DistinctStage<>(equalityStrategy));
+        }
+        return this;
+    }
+
     /**
      * {@inheritDoc}
+     * <p>
+     * If the input is rejected by a filter stage, null is returned.
      *
      * @see Transformer#transform(Object)
+     * @see #propagate(Object, WritableProperty)
      */
-    @SuppressWarnings("unchecked")
     @Override
     public O transform(I input) {
+        Object rawOutput = evaluateStages(input);
+
+        O output;
+        if (rawOutput == REJECTED) {
+            output = null;
+        } else {
+            output = lastTransformer.transform(rawOutput);
+        }
+        return output;
+    }
+
+    /**
+     * Transforms the specified input and sets the result on the specified property, unless the input is rejected by a
+     * filter stage, in which case the property is left untouched.
+     *
+     * @param input  Input to be transformed.
+     * @param output Property to be set with the transformation result.
+     * @return True if the input was accepted by all filter stages and the property was set, false otherwise.
+     */
+    public boolean propagate(I input, WritableProperty<? super O> output) {
+        Object rawOutput = evaluateStages(input);
+
+        boolean accepted = (rawOutput != REJECTED);
+        if (accepted) {
+            output.setValue(lastTransformer.transform(rawOutput));
+        }
+        return accepted;
+    }
+
+    /**
+     * Applies all transformers and filter stages of the chain, as a monitored evaluation.
+     *
+     * @param input Input to be transformed.
+     * @return Transformation result or {@link #REJECTED}.
+     * @see #applyStages(Object)
+     * @see PropertyMonitor#beginEvaluation(Object, int)
+     */
+    private Object evaluateStages(Object input) {
+        PropertyMonitor monitor = PropertyMonitors.getInstalled();
+        MonitorScope scope = (monitor == null) ? null : monitor.beginEvaluation(this, transformers.size());
+        try {
+            return applyStages(input);
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+
+    /**
+     * Applies all transformers and filter stages of the chain, stopping at the first filter stage rejecting the value.
+     *
+     * @param input Input to be transformed.
+     * @return Transformation result or {@link #REJECTED}.
+     */
+    @SuppressWarnings("unchecked")
+    private Object applyStages(Object input) {
         Object rawOutput = input;
 
         for (Transformer transformer : transformers) {
-            rawOutput = transformer.transform(rawOutput);
+            if (transformer instanceof ChainedTransformer) {
+                // Make sure a rejection in a nested chain also stops this chain
+                rawOutput = ((ChainedTransformer<?, ?>) transformer).applyStages(rawOutput);
+            } else {
+                rawOutput = transformer.transform(rawOutput);
+            }
+
+            if (rawOutput == REJECTED) {
+                break;
+            }
         }
 
-        return lastTransformer.transform(rawOutput);
+        return rawOutput;
     }
 
     /**
@@ -111,4 +272,84 @@ public class ChainedTransformer<I, O> implements Transformer<I, O>, Disposable {
         }
         transformers.clear();
     }
+
+    /**
+     * Stage of the chain rejecting the values not satisfying a predicate.
+     *
+     * @param <T> Type of values to be filtered.
+     */
+    private static class FilterStage<T> implements Transformer<T, Object> {
+
+        /**
+         * Predicate that the values must satisfy to be propagated further.
+         */
+        private final Predicate<? super T> predicate;
+
+        /**
+         * Constructor.
+         *
+         * @param predicate Predicate that the values must satisfy to be propagated further.
+         */
+        FilterStage(Predicate<? super T> predicate) {
+            this.predicate = predicate;
+        }
+
+        /**
+         * @see Transformer#transform(Object)
+         */
+        @Override
+        public Object transform(T input) {
+            return predicate.test(input) ? input : REJECTED;
+        }
+    }
+
+    /**
+     * Stage of the chain rejecting the values equal to the last accepted value.
+     *
+     * @param <T> Type of values to be filtered.
+     */
+    private static class DistinctStage<T> implements Transformer<T, Object> {
+
+        /**
+         * Strategy used to compare the values.
+         */
+        private final EqualityStrategy<? super T> equalityStrategy;
+
+        /**
+         * Flag indicating whether a value was already accepted.
+         */
+        private boolean accepted = false;
+
+        /**
+         * Last accepted value.
+         */
+        private T lastValue = null;
+
+        /**
+         * Constructor.
+         *
+         * @param equalityStrategy Strategy used to compare the values.
+         */
+        DistinctStage(EqualityStrategy<? super T> equalityStrategy) {
+            this.equalityStrategy = equalityStrategy;
+        }
+
+        /**
+         * @see Transformer#transform(Object)
+         */
+        @Override
+        public Object transform(T input) {
+            Object output;
+
+            if (accepted && equalityStrategy.areEqual(lastValue, input)) {
+                output = REJECTED;
+            } else {
+                accepted = true;
+                lastValue = input;
+                output = input;
+            }
+
+            return output;
+        }
+    }
 }
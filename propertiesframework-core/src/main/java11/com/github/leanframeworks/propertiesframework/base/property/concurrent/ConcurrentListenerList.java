@@ -0,0 +1,170 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lock-free, copy-on-write list of listeners.
+ * <p>
+ * Adding and removing listeners replaces the underlying array using compare-and-set, so that iterating over the
+ * listeners never requires any lock and never fails because of concurrent modifications.
+ * <p>
+ * This is the Java 11 version of this class, packaged in the multi-release JAR. The array is held directly in a field
+ * accessed through a {@link VarHandle} rather than in an {@link java.util.concurrent.atomic.AtomicReference}, saving
+ * one object and one indirection per list. Published arrays are read with acquire semantics and replaced with release
+ * semantics, which is all that is needed to safely publish immutable arrays.
+ *
+ * @param <L> Type of listeners.
+ */
+public class ConcurrentListenerList<L> {
+
+    /**
+     * Empty array of listeners.
+     */
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * Handle to the {@link #listeners} field.
+     */
+    private static final VarHandle LISTENERS;
+
+    static {
+        try {
+            LISTENERS = MethodHandles.lookup().findVarHandle(ConcurrentListenerList.class, "listeners",
+                    Object[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Current array of listeners, never modified once published.
+     * <p>
+     * It must only be accessed through {@link #LISTENERS}.
+     */
+    @SuppressWarnings("unused")
+    private Object[] listeners = EMPTY;
+
+    /**
+     * Gets the current array of listeners.
+     *
+     * @return Current array of listeners.
+     */
+    private Object[] current() {
+        return (Object[]) LISTENERS.getAcquire(this);
+    }
+
+    /**
+     * Adds the specified listener at the end of the list.
+     *
+     * @param listener Listener to be added.
+     */
+    public void add(L listener) {
+        Object[] current;
+        Object[] updated;
+        do {
+            current = current();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+        } while (!LISTENERS.weakCompareAndSetRelease(this, current, updated));
+    }
+
+    /**
+     * Removes the first occurrence of the specified listener.
+     *
+     * @param listener Listener to be removed.
+     * @return True if the listener was removed, false if it was not in the list.
+     */
+    public boolean remove(L listener) {
+        Object[] current;
+        Object[] updated;
+        do {
+            current = current();
+            int index = -1;
+            for (int i = 0; (i < current.length) && (index < 0); i++) {
+                if ((current[i] == listener) || ((current[i] != null) && current[i].equals(listener))) {
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+            updated = new Object[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!LISTENERS.weakCompareAndSetRelease(this, current, updated));
+        return true;
+    }
+
+    /**
+     * Removes all listeners.
+     */
+    public void clear() {
+        LISTENERS.setRelease(this, EMPTY);
+    }
+
+    /**
+     * States whether there is no listener.
+     *
+     * @return True if the list is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return current().length == 0;
+    }
+
+    /**
+     * Gets a snapshot of the listeners.
+     * <p>
+     * The returned list is not modifiable and is not affected by subsequent additions and removals.
+     *
+     * @return Snapshot of the listeners.
+     */
+    @SuppressWarnings("unchecked")
+    public List<L> snapshot() {
+        return Collections.unmodifiableList((List<L>) Arrays.asList(current()));
+    }
+
+    /**
+     * Gets the current array of listeners, without copying it.
+     * <p>
+     * This is meant to notify the listeners without allocating anything. The returned array is shared and must not be
+     * modified.
+     *
+     * @return Current array of listeners.
+     */
+    Object[] array() {
+        return current();
+    }
+}
@@ -0,0 +1,172 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base;
+
+import com.github.leanframeworks.propertiesframework.base.codec.ValueEncoder;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the Java 8 classes of the core module can be linked on a Java 8 JVM.
+ * <p>
+ * When compiled by a more recent JDK without the {@code --release} flag, calls to the buffer methods overridden with
+ * covariant return types in Java 9 (for instance, {@code ByteBuffer.flip()}) link to these overrides, which do not
+ * exist in Java 8 and fail with a {@link NoSuchMethodError}.
+ */
+public class Java8CompatibilityTest {
+
+    /**
+     * Buffer classes with covariant overrides from Java 9.
+     */
+    private static final Set<String> BUFFER_CLASSES = new HashSet<>(Arrays.asList("java/nio/ByteBuffer",
+            "java/nio/CharBuffer", "java/nio/ShortBuffer", "java/nio/IntBuffer", "java/nio/LongBuffer",
+            "java/nio/FloatBuffer", "java/nio/DoubleBuffer", "java/nio/MappedByteBuffer"));
+
+    /**
+     * Buffer methods overridden with covariant return types from Java 9.
+     */
+    private static final Set<String> COVARIANT_METHODS = new HashSet<>(Arrays.asList("position", "limit", "mark",
+            "reset", "clear", "flip", "rewind"));
+
+    @Test
+    public void testNoCovariantBufferMethods() throws IOException, URISyntaxException {
+        Path root = Paths.get(ValueEncoder.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        assertTrue(Files.isDirectory(root));
+
+        List<String> violations = new ArrayList<>();
+        List<Path> classFiles;
+        try (Stream<Path> files = Files.walk(root)) {
+            // The multi-release classes are allowed to use the Java 9+ APIs
+            classFiles = files.filter(f -> f.toString().endsWith(".class"))
+                    .filter(f -> !root.relativize(f).toString().startsWith("META-INF"))
+                    .collect(Collectors.toList());
+        }
+        for (Path classFile : classFiles) {
+            try (InputStream in = Files.newInputStream(classFile)) {
+                for (String method : readCovariantBufferMethods(new DataInputStream(in))) {
+                    violations.add(root.relativize(classFile) + " -> " + method);
+                }
+            }
+        }
+
+        assertTrue(classFiles.size() > 0);
+        assertEquals(new ArrayList<String>(), violations);
+    }
+
+    /**
+     * Reads the constant pool of the specified class file and returns the references to buffer methods returning the
+     * buffer class itself.
+     *
+     * @param in Class file.
+     * @return Referenced covariant buffer methods.
+     * @throws IOException If the class file could not be read.
+     */
+    private static List<String> readCovariantBufferMethods(DataInputStream in) throws IOException {
+        in.readInt(); // Magic
+        in.readUnsignedShort(); // Minor version
+        in.readUnsignedShort(); // Major version
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNames = new int[count];
+        int[][] methodRefs = new int[count][];
+        int[][] names = new int[count][];
+
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    classNames[i] = in.readUnsignedShort();
+                    break;
+                case 10: // Methodref
+                    methodRefs[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+                    break;
+                case 12: // NameAndType
+                    names[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+                    break;
+                case 9: // Fieldref
+                case 11: // InterfaceMethodref
+                case 3: // Integer
+                case 4: // Float
+                case 18: // InvokeDynamic
+                    in.readInt();
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.readLong();
+                    i++;
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                    in.readUnsignedShort();
+                    break;
+                case 15: // MethodHandle
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                default:
+                    throw new IOException("Unexpected constant pool tag: " + tag);
+            }
+        }
+
+        List<String> methods = new ArrayList<>();
+        for (int[] methodRef : methodRefs) {
+            if (methodRef != null) {
+                String owner = utf8[classNames[methodRef[0]]];
+                String name = utf8[names[methodRef[1]][0]];
+                String descriptor = utf8[names[methodRef[1]][1]];
+                if (BUFFER_CLASSES.contains(owner) && COVARIANT_METHODS.contains(name) && descriptor.endsWith(")L"
+                        + owner + ";")) {
+                    methods.add(owner + "." + name + descriptor);
+                }
+            }
+        }
+        return methods;
+    }
+}
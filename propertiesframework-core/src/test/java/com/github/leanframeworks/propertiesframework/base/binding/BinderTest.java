@@ -32,6 +32,7 @@ package com.github.leanframeworks.propertiesframework.base.binding;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableProperty;
+import com.github.leanframeworks.propertiesframework.base.common.RethrowUncheckedExceptionHandler;
 import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleBooleanProperty;
 import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
 import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleProperty;
@@ -40,9 +41,15 @@ import com.github.leanframeworks.propertiesframework.base.transform.AndBooleanAg
 import com.github.leanframeworks.propertiesframework.base.transform.ToStringTransformer;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.github.leanframeworks.propertiesframework.base.binding.Binder.from;
 import static com.github.leanframeworks.propertiesframework.test.TestUtils.matches;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -98,6 +105,66 @@ public class BinderTest {
         assertEquals(true, slave.getValue());
     }
 
+    @Test
+    public void testMasterToSlaveWithFilters() {
+        SimpleProperty<Integer> master = new SimpleProperty<>(5);
+        SimpleProperty<String> slave = new SimpleProperty<>("0");
+        AtomicInteger transformCount = new AtomicInteger();
+        from(master).filter(value -> value > 0).transform(value -> {
+            transformCount.incrementAndGet();
+            return "#" + value;
+        }).filter(value -> value.length() < 4).to(slave);
+
+        assertEquals("#5", slave.getValue());
+        assertEquals(1, transformCount.get());
+
+        // Rejected by the first filter: the transformer is not even called
+        master.setValue(-3);
+        assertEquals("#5", slave.getValue());
+        assertEquals(1, transformCount.get());
+
+        // Rejected by the second filter
+        master.setValue(1000);
+        assertEquals("#5", slave.getValue());
+        assertEquals(2, transformCount.get());
+
+        master.setValue(42);
+        assertEquals("#42", slave.getValue());
+    }
+
+    @Test
+    public void testMasterToSlaveWithSkipNullsAndDistinct() {
+        SimpleStringProperty master = new SimpleStringProperty("a");
+        SimpleStringProperty slave = new SimpleStringProperty();
+        AtomicInteger writeCount = new AtomicInteger();
+        slave.addChangeListener(e -> writeCount.incrementAndGet());
+        from(master).skipNulls().distinctBy(String.CASE_INSENSITIVE_ORDER).to(slave);
+
+        assertEquals("a", slave.getValue());
+        master.setValue(null);
+        assertEquals("a", slave.getValue());
+        master.setValue("A");
+        assertEquals("a", slave.getValue());
+        master.setValue("b");
+        assertEquals("b", slave.getValue());
+        assertEquals(2, writeCount.get());
+    }
+
+    @Test
+    public void testMastersToSlaveWithFilter() {
+        SimpleBooleanProperty master1 = new SimpleBooleanProperty(true);
+        SimpleBooleanProperty master2 = new SimpleBooleanProperty(false);
+        SimpleProperty<Integer> slave = new SimpleProperty<>();
+        from(master1, master2).filter(values -> !values.contains(null)).transform(new AndBooleanAggregator())
+                .transform(value -> value ? 1 : 0).to(slave);
+
+        assertEquals(Integer.valueOf(0), slave.getValue());
+        master2.setValue(null);
+        assertEquals(Integer.valueOf(0), slave.getValue());
+        master2.setValue(true);
+        assertEquals(Integer.valueOf(1), slave.getValue());
+    }
+
     @Test
     public void testMasterToSlaveToMaster() {
         SimpleIntegerProperty first = new SimpleIntegerProperty(5);
@@ -150,4 +217,53 @@ public class BinderTest {
         verify(slave2ListenerMock).propertyChanged(matches(new PropertyChange<>(slave2, "Initial value 2", "New value")));
         verify(slave2ListenerMock).propertyChanged(any());
     }
+
+    @Test
+    public void testCycleHandler() {
+        SimpleIntegerProperty property1 = new SimpleIntegerProperty(1);
+        SimpleIntegerProperty property2 = new SimpleIntegerProperty(2);
+        SimpleIntegerProperty property3 = new SimpleIntegerProperty(3);
+        List<BindingCycleException> cycles = new ArrayList<>();
+        Binder.setCycleHandler(cycles::add);
+        try {
+            from(property1).to(property2);
+            SimpleBinding<Integer, Integer> binding2 = from(property2).to(property3);
+            assertTrue(cycles.isEmpty());
+
+            SimpleBinding<Integer, Integer> binding3 = from(property3).to(property1);
+            assertEquals(1, cycles.size());
+            List<Object> path = cycles.get(0).getPath();
+            assertEquals(7, path.size());
+            assertEquals(binding3, path.get(0));
+            assertEquals(property1, path.get(1));
+            assertEquals(binding2, path.get(4));
+            assertEquals(binding3, path.get(6));
+        } finally {
+            Binder.setCycleHandler(null);
+        }
+    }
+
+    @Test
+    public void testCyclicBindingDisposed() {
+        SimpleIntegerProperty property1 = new SimpleIntegerProperty(1);
+        SimpleIntegerProperty property2 = new SimpleIntegerProperty(2);
+        Binder.setCycleHandler(new RethrowUncheckedExceptionHandler());
+        try {
+            from(property1).to(property2);
+            try {
+                from(property2).to(property1);
+                fail("Cycle not reported");
+            } catch (BindingCycleException e) {
+                // Expected
+            }
+
+            // The cyclic binding no longer propagates the values of its master
+            property2.setValue(5);
+            assertEquals(Integer.valueOf(1), property1.getValue());
+            property1.setValue(3);
+            assertEquals(Integer.valueOf(3), property2.getValue());
+        } finally {
+            Binder.setCycleHandler(null);
+        }
+    }
 }
@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.binding;
+
+import com.github.leanframeworks.propertiesframework.base.property.primitive.PrimitiveBooleanProperty;
+import com.github.leanframeworks.propertiesframework.base.property.primitive.PrimitiveDoubleProperty;
+import com.github.leanframeworks.propertiesframework.base.property.primitive.PrimitiveIntProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleBooleanProperty;
+import com.github.leanframeworks.propertiesframework.test.AllocationMeter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @see PrimitiveBinder
+ */
+public class PrimitiveBinderTest {
+
+    @Test
+    public void testIntThreshold() {
+        PrimitiveIntProperty master = new PrimitiveIntProperty(3);
+        PrimitiveBooleanProperty slave = new PrimitiveBooleanProperty(true);
+        SimpleBooleanProperty boxedSlave = new SimpleBooleanProperty(true);
+
+        PrimitiveBinding binding = PrimitiveBinder.from(master).map(x -> x * 2).greaterThan(10).to(slave);
+        PrimitiveBinder.from(master).lessThanOrEqualTo(5).not().toBoxed(boxedSlave);
+        assertFalse(slave.getAsBoolean());
+        assertFalse(boxedSlave.getValue());
+
+        master.setAsInt(6);
+        assertTrue(slave.getAsBoolean());
+        assertTrue(boxedSlave.getValue());
+
+        binding.dispose();
+        assertFalse(binding.isActive());
+        master.setAsInt(1);
+        assertTrue(slave.getAsBoolean());
+        assertFalse(boxedSlave.getValue());
+    }
+
+    @Test
+    public void testConversionsAndFilter() {
+        PrimitiveDoubleProperty master = new PrimitiveDoubleProperty(2.7);
+        PrimitiveIntProperty intSlave = new PrimitiveIntProperty();
+        PrimitiveDoubleProperty doubleSlave = new PrimitiveDoubleProperty();
+
+        PrimitiveBinder.from(master).asInt().filter(x -> x >= 0).to(intSlave);
+        PrimitiveBinder.from(intSlave).asDouble().map(x -> x / 2).to(doubleSlave);
+        assertEquals(2, intSlave.getAsInt());
+        assertEquals(1.0, doubleSlave.getAsDouble(), 0.0);
+
+        master.setAsDouble(-4.0);
+        assertEquals(2, intSlave.getAsInt());
+
+        master.setAsDouble(9.9);
+        assertEquals(9, intSlave.getAsInt());
+        assertEquals(4.5, doubleSlave.getAsDouble(), 0.0);
+    }
+
+    @Test
+    public void testPropagationAllocationFree() {
+        assumeTrue(AllocationMeter.isSupported());
+
+        PrimitiveIntProperty master = new PrimitiveIntProperty();
+        PrimitiveDoubleProperty doubleSlave = new PrimitiveDoubleProperty();
+        PrimitiveBooleanProperty booleanSlave = new PrimitiveBooleanProperty();
+        PrimitiveBinder.from(master).map(x -> x % 10).asDouble().map(x -> x / 2).to(doubleSlave);
+        PrimitiveBinder.from(master).greaterThan(100).not().to(booleanSlave);
+
+        AllocationMeter.assertAllocationFree(() -> master.setAsInt(master.getAsInt() + 1));
+        assertEquals((master.getAsInt() % 10) / 2.0, doubleSlave.getAsDouble(), 0.0);
+        assertFalse(booleanSlave.getAsBoolean());
+    }
+}
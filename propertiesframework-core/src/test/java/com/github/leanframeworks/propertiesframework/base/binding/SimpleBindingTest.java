@@ -0,0 +1,102 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.binding;
+
+import com.github.leanframeworks.propertiesframework.api.transform.Transformer;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleStringProperty;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @see SimpleBinding
+ */
+public class SimpleBindingTest {
+
+    @Test
+    public void testUnchangedInputSkipsTransformation() {
+        SimpleStringProperty master = new SimpleStringProperty("a");
+        SimpleStringProperty slave = new SimpleStringProperty();
+        CountingTransformer transformer = new CountingTransformer();
+        SimpleBinding<String, String> binding = new SimpleBinding<>(master, transformer, slave,
+                (v1, v2) -> (v1 == null) ? (v2 == null) : v1.equalsIgnoreCase(v2));
+
+        assertEquals(1, transformer.count);
+        assertEquals("A", slave.getValue());
+
+        master.setValue("A");
+        assertEquals(1, transformer.count);
+        assertEquals(1, binding.getSkippedEvaluationCount());
+        assertEquals("A", binding.getLastOutput());
+
+        master.setValue("b");
+        assertEquals(2, transformer.count);
+        assertEquals("B", slave.getValue());
+        assertEquals(1, binding.getSkippedEvaluationCount());
+    }
+
+    @Test
+    public void testUnchangedInputSkipsSlaveUpdate() {
+        SimpleStringProperty master = new SimpleStringProperty("a");
+        SimpleProperty<String> slave = new SimpleProperty<>();
+        new SimpleBinding<>(master, new CountingTransformer(), slave,
+                (String v1, String v2) -> (v1 == null) ? (v2 == null) : v1.equalsIgnoreCase(v2));
+
+        // Slave modified from the outside, and not overwritten by an equivalent master value
+        slave.setValue("other");
+        master.setValue("A");
+        assertEquals("other", slave.getValue());
+    }
+
+    @Test
+    public void testNullStrategyAlwaysTransforms() {
+        SimpleStringProperty master = new SimpleStringProperty("a");
+        SimpleStringProperty slave = new SimpleStringProperty();
+        CountingTransformer transformer = new CountingTransformer();
+        SimpleBinding<String, String> binding = new SimpleBinding<>(master, transformer, slave, null);
+
+        master.setValue("b");
+        master.setValue("c");
+        assertEquals(3, transformer.count);
+        assertEquals(0, binding.getSkippedEvaluationCount());
+    }
+
+    private static class CountingTransformer implements Transformer<String, String> {
+
+        private int count = 0;
+
+        @Override
+        public String transform(String input) {
+            count++;
+            return (input == null) ? null : input.toUpperCase();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing the property value codecs with Java serialization, in terms of encoded size and of encoding and
+ * decoding times.
+ * <p>
+ * The sample data is a table of rows, each row being a map of typical property values: repeated strings, amounts,
+ * dates, enum constants and integers.
+ */
+public final class CodecBenchmark {
+
+    /**
+     * Names of the columns of the sample rows.
+     */
+    private static final String[] COLUMNS = {"name", "amount", "date", "unit", "count"};
+
+    /**
+     * Number of distinct names in the sample rows.
+     */
+    private static final int DISTINCT_NAME_COUNT = 20;
+
+    /**
+     * Private constructor for utility class.
+     */
+    private CodecBenchmark() {
+        // Nothing to be done
+    }
+
+    /**
+     * Creates the sample data.
+     *
+     * @param rowCount Number of rows.
+     * @param seed     Seed of the random values.
+     * @return List of rows.
+     */
+    public static List<Map<String, Object>> createSample(int rowCount, long seed) {
+        Random random = new Random(seed);
+        TimeUnit[] units = TimeUnit.values();
+        List<Map<String, Object>> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(COLUMNS[0], "Name " + random.nextInt(DISTINCT_NAME_COUNT));
+            row.put(COLUMNS[1], BigDecimal.valueOf(random.nextInt(1000000), 2));
+            row.put(COLUMNS[2], LocalDate.ofEpochDay(17000 + random.nextInt(1000)));
+            row.put(COLUMNS[3], units[random.nextInt(units.length)]);
+            row.put(COLUMNS[4], random.nextInt(100));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Encodes the specified value using the default codec registry.
+     *
+     * @param value Value to be encoded.
+     * @return Encoded value.
+     */
+    public static byte[] encode(Object value) {
+        try {
+            ValueEncoder encoder = new ValueEncoder();
+            encoder.writeValue(value);
+            return encoder.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes the specified value using the default codec registry.
+     *
+     * @param bytes Encoded value.
+     * @return Decoded value.
+     */
+    public static Object decode(byte[] bytes) {
+        try {
+            return new ValueDecoder(ByteBuffer.wrap(bytes)).readValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Serializes the specified value using Java serialization.
+     *
+     * @param value Value to be serialized.
+     * @return Serialized value.
+     */
+    public static byte[] serialize(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deserializes a value using Java serialization.
+     *
+     * @param bytes Serialized value.
+     * @return Deserialized value.
+     */
+    public static Object deserialize(byte[] bytes) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Measures the average duration of the specified operation.
+     *
+     * @param warmUpIterations Number of iterations to be run before measuring.
+     * @param iterations       Number of measured iterations.
+     * @param operation        Operation to be measured.
+     * @return Average duration of the operation, in nanoseconds.
+     */
+    public static double measureNanos(int warmUpIterations, int iterations, Runnable operation) {
+        for (int i = 0; i < warmUpIterations; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args Optionally, the number of rows of the sample data (default: 1000) and the number of measured
+     *             iterations (default: 2000).
+     */
+    public static void main(String[] args) {
+        int rowCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 2000;
+        int warmUpIterations = iterations;
+
+        List<Map<String, Object>> sample = createSample(rowCount, 0);
+        byte[] encoded = encode(sample);
+        byte[] serialized = serialize(sample);
+
+        double encodeNanos = measureNanos(warmUpIterations, iterations, () -> encode(sample));
+        double decodeNanos = measureNanos(warmUpIterations, iterations, () -> decode(encoded));
+        double serializeNanos = measureNanos(warmUpIterations, iterations, () -> serialize(sample));
+        double deserializeNanos = measureNanos(warmUpIterations, iterations, () -> deserialize(serialized));
+
+        System.out.printf("%-20s %12s %14s %14s%n", "", "size (bytes)", "encode (us)", "decode (us)");
+        System.out.printf("%-20s %12d %14.1f %14.1f%n", "Codecs", encoded.length, encodeNanos / 1000,
+                decodeNanos / 1000);
+        System.out.printf("%-20s %12d %14.1f %14.1f%n", "Java serialization", serialized.length,
+                serializeNanos / 1000, deserializeNanos / 1000);
+    }
+}
@@ -0,0 +1,109 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChange;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleListProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleMapProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleSetProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleStringProperty;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @see PropertyChangeCodecs
+ */
+public class PropertyChangeCodecsTest {
+
+    private static ValueDecoder decoderOf(ValueEncoder encoder) {
+        return new ValueDecoder(ByteBuffer.wrap(encoder.toByteArray()));
+    }
+
+    @Test
+    public void testChange() throws IOException {
+        SimpleStringProperty property = new SimpleStringProperty();
+        ValueEncoder encoder = new ValueEncoder();
+        PropertyChangeCodecs.writeChange(new PropertyChange<>(property, null, "new"), encoder);
+
+        PropertyChange<String> change = PropertyChangeCodecs.readChange(property, decoderOf(encoder));
+        assertSame(property, change.getSource());
+        assertEquals(null, change.getOldValue());
+        assertEquals("new", change.getNewValue());
+    }
+
+    @Test
+    public void testListChange() throws IOException {
+        SimpleListProperty<Integer> property = new SimpleListProperty<>();
+        ValueEncoder encoder = new ValueEncoder();
+        PropertyChangeCodecs.writeListChange(new ListPropertyChange<>(property, 3, Arrays.asList(1, 2),
+                Collections.singletonList(5)), encoder);
+
+        ListPropertyChange<Integer> change = PropertyChangeCodecs.readListChange(property, decoderOf(encoder));
+        assertSame(property, change.getSource());
+        assertEquals(3, change.getStartIndex());
+        assertEquals(Arrays.asList(1, 2), change.getOldValues());
+        assertEquals(Collections.singletonList(5), change.getNewValues());
+    }
+
+    @Test
+    public void testSetChange() throws IOException {
+        SimpleSetProperty<String> property = new SimpleSetProperty<>();
+        ValueEncoder encoder = new ValueEncoder();
+        PropertyChangeCodecs.writeSetChange(new SetPropertyChange<>(property, null, new HashSet<>(Arrays.asList("a",
+                "b"))), encoder);
+
+        SetPropertyChange<String> change = PropertyChangeCodecs.readSetChange(property, decoderOf(encoder));
+        assertEquals(Collections.emptySet(), change.getOldValues());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), change.getNewValues());
+    }
+
+    @Test
+    public void testMapChange() throws IOException {
+        SimpleMapProperty<String, Integer> property = new SimpleMapProperty<>();
+        ValueEncoder encoder = new ValueEncoder();
+        PropertyChangeCodecs.writeMapChange(new MapPropertyChange<>(property, Collections.singletonMap("k", 1),
+                Collections.singletonMap("k", 2)), encoder);
+
+        MapPropertyChange<String, Integer> change = PropertyChangeCodecs.readMapChange(property, decoderOf(encoder));
+        assertEquals(Collections.singletonMap("k", 1), change.getOldValues());
+        assertEquals(Collections.singletonMap("k", 2), change.getNewValues());
+    }
+}
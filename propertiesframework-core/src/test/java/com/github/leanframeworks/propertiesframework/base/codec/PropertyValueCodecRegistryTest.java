@@ -0,0 +1,268 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @see PropertyValueCodecRegistry
+ */
+public class PropertyValueCodecRegistryTest {
+
+    private static Object roundTrip(PropertyValueCodecRegistry registry, Object value) throws IOException {
+        ValueEncoder encoder = new ValueEncoder(registry, 16);
+        encoder.writeValue(value);
+        ValueDecoder decoder = new ValueDecoder(registry, ByteBuffer.wrap(encoder.toByteArray()));
+        Object decoded = decoder.readValue();
+        assertEquals(0, decoder.getBuffer().remaining());
+        return decoded;
+    }
+
+    @Test
+    public void testBuiltInRoundTrips() throws IOException {
+        PropertyValueCodecRegistry registry = new PropertyValueCodecRegistry();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("b", 2);
+        map.put("a", null);
+        List<Object> values = Arrays.asList(null, true, false, (byte) -3, (short) -300, 'é', 0, -1, Integer.MAX_VALUE,
+                Long.MIN_VALUE, 1.5f, Double.NaN, "", "Hello é世", new BigInteger("-123456789012345678901234"),
+                new BigDecimal("12.50"), new BigDecimal("-1234567890123456789012.345"), new Date(1500000000123L),
+                Instant.ofEpochSecond(-5, 999999999), LocalDate.of(1969, 7, 20), LocalTime.of(23, 59, 59, 1),
+                LocalDateTime.of(2017, 3, 4, 5, 6, 7, 8), Duration.ofMillis(-1500), TimeUnit.SECONDS,
+                Arrays.asList(1, "two", Arrays.asList(3.0)), new HashSet<>(Arrays.asList("x", "y")), map,
+                new TreeMap<>(Collections.singletonMap("k", "v")));
+
+        for (Object value : values) {
+            assertEquals(value, roundTrip(registry, value));
+        }
+    }
+
+    @Test
+    public void testSerializableFallback() throws IOException {
+        PropertyValueCodecRegistry registry = new PropertyValueCodecRegistry();
+        registry.allowSerialization(Point.class);
+        Point point = new Point(3, 4);
+        assertEquals(point, roundTrip(registry, point));
+    }
+
+    @Test(expected = NotSerializableException.class)
+    public void testSerializationNotAllowedByDefault() throws IOException {
+        roundTrip(new PropertyValueCodecRegistry(), new Point(3, 4));
+    }
+
+    @Test
+    public void testSerializedPayloadRejected() throws IOException {
+        PropertyValueCodecRegistry writerRegistry = new PropertyValueCodecRegistry();
+        writerRegistry.allowSerialization(Point.class);
+        ValueEncoder encoder = new ValueEncoder(writerRegistry, 16);
+        encoder.writeValue(new Point(3, 4));
+
+        ValueDecoder decoder = new ValueDecoder(new PropertyValueCodecRegistry(), ByteBuffer.wrap(encoder
+                .toByteArray()));
+        try {
+            decoder.readValue();
+            fail("Serialized class not allowed by the registry was decoded");
+        } catch (InvalidClassException e) {
+            assertEquals(Point.class.getName(), e.classname);
+        }
+    }
+
+    @Test
+    public void testEnumPayloadNamingOtherClassRejected() throws IOException {
+        PropertyValueCodecRegistry registry = new PropertyValueCodecRegistry();
+        ValueEncoder encoder = new ValueEncoder(registry, 16);
+        encoder.writeLength(registry.getRegistration(Thread.State.class).tag);
+        encoder.writeSharedString(Initialized.class.getName());
+        encoder.writeSharedString("X");
+
+        try {
+            new ValueDecoder(registry, ByteBuffer.wrap(encoder.toByteArray())).readValue();
+            fail("Class that is not an enum was decoded as an enum");
+        } catch (InvalidClassException e) {
+            assertFalse(initialized);
+        }
+    }
+
+    @Test(expected = NotSerializableException.class)
+    public void testNotSerializable() throws IOException {
+        roundTrip(new PropertyValueCodecRegistry(), new Object());
+    }
+
+    @Test
+    public void testCustomCodec() throws IOException {
+        PropertyValueCodecRegistry registry = new PropertyValueCodecRegistry();
+        registry.register(PropertyValueCodecRegistry.FIRST_CUSTOM_TAG, new PointCodec());
+
+        ValueEncoder encoder = new ValueEncoder(registry, 16);
+        encoder.writeValue(new Point(3, -4));
+        assertEquals(3, encoder.toByteArray().length);
+
+        Object decoded = new ValueDecoder(registry, ByteBuffer.wrap(encoder.toByteArray())).readValue();
+        assertEquals(new Point(3, -4), decoded);
+    }
+
+    @Test
+    public void testCustomCodecReplacingBuiltInCodec() throws IOException {
+        PropertyValueCodecRegistry registry = new PropertyValueCodecRegistry();
+        ValueEncoder builtInEncoder = new ValueEncoder(registry, 16);
+        builtInEncoder.writeValue(42);
+
+        registry.register(PropertyValueCodecRegistry.FIRST_CUSTOM_TAG + 1, new PropertyValueCodec<Integer>() {
+            @Override
+            public Class<Integer> getValueType() {
+                return Integer.class;
+            }
+
+            @Override
+            public void encode(Integer value, ValueEncoder encoder) {
+                encoder.writeInt(value);
+            }
+
+            @Override
+            public Integer decode(ValueDecoder decoder) throws IOException {
+                return decoder.readInt();
+            }
+        });
+        ValueEncoder customEncoder = new ValueEncoder(registry, 16);
+        customEncoder.writeValue(42);
+        assertEquals(5, customEncoder.toByteArray().length);
+
+        assertEquals(42, new ValueDecoder(registry, ByteBuffer.wrap(customEncoder.toByteArray())).readValue());
+        assertEquals(42, new ValueDecoder(registry, ByteBuffer.wrap(builtInEncoder.toByteArray())).readValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReservedTag() {
+        new PropertyValueCodecRegistry().register(PropertyValueCodecRegistry.FIRST_CUSTOM_TAG - 1, new PointCodec());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateTag() {
+        PropertyValueCodecRegistry registry = new PropertyValueCodecRegistry();
+        registry.register(PropertyValueCodecRegistry.FIRST_CUSTOM_TAG, new PointCodec());
+        registry.register(PropertyValueCodecRegistry.FIRST_CUSTOM_TAG, new PointCodec());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testUnknownTag() throws IOException {
+        PropertyValueCodecRegistry registry = new PropertyValueCodecRegistry();
+        registry.register(PropertyValueCodecRegistry.FIRST_CUSTOM_TAG, new PointCodec());
+        ValueEncoder encoder = new ValueEncoder(registry, 16);
+        encoder.writeValue(new Point(1, 2));
+
+        new ValueDecoder(new PropertyValueCodecRegistry(), ByteBuffer.wrap(encoder.toByteArray())).readValue();
+    }
+
+    @Test
+    public void testDefault() {
+        assertSame(PropertyValueCodecRegistry.getDefault(), PropertyValueCodecRegistry.getDefault());
+    }
+
+    private static class PointCodec implements PropertyValueCodec<Point> {
+
+        @Override
+        public Class<Point> getValueType() {
+            return Point.class;
+        }
+
+        @Override
+        public void encode(Point value, ValueEncoder encoder) {
+            encoder.writeVarLong(value.x);
+            encoder.writeVarLong(value.y);
+        }
+
+        @Override
+        public Point decode(ValueDecoder decoder) throws IOException {
+            int x = (int) decoder.readVarLong();
+            return new Point(x, (int) decoder.readVarLong());
+        }
+    }
+
+    private static boolean initialized = false;
+
+    private static final class Initialized {
+
+        static {
+            initialized = true;
+        }
+    }
+
+    private static final class Point implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int x;
+
+        private final int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof Point) && (((Point) obj).x == x) && (((Point) obj).y == y);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * x + y;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.codec;
+
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see ValueEncoder
+ * @see ValueDecoder
+ */
+public class ValueEncoderTest {
+
+    @Test
+    public void testPrimitives() throws IOException {
+        ValueEncoder encoder = new ValueEncoder(PropertyValueCodecRegistry.getDefault(), 1);
+        encoder.writeByte(-2);
+        encoder.writeBoolean(true);
+        encoder.writeInt(123456789);
+        encoder.writeLong(-123456789012L);
+        encoder.writeFloat(0.25f);
+        encoder.writeDouble(-0.5);
+        encoder.writeLength(300);
+        encoder.writeVarLong(-300);
+        encoder.writeBytes(new byte[]{1, 2, 3});
+        encoder.writeString("ünïcode");
+
+        ValueDecoder decoder = new ValueDecoder(ByteBuffer.wrap(encoder.toByteArray()));
+        assertEquals(-2, decoder.readByte());
+        assertTrue(decoder.readBoolean());
+        assertEquals(123456789, decoder.readInt());
+        assertEquals(-123456789012L, decoder.readLong());
+        assertEquals(0.25f, decoder.readFloat(), 0);
+        assertEquals(-0.5, decoder.readDouble(), 0);
+        assertEquals(300, decoder.readLength());
+        assertEquals(-300, decoder.readVarLong());
+        assertEquals(3, decoder.readBytes().length);
+        assertEquals("ünïcode", decoder.readString());
+    }
+
+    @Test
+    public void testSharedStrings() throws IOException {
+        List<String> values = new ArrayList<>(Collections.nCopies(100, "repeated value"));
+        values.add("other value");
+
+        ValueEncoder encoder = new ValueEncoder();
+        encoder.writeValue(values);
+        byte[] encoded = encoder.toByteArray();
+        // One full occurrence per distinct string, then 2 bytes per reference
+        assertTrue(encoded.length < 2 * 101 + 64);
+
+        assertEquals(values, new ValueDecoder(ByteBuffer.wrap(encoded)).readValue());
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        ValueEncoder encoder = new ValueEncoder();
+        encoder.writeSharedString("first");
+        byte[] first = encoder.toByteArray();
+        encoder.reset();
+        encoder.writeSharedString("second");
+        byte[] second = encoder.toByteArray();
+        // Shared strings were forgotten, so the second string is written in full
+        assertEquals(first.length + 1, second.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length);
+        buffer.put(first).put(second).flip();
+        ValueDecoder decoder = new ValueDecoder(buffer);
+        assertEquals("first", decoder.readSharedString());
+        decoder.reset();
+        assertEquals("second", decoder.readSharedString());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testInvalidSharedStringReference() throws IOException {
+        ValueEncoder encoder = new ValueEncoder();
+        encoder.writeLength(1);
+        new ValueDecoder(ByteBuffer.wrap(encoder.toByteArray())).readSharedString();
+    }
+
+    @Test
+    public void testCallerBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        buffer.put((byte) 7);
+        ValueEncoder encoder = new ValueEncoder(PropertyValueCodecRegistry.getDefault(), buffer);
+        encoder.writeValue("direct");
+        encoder.writeValue(42L);
+
+        buffer.flip();
+        assertEquals(7, buffer.get());
+        ValueDecoder decoder = new ValueDecoder(buffer);
+        assertEquals("direct", decoder.readValue());
+        assertEquals(42L, decoder.readValue());
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testCallerBufferOverflow() throws IOException {
+        ValueEncoder encoder = new ValueEncoder(PropertyValueCodecRegistry.getDefault(), ByteBuffer.allocate(4));
+        encoder.writeValue("too long for the buffer");
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedData() throws IOException {
+        ValueEncoder encoder = new ValueEncoder();
+        encoder.writeValue("truncated");
+        byte[] encoded = encoder.toByteArray();
+        new ValueDecoder(ByteBuffer.wrap(encoded, 0, encoded.length - 1)).readValue();
+    }
+}
@@ -0,0 +1,65 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.common;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see EpsilonEqualityStrategy
+ */
+public class EpsilonEqualityStrategyTest {
+
+    @Test
+    public void testWithinTolerance() {
+        EpsilonEqualityStrategy strategy = new EpsilonEqualityStrategy(0.5);
+
+        assertTrue(strategy.areEqual(1.0, 1.0));
+        assertTrue(strategy.areEqual(1.0, 1.4));
+        assertTrue(strategy.areEqual(1, 1.5f));
+        assertFalse(strategy.areEqual(1.0, 1.6));
+        assertFalse(strategy.areEqual(-1, 1));
+    }
+
+    @Test
+    public void testSpecialValues() {
+        EpsilonEqualityStrategy strategy = new EpsilonEqualityStrategy(0.5);
+
+        assertTrue(strategy.areEqual(null, null));
+        assertFalse(strategy.areEqual(null, 1.0));
+        assertFalse(strategy.areEqual(1.0, null));
+        assertTrue(strategy.areEqual(Double.NaN, Double.NaN));
+        assertFalse(strategy.areEqual(Double.NaN, 1.0));
+        assertTrue(strategy.areEqual(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
+        assertFalse(strategy.areEqual(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY));
+    }
+}
@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.common;
+
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see VersionedEqualityStrategy
+ */
+public class VersionedEqualityStrategyTest {
+
+    @Test
+    public void testEquality() {
+        VersionedEqualityStrategy<VersionedValue> strategy = new VersionedEqualityStrategy<>();
+        VersionedValue value1 = new VersionedValue();
+        VersionedValue value2 = new VersionedValue();
+
+        assertTrue(strategy.areEqual(null, null));
+        assertFalse(strategy.areEqual(null, value1));
+        assertFalse(strategy.areEqual(value1, null));
+        assertFalse(strategy.areEqual(value1, value2));
+        assertTrue(strategy.areEqual(value2, value2));
+    }
+
+    @Test
+    public void testModifiedValue() {
+        VersionedEqualityStrategy<VersionedValue> strategy = new VersionedEqualityStrategy<>();
+        VersionedValue value = new VersionedValue();
+
+        // Never compared before
+        assertFalse(strategy.areEqual(value, value));
+        assertTrue(strategy.areEqual(value, value));
+
+        value.modify();
+        assertFalse(strategy.areEqual(value, value));
+        assertTrue(strategy.areEqual(value, value));
+    }
+
+    @Test
+    public void testNewInstance() {
+        VersionedEqualityStrategy<VersionedValue> strategy = new VersionedEqualityStrategy<>();
+        VersionedValue value = new VersionedValue();
+        strategy.areEqual(null, value);
+
+        VersionedEqualityStrategy<VersionedValue> newStrategy = strategy.newInstance();
+        assertNotSame(strategy, newStrategy);
+        assertTrue(strategy.areEqual(value, value));
+        assertFalse(newStrategy.areEqual(value, value));
+    }
+
+    /**
+     * Mutable value stamped with a version.
+     */
+    static class VersionedValue implements Versioned {
+
+        private long version = 0;
+
+        public void modify() {
+            version++;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.common;
+
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleListProperty;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see VersionedSnapshot
+ */
+public class VersionedSnapshotTest {
+
+    @Test
+    public void testChangeDetection() {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(1);
+        SimpleListProperty<String> listProperty = new SimpleListProperty<>();
+        VersionedSnapshot snapshot = new VersionedSnapshot(property, listProperty);
+        assertFalse(snapshot.hasChanged());
+
+        property.setValue(1);
+        assertFalse(snapshot.hasChanged());
+
+        listProperty.add("a");
+        assertTrue(snapshot.hasChanged());
+        assertFalse(snapshot.hasChanged(0));
+        assertTrue(snapshot.hasChanged(1));
+
+        snapshot.update();
+        assertFalse(snapshot.hasChanged());
+
+        property.setValue(2);
+        assertTrue(snapshot.hasChanged(0));
+    }
+
+    @Test
+    public void testVersions() {
+        SimpleIntegerProperty property1 = new SimpleIntegerProperty(1);
+        SimpleIntegerProperty property2 = new SimpleIntegerProperty(1);
+        property2.setValue(2);
+        property2.setValue(3);
+        VersionedSnapshot snapshot = new VersionedSnapshot(property1, property2);
+
+        assertArrayEquals(new long[]{0, 2}, snapshot.getVersions());
+    }
+}
@@ -0,0 +1,163 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.expression;
+
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleBooleanProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleStringProperty;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @see Expressions
+ */
+public class ExpressionsTest {
+
+    @Test
+    public void testParsedJunction() {
+        SimpleBooleanProperty dirty = new SimpleBooleanProperty(false);
+        SimpleBooleanProperty valid = new SimpleBooleanProperty(true);
+        SimpleBooleanProperty busy = new SimpleBooleanProperty(false);
+        Map<String, ReadableProperty<?>> variables = new HashMap<>();
+        variables.put("dirty", dirty);
+        variables.put("valid", valid);
+        variables.put("busy", busy);
+
+        ExpressionProperty<Boolean> canSave = Expressions.parseBoolean("dirty && valid && !busy", variables)
+                .toProperty();
+        List<PropertyChange<? extends Boolean>> events = new ArrayList<>();
+        canSave.addChangeListener(events::add);
+        assertFalse(canSave.getValue());
+        assertEquals(3, canSave.getInputs().size());
+
+        dirty.setValue(true);
+        assertTrue(canSave.getValue());
+        busy.setValue(true);
+        assertFalse(canSave.getValue());
+        valid.setValue(false);
+        assertFalse(canSave.getValue());
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).getNewValue());
+        assertFalse(events.get(1).getNewValue());
+    }
+
+    @Test
+    public void testTypedTree() {
+        SimpleIntegerProperty count = new SimpleIntegerProperty(0);
+        SimpleBooleanProperty enabled = new SimpleBooleanProperty(true);
+
+        ExpressionProperty<Boolean> property = Expressions.or(
+                Expressions.not(Expressions.property(enabled)),
+                Expressions.greaterThan(Expressions.property(count), Expressions.constant(2))).toProperty();
+        assertFalse(property.getValue());
+
+        count.setValue(3);
+        assertTrue(property.getValue());
+        count.setValue(null);
+        assertFalse(property.getValue());
+        enabled.setValue(false);
+        assertTrue(property.getValue());
+    }
+
+    @Test
+    public void testArithmeticAndEquality() {
+        SimpleIntegerProperty width = new SimpleIntegerProperty(2);
+        SimpleIntegerProperty height = new SimpleIntegerProperty(3);
+        SimpleStringProperty unit = new SimpleStringProperty("mm");
+        Map<String, ReadableProperty<?>> variables = new HashMap<>();
+        variables.put("size.width", width);
+        variables.put("size.height", height);
+        variables.put("unit", unit);
+
+        ExpressionProperty<?> area = Expressions.parse("size.width * (size.height + 1) - -1", variables)
+                .toProperty();
+        assertEquals(9.0, area.getValue());
+        height.setValue(null);
+        assertNull(area.getValue());
+
+        ExpressionProperty<Boolean> check = Expressions.parseBoolean("unit == 'cm' || size.width == 2", variables)
+                .toProperty();
+        assertTrue(check.getValue());
+        width.setValue(4);
+        assertFalse(check.getValue());
+        unit.setValue("cm");
+        assertTrue(check.getValue());
+    }
+
+    @Test
+    public void testSyntaxErrors() {
+        Map<String, ReadableProperty<?>> variables = new HashMap<>();
+        variables.put("a", new SimpleBooleanProperty());
+
+        try {
+            Expressions.parse("a && (a || b)", variables);
+            fail();
+        } catch (ExpressionSyntaxException e) {
+            assertEquals(11, e.getPosition());
+            assertEquals("a && (a || b)", e.getExpression());
+        }
+
+        try {
+            Expressions.parse("a && (a", variables);
+            fail();
+        } catch (ExpressionSyntaxException e) {
+            assertEquals(7, e.getPosition());
+        }
+    }
+
+    @Test
+    public void testDispose() {
+        SimpleBooleanProperty input = new SimpleBooleanProperty(false);
+        ExpressionProperty<Boolean> property = Expressions.not(Expressions.property(input)).toProperty();
+        List<PropertyChange<? extends Boolean>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        input.setValue(true);
+        assertEquals(1, events.size());
+
+        property.dispose();
+        input.setValue(false);
+        assertEquals(1, events.size());
+        assertTrue(property.getUpstreamNodes().isEmpty());
+        assertEquals(1, property.getInputs().size());
+    }
+}
@@ -0,0 +1,163 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.graph;
+
+import com.github.leanframeworks.propertiesframework.api.property.IntPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.binding.SimpleBinding;
+import com.github.leanframeworks.propertiesframework.base.property.CompositeReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.property.concurrent.ConcurrentSimpleProperty;
+import com.github.leanframeworks.propertiesframework.base.property.primitive.PrimitiveIntProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleStringProperty;
+import com.github.leanframeworks.propertiesframework.base.property.wrap.ReadOnlyPropertyWrapper;
+import com.github.leanframeworks.propertiesframework.base.transform.ChainedTransformer;
+import com.github.leanframeworks.propertiesframework.base.transform.ToStringTransformer;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see BindingGraph
+ */
+public class BindingGraphTest {
+
+    @Test
+    public void testWalk() {
+        SimpleIntegerProperty master = new SimpleIntegerProperty(1);
+        SimpleStringProperty slave = new SimpleStringProperty();
+        SimpleBinding<Integer, String> binding = new SimpleBinding<>(master, new ToStringTransformer(), slave);
+        ReadOnlyPropertyWrapper<String> wrapper = new ReadOnlyPropertyWrapper<>(slave);
+        CompositeReadableProperty<Integer> composite = new CompositeReadableProperty<>(master);
+        PropertyChangeListener<Collection<Integer>> listener = e -> {
+            // Nothing to be done
+        };
+        composite.addChangeListener(listener);
+
+        BindingGraph graph = BindingGraph.walk(master);
+        assertEquals(6, graph.getNodeCount());
+        assertEquals(5, graph.getEdgeCount());
+        assertEquals(Collections.singletonList(master), graph.getUpstreamNodes(binding));
+        assertEquals(Collections.singletonList(slave), graph.getDownstreamNodes(binding));
+        assertEquals(Collections.singletonList(listener), graph.getDownstreamNodes(composite));
+        assertEquals(2, graph.getFanOut(master));
+        assertEquals(1, graph.getFanIn(wrapper));
+        assertEquals(2, graph.getMaxFanOut());
+        assertEquals(3, graph.getDepth());
+        assertFalse(graph.hasCycles());
+        assertEquals(6, BindingGraph.walk(composite).getNodeCount());
+
+        // Bindings writing to a property cannot be found from it
+        assertEquals(2, BindingGraph.walk(wrapper).getNodeCount());
+    }
+
+    @Test
+    public void testConcurrentAndPrimitiveProperties() {
+        PrimitiveIntProperty master = new PrimitiveIntProperty(1);
+        ConcurrentSimpleProperty<String> slave = new ConcurrentSimpleProperty<>();
+        SimpleBinding<Integer, String> binding = new SimpleBinding<>(master, new ToStringTransformer(), slave);
+        IntPropertyChangeListener primitiveListener = (source, oldValue, newValue) -> {
+            // Nothing to be done
+        };
+        master.addIntChangeListener(primitiveListener);
+        PropertyChangeListener<String> listener = e -> {
+            // Nothing to be done
+        };
+        slave.addChangeListener(listener);
+
+        BindingGraph graph = BindingGraph.walk(master);
+        assertEquals(5, graph.getNodeCount());
+        assertEquals(4, graph.getEdgeCount());
+        assertEquals(Arrays.asList(primitiveListener, binding), graph.getDownstreamNodes(master));
+        assertEquals(Collections.singletonList(listener), graph.getDownstreamNodes(slave));
+        assertEquals(3, graph.getDepth());
+    }
+
+    @Test
+    public void testCycles() {
+        SimpleIntegerProperty property1 = new SimpleIntegerProperty(1);
+        SimpleIntegerProperty property2 = new SimpleIntegerProperty(1);
+        new SimpleBinding<>(property1, new ChainedTransformer<>(v -> v), property2);
+        SimpleBinding<Integer, Integer> binding2 = new SimpleBinding<>(property2, v -> v, property1);
+
+        BindingGraph graph = BindingGraph.walk(property1);
+        assertTrue(graph.hasCycles());
+        List<List<Object>> cycles = graph.getCycles();
+        assertEquals(1, cycles.size());
+        assertEquals(4, cycles.get(0).size());
+        assertTrue(cycles.get(0).contains(binding2));
+
+        assertEquals(Arrays.asList(binding2, property1, cycles.get(0).get(cycles.get(0).indexOf(property1) + 1),
+                property2, binding2), BindingGraph.findCycle(binding2));
+        assertEquals(Collections.emptyList(), BindingGraph.findCycle(new SimpleBinding<>(property1, v -> v, new
+                SimpleIntegerProperty())));
+    }
+
+    @Test
+    public void testDuplicatesAndTransformers() {
+        SimpleIntegerProperty master = new SimpleIntegerProperty(1);
+        SimpleStringProperty slave = new SimpleStringProperty();
+        SimpleBinding<Integer, String> binding1 = new SimpleBinding<>(master, new ToStringTransformer(), slave);
+        SimpleBinding<Integer, String> binding2 = new SimpleBinding<>(master, new ChainedTransformer<>(new
+                ToStringTransformer()).skipNulls(), slave);
+
+        BindingGraph graph = BindingGraph.walk(master);
+        assertEquals(Collections.singletonList(Arrays.asList(binding1, binding2)), graph.getDuplicateNodes());
+        Map<Class<?>, Integer> types = graph.getTransformerTypes();
+        assertEquals(Integer.valueOf(2), types.get(ToStringTransformer.class));
+        assertEquals(2, types.size());
+    }
+
+    @Test
+    public void testExport() {
+        SimpleIntegerProperty master = new SimpleIntegerProperty(1);
+        SimpleStringProperty slave = new SimpleStringProperty();
+        new SimpleBinding<>(master, new ToStringTransformer(), slave);
+        BindingGraph graph = BindingGraph.walk(master);
+
+        String dot = graph.toDot();
+        assertTrue(dot.startsWith("digraph"));
+        assertTrue(dot.contains("n0 -> n1;"));
+        assertTrue(dot.contains("n1 -> n2;"));
+        assertTrue(dot.contains("(ToStringTransformer)"));
+
+        String graphML = graph.toGraphML();
+        assertTrue(graphML.contains("<edge source=\"n0\" target=\"n1\"/>"));
+        assertTrue(graphML.contains(SimpleIntegerProperty.class.getName()));
+    }
+}
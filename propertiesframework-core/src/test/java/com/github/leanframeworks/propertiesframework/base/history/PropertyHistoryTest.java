@@ -0,0 +1,267 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.history;
+
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleListProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleMapProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleSetProperty;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @see PropertyHistory
+ */
+public class PropertyHistoryTest {
+
+    @Test
+    public void testUndoRedoValues() {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+        PropertyHistory history = new PropertyHistory();
+        history.track(property);
+
+        property.setValue(1);
+        property.setValue(2);
+        assertEquals(2, history.getUndoSize());
+        assertTrue(history.getUndoableProperty().getValue());
+        assertFalse(history.getRedoableProperty().getValue());
+
+        assertTrue(history.undo());
+        assertEquals(Integer.valueOf(1), property.getValue());
+        assertTrue(history.undo());
+        assertEquals(Integer.valueOf(0), property.getValue());
+        assertFalse(history.undo());
+        assertFalse(history.getUndoableProperty().getValue());
+        assertTrue(history.getRedoableProperty().getValue());
+
+        assertTrue(history.redo());
+        assertEquals(Integer.valueOf(1), property.getValue());
+        assertEquals(1, history.getRedoSize());
+
+        // A new change discards the redo steps
+        property.setValue(5);
+        assertEquals(0, history.getRedoSize());
+        assertFalse(history.redo());
+        assertEquals(Integer.valueOf(5), property.getValue());
+    }
+
+    @Test
+    public void testUndoRedoCollections() {
+        SimpleListProperty<String> listProperty = new SimpleListProperty<>(Arrays.asList("a", "b", "c"));
+        SimpleSetProperty<String> setProperty = new SimpleSetProperty<>();
+        SimpleMapProperty<String, Integer> mapProperty = new SimpleMapProperty<>();
+        mapProperty.put("x", 1);
+        PropertyHistory history = new PropertyHistory();
+        history.trackList(listProperty);
+        history.trackSet(setProperty);
+        history.trackMap(mapProperty);
+
+        listProperty.set(1, "B");
+        listProperty.add(1, "z");
+        listProperty.remove(0);
+        setProperty.addAll(Arrays.asList("s", "t"));
+        setProperty.remove("s");
+        mapProperty.put("x", 2);
+        mapProperty.put("y", 3);
+        mapProperty.remove("x");
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(history.undo());
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), listProperty.asUnmodifiableList());
+        assertEquals(Collections.emptySet(), setProperty.asUnmodifiableSet());
+        assertEquals(Collections.singletonMap("x", 1), mapProperty.asUnmodifiableMap());
+
+        while (history.redo()) {
+            // Redo everything
+        }
+        assertEquals(Arrays.asList("z", "B", "c"), listProperty.asUnmodifiableList());
+        assertEquals(Collections.singleton("t"), setProperty.asUnmodifiableSet());
+        assertEquals(Collections.singletonMap("y", 3), mapProperty.asUnmodifiableMap());
+    }
+
+    @Test
+    public void testTransaction() {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+        SimpleSetProperty<String> setProperty = new SimpleSetProperty<>();
+        PropertyHistory history = new PropertyHistory();
+        history.track(property);
+        history.trackSet(setProperty);
+        PropertyChangeListener<Boolean> undoableListener = mock(PropertyChangeListener.class);
+        history.getUndoableProperty().addChangeListener(undoableListener);
+
+        history.beginTransaction();
+        property.setValue(1);
+        history.beginTransaction();
+        setProperty.add("a");
+        history.endTransaction();
+        property.setValue(2);
+        property.setValue(3);
+        assertEquals(0, history.getUndoSize());
+        history.endTransaction();
+        assertEquals(1, history.getUndoSize());
+        verify(undoableListener, times(1)).propertyChanged(any());
+
+        assertTrue(history.undo());
+        assertEquals(Integer.valueOf(0), property.getValue());
+        assertTrue(setProperty.isEmpty());
+
+        assertTrue(history.redo());
+        assertEquals(Integer.valueOf(3), property.getValue());
+        assertEquals(new HashSet<>(Collections.singleton("a")), setProperty.asUnmodifiableSet());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnbalancedTransaction() {
+        new PropertyHistory().endTransaction();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUndoDuringTransaction() {
+        PropertyHistory history = new PropertyHistory();
+        history.beginTransaction();
+        history.undo();
+    }
+
+    @Test
+    public void testBounds() {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+        PropertyHistory history = new PropertyHistory(3, Long.MAX_VALUE);
+        history.track(property);
+        for (int i = 1; i <= 5; i++) {
+            property.setValue(i);
+        }
+        assertEquals(3, history.getUndoSize());
+        while (history.undo()) {
+            // Undo everything
+        }
+        assertEquals(Integer.valueOf(2), property.getValue());
+
+        SimpleMapProperty<Integer, String> mapProperty = new SimpleMapProperty<>();
+        history = new PropertyHistory(100, 1000);
+        history.setSizeEstimator(value -> 100);
+        history.trackMap(mapProperty);
+        Map<Integer, String> bigChange = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            bigChange.put(i, "value");
+        }
+        mapProperty.putAll(bigChange);
+        mapProperty.put(10, "small");
+        mapProperty.put(11, "small");
+        assertTrue(history.getMemoryUsage() <= 1000);
+        assertEquals(2, history.getUndoSize());
+    }
+
+    @Test
+    public void testUntrack() {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+        PropertyHistory history = new PropertyHistory();
+        history.track(property);
+        history.untrack(property);
+        property.setValue(1);
+        assertEquals(0, history.getUndoSize());
+    }
+
+    @Test
+    public void testUndoRedoNotifiesOnce() {
+        SimpleIntegerProperty property1 = new SimpleIntegerProperty(0);
+        SimpleIntegerProperty property2 = new SimpleIntegerProperty(0);
+        SimpleListProperty<String> listProperty = new SimpleListProperty<>();
+        PropertyHistory history = new PropertyHistory();
+        history.track(property1);
+        history.track(property2);
+        history.trackList(listProperty);
+
+        history.beginTransaction();
+        property1.setValue(1);
+        property2.setValue(1);
+        property1.setValue(2);
+        listProperty.addAll(Arrays.asList("a", "b", "c", "d", "e"));
+        listProperty.setAll(1, Arrays.asList("B", "C", "D"));
+        history.endTransaction();
+
+        List<Object> valueEvents = new ArrayList<>();
+        property1.addChangeListener(valueEvents::add);
+        List<Object> listEvents = new ArrayList<>();
+        listProperty.addChangeListener(listEvents::add);
+
+        assertTrue(history.undo());
+        assertEquals(Integer.valueOf(0), property1.getValue());
+        assertTrue(listProperty.isEmpty());
+        // One event for the value property despite its two deltas, and one per list delta
+        assertEquals(1, valueEvents.size());
+        assertEquals(2, listEvents.size());
+
+        assertTrue(history.redo());
+        assertEquals(Integer.valueOf(2), property1.getValue());
+        assertEquals(Arrays.asList("a", "B", "C", "D", "e"), listProperty);
+        assertEquals(2, valueEvents.size());
+        assertEquals(4, listEvents.size());
+    }
+
+    @Test
+    public void testUndoRedoMapNotifiesOnce() {
+        SimpleMapProperty<Integer, String> mapProperty = new SimpleMapProperty<>();
+        for (int i = 0; i < 10; i++) {
+            mapProperty.put(i, "value" + i);
+        }
+        PropertyHistory history = new PropertyHistory();
+        history.trackMap(mapProperty);
+        mapProperty.clear();
+
+        List<Object> mapEvents = new ArrayList<>();
+        mapProperty.addChangeListener(mapEvents::add);
+
+        assertTrue(history.undo());
+        assertEquals(10, mapProperty.size());
+        assertEquals(1, mapEvents.size());
+
+        // All the entries removed at once
+        assertTrue(history.redo());
+        assertTrue(mapProperty.isEmpty());
+        assertEquals(2, mapEvents.size());
+    }
+}
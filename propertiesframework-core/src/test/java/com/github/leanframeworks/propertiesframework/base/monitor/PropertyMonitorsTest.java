@@ -0,0 +1,158 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.monitor;
+
+import com.github.leanframeworks.propertiesframework.base.binding.Binder;
+import com.github.leanframeworks.propertiesframework.base.property.concurrent.ConcurrentMapProperty;
+import com.github.leanframeworks.propertiesframework.base.property.concurrent.ConcurrentSimpleProperty;
+import com.github.leanframeworks.propertiesframework.base.property.primitive.PrimitiveIntProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleListProperty;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @see PropertyMonitors
+ */
+public class PropertyMonitorsTest {
+
+    /**
+     * Monitor recording the beginning and the end of all operations.
+     */
+    private static class RecordingMonitor implements PropertyMonitor {
+
+        private final List<String> log = new ArrayList<>();
+
+        private MonitorScope scope(String name) {
+            log.add("begin " + name);
+            return () -> log.add("end " + name);
+        }
+
+        @Override
+        public MonitorScope beginNotification(Object property, int listenerCount) {
+            return scope("notification " + listenerCount);
+        }
+
+        @Override
+        public MonitorScope beginEvaluation(Object transformer, int stageCount) {
+            return scope("evaluation " + stageCount);
+        }
+
+        @Override
+        public MonitorScope beginHandOff(Object property) {
+            return scope("hand-off");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        PropertyMonitors.install(null);
+    }
+
+    @Test
+    public void testNoMonitorByDefault() {
+        assertNull(PropertyMonitors.getInstalled());
+    }
+
+    @Test
+    public void testNestedNotificationsAndEvaluations() {
+        SimpleIntegerProperty master = new SimpleIntegerProperty(0);
+        SimpleIntegerProperty slave = new SimpleIntegerProperty(0);
+        Binder.from(master).transform(value -> value + 1).to(slave);
+
+        RecordingMonitor monitor = new RecordingMonitor();
+        PropertyMonitors.install(monitor);
+        master.setValue(1);
+
+        assertEquals(Arrays.asList(
+                "begin notification 1",
+                "begin evaluation 1",
+                "end evaluation 1",
+                "begin notification 0",
+                "end notification 0",
+                "end notification 1"), monitor.log);
+    }
+
+    @Test
+    public void testListNotification() {
+        SimpleListProperty<Integer> property = new SimpleListProperty<>();
+        property.addChangeListener(e -> {
+            // Nothing to be done
+        });
+
+        RecordingMonitor monitor = new RecordingMonitor();
+        PropertyMonitors.install(monitor);
+        property.add(1);
+        PropertyMonitors.install(null);
+        property.add(2);
+
+        assertEquals(Arrays.asList("begin notification 1", "end notification 1"), monitor.log);
+    }
+
+    @Test
+    public void testConcurrentAndPrimitiveNotifications() {
+        PrimitiveIntProperty primitive = new PrimitiveIntProperty(0);
+        primitive.addIntChangeListener((source, oldValue, newValue) -> {
+            // Nothing to be done
+        });
+        primitive.addChangeListener(e -> {
+            // Nothing to be done
+        });
+        ConcurrentSimpleProperty<Integer> concurrent = new ConcurrentSimpleProperty<>(0);
+        concurrent.addChangeListener(e -> {
+            // Nothing to be done
+        });
+        ConcurrentMapProperty<String, Integer> map = new ConcurrentMapProperty<>();
+        map.addKeyListener("key", e -> {
+            // Nothing to be done
+        });
+
+        RecordingMonitor monitor = new RecordingMonitor();
+        PropertyMonitors.install(monitor);
+        primitive.setAsInt(1);
+        concurrent.setValue(1);
+        map.put("key", 1);
+
+        assertEquals(Arrays.asList(
+                "begin notification 2",
+                "end notification 2",
+                "begin notification 1",
+                "end notification 1",
+                "begin notification 1",
+                "end notification 1"), monitor.log);
+    }
+}
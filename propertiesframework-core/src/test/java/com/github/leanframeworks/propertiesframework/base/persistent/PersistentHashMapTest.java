@@ -0,0 +1,181 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.persistent;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see PersistentHashMap
+ * @see PersistentHashSet
+ */
+public class PersistentHashMapTest {
+
+    @Test
+    public void testPlusAndMinus() {
+        PersistentHashMap<String, Integer> empty = PersistentHashMap.empty();
+        PersistentHashMap<String, Integer> one = empty.plus("one", 1);
+        PersistentHashMap<String, Integer> two = one.plus("two", 2);
+        PersistentHashMap<String, Integer> replaced = two.plus("one", 11);
+
+        assertTrue(empty.isEmpty());
+        assertEquals(1, one.size());
+        assertEquals(2, two.size());
+        assertEquals(1, (int) two.get("one"));
+        assertEquals(11, (int) replaced.get("one"));
+        assertEquals(2, replaced.size());
+
+        assertSame(two, two.minus("three"));
+        PersistentHashMap<String, Integer> removed = replaced.minus("one");
+        assertFalse(removed.containsKey("one"));
+        assertEquals(1, removed.size());
+        assertSame(PersistentHashMap.empty(), removed.minus("two"));
+    }
+
+    @Test
+    public void testSameValue() {
+        Integer value = 1000;
+        PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty().plus("a", value);
+        assertSame(map, map.plus("a", value));
+    }
+
+    @Test
+    public void testNullKeyAndValue() {
+        PersistentHashMap<String, String> map = PersistentHashMap.<String, String>empty().plus(null, "a").plus("b",
+                null);
+
+        assertTrue(map.containsKey(null));
+        assertEquals("a", map.get(null));
+        assertTrue(map.containsKey("b"));
+        assertNull(map.get("b"));
+        assertFalse(map.minus(null).containsKey(null));
+    }
+
+    @Test
+    public void testCollisions() {
+        PersistentHashMap<Colliding, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 10; i++) {
+            map = map.plus(new Colliding(i % 2, i), i);
+        }
+
+        assertEquals(10, map.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, (int) map.get(new Colliding(i % 2, i)));
+        }
+
+        for (int i = 0; i < 10; i += 2) {
+            map = map.minus(new Colliding(0, i));
+        }
+        assertEquals(5, map.size());
+        assertNull(map.get(new Colliding(0, 4)));
+        assertEquals(5, (int) map.get(new Colliding(1, 5)));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        Map<Integer, Integer> reference = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                reference.remove(key);
+                map = map.minus(key);
+            } else {
+                reference.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+
+        assertEquals(reference, map);
+        assertEquals(reference.size(), map.entrySet().size());
+        int iterated = 0;
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            assertEquals(reference.get(entry.getKey()), entry.getValue());
+            iterated++;
+        }
+        assertEquals(reference.size(), iterated);
+    }
+
+    @Test
+    public void testSet() {
+        Set<Integer> reference = new HashSet<>();
+        PersistentHashSet<Integer> set = PersistentHashSet.empty();
+        for (int i = 0; i < 1000; i++) {
+            reference.add(i * 7);
+            set = set.plus(i * 7);
+        }
+
+        assertEquals(reference, set);
+        assertSame(set, set.plus(7));
+        assertSame(set, set.minus(8));
+        assertFalse(set.minus(7).contains(7));
+        assertTrue(set.contains(7));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        PersistentHashMap.<String, String>empty().put("a", "b");
+    }
+
+    private static class Colliding {
+
+        private final int hash;
+
+        private final int id;
+
+        Colliding(int hash, int id) {
+            this.hash = hash;
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof Colliding) && (((Colliding) o).id == id);
+        }
+    }
+}
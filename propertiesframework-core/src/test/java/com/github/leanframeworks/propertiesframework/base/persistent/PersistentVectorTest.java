@@ -0,0 +1,174 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.persistent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see PersistentVector
+ */
+public class PersistentVectorTest {
+
+    @Test
+    public void testEmpty() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        assertTrue(vector.isEmpty());
+        assertEquals(Collections.emptyList(), vector);
+        assertTrue(!vector.iterator().hasNext());
+    }
+
+    @Test
+    public void testPlusAcrossSeveralLevels() {
+        List<Integer> reference = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+
+        for (int i = 0; i < 40000; i++) {
+            PersistentVector<Integer> previous = vector;
+            vector = vector.plus(i);
+            reference.add(i);
+
+            // The previous version is left untouched
+            assertEquals(i, previous.size());
+        }
+
+        assertEquals(reference, vector);
+        for (int i = 0; i < reference.size(); i++) {
+            assertEquals(reference.get(i), vector.get(i));
+        }
+    }
+
+    @Test
+    public void testWith() {
+        PersistentVector<Integer> original = PersistentVector.of(range(0, 2000));
+        PersistentVector<Integer> modified = original.with(1500, -1).with(5, -2).with(1999, -3);
+
+        assertEquals(range(0, 2000), original);
+        assertEquals(-1, (int) modified.get(1500));
+        assertEquals(-2, (int) modified.get(5));
+        assertEquals(-3, (int) modified.get(1999));
+        assertEquals(1499, (int) modified.get(1499));
+    }
+
+    @Test
+    public void testPopAcrossSeveralLevels() {
+        PersistentVector<Integer> vector = PersistentVector.of(range(0, 33000));
+
+        for (int size = 33000; size > 0; size--) {
+            assertEquals(size, vector.size());
+            assertEquals(size - 1, (int) vector.get(size - 1));
+            vector = vector.pop();
+        }
+
+        assertSame(PersistentVector.empty(), vector);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPopEmpty() {
+        PersistentVector.empty().pop();
+    }
+
+    @Test
+    public void testInsertAndWithout() {
+        PersistentVector<Integer> original = PersistentVector.of(range(0, 100));
+
+        PersistentVector<Integer> inserted = original.insert(10, Arrays.asList(-1, -2));
+        List<Integer> reference = new ArrayList<>(range(0, 100));
+        reference.addAll(10, Arrays.asList(-1, -2));
+        assertEquals(reference, inserted);
+
+        PersistentVector<Integer> removed = inserted.without(5, 60);
+        reference.subList(5, 60).clear();
+        assertEquals(reference, removed);
+
+        assertEquals(range(0, 100), original);
+        assertSame(original, original.insert(3, Collections.emptyList()));
+        assertSame(original, original.without(3, 3));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        List<Integer> reference = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+
+        for (int i = 0; i < 3000; i++) {
+            int operation = random.nextInt(5);
+            if ((operation == 0) && !reference.isEmpty()) {
+                int index = random.nextInt(reference.size());
+                reference.set(index, i);
+                vector = vector.with(index, i);
+            } else if ((operation == 1) && !reference.isEmpty()) {
+                reference.remove(reference.size() - 1);
+                vector = vector.pop();
+            } else if ((operation == 2) && !reference.isEmpty()) {
+                int index = random.nextInt(reference.size());
+                reference.remove(index);
+                vector = vector.without(index, index + 1);
+            } else if (operation == 3) {
+                int index = random.nextInt(reference.size() + 1);
+                reference.add(index, i);
+                vector = vector.insert(index, Collections.singletonList(i));
+            } else {
+                reference.add(i);
+                vector = vector.plus(i);
+            }
+        }
+
+        assertEquals(reference, vector);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        PersistentVector.of(range(0, 10)).get(10);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        PersistentVector.<Integer>empty().add(1);
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> range = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+}
@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @see IntervalIndex
+ */
+public class IntervalIndexTest {
+
+    @Test
+    public void testQuery() {
+        IntervalIndex<String> index = new IntervalIndex<>();
+        index.add(0, 10, "a");
+        index.add(5, 15, "b");
+        index.add(20, 30, "c");
+
+        assertEquals(listOf("a", "b"), query(index, 8, 9));
+        assertEquals(listOf("b"), query(index, 10, 12));
+        assertEquals(Collections.emptyList(), query(index, 15, 20));
+        assertEquals(listOf("c"), query(index, 15, 21));
+        assertEquals(listOf("a", "b", "c"), query(index, 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testMoveAndRemove() {
+        IntervalIndex<String> index = new IntervalIndex<>();
+        IntervalIndex.Entry<String> a = index.add(0, 10, "a");
+        IntervalIndex.Entry<String> b = index.add(5, 15, "b");
+
+        index.move(a, 100, 110);
+        assertEquals(listOf("b"), query(index, 0, 50));
+        assertEquals(listOf("a"), query(index, 105, 106));
+
+        index.remove(b);
+        index.remove(b);
+        assertEquals(1, index.size());
+        assertEquals(Collections.emptyList(), query(index, 0, 50));
+    }
+
+    @Test
+    public void testRandomAgainstBruteForce() {
+        Random random = new Random(42);
+        IntervalIndex<int[]> index = new IntervalIndex<>();
+        List<IntervalIndex.Entry<int[]>> entries = new ArrayList<>();
+        List<int[]> intervals = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            int operation = random.nextInt(4);
+            if ((operation == 0) && !entries.isEmpty()) {
+                int position = random.nextInt(entries.size());
+                index.remove(entries.remove(position));
+                intervals.remove(position);
+            } else if ((operation == 1) && !entries.isEmpty()) {
+                int position = random.nextInt(entries.size());
+                int start = random.nextInt(1000);
+                int[] interval = intervals.get(position);
+                interval[0] = start;
+                interval[1] = start + 1 + random.nextInt(50);
+                index.move(entries.get(position), interval[0], interval[1]);
+            } else {
+                int start = random.nextInt(1000);
+                int[] interval = new int[]{start, start + 1 + random.nextInt(50)};
+                entries.add(index.add(interval[0], interval[1], interval));
+                intervals.add(interval);
+            }
+
+            int queryStart = random.nextInt(1000);
+            int queryEnd = queryStart + 1 + random.nextInt(100);
+            List<int[]> expected = new ArrayList<>();
+            for (int[] interval : intervals) {
+                if ((interval[0] < queryEnd) && (interval[1] > queryStart)) {
+                    expected.add(interval);
+                }
+            }
+            List<int[]> actual = query(index, queryStart, queryEnd);
+            assertEquals(expected.size(), actual.size());
+            assertEquals(intervals.size(), index.size());
+            for (int[] interval : actual) {
+                assertEquals(true, expected.contains(interval));
+            }
+        }
+    }
+
+    private static <T> List<T> query(IntervalIndex<T> index, int start, int end) {
+        List<T> result = new ArrayList<>();
+        index.query(start, end, result);
+        return result;
+    }
+
+    @SafeVarargs
+    private static <T> List<T> listOf(T... values) {
+        List<T> result = new ArrayList<>();
+        Collections.addAll(result, values);
+        return result;
+    }
+}
@@ -0,0 +1,180 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property;
+
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @see PropagationBudget
+ */
+public class PropagationBudgetTest {
+
+    @After
+    public void uninstall() {
+        PropagationBudget.install(null);
+    }
+
+    @Test
+    public void testHopsExceededInQueuedMode() {
+        SimpleIntegerProperty property1 = new SimpleIntegerProperty(0);
+        SimpleIntegerProperty property2 = new SimpleIntegerProperty(0);
+        property1.setNotificationMode(NotificationMode.QUEUED);
+        property2.setNotificationMode(NotificationMode.QUEUED);
+        property1.addChangeListener(e -> property2.setValue(e.getNewValue() + 1));
+        property2.addChangeListener(e -> property1.setValue(e.getNewValue() + 1));
+
+        List<PropagationBudgetExceededException> exceeded = new ArrayList<>();
+        PropagationBudget.install(new PropagationBudget(10, 1, TimeUnit.MINUTES, exceeded::add));
+
+        property1.setValue(1);
+        assertEquals(1, exceeded.size());
+        assertEquals(11, exceeded.get(0).getHops());
+        assertEquals(11, exceeded.get(0).getPath().size());
+        assertTrue(exceeded.get(0).getPath().contains(property1));
+        assertTrue(exceeded.get(0).getPath().contains(property2));
+        // Values changed up to the aborted hop
+        assertEquals(Integer.valueOf(11), property1.getValue());
+        assertEquals(Integer.valueOf(10), property2.getValue());
+
+        // Next cascade gets a new budget
+        property1.removeChangeListener(property1.getChangeListeners().iterator().next());
+        property1.setValue(100);
+        assertEquals(1, exceeded.size());
+        assertEquals(Integer.valueOf(100), property1.getValue());
+    }
+
+    @Test
+    public void testHopsExceededInImmediateMode() {
+        List<SimpleIntegerProperty> chain = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+            if (!chain.isEmpty()) {
+                chain.get(chain.size() - 1).addChangeListener(e -> property.setValue(e.getNewValue()));
+            }
+            chain.add(property);
+        }
+
+        List<PropagationBudgetExceededException> exceeded = new ArrayList<>();
+        PropagationBudget.install(new PropagationBudget(5, 1, TimeUnit.MINUTES, exceeded::add));
+
+        chain.get(0).setValue(1);
+        assertEquals(1, exceeded.size());
+        assertEquals(chain.subList(0, 6), exceeded.get(0).getPath());
+        assertEquals(Integer.valueOf(1), chain.get(5).getValue());
+        assertEquals(Integer.valueOf(0), chain.get(6).getValue());
+    }
+
+    @Test
+    public void testWithinBudget() {
+        SimpleIntegerProperty master = new SimpleIntegerProperty(0);
+        SimpleIntegerProperty slave = new SimpleIntegerProperty(0);
+        master.addChangeListener(e -> slave.setValue(e.getNewValue()));
+
+        List<PropagationBudgetExceededException> exceeded = new ArrayList<>();
+        PropagationBudget.install(new PropagationBudget(2, 1, TimeUnit.MINUTES, exceeded::add));
+
+        for (int i = 1; i <= 5; i++) {
+            master.setValue(i);
+        }
+        assertTrue(exceeded.isEmpty());
+        assertEquals(Integer.valueOf(5), slave.getValue());
+    }
+
+    @Test
+    public void testSkippedNotificationsDeferred() {
+        List<SimpleIntegerProperty> chain = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+            if (!chain.isEmpty()) {
+                chain.get(chain.size() - 1).addChangeListener(e -> property.setValue(e.getNewValue()));
+            }
+            chain.add(property);
+        }
+
+        List<PropagationBudgetExceededException> exceeded = new ArrayList<>();
+        Deque<Runnable> deferred = new ArrayDeque<>();
+        PropagationBudget.install(new PropagationBudget(5, 1, TimeUnit.MINUTES, exceeded::add, deferred::add));
+
+        chain.get(0).setValue(1);
+        assertEquals(1, exceeded.size());
+        assertEquals(Integer.valueOf(1), chain.get(5).getValue());
+        assertEquals(Integer.valueOf(0), chain.get(6).getValue());
+        assertEquals(1, deferred.size());
+
+        // Change the head of the chain before the deferred cascade runs
+        chain.get(0).setValue(2);
+        assertEquals(2, exceeded.size());
+        assertEquals(2, deferred.size());
+
+        while (!deferred.isEmpty()) {
+            deferred.poll().run();
+        }
+        // Deferred notifications use the current values, so the slaves end up up to date
+        for (SimpleIntegerProperty property : chain) {
+            assertEquals(Integer.valueOf(2), property.getValue());
+        }
+        assertEquals(2, exceeded.size());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        List<PropagationBudgetExceededException> exceeded = new ArrayList<>();
+        List<Runnable> constructions = Arrays.asList(
+                () -> new PropagationBudget(0, 1, TimeUnit.MINUTES, exceeded::add),
+                () -> new PropagationBudget(5, -1, TimeUnit.MINUTES, exceeded::add),
+                () -> new PropagationBudget(5, 1, null, exceeded::add),
+                () -> new PropagationBudget(5, 1, TimeUnit.MINUTES, null));
+        for (Runnable construction : constructions) {
+            try {
+                construction.run();
+                fail();
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+
+        // No deferral executor to drop the skipped notifications
+        assertNull(new PropagationBudget(5, 1, TimeUnit.MINUTES, exceeded::add, null).getDeferralExecutor());
+    }
+}
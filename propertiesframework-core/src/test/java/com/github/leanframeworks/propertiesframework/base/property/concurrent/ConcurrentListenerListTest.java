@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @see ConcurrentListenerList
+ */
+public class ConcurrentListenerListTest {
+
+    @Test
+    public void testMultiReleaseOverride() throws NoSuchFieldException {
+        // Only set by the test execution putting the Java 11 classes of the multi-release JAR first
+        assumeTrue(Boolean.getBoolean("multiRelease"));
+        assertEquals(Object[].class, ConcurrentListenerList.class.getDeclaredField("listeners").getType());
+    }
+
+    @Test
+    public void testAddRemoveClear() {
+        ConcurrentListenerList<String> list = new ConcurrentListenerList<>();
+        assertTrue(list.isEmpty());
+
+        list.add("a");
+        list.add("b");
+        list.add("a");
+        List<String> snapshot = list.snapshot();
+        assertEquals(Arrays.asList("a", "b", "a"), snapshot);
+
+        assertTrue(list.remove("a"));
+        assertFalse(list.remove("c"));
+        assertEquals(Arrays.asList("b", "a"), list.snapshot());
+        assertEquals(Arrays.asList("a", "b", "a"), snapshot);
+        assertEquals(2, list.array().length);
+
+        list.clear();
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAdditions() throws InterruptedException {
+        ConcurrentListenerList<Integer> list = new ConcurrentListenerList<>();
+        int threadCount = 4;
+        int additionCount = 1000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t * additionCount;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < additionCount; i++) {
+                    list.add(offset + i);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threadCount * additionCount, list.snapshot().size());
+    }
+}
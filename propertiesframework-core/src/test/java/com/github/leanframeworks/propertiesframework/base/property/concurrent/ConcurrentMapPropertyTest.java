@@ -0,0 +1,269 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChangeListener;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * @see ConcurrentMapProperty
+ */
+public class ConcurrentMapPropertyTest {
+
+    @Test
+    public void testKeyListenersOnlyWokenForTheirKey() {
+        ConcurrentMapProperty<String, Integer> property = new ConcurrentMapProperty<>();
+        List<MapPropertyChange<? extends String, ? extends Integer>> aEvents = new ArrayList<>();
+        MapPropertyChangeListener<String, Integer> bListener = mock(MapPropertyChangeListener.class);
+        property.addKeyListener("a", aEvents::add);
+        property.addKeyListener("b", bListener);
+
+        property.put("a", 1);
+        property.put("a", 1);
+        property.put("a", 2);
+        property.put("c", 3);
+        property.remove("a");
+
+        verifyZeroInteractions(bListener);
+        assertEquals(3, aEvents.size());
+        assertEntryChange(aEvents.get(0), "a", null, 1);
+        assertTrue(aEvents.get(0).valuesAdded());
+        assertEntryChange(aEvents.get(1), "a", 1, 2);
+        assertTrue(aEvents.get(1).valuesReplaced());
+        assertEntryChange(aEvents.get(2), "a", 2, null);
+        assertTrue(aEvents.get(2).valuesRemoved());
+        assertEquals(Collections.singletonMap("a", 2), aEvents.get(2).getOldValues());
+        assertTrue(aEvents.get(2).getNewValues().isEmpty());
+    }
+
+    @Test
+    public void testGlobalListeners() {
+        ConcurrentMapProperty<String, Integer> property = new ConcurrentMapProperty<>(Collections.singletonMap("a",
+                1));
+        List<MapPropertyChange<? extends String, ? extends Integer>> events = new ArrayList<>();
+        List<MapPropertyChange<? extends String, ? extends Integer>> keyEvents = new ArrayList<>();
+        property.addChangeListener(events::add);
+        property.addKeyListener("a", keyEvents::add);
+
+        property.put("a", 2);
+        Map<String, Integer> entries = new HashMap<>();
+        entries.put("a", 3);
+        entries.put("b", 4);
+        property.putAll(entries);
+        property.clear();
+
+        assertEquals(4, events.size());
+        assertSame(keyEvents.get(0), events.get(0));
+        assertEquals(Collections.singletonMap("b", 4), events.get(1).getNewValues());
+        assertTrue(events.get(1).valuesAdded());
+        assertEquals(Collections.singletonMap("a", 3), events.get(2).getNewValues());
+        assertTrue(events.get(2).valuesReplaced());
+        assertEquals(entries, events.get(3).getOldValues());
+        assertTrue(events.get(3).valuesRemoved());
+
+        assertEquals(3, keyEvents.size());
+        assertEntryChange(keyEvents.get(1), "a", 2, 3);
+        assertEntryChange(keyEvents.get(2), "a", 3, null);
+        assertEquals(5, property.getVersion());
+    }
+
+    @Test
+    public void testAtomicOperations() {
+        ConcurrentMapProperty<String, Integer> property = new ConcurrentMapProperty<>();
+        List<MapPropertyChange<? extends String, ? extends Integer>> events = new ArrayList<>();
+        property.addKeyListener("a", events::add);
+
+        assertNull(property.putIfAbsent("a", 1));
+        assertEquals(1, (int) property.putIfAbsent("a", 2));
+        assertFalse(property.replace("a", 5, 6));
+        assertTrue(property.replace("a", 1, 2));
+        assertEquals(3, (int) property.merge("a", 1, Integer::sum));
+        assertEquals(3, (int) property.computeIfAbsent("a", k -> 10));
+        assertEquals(4, (int) property.computeIfPresent("a", (k, v) -> v + 1));
+        assertFalse(property.remove("a", 5));
+        assertTrue(property.remove("a", 4));
+
+        assertEquals(5, events.size());
+        assertEntryChange(events.get(4), "a", 4, null);
+    }
+
+    @Test
+    public void testRemoveKeyListener() {
+        ConcurrentMapProperty<String, Integer> property = new ConcurrentMapProperty<>();
+        MapPropertyChangeListener<String, Integer> listener = mock(MapPropertyChangeListener.class);
+        property.addKeyListener("a", listener);
+        assertEquals(1, property.getKeyListeners("a").size());
+
+        property.removeKeyListener("a", listener);
+        property.put("a", 1);
+
+        assertTrue(property.getKeyListeners("a").isEmpty());
+        verifyZeroInteractions(listener);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyViews() {
+        new ConcurrentMapProperty<>(Collections.singletonMap("a", 1)).keySet().clear();
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        int threadCount = 8;
+        int keyCount = 100;
+        int updatesPerThread = 10000;
+        ConcurrentMapProperty<Integer, Integer> property = new ConcurrentMapProperty<>();
+        AtomicInteger[] notifiedPerKey = new AtomicInteger[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            AtomicInteger counter = new AtomicInteger();
+            notifiedPerKey[i] = counter;
+            property.addKeyListener(i, e -> counter.incrementAndGet());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threadCount; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        property.merge(i % keyCount, 1, Integer::sum);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        int perKey = threadCount * updatesPerThread / keyCount;
+        for (int i = 0; i < keyCount; i++) {
+            assertEquals(perKey, (int) property.get(i));
+            assertEquals(perKey, notifiedPerKey[i].get());
+        }
+        assertEquals(threadCount * updatesPerThread, property.getVersion());
+    }
+
+    @Test
+    public void testConcurrentUpdatesNotifiedInOrder() throws InterruptedException {
+        int threadCount = 8;
+        int updatesPerThread = 10000;
+        ConcurrentMapProperty<String, Integer> property = new ConcurrentMapProperty<>();
+        AtomicBoolean notifying = new AtomicBoolean(false);
+        AtomicBoolean concurrentNotification = new AtomicBoolean(false);
+        AtomicBoolean outOfOrder = new AtomicBoolean(false);
+        int[] lastNotified = {0};
+        property.addKeyListener("a", e -> {
+            if (!notifying.compareAndSet(false, true)) {
+                concurrentNotification.set(true);
+            }
+            // No gap and no reordering between consecutive events of the entry
+            MapEntryChange<? extends String, ? extends Integer> change = (MapEntryChange<? extends String, ? extends
+                    Integer>) e;
+            int oldValue = (change.getOldValue() == null) ? 0 : change.getOldValue();
+            if ((oldValue != lastNotified[0]) || (change.getNewValue() != lastNotified[0] + 1)) {
+                outOfOrder.set(true);
+            }
+            lastNotified[0] = change.getNewValue();
+            notifying.set(false);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threadCount; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        property.merge("a", 1, Integer::sum);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertFalse(concurrentNotification.get());
+        assertFalse(outOfOrder.get());
+        // All writers have returned, so everything has been notified
+        assertEquals(threadCount * updatesPerThread, lastNotified[0]);
+    }
+
+    @Test
+    public void testChangeFromListenerNotifiedAfterCurrentOne() {
+        ConcurrentMapProperty<String, Integer> property = new ConcurrentMapProperty<>();
+        List<MapPropertyChange<? extends String, ? extends Integer>> events = new ArrayList<>();
+        property.addKeyListener("a", e -> {
+            property.put("b", 1);
+            events.add(e);
+        });
+        property.addKeyListener("b", events::add);
+
+        property.put("a", 1);
+
+        assertEquals(2, events.size());
+        assertEntryChange(events.get(0), "a", null, 1);
+        assertEntryChange(events.get(1), "b", null, 1);
+    }
+
+    private static void assertEntryChange(MapPropertyChange<? extends String, ? extends Integer> event, String key,
+                                          Integer oldValue, Integer newValue) {
+        MapEntryChange<? extends String, ? extends Integer> change = (MapEntryChange<? extends String, ? extends
+                Integer>) event;
+        assertEquals(key, change.getKey());
+        assertEquals(oldValue, change.getOldValue());
+        assertEquals(newValue, change.getNewValue());
+    }
+}
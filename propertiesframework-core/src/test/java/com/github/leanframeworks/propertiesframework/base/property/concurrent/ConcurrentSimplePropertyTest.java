@@ -0,0 +1,207 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.leanframeworks.propertiesframework.test.TestUtils.matches;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @see ConcurrentSimpleProperty
+ */
+public class ConcurrentSimplePropertyTest {
+
+    @Test
+    public void testValueChangeEvent() {
+        ConcurrentSimpleProperty<String> property = new ConcurrentSimpleProperty<>("a");
+        @SuppressWarnings("unchecked")
+        PropertyChangeListener<String> listenerMock = (PropertyChangeListener<String>) mock(PropertyChangeListener
+                .class);
+        property.addChangeListener(listenerMock);
+
+        property.setValue("a");
+        property.setValue("b");
+
+        verify(listenerMock).propertyChanged(matches(new PropertyChange<>(property, "a", "b")));
+        verify(listenerMock).propertyChanged(any());
+        assertEquals(1, property.getVersion());
+    }
+
+    @Test
+    public void testAtomicOperations() {
+        ConcurrentIntegerProperty property = new ConcurrentIntegerProperty(1);
+
+        assertFalse(property.compareAndSet(2, 3));
+        assertTrue(property.compareAndSet(1, 3));
+        assertEquals(Integer.valueOf(3), property.getAndSet(4));
+        assertEquals(Integer.valueOf(4), property.getAndUpdate(v -> v * 2));
+        assertEquals(Integer.valueOf(9), property.incrementAndGet());
+        assertEquals(Integer.valueOf(9), property.getAndUpdate(v -> v));
+        assertEquals(4, property.getVersion());
+    }
+
+    @Test
+    public void testNestedChange() {
+        ConcurrentIntegerProperty property = new ConcurrentIntegerProperty(0);
+        List<Integer> notifiedValues = new ArrayList<>();
+        property.addChangeListener(e -> {
+            notifiedValues.add(e.getNewValue());
+            if (e.getNewValue() < 3) {
+                property.incrementAndGet();
+            }
+        });
+
+        property.setValue(1);
+        assertEquals(Arrays.asList(1, 2, 3), notifiedValues);
+    }
+
+    @Test
+    public void testFailingListener() {
+        ConcurrentIntegerProperty property = new ConcurrentIntegerProperty(0);
+        List<String> notifiedChanges = new ArrayList<>();
+        property.addChangeListener(e -> {
+            notifiedChanges.add(e.getOldValue() + "->" + e.getNewValue());
+            if (e.getNewValue() == 1) {
+                // Both changes will be pending when the notification of this one completes
+                property.setValue(2);
+                property.setValue(3);
+            } else if (e.getNewValue() == 2) {
+                throw new IllegalStateException();
+            }
+        });
+
+        try {
+            property.setValue(1);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(Arrays.asList("0->1", "1->2"), notifiedChanges);
+        }
+
+        // The change that was not notified is notified with the next one
+        property.setValue(4);
+        assertEquals(Arrays.asList("0->1", "1->2", "2->3", "3->4"), notifiedChanges);
+    }
+
+    @Test
+    public void testListenersAddedAndRemovedWhileNotifying() {
+        ConcurrentIntegerProperty property = new ConcurrentIntegerProperty(0);
+        AtomicInteger count = new AtomicInteger();
+        PropertyChangeListener<Integer> counter = e -> count.incrementAndGet();
+        property.addChangeListener(e -> property.removeChangeListener(counter));
+        property.addChangeListener(counter);
+
+        // Snapshot taken before the removal
+        property.setValue(1);
+        property.setValue(2);
+        assertEquals(1, count.get());
+        assertEquals(1, property.getChangeListeners().size());
+    }
+
+    @Test
+    public void testContention() throws InterruptedException {
+        for (int threadCount = 1; threadCount <= 64; threadCount *= 2) {
+            checkContention(threadCount, 500);
+        }
+    }
+
+    /**
+     * Increments the value of a property concurrently and checks the notification ordering.
+     *
+     * @param threadCount    Number of threads incrementing the value.
+     * @param incrementCount Number of increments per thread.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    private static void checkContention(int threadCount, int incrementCount) throws InterruptedException {
+        ConcurrentIntegerProperty property = new ConcurrentIntegerProperty(0);
+        AtomicBoolean notifying = new AtomicBoolean(false);
+        AtomicBoolean concurrentNotification = new AtomicBoolean(false);
+        AtomicBoolean outOfOrder = new AtomicBoolean(false);
+        int[] lastNotified = {0};
+        int[] notificationCount = {0};
+        property.addChangeListener(e -> {
+            if (!notifying.compareAndSet(false, true)) {
+                concurrentNotification.set(true);
+            }
+            // No gap and no reordering between consecutive events
+            if ((e.getOldValue() != lastNotified[0]) || (e.getNewValue() != lastNotified[0] + 1)) {
+                outOfOrder.set(true);
+            }
+            lastNotified[0] = e.getNewValue();
+            notificationCount[0]++;
+            notifying.set(false);
+        });
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int j = 0; j < incrementCount; j++) {
+                    property.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int expected = threadCount * incrementCount;
+        assertEquals(Integer.valueOf(expected), property.getValue());
+        assertEquals(expected, property.getVersion());
+        assertFalse(concurrentNotification.get());
+        assertFalse(outOfOrder.get());
+        // All writers have returned, so everything has been notified
+        assertEquals(expected, notificationCount[0]);
+        assertEquals(expected, lastNotified[0]);
+    }
+}
@@ -0,0 +1,176 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.concurrent;
+
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see PropertyStore
+ */
+public class PropertyStoreTest {
+
+    @Test
+    public void testSnapshot() {
+        PropertyStore store = new PropertyStore();
+        StoreProperty<Integer> price = store.createProperty(10);
+        StoreSnapshot before = store.snapshot();
+        StoreProperty<String> currency = store.createProperty("EUR");
+
+        price.setValue(20);
+        StoreSnapshot after = store.snapshot();
+        currency.setValue("USD");
+
+        assertEquals(Integer.valueOf(10), before.get(price));
+        assertEquals("EUR", before.get(currency));
+        assertEquals(Integer.valueOf(20), after.get(price));
+        assertEquals("EUR", after.get(currency));
+        assertEquals("USD", currency.getValue());
+        assertEquals(0, before.getVersion());
+        assertEquals(2, store.getVersion());
+        assertEquals(1, price.getVersion());
+    }
+
+    @Test
+    public void testAtomicCommit() {
+        PropertyStore store = new PropertyStore();
+        StoreProperty<Integer> price = store.createProperty(10);
+        StoreProperty<Integer> quantity = store.createProperty(1);
+        List<StoreCommit> commits = new ArrayList<>();
+        store.addCommitListener(commits::add);
+        List<PropertyChange<? extends Integer>> priceChanges = new ArrayList<>();
+        price.addChangeListener(priceChanges::add);
+
+        StoreTransaction transaction = store.begin();
+        transaction.set(price, 30);
+        transaction.set(quantity, 1);
+        transaction.set(quantity, 3);
+        assertEquals(Integer.valueOf(3), transaction.get(quantity));
+        assertEquals(Integer.valueOf(1), quantity.getValue());
+        assertTrue(transaction.commit());
+
+        assertEquals(Integer.valueOf(30), price.getValue());
+        assertEquals(Integer.valueOf(3), quantity.getValue());
+        assertEquals(1, commits.size());
+        assertEquals(Arrays.asList(price, quantity), commits.get(0).getChangedProperties());
+        assertEquals(Integer.valueOf(1), commits.get(0).getOldValue(quantity));
+        assertEquals(Integer.valueOf(3), commits.get(0).getNewValue(quantity));
+        assertEquals(1, priceChanges.size());
+
+        // Net changes only
+        transaction = store.begin();
+        transaction.set(price, 30);
+        assertTrue(transaction.commit());
+        assertEquals(1, commits.size());
+    }
+
+    @Test
+    public void testConflict() {
+        PropertyStore store = new PropertyStore();
+        StoreProperty<Integer> price = store.createProperty(10);
+        StoreProperty<Integer> quantity = store.createProperty(1);
+        StoreProperty<Integer> total = store.createProperty(10);
+        StoreProperty<String> label = store.createProperty("a");
+
+        StoreTransaction transaction = store.begin();
+        transaction.set(total, transaction.get(price) * transaction.get(quantity));
+
+        // Unrelated commit does not conflict
+        label.setValue("b");
+        StoreTransaction other = store.begin();
+        other.set(quantity, 2);
+        assertTrue(other.commit());
+
+        assertFalse(transaction.commit());
+        assertEquals(Integer.valueOf(10), total.getValue());
+
+        int attempts = store.update(t -> t.set(total, t.get(price) * t.get(quantity)));
+        assertEquals(1, attempts);
+        assertEquals(Integer.valueOf(20), total.getValue());
+    }
+
+    @Test
+    public void testNoTornReads() throws InterruptedException {
+        PropertyStore store = new PropertyStore();
+        StoreProperty<Integer> price = store.createProperty(0);
+        StoreProperty<Integer> quantity = store.createProperty(0);
+        AtomicBoolean torn = new AtomicBoolean(false);
+        AtomicBoolean stop = new AtomicBoolean(false);
+
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                while (!stop.get()) {
+                    StoreSnapshot snapshot = store.snapshot();
+                    if (!snapshot.get(price).equals(snapshot.get(quantity))) {
+                        torn.set(true);
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread writer = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    store.update(t -> {
+                        int value = t.get(price) + 1;
+                        t.set(price, value);
+                        t.set(quantity, value);
+                    });
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertFalse(torn.get());
+        assertEquals(Integer.valueOf(4000), price.getValue());
+        assertEquals(4000, store.getVersion());
+    }
+}
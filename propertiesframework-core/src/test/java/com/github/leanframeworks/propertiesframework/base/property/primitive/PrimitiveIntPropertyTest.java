@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.primitive;
+
+import com.github.leanframeworks.propertiesframework.api.property.IntPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.test.AllocationMeter;
+import org.junit.Test;
+
+import static com.github.leanframeworks.propertiesframework.test.TestUtils.matches;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * @see PrimitiveIntProperty
+ */
+public class PrimitiveIntPropertyTest {
+
+    @Test
+    public void testPrimitiveAndBoxedListeners() {
+        PrimitiveIntProperty property = new PrimitiveIntProperty(1);
+        IntPropertyChangeListener intListener = mock(IntPropertyChangeListener.class);
+        PropertyChangeListener<Integer> listener = mock(PropertyChangeListener.class);
+        property.addIntChangeListener(intListener);
+        property.addChangeListener(listener);
+
+        property.setAsInt(1);
+        verifyZeroInteractions(intListener, listener);
+
+        property.setAsInt(5);
+        assertEquals(5, property.getAsInt());
+        assertEquals(Integer.valueOf(5), property.getValue());
+        assertEquals(1, property.getVersion());
+        verify(intListener).intPropertyChanged(property, 1, 5);
+        verify(listener).propertyChanged(matches(new PropertyChange<>(property, 1, 5)));
+
+        property.removeIntChangeListener(intListener);
+        property.setValue(null);
+        assertEquals(0, property.getAsInt());
+        verify(listener).propertyChanged(matches(new PropertyChange<>(property, 5, 0)));
+        verifyNoMoreInteractions(intListener, listener);
+    }
+
+    @Test
+    public void testDoubleNaN() {
+        PrimitiveDoubleProperty property = new PrimitiveDoubleProperty(Double.NaN);
+        PropertyChangeListener<Double> listener = mock(PropertyChangeListener.class);
+        property.addChangeListener(listener);
+
+        property.setAsDouble(Double.NaN);
+        verifyZeroInteractions(listener);
+    }
+
+    @Test
+    public void testSetAsIntAllocationFree() {
+        assumeTrue(AllocationMeter.isSupported());
+
+        PrimitiveIntProperty property = new PrimitiveIntProperty();
+        int[] sum = new int[1];
+        for (int i = 0; i < 3; i++) {
+            property.addIntChangeListener((source, oldValue, newValue) -> sum[0] += newValue - oldValue);
+        }
+
+        AllocationMeter.assertAllocationFree(() -> property.setAsInt(property.getAsInt() + 1));
+        assertEquals(3 * property.getAsInt(), sum[0]);
+    }
+}
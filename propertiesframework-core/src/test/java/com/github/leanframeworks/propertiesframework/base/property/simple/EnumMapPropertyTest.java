@@ -0,0 +1,124 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see EnumMapProperty
+ */
+public class EnumMapPropertyTest {
+
+    private enum Column {
+        NAME, SIZE, DATE
+    }
+
+    @Test
+    public void testPutRemove() {
+        EnumMapProperty<Column, Integer> property = new EnumMapProperty<>(Column.class);
+        List<MapPropertyChange<? extends Column, ? extends Integer>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        assertNull(property.put(Column.SIZE, 50));
+        assertEquals(Integer.valueOf(50), property.put(Column.SIZE, 50));
+        Map<Column, Integer> entries = new EnumMap<>(Column.class);
+        entries.put(Column.NAME, 100);
+        entries.put(Column.SIZE, 60);
+        property.putAll(entries);
+        assertEquals(2, property.size());
+        assertEquals(Integer.valueOf(60), property.get(Column.SIZE));
+        assertTrue(property.containsValue(100));
+        assertFalse(property.containsKey(Column.DATE));
+        assertArrayEquals(new long[]{0b011}, property.getKeyBits());
+        assertEquals(entries, property.asUnmodifiableMap());
+
+        assertEquals(Integer.valueOf(100), property.remove(Column.NAME));
+        assertNull(property.remove(Column.NAME));
+        property.clear();
+        assertTrue(property.isEmpty());
+        assertEquals(Collections.emptyMap(), property.asUnmodifiableMap());
+
+        assertEquals(5, events.size());
+        EnumMapPropertyChange<Column, Integer> added = toEnumMapChange(events.get(1));
+        assertTrue(added.valuesAdded());
+        assertEquals(Collections.singletonMap(Column.NAME, 100), added.getNewValues());
+        EnumMapPropertyChange<Column, Integer> replaced = toEnumMapChange(events.get(2));
+        assertTrue(replaced.valuesReplaced());
+        assertEquals(Integer.valueOf(50), replaced.getOldValue(Column.SIZE));
+        assertEquals(Integer.valueOf(60), replaced.getNewValue(Column.SIZE));
+        EnumMapPropertyChange<Column, Integer> cleared = toEnumMapChange(events.get(4));
+        assertTrue(cleared.valuesRemoved());
+        assertEquals(Collections.singletonMap(Column.SIZE, 60), cleared.getOldValues());
+    }
+
+    @Test
+    public void testRemoveAll() {
+        EnumMapProperty<Column, Integer> property = new EnumMapProperty<>(Column.class);
+        property.put(Column.NAME, 100);
+        property.put(Column.SIZE, 60);
+        property.put(Column.DATE, 80);
+        List<MapPropertyChange<? extends Column, ? extends Integer>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        property.removeAll(Arrays.asList(Column.NAME, Column.DATE, "other"));
+        property.removeAll(Collections.singletonList(Column.NAME));
+
+        assertEquals(Collections.singletonMap(Column.SIZE, 60), property.asUnmodifiableMap());
+        assertEquals(1, property.size());
+        assertEquals(1, events.size());
+        EnumMapPropertyChange<Column, Integer> removed = toEnumMapChange(events.get(0));
+        assertTrue(removed.valuesRemoved());
+        Map<Column, Integer> oldValues = new EnumMap<>(Column.class);
+        oldValues.put(Column.NAME, 100);
+        oldValues.put(Column.DATE, 80);
+        assertEquals(oldValues, removed.getOldValues());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EnumMapPropertyChange<Column, Integer> toEnumMapChange(MapPropertyChange<? extends Column, ? extends
+            Integer> event) {
+        // Events are only fired by the property under test, whose types are known
+        return (EnumMapPropertyChange<Column, Integer>) event;
+    }
+}
@@ -0,0 +1,103 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChange;
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChangeListener;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @see EnumSetProperty
+ */
+public class EnumSetPropertyTest {
+
+    private enum Flag {
+        A, B, C, D
+    }
+
+    @Test
+    public void testAddRemove() {
+        EnumSetProperty<Flag> property = new EnumSetProperty<>(Flag.class);
+        List<SetPropertyChange<? extends Flag>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        assertTrue(property.add(Flag.B));
+        assertFalse(property.add(Flag.B));
+        assertTrue(property.addAll(Arrays.asList(Flag.A, Flag.B, Flag.D)));
+        assertEquals(3, property.size());
+        assertTrue(property.contains(Flag.D));
+        assertFalse(property.contains(Flag.C));
+        assertFalse(property.contains("A"));
+        assertArrayEquals(new long[]{0b1011}, property.getBits());
+        assertArrayEquals(new Flag[]{Flag.A, Flag.B, Flag.D}, property.toArray(new Flag[0]));
+
+        assertTrue(property.retainAll(Collections.singleton(Flag.D)));
+        assertEquals(EnumSet.of(Flag.D), EnumSet.copyOf(property.asUnmodifiableSet()));
+        assertFalse(property.remove(Flag.A));
+        property.clear();
+        assertTrue(property.isEmpty());
+
+        assertEquals(4, events.size());
+        EnumSetPropertyChange<Flag> added = (EnumSetPropertyChange<Flag>) events.get(1);
+        assertTrue(added.valuesAdded());
+        assertArrayEquals(new long[]{0b1001}, added.getAddedBits());
+        assertEquals(EnumSet.of(Flag.A, Flag.D), added.getNewValues());
+        EnumSetPropertyChange<Flag> removed = (EnumSetPropertyChange<Flag>) events.get(2);
+        assertTrue(removed.valuesRemoved());
+        assertEquals(EnumSet.of(Flag.A, Flag.B), removed.getOldValues());
+    }
+
+    @Test
+    public void testSetBits() {
+        EnumSetProperty<Flag> property = new EnumSetProperty<>(Flag.class, EnumSet.of(Flag.A, Flag.B));
+        SetPropertyChangeListener<Flag> listener = mock(SetPropertyChangeListener.class);
+        property.addChangeListener(listener);
+
+        property.setBits(0b1110 | (1L << 40));
+        assertEquals(EnumSet.of(Flag.B, Flag.C, Flag.D), EnumSet.copyOf(property.asUnmodifiableSet()));
+        assertEquals(3, property.size());
+        verify(listener, times(2)).setPropertyChanged(any());
+    }
+}
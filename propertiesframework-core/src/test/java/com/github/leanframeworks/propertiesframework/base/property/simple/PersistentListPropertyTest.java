@@ -0,0 +1,151 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChange;
+import com.github.leanframeworks.propertiesframework.base.persistent.PersistentVector;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see PersistentListProperty
+ */
+public class PersistentListPropertyTest {
+
+    @Test
+    public void testSnapshotIsNotAffectedByChanges() {
+        PersistentListProperty<Integer> property = new PersistentListProperty<>(Arrays.asList(1, 2, 3));
+        PersistentVector<Integer> snapshot = property.snapshot();
+        assertSame(snapshot, property.snapshot());
+
+        property.add(4);
+        property.set(0, 10);
+        property.remove(1);
+
+        assertEquals(Arrays.asList(1, 2, 3), snapshot);
+        assertEquals(Arrays.asList(10, 3, 4), property);
+        assertEquals(Arrays.asList(10, 3, 4), property.asUnmodifiableList());
+    }
+
+    @Test
+    public void testIterationDuringChange() {
+        PersistentListProperty<Integer> property = new PersistentListProperty<>(Arrays.asList(1, 2, 3));
+
+        List<Integer> iterated = new ArrayList<>();
+        for (Integer item : property) {
+            iterated.add(item);
+            property.add(item * 10);
+        }
+
+        assertEquals(Arrays.asList(1, 2, 3), iterated);
+        assertEquals(Arrays.asList(1, 2, 3, 10, 20, 30), property);
+    }
+
+    @Test
+    public void testEvents() {
+        PersistentListProperty<Integer> property = new PersistentListProperty<>(Arrays.asList(1, 2, 3));
+        List<ListPropertyChange<? extends Integer>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        property.add(1, 5);
+        property.set(0, 0);
+        property.set(0, 0);
+        property.remove(3);
+        property.addAll(Collections.emptyList());
+        property.clear();
+
+        assertEquals(4, events.size());
+        assertChange(events.get(0), 1, null, Collections.singletonList(5), Arrays.asList(1, 2, 3),
+                Arrays.asList(1, 5, 2, 3));
+        assertChange(events.get(1), 0, Collections.singletonList(1), Collections.singletonList(0),
+                Arrays.asList(1, 5, 2, 3), Arrays.asList(0, 5, 2, 3));
+        assertChange(events.get(2), 3, Collections.singletonList(3), null, Arrays.asList(0, 5, 2, 3),
+                Arrays.asList(0, 5, 2));
+        assertChange(events.get(3), 0, Arrays.asList(0, 5, 2), null, Arrays.asList(0, 5, 2), Collections.emptyList());
+    }
+
+    @Test
+    public void testRangeEvents() {
+        PersistentListProperty<Integer> property = new PersistentListProperty<>(Arrays.asList(1, 2, 3, 4));
+        List<ListPropertyChange<? extends Integer>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        property.setAll(1, Arrays.asList(5, 6));
+        property.setAll(0, Arrays.asList(1, 5));
+        property.removeRange(1, 3);
+        property.removeRange(0, 0);
+
+        assertEquals(2, events.size());
+        assertChange(events.get(0), 1, Arrays.asList(2, 3), Arrays.asList(5, 6), Arrays.asList(1, 2, 3, 4),
+                Arrays.asList(1, 5, 6, 4));
+        assertChange(events.get(1), 1, Arrays.asList(5, 6), null, Arrays.asList(1, 5, 6, 4), Arrays.asList(1, 4));
+    }
+
+    @Test
+    public void testRemoveByValue() {
+        PersistentListProperty<String> property = new PersistentListProperty<>(Arrays.asList("a", "b", "c", "b"));
+
+        assertTrue(property.remove("b"));
+        assertFalse(property.remove("d"));
+        assertTrue(property.retainAll(Collections.singleton("b")));
+
+        assertEquals(Collections.singletonList("b"), property);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIteratorIsReadOnly() {
+        PersistentListProperty<Integer> property = new PersistentListProperty<>(Arrays.asList(1, 2, 3));
+        Iterator<Integer> iterator = property.iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    private static void assertChange(ListPropertyChange<? extends Integer> event, int startIndex,
+                                     List<Integer> oldValues, List<Integer> newValues, List<Integer> before,
+                                     List<Integer> after) {
+        PersistentListPropertyChange<? extends Integer> change = (PersistentListPropertyChange<? extends Integer>)
+                event;
+        assertEquals(startIndex, change.getStartIndex());
+        assertEquals((oldValues == null) ? Collections.emptyList() : oldValues, change.getOldValues());
+        assertEquals((newValues == null) ? Collections.emptyList() : newValues, change.getNewValues());
+        assertEquals(before, change.getSnapshotBefore());
+        assertEquals(after, change.getSnapshotAfter());
+    }
+}
@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChange;
+import com.github.leanframeworks.propertiesframework.base.persistent.PersistentHashMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see PersistentMapProperty
+ */
+public class PersistentMapPropertyTest {
+
+    @Test
+    public void testSnapshotAndLiveViews() {
+        PersistentMapProperty<String, Integer> property = new PersistentMapProperty<>();
+        Set<String> keys = property.keySet();
+        Map<String, Integer> unmodifiable = property.asUnmodifiableMap();
+
+        property.put("a", 1);
+        PersistentHashMap<String, Integer> snapshot = property.snapshot();
+        property.put("b", 2);
+        property.put("a", 10);
+
+        assertEquals(Collections.singletonMap("a", 1), snapshot);
+        assertEquals(2, keys.size());
+        assertTrue(keys.contains("b"));
+        assertEquals(10, (int) unmodifiable.get("a"));
+        assertTrue(property.values().contains(2));
+        assertEquals(2, property.entrySet().size());
+    }
+
+    @Test
+    public void testEvents() {
+        PersistentMapProperty<String, Integer> property = new PersistentMapProperty<>();
+        List<MapPropertyChange<? extends String, ? extends Integer>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        property.put("a", 1);
+        property.put("a", 1);
+        Map<String, Integer> entries = new HashMap<>();
+        entries.put("a", 2);
+        entries.put("b", 3);
+        property.putAll(entries);
+        assertNull(property.remove("c"));
+        assertEquals(3, (int) property.remove("b"));
+        property.clear();
+
+        assertEquals(5, events.size());
+        assertChange(events.get(0), Collections.emptyMap(), Collections.singletonMap("a", 1), Collections.emptyMap());
+        assertChange(events.get(1), Collections.emptyMap(), Collections.singletonMap("b", 3),
+                Collections.singletonMap("a", 1));
+        assertChange(events.get(2), Collections.singletonMap("a", 1), Collections.singletonMap("a", 2), null);
+        assertChange(events.get(3), Collections.singletonMap("b", 3), Collections.emptyMap(), entries);
+        assertChange(events.get(4), Collections.singletonMap("a", 2), Collections.emptyMap(),
+                Collections.singletonMap("a", 2));
+        assertTrue(((PersistentMapPropertyChange<?, ?>) events.get(4)).getSnapshotAfter().isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testKeySetIsReadOnly() {
+        PersistentMapProperty<String, Integer> property = new PersistentMapProperty<>(Collections.singletonMap("a", 1));
+        property.keySet().clear();
+    }
+
+    @Test
+    public void testRemoveAll() {
+        PersistentMapProperty<String, Integer> property = new PersistentMapProperty<>();
+        Map<String, Integer> entries = new HashMap<>();
+        entries.put("a", 1);
+        entries.put("b", 2);
+        entries.put("c", 3);
+        property.putAll(entries);
+        List<MapPropertyChange<? extends String, ? extends Integer>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        property.removeAll(Arrays.asList("a", "c", "d"));
+        property.removeAll(Collections.singletonList("d"));
+
+        assertEquals(Collections.singletonMap("b", 2), property.asUnmodifiableMap());
+        assertEquals(1, events.size());
+        Map<String, Integer> removed = new HashMap<>(entries);
+        removed.remove("b");
+        assertChange(events.get(0), removed, Collections.emptyMap(), entries);
+    }
+
+    private static void assertChange(MapPropertyChange<? extends String, ? extends Integer> event,
+                                     Map<String, Integer> oldValues, Map<String, Integer> newValues,
+                                     Map<String, Integer> before) {
+        PersistentMapPropertyChange<? extends String, ? extends Integer> change =
+                (PersistentMapPropertyChange<? extends String, ? extends Integer>) event;
+        assertEquals(oldValues, change.getOldValues());
+        assertEquals(newValues, change.getNewValues());
+        if (before != null) {
+            assertEquals(before, change.getSnapshotBefore());
+        }
+    }
+}
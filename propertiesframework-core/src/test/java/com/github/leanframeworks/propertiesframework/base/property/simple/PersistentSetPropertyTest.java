@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.property.simple;
+
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChange;
+import com.github.leanframeworks.propertiesframework.base.persistent.PersistentHashSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see PersistentSetProperty
+ */
+public class PersistentSetPropertyTest {
+
+    @Test
+    public void testChangesAndSnapshots() {
+        PersistentSetProperty<Integer> property = new PersistentSetProperty<>(new HashSet<>(Arrays.asList(1, 2)));
+        List<SetPropertyChange<? extends Integer>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+        PersistentHashSet<Integer> snapshot = property.snapshot();
+
+        assertFalse(property.add(1));
+        assertTrue(property.addAll(Arrays.asList(2, 3, 4)));
+        assertTrue(property.removeAll(Arrays.asList(1, 5)));
+        assertTrue(property.retainAll(Collections.singleton(3)));
+
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), snapshot);
+        assertEquals(Collections.singleton(3), property);
+        assertEquals(Collections.singleton(3), property.asUnmodifiableSet());
+
+        assertEquals(3, events.size());
+        PersistentSetPropertyChange<? extends Integer> added = (PersistentSetPropertyChange<? extends Integer>)
+                events.get(0);
+        assertEquals(new HashSet<>(Arrays.asList(3, 4)), added.getNewValues());
+        assertEquals(snapshot, added.getSnapshotBefore());
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4)), added.getSnapshotAfter());
+    }
+
+    @Test
+    public void testClear() {
+        PersistentSetProperty<Integer> property = new PersistentSetProperty<>(new HashSet<>(Arrays.asList(1, 2)));
+        List<SetPropertyChange<? extends Integer>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        property.clear();
+        property.clear();
+
+        assertTrue(property.isEmpty());
+        assertEquals(1, events.size());
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), events.get(0).getOldValues());
+    }
+}
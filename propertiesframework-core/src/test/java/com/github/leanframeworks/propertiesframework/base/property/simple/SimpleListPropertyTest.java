@@ -31,6 +31,7 @@ package com.github.leanframeworks.propertiesframework.base.property.simple;
 
 import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.property.ListRangeSubscription;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -40,6 +41,7 @@ import java.util.List;
 
 import static com.github.leanframeworks.propertiesframework.test.TestUtils.haveEqualElements;
 import static com.github.leanframeworks.propertiesframework.test.TestUtils.matches;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -197,6 +199,38 @@ public class SimpleListPropertyTest {
         verifyNoMoreInteractions(listener);
     }
 
+    @Test
+    public void testSet() {
+        SimpleListProperty<Integer> property = new SimpleListProperty<>(asList(1, 2, 3));
+        ListPropertyChangeListener<Integer> listener = mock(ListPropertyChangeListener.class);
+        property.addChangeListener(listener);
+
+        property.set(1, 4);
+        property.set(2, 3);
+
+        assertTrue(haveEqualElements(asList(1, 4, 3), property));
+        verify(listener).listPropertyChanged(matches(
+                new ListPropertyChange<>(property, 1, singletonList(2), singletonList(4))
+        ));
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testSetAll() {
+        SimpleListProperty<Integer> property = new SimpleListProperty<>(asList(1, 2, 3, 4));
+        ListPropertyChangeListener<Integer> listener = mock(ListPropertyChangeListener.class);
+        property.addChangeListener(listener);
+
+        property.setAll(1, asList(5, 6));
+        property.setAll(2, asList(6, 4));
+
+        assertTrue(haveEqualElements(asList(1, 5, 6, 4), property));
+        verify(listener).listPropertyChanged(matches(
+                new ListPropertyChange<>(property, 1, asList(2, 3), asList(5, 6))
+        ));
+        verifyNoMoreInteractions(listener);
+    }
+
     @Test
     public void testAddAll() {
         SimpleListProperty<Integer> property = new SimpleListProperty<>();
@@ -253,6 +287,22 @@ public class SimpleListPropertyTest {
         verifyNoMoreInteractions(listener);
     }
 
+    @Test
+    public void testRemoveRange() {
+        SimpleListProperty<String> property = new SimpleListProperty<>(asList("A", "B", "C", "D"));
+        ListPropertyChangeListener<String> listener = mock(ListPropertyChangeListener.class);
+        property.addChangeListener(listener);
+
+        property.removeRange(1, 3);
+        property.removeRange(1, 1);
+
+        assertTrue(haveEqualElements(asList("A", "D"), property));
+        verify(listener).listPropertyChanged(matches(
+                new ListPropertyChange<>(property, 1, asList("B", "C"), null)
+        ));
+        verifyNoMoreInteractions(listener);
+    }
+
     @Test
     public void testRemoveAt() {
         List<String> refAll = new ArrayList<>();
@@ -570,4 +620,50 @@ public class SimpleListPropertyTest {
         assertArrayEquals(ref, property.toArray());
         assertArrayEquals(ref, property.toArray(new Integer[3]));
     }
+
+    @Test
+    public void testRangeListeners() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(i);
+        }
+        SimpleListProperty<Integer> property = new SimpleListProperty<>(items);
+        ListPropertyChangeListener<Integer> headListener = mock(ListPropertyChangeListener.class);
+        ListPropertyChangeListener<Integer> viewportListener = mock(ListPropertyChangeListener.class);
+        property.addRangeListener(0, 50, headListener);
+        ListRangeSubscription<Integer> viewport = property.addRangeListener(500, 550, viewportListener);
+
+        // Replacement in the viewport only
+        property.set(510, -1);
+        verifyZeroInteractions(headListener);
+        verify(viewportListener).listPropertyChanged(any(ListPropertyChange.class));
+
+        // Insertion before both ranges shifts both of them
+        property.add(0, -2);
+        verify(headListener).listPropertyChanged(any(ListPropertyChange.class));
+        verify(viewportListener, times(2)).listPropertyChanged(any(ListPropertyChange.class));
+
+        // Removal after both ranges
+        property.remove(900);
+        verifyNoMoreInteractions(headListener, viewportListener);
+
+        // Moved viewport
+        viewport.moveTo(850, 900);
+        property.set(520, -3);
+        property.set(860, -4);
+        verify(viewportListener, times(3)).listPropertyChanged(any(ListPropertyChange.class));
+
+        // Disposed subscription
+        viewport.dispose();
+        assertFalse(viewport.isActive());
+        property.set(860, -5);
+        verifyNoMoreInteractions(headListener, viewportListener);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        new SimpleListProperty<Integer>().addRangeListener(10, 5, e -> {
+            // Nothing to be done
+        });
+    }
 }
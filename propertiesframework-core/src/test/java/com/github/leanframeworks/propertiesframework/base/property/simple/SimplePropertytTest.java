@@ -29,12 +29,28 @@
 
 package com.github.leanframeworks.propertiesframework.base.property.simple;
 
+import com.github.leanframeworks.propertiesframework.api.common.Versioned;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.common.EpsilonEqualityStrategy;
+import com.github.leanframeworks.propertiesframework.base.common.IdentityEqualityStrategy;
+import com.github.leanframeworks.propertiesframework.base.common.VersionedEqualityStrategy;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.property.NotificationCycleException;
+import com.github.leanframeworks.propertiesframework.base.property.NotificationMode;
+import com.github.leanframeworks.propertiesframework.base.property.wrap.ReadOnlyPropertyWrapper;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static com.github.leanframeworks.propertiesframework.test.TestUtils.matches;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -115,4 +131,224 @@ public class SimplePropertytTest {
         // Check no event fired
         verify(listenerMock, never()).propertyChanged(any());
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testEpsilonEqualityStrategy() {
+        SimpleProperty<Double> property = new SimpleProperty<>(1.0);
+        property.setEqualityStrategy(new EpsilonEqualityStrategy(0.1));
+        PropertyChangeListener<Double> listenerMock = (PropertyChangeListener<Double>) mock(PropertyChangeListener.class);
+        property.addChangeListener(listenerMock);
+
+        property.setValue(1.05);
+        property.setValue(2.0);
+
+        // Check only the significant change was notified
+        verify(listenerMock).propertyChanged(matches(new PropertyChange(property, 1.05, 2.0)));
+        verify(listenerMock).propertyChanged(any());
+    }
+
+    @Test
+    public void testEpsilonEqualityStrategyWithCreepingUpdates() {
+        SimpleProperty<Double> property = new SimpleProperty<>(1.0);
+        property.setEqualityStrategy(new EpsilonEqualityStrategy(0.1));
+        List<PropertyChange<? extends Double>> events = new ArrayList<>();
+        property.addChangeListener(events::add);
+
+        // Each step is within the tolerance, but not the accumulated drift
+        for (int i = 1; i <= 10; i++) {
+            property.setValue(1.0 + (i * 0.04));
+        }
+
+        // Notified every third step, when drifting too far from the last notified value
+        assertEquals(3, events.size());
+        assertEquals(1.08, events.get(0).getOldValue(), 1e-9);
+        assertEquals(1.12, events.get(0).getNewValue(), 1e-9);
+        assertEquals(1.24, events.get(1).getNewValue(), 1e-9);
+        assertEquals(1.36, events.get(2).getNewValue(), 1e-9);
+
+        // Drift while inhibited is notified with the latest value
+        property.setInhibited(true);
+        property.setValue(1.48);
+        property.setValue(1.52);
+        property.setInhibited(false);
+        assertEquals(4, events.size());
+        assertEquals(1.36, events.get(3).getOldValue(), 1e-9);
+        assertEquals(1.52, events.get(3).getNewValue(), 1e-9);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testIdentityEqualityStrategy() {
+        List<String> value = new ArrayList<>();
+        SimpleProperty<List<String>> property = new SimpleProperty<>(value);
+        property.setEqualityStrategy(new IdentityEqualityStrategy<>());
+        PropertyChangeListener<List<String>> listenerMock = (PropertyChangeListener<List<String>>) mock
+                (PropertyChangeListener.class);
+        property.addChangeListener(listenerMock);
+
+        property.setValue(value);
+        property.setValue(new ArrayList<>());
+
+        // Check only the new instance was notified
+        verify(listenerMock).propertyChanged(any());
+    }
+
+    @Test
+    public void testVersionedEqualityStrategy() {
+        VersionedValue value = new VersionedValue();
+        SimpleProperty<VersionedValue> property = new SimpleProperty<>();
+        property.setEqualityStrategy(new VersionedEqualityStrategy<>());
+        ReadOnlyPropertyWrapper<VersionedValue> wrapper = new ReadOnlyPropertyWrapper<>(property);
+        List<VersionedValue> notifiedValues = new ArrayList<>();
+        List<VersionedValue> wrapperNotifiedValues = new ArrayList<>();
+        property.addChangeListener(e -> notifiedValues.add(e.getNewValue()));
+        wrapper.addChangeListener(e -> wrapperNotifiedValues.add(e.getNewValue()));
+
+        // Check the wrapper does not share the state of the strategy of the wrapped property
+        assertNotSame(property.getEqualityStrategy(), wrapper.getEqualityStrategy());
+
+        property.setValue(value);
+        property.setValue(value);
+        value.modify();
+        property.setValue(value);
+        property.setValue(value);
+        value.modify();
+        property.setValue(value);
+
+        assertEquals(Arrays.asList(value, value, value), notifiedValues);
+        assertEquals(notifiedValues, wrapperNotifiedValues);
+    }
+
+    @Test
+    public void testVersion() {
+        SimpleProperty<Integer> property = new SimpleProperty<>(1);
+        assertEquals(0, property.getVersion());
+
+        property.setValue(1);
+        assertEquals(0, property.getVersion());
+
+        property.setValue(2);
+        assertEquals(1, property.getVersion());
+
+        // Version still incremented while inhibited
+        property.setInhibited(true);
+        property.setValue(3);
+        assertEquals(2, property.getVersion());
+        property.setInhibited(false);
+        assertEquals(2, property.getVersion());
+    }
+
+    @Test
+    public void testNestedChangeIgnoredInImmediateMode() {
+        SimpleProperty<Integer> property = new SimpleProperty<>(0);
+        List<Integer> notifiedValues = new ArrayList<>();
+        property.addChangeListener(event -> {
+            notifiedValues.add(event.getNewValue());
+            property.setValue(event.getNewValue() + 1);
+        });
+
+        property.setValue(1);
+        assertEquals(Integer.valueOf(1), property.getValue());
+        assertEquals(Collections.singletonList(1), notifiedValues);
+    }
+
+    @Test
+    public void testNestedChangeQueued() {
+        SimpleProperty<Integer> property = new SimpleProperty<>(0);
+        property.setNotificationMode(NotificationMode.QUEUED);
+        List<Integer> notifiedValues = new ArrayList<>();
+        property.addChangeListener(event -> {
+            notifiedValues.add(event.getNewValue());
+            if (event.getNewValue() < 3) {
+                property.setValue(event.getNewValue() + 1);
+            }
+        });
+
+        property.setValue(1);
+        assertEquals(Integer.valueOf(3), property.getValue());
+        assertEquals(Arrays.asList(1, 2, 3), notifiedValues);
+    }
+
+    @Test
+    public void testQueuedDeepChain() {
+        int length = 50000;
+        List<SimpleProperty<Integer>> chain = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            SimpleProperty<Integer> property = new SimpleProperty<>(0);
+            property.setNotificationMode(NotificationMode.QUEUED);
+            if (!chain.isEmpty()) {
+                chain.get(chain.size() - 1).addChangeListener(event -> property.setValue(event.getNewValue()));
+            }
+            chain.add(property);
+        }
+
+        // Would overflow the stack in immediate mode
+        chain.get(0).setValue(5);
+        assertEquals(Integer.valueOf(5), chain.get(length - 1).getValue());
+    }
+
+    @Test
+    public void testQueuedCycle() {
+        SimpleProperty<Integer> property1 = new SimpleProperty<>(0);
+        SimpleProperty<Integer> property2 = new SimpleProperty<>(0);
+        property1.setNotificationMode(NotificationMode.QUEUED);
+        property2.setNotificationMode(NotificationMode.QUEUED);
+        property1.addChangeListener(event -> property2.setValue(event.getNewValue() + 1));
+        property2.addChangeListener(event -> property1.setValue(event.getNewValue() + 1));
+
+        try {
+            property1.setValue(1);
+            fail("Cycle not detected");
+        } catch (NotificationCycleException e) {
+            assertTrue((e.getProperty() == property1) || (e.getProperty() == property2));
+        }
+
+        // Next cascades are not affected
+        property1.removeChangeListener(property1.getChangeListeners().iterator().next());
+        List<Integer> notifiedValues = new ArrayList<>();
+        property2.addChangeListener(event -> notifiedValues.add(event.getNewValue()));
+        property2.setValue(-10);
+        assertEquals(Collections.singletonList(-10), notifiedValues);
+        assertEquals(Integer.valueOf(-9), property1.getValue());
+    }
+
+    @Test
+    public void testQueuedCycleLimit() {
+        SimpleProperty<Integer> property1 = new SimpleProperty<>(0);
+        SimpleProperty<Integer> property2 = new SimpleProperty<>(0);
+        property1.setNotificationMode(NotificationMode.QUEUED);
+        property2.setNotificationMode(NotificationMode.QUEUED);
+        property1.addChangeListener(event -> property2.setValue(event.getNewValue() + 1));
+        property2.addChangeListener(event -> property1.setValue(event.getNewValue() + 1));
+
+        int defaultLimit = AbstractReadableProperty.getMaxQueuedNotificationsPerCascade();
+        AbstractReadableProperty.setMaxQueuedNotificationsPerCascade(5);
+        try {
+            property1.setValue(1);
+            fail("Cycle not detected");
+        } catch (NotificationCycleException e) {
+            // Stopped after 5 notifications of each property
+            assertTrue(property1.getValue() <= 12);
+        } finally {
+            AbstractReadableProperty.setMaxQueuedNotificationsPerCascade(defaultLimit);
+        }
+    }
+
+    /**
+     * Mutable value stamped with a version.
+     */
+    private static class VersionedValue implements Versioned {
+
+        private long version = 0;
+
+        public void modify() {
+            version++;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+    }
 }
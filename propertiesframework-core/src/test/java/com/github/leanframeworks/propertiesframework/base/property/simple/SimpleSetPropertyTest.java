@@ -33,10 +33,12 @@ import com.github.leanframeworks.propertiesframework.api.property.SetPropertyCha
 import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChangeListener;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static com.github.leanframeworks.propertiesframework.test.TestUtils.haveEqualElements;
 import static com.github.leanframeworks.propertiesframework.test.TestUtils.matches;
@@ -433,4 +435,12 @@ public class SimpleSetPropertyTest {
         assertArrayEquals(ref, property.toArray());
         assertArrayEquals(ref, property.toArray(new Integer[3]));
     }
+
+    @Test
+    public void testConstructorWithSetFactory() {
+        SimpleSetProperty<Integer> property = new SimpleSetProperty<>(TreeSet::new, new HashSet<>(Arrays.asList(3, 1)));
+        property.add(2);
+
+        assertArrayEquals(new Integer[]{1, 2, 3}, property.toArray());
+    }
 }
@@ -0,0 +1,197 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.snapshot;
+
+import com.github.leanframeworks.propertiesframework.base.codec.PropertyValueCodecRegistry;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleListProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleMapProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleSetProperty;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see PropertyChangeJournal
+ * @see PropertyChangeJournalReader
+ * @see PropertyChangeJournalReplayer
+ */
+public class PropertyChangeJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecordAndReplay() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+        SimpleListProperty<String> listProperty = new SimpleListProperty<>();
+        SimpleSetProperty<String> setProperty = new SimpleSetProperty<>();
+        SimpleMapProperty<String, Integer> mapProperty = new SimpleMapProperty<>();
+
+        PropertyChangeJournal journal = new PropertyChangeJournal(directory);
+        journal.register("value", property);
+        journal.registerList("list", listProperty);
+        journal.registerSet("set", setProperty);
+        journal.registerMap("map", mapProperty);
+        property.setValue(1);
+        property.setValue(2);
+        listProperty.addAll(Arrays.asList("a", "b", "c"));
+        listProperty.set(1, "B");
+        listProperty.remove(0);
+        setProperty.add("x");
+        setProperty.add("y");
+        setProperty.remove("x");
+        mapProperty.put("k1", 1);
+        mapProperty.put("k2", 2);
+        mapProperty.put("k1", 10);
+        mapProperty.remove("k2");
+        journal.flush();
+        journal.dispose();
+
+        // Not recorded anymore
+        property.setValue(3);
+
+        SimpleIntegerProperty replayedProperty = new SimpleIntegerProperty(0);
+        SimpleListProperty<String> replayedListProperty = new SimpleListProperty<>();
+        SimpleSetProperty<String> replayedSetProperty = new SimpleSetProperty<>();
+        SimpleMapProperty<String, Integer> replayedMapProperty = new SimpleMapProperty<>();
+        PropertyChangeJournalReplayer replayer = new PropertyChangeJournalReplayer();
+        replayer.register("value", replayedProperty);
+        replayer.registerList("list", replayedListProperty);
+        replayer.registerSet("set", replayedSetProperty);
+        replayer.registerMap("map", replayedMapProperty);
+
+        assertEquals(12, replayer.replay(directory));
+        assertEquals(Integer.valueOf(2), replayedProperty.getValue());
+        assertEquals(listProperty.asUnmodifiableList(), replayedListProperty.asUnmodifiableList());
+        assertEquals(setProperty.asUnmodifiableSet(), replayedSetProperty.asUnmodifiableSet());
+        assertEquals(mapProperty.asUnmodifiableMap(), replayedMapProperty.asUnmodifiableMap());
+    }
+
+    @Test
+    public void testSegments() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+
+        PropertyChangeJournal journal = new PropertyChangeJournal(directory, 64);
+        journal.register("value", property);
+        for (int i = 1; i <= 100; i++) {
+            property.setValue(i);
+        }
+        journal.dispose();
+
+        // Reopened journal continues with new segments
+        journal = new PropertyChangeJournal(directory, 64);
+        journal.register("value", property);
+        property.setValue(101);
+        journal.dispose();
+
+        assertTrue(JournalFormat.listSegments(directory).size() > 2);
+        List<Object> values = new ArrayList<>();
+        PropertyChangeJournalReader.forEachRecord(directory, record -> values.add(record.getNewValue()));
+        assertEquals(101, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i + 1, values.get(i));
+        }
+    }
+
+    @Test
+    public void testBoundedQueue() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+
+        // The notifying thread waits for the writer thread instead of dropping records
+        PropertyChangeJournal journal = new PropertyChangeJournal(directory, 64, 1);
+        journal.register("value", property);
+        for (int i = 1; i <= 1000; i++) {
+            property.setValue(i);
+        }
+        journal.dispose();
+
+        List<Object> values = new ArrayList<>();
+        PropertyChangeJournalReader.forEachRecord(directory, record -> values.add(record.getNewValue()));
+        assertEquals(1000, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i + 1, values.get(i));
+        }
+
+        // All segments have been released
+        for (Path segment : JournalFormat.listSegments(directory)) {
+            Files.delete(segment);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQueueCapacity() throws IOException {
+        new PropertyChangeJournal(folder.getRoot().toPath(), 64, 0);
+    }
+
+    @Test
+    public void testTornRecord() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+
+        PropertyChangeJournal journal = new PropertyChangeJournal(directory);
+        journal.register("value", property);
+        property.setValue(1);
+        property.setValue(2);
+        journal.dispose();
+
+        // Corrupt the last byte of the second record
+        Path segment = JournalFormat.listSegments(directory).get(0);
+        List<JournalRecord> records = new ArrayList<>();
+        PropertyChangeJournalReader.forEachRecord(directory, records::add);
+        int secondRecordEnd = JournalFormat.SEGMENT_HEADER_SIZE + 2 * JournalFormat.RECORD_HEADER_SIZE + 2 *
+                JournalFormat.encodeRecord(records.get(0).getTimestamp(), "value", JournalRecordType.VALUE, -1, 0, 1,
+                        PropertyValueCodecRegistry.getDefault()).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), secondRecordEnd - 1);
+        }
+
+        records.clear();
+        PropertyChangeJournalReader.forEachRecord(directory, records::add);
+        assertEquals(1, records.size());
+        assertEquals(1, records.get(0).getNewValue());
+    }
+}
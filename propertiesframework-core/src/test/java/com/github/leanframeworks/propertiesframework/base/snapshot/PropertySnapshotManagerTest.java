@@ -0,0 +1,240 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.base.snapshot;
+
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleListProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleMapProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleSetProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleStringProperty;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @see PropertySnapshotManager
+ */
+public class PropertySnapshotManagerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFullSnapshot() throws IOException {
+        SimpleIntegerProperty intProperty = new SimpleIntegerProperty(5);
+        SimpleStringProperty stringProperty = new SimpleStringProperty("text");
+        SimpleProperty<Object> objectProperty = new SimpleProperty<>(new BigDecimal("1.50"));
+        SimpleListProperty<Object> listProperty = new SimpleListProperty<>(Arrays.asList(1, "two", null, TimeUnit
+                .SECONDS));
+        SimpleSetProperty<Long> setProperty = new SimpleSetProperty<>(new HashSet<>(Arrays.asList(1L, -2L)));
+        Map<String, Double> entries = new HashMap<>();
+        entries.put("a", 1.0);
+        entries.put("b", null);
+        SimpleMapProperty<String, Double> mapProperty = new SimpleMapProperty<>(entries);
+
+        PropertySnapshotManager manager = new PropertySnapshotManager();
+        manager.register("int", intProperty);
+        manager.register("string", stringProperty);
+        manager.register("object", objectProperty);
+        manager.registerList("list", listProperty);
+        manager.registerSet("set", setProperty);
+        manager.registerMap("map", mapProperty);
+        File file = writeFull(manager);
+
+        intProperty.setValue(6);
+        stringProperty.setValue(null);
+        objectProperty.setValue(Arrays.asList(1, 2));
+        listProperty.clear();
+        setProperty.add(3L);
+        setProperty.remove(1L);
+        mapProperty.remove("a");
+        mapProperty.put("c", 3.0);
+
+        restore(manager, file);
+        assertEquals(Integer.valueOf(5), intProperty.getValue());
+        assertEquals("text", stringProperty.getValue());
+        assertEquals(new BigDecimal("1.50"), objectProperty.getValue());
+        assertEquals(Arrays.asList(1, "two", null, TimeUnit.SECONDS), listProperty.asUnmodifiableList());
+        assertEquals(new HashSet<>(Arrays.asList(1L, -2L)), setProperty.asUnmodifiableSet());
+        assertEquals(entries, mapProperty.asUnmodifiableMap());
+    }
+
+    @Test
+    public void testDeltaSnapshots() throws IOException {
+        SimpleIntegerProperty property1 = new SimpleIntegerProperty(1);
+        SimpleIntegerProperty property2 = new SimpleIntegerProperty(2);
+        PropertySnapshotManager manager = new PropertySnapshotManager();
+        manager.register("p1", property1);
+        manager.register("p2", property2);
+
+        File full = writeFull(manager);
+        property1.setValue(10);
+        File delta1 = writeDelta(manager);
+        property2.setValue(20);
+        File delta2 = writeDelta(manager);
+        assertTrue(delta1.length() < full.length());
+
+        SimpleIntegerProperty restored1 = new SimpleIntegerProperty();
+        SimpleIntegerProperty restored2 = new SimpleIntegerProperty();
+        PropertySnapshotManager restoringManager = new PropertySnapshotManager();
+        restoringManager.register("p1", restored1);
+        restoringManager.register("p2", restored2);
+
+        restore(restoringManager, full);
+        assertEquals(Integer.valueOf(1), restored1.getValue());
+        assertEquals(Integer.valueOf(2), restored2.getValue());
+        restore(restoringManager, delta1);
+        assertEquals(Integer.valueOf(10), restored1.getValue());
+        assertEquals(Integer.valueOf(2), restored2.getValue());
+        restore(restoringManager, delta2);
+        assertEquals(Integer.valueOf(10), restored1.getValue());
+        assertEquals(Integer.valueOf(20), restored2.getValue());
+    }
+
+    @Test
+    public void testDeltaOutOfOrder() throws IOException {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(1);
+        PropertySnapshotManager manager = new PropertySnapshotManager();
+        manager.register("p", property);
+
+        File full = writeFull(manager);
+        writeDelta(manager);
+        File delta2 = writeDelta(manager);
+
+        restore(manager, full);
+        try {
+            restore(manager, delta2);
+            fail("Delta snapshot should not be restorable");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRestoreNotifiesOnce() throws IOException {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(1);
+        PropertySnapshotManager manager = new PropertySnapshotManager();
+        manager.register("p", property);
+        File file = writeFull(manager);
+
+        property.setValue(2);
+        PropertyChangeListener<Integer> listenerMock = (PropertyChangeListener<Integer>) mock(PropertyChangeListener
+                .class);
+        property.addChangeListener(listenerMock);
+        restore(manager, file);
+
+        verify(listenerMock).propertyChanged(any());
+    }
+
+    @Test
+    public void testSeveralSnapshotsInSameFile() throws IOException {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(1);
+        PropertySnapshotManager manager = new PropertySnapshotManager();
+        manager.register("p", property);
+
+        File file = folder.newFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            manager.writeFullSnapshot(channel);
+            property.setValue(2);
+            manager.writeDeltaSnapshot(channel);
+        }
+
+        SimpleIntegerProperty restored = new SimpleIntegerProperty();
+        PropertySnapshotManager restoringManager = new PropertySnapshotManager();
+        restoringManager.register("p", restored);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            restoringManager.restoreSnapshot(channel);
+            assertEquals(Integer.valueOf(1), restored.getValue());
+            restoringManager.restoreSnapshot(channel);
+            assertEquals(Integer.valueOf(2), restored.getValue());
+            assertEquals(channel.size(), channel.position());
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedSnapshot() throws IOException {
+        PropertySnapshotManager manager = new PropertySnapshotManager();
+        manager.register("p", new SimpleStringProperty("some text"));
+        File file = writeFull(manager);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(file.length() - 1);
+        }
+        restore(manager, file);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDeltaWithoutFull() throws IOException {
+        writeDelta(new PropertySnapshotManager());
+    }
+
+    private File writeFull(PropertySnapshotManager manager) throws IOException {
+        File file = folder.newFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            manager.writeFullSnapshot(channel);
+        }
+        return file;
+    }
+
+    private File writeDelta(PropertySnapshotManager manager) throws IOException {
+        File file = folder.newFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            manager.writeDeltaSnapshot(channel);
+        }
+        return file;
+    }
+
+    private void restore(PropertySnapshotManager manager, File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            manager.restoreSnapshot(channel);
+        }
+    }
+}
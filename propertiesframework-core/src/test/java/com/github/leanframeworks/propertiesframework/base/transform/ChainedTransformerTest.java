@@ -29,9 +29,14 @@
 
 package com.github.leanframeworks.propertiesframework.base.transform;
 
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleProperty;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -61,4 +66,60 @@ public class ChainedTransformerTest {
 
         assertEquals(Integer.valueOf(3), transformer3.transform(3.2d));
     }
+
+    @Test
+    public void testFilter() {
+        ChainedTransformer<Integer, String> transformer = new ChainedTransformer<Integer, Integer>(null)
+                .filter(value -> value > 0)
+                .chain(new ToStringTransformer());
+
+        SimpleProperty<String> output = new SimpleProperty<>("initial");
+        assertFalse(transformer.propagate(-1, output));
+        assertEquals("initial", output.getValue());
+        assertNull(transformer.transform(-1));
+
+        assertTrue(transformer.propagate(1, output));
+        assertEquals("1", output.getValue());
+    }
+
+    @Test
+    public void testDistinct() {
+        ChainedTransformer<Integer, Integer> transformer = new ChainedTransformer<Integer, Integer>(null)
+                .chain(value -> value / 10)
+                .distinct();
+
+        SimpleProperty<Integer> output = new SimpleProperty<>();
+        assertTrue(transformer.propagate(11, output));
+        assertFalse(transformer.propagate(12, output));
+        assertTrue(transformer.propagate(21, output));
+        assertEquals(Integer.valueOf(2), output.getValue());
+    }
+
+    @Test
+    public void testDistinctWithStrategyAndComparator() {
+        ChainedTransformer<Integer, Integer> byStrategy = new ChainedTransformer<Integer, Integer>(null)
+                .distinct((value1, value2) -> (value1 / 10) == (value2 / 10));
+        ChainedTransformer<Integer, Integer> byComparator = new ChainedTransformer<Integer, Integer>(null)
+                .distinctBy((value1, value2) -> Integer.compare(value1 / 10, value2 / 10));
+
+        for (ChainedTransformer<Integer, Integer> transformer : Arrays.asList(byStrategy, byComparator)) {
+            SimpleProperty<Integer> output = new SimpleProperty<>();
+            assertTrue(transformer.propagate(11, output));
+            assertFalse(transformer.propagate(12, output));
+            assertTrue(transformer.propagate(21, output));
+            assertEquals(Integer.valueOf(21), output.getValue());
+        }
+    }
+
+    @Test
+    public void testNestedFilter() {
+        ChainedTransformer<String, String> inner = new ChainedTransformer<String, String>(null).skipNulls();
+        ChainedTransformer<String, Integer> outer = new ChainedTransformer<>(inner).chain(String::length);
+
+        SimpleProperty<Integer> output = new SimpleProperty<>(-1);
+        assertFalse(outer.propagate(null, output));
+        assertEquals(Integer.valueOf(-1), output.getValue());
+        assertTrue(outer.propagate("abc", output));
+        assertEquals(Integer.valueOf(3), output.getValue());
+    }
 }
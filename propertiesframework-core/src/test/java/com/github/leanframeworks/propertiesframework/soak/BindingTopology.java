@@ -0,0 +1,333 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.soak;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.api.transform.Transformer;
+import com.github.leanframeworks.propertiesframework.base.binding.Binder;
+import com.github.leanframeworks.propertiesframework.base.property.CompositeReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleListProperty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic graph of properties bound together, used to measure the behavior of the framework on graph shapes close
+ * to those of real applications.
+ * <p>
+ * Each node of the graph is a {@link SimpleIntegerProperty}. Source nodes have no dependency and are set by the
+ * change streams. A node depending on a single node is bound to it using {@link Binder} and holds its value plus one.
+ * A node depending on several nodes is bound to a {@link CompositeReadableProperty} of them and holds the sum of their
+ * values. The values of the leaf nodes are also mirrored in a {@link SimpleListProperty}.
+ * <p>
+ * Nodes are created in topological order, so that the expected values of all nodes can be recomputed in a single pass
+ * by {@link #verify()}.
+ */
+public final class BindingTopology implements Disposable {
+
+    /**
+     * Transformation of nodes depending on a single node.
+     */
+    private static final Transformer<Integer, Integer> PLUS_ONE = value -> (value == null) ? null : (value + 1);
+
+    /**
+     * Transformation of nodes depending on several nodes.
+     */
+    private static final Transformer<Collection<Integer>, Integer> SUM = values -> {
+        int sum = 0;
+        for (Integer value : values) {
+            if (value != null) {
+                sum += value;
+            }
+        }
+        return sum;
+    };
+
+    /**
+     * Shape of the graph.
+     */
+    private final TopologyShape shape;
+
+    /**
+     * All nodes, in topological order.
+     */
+    private final List<SimpleIntegerProperty> nodes = new ArrayList<>();
+
+    /**
+     * Indices of the dependencies of each node.
+     */
+    private final List<int[]> dependencies = new ArrayList<>();
+
+    /**
+     * Source nodes.
+     */
+    private final List<SimpleIntegerProperty> sources = new ArrayList<>();
+
+    /**
+     * Indices of the leaf nodes.
+     */
+    private final List<Integer> leaves = new ArrayList<>();
+
+    /**
+     * Values of the leaf nodes.
+     */
+    private final SimpleListProperty<Integer> sinks = new SimpleListProperty<>();
+
+    /**
+     * Bindings, composites and nodes to be disposed.
+     */
+    private final List<Disposable> disposables = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param shape Shape of the graph.
+     */
+    private BindingTopology(TopologyShape shape) {
+        this.shape = shape;
+    }
+
+    /**
+     * Generates a binding graph of the specified shape.
+     *
+     * @param shape Shape of the graph.
+     * @param size  Approximate number of nodes.
+     * @param seed  Seed of the random generator, used for random shapes.
+     * @return Generated graph.
+     */
+    public static BindingTopology generate(TopologyShape shape, int size, long seed) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Size must be at least 2: " + size);
+        }
+
+        BindingTopology topology = new BindingTopology(shape);
+        switch (shape) {
+            case CHAIN:
+                topology.addNode();
+                for (int i = 1; i < size; i++) {
+                    topology.addNode(i - 1);
+                }
+                break;
+            case TREE:
+                topology.addNode();
+                for (int i = 1; i < size; i++) {
+                    topology.addNode((i - 1) / 3);
+                }
+                break;
+            case DIAMOND:
+                int source = topology.addNode();
+                while (topology.nodes.size() + 3 <= size) {
+                    int left = topology.addNode(source);
+                    int right = topology.addNode(source);
+                    topology.addNode(left, right);
+                }
+                break;
+            case FAN_OUT:
+                topology.addNode();
+                for (int i = 1; i < size; i++) {
+                    topology.addNode(0);
+                }
+                break;
+            case FAN_IN:
+                int[] all = new int[size - 1];
+                for (int i = 0; i < all.length; i++) {
+                    all[i] = topology.addNode();
+                }
+                topology.addNode(all);
+                break;
+            case RANDOM_DAG:
+                Random random = new Random(seed);
+                int sourceCount = Math.max(1, size / 10);
+                for (int i = 0; i < sourceCount; i++) {
+                    topology.addNode();
+                }
+                for (int i = sourceCount; i < size; i++) {
+                    int[] dependencies = random.ints(0, i).distinct().limit(1 + random.nextInt(Math.min(3, i)))
+                            .sorted().toArray();
+                    topology.addNode(dependencies);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported shape: " + shape);
+        }
+        topology.bindLeaves();
+        return topology;
+    }
+
+    /**
+     * Adds a node depending on the specified nodes.
+     *
+     * @param dependencies Indices of the nodes the new node depends on, none for a source node.
+     * @return Index of the new node.
+     */
+    private int addNode(int... dependencies) {
+        SimpleIntegerProperty node = new SimpleIntegerProperty(0);
+        if (dependencies.length == 0) {
+            sources.add(node);
+        } else if (dependencies.length == 1) {
+            disposables.add(Binder.from(nodes.get(dependencies[0])).transform(PLUS_ONE).to(node));
+        } else {
+            List<ReadableProperty<Integer>> masters = new ArrayList<>(dependencies.length);
+            for (int dependency : dependencies) {
+                masters.add(nodes.get(dependency));
+            }
+            CompositeReadableProperty<Integer> composite = new CompositeReadableProperty<>(masters);
+            disposables.add(Binder.from(composite).transform(SUM).to(node));
+            disposables.add(composite);
+        }
+        nodes.add(node);
+        this.dependencies.add(dependencies);
+        return nodes.size() - 1;
+    }
+
+    /**
+     * Mirrors the values of the nodes that have no dependent in the sink list property.
+     */
+    private void bindLeaves() {
+        boolean[] hasDependents = new boolean[nodes.size()];
+        for (int[] nodeDependencies : dependencies) {
+            for (int dependency : nodeDependencies) {
+                hasDependents[dependency] = true;
+            }
+        }
+        for (int i = 0; i < hasDependents.length; i++) {
+            if (!hasDependents[i]) {
+                int sinkIndex = leaves.size();
+                SimpleIntegerProperty leaf = nodes.get(i);
+                leaves.add(i);
+                sinks.add(leaf.getValue());
+                leaf.addChangeListener(e -> sinks.set(sinkIndex, e.getNewValue()));
+            }
+        }
+    }
+
+    /**
+     * Gets the shape of the graph.
+     *
+     * @return Shape.
+     */
+    public TopologyShape getShape() {
+        return shape;
+    }
+
+    /**
+     * Gets all the nodes, in topological order.
+     *
+     * @return Unmodifiable list of nodes.
+     */
+    public List<SimpleIntegerProperty> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Gets the source nodes, to be changed by the change streams.
+     *
+     * @return Unmodifiable list of source nodes.
+     */
+    public List<SimpleIntegerProperty> getSources() {
+        return Collections.unmodifiableList(sources);
+    }
+
+    /**
+     * Gets the list property mirroring the values of the leaf nodes.
+     *
+     * @return Sink list property.
+     */
+    public SimpleListProperty<Integer> getSinks() {
+        return sinks;
+    }
+
+    /**
+     * Sets the value of the specified source node, propagating it through the graph.
+     *
+     * @param sourceIndex Index of the source node in {@link #getSources()}.
+     * @param value       New value.
+     */
+    public void setSource(int sourceIndex, int value) {
+        sources.get(sourceIndex).setValue(value);
+    }
+
+    /**
+     * Checks that all nodes and sinks hold the values expected from the current values of the sources.
+     *
+     * @throws AssertionError If a node or a sink has an unexpected value.
+     */
+    public void verify() {
+        int[] expected = new int[nodes.size()];
+        for (int i = 0; i < expected.length; i++) {
+            int[] nodeDependencies = dependencies.get(i);
+            if (nodeDependencies.length == 0) {
+                expected[i] = nodes.get(i).getValue();
+            } else if (nodeDependencies.length == 1) {
+                expected[i] = expected[nodeDependencies[0]] + 1;
+            } else {
+                int sum = 0;
+                for (int dependency : nodeDependencies) {
+                    sum += expected[dependency];
+                }
+                expected[i] = sum;
+            }
+            Integer actual = nodes.get(i).getValue();
+            if ((actual == null) || (actual != expected[i])) {
+                throw new AssertionError("Node " + i + " of " + shape + " holds " + actual + " instead of "
+                        + expected[i]);
+            }
+        }
+        for (int i = 0; i < leaves.size(); i++) {
+            Integer actual = sinks.get(i);
+            if ((actual == null) || (actual != expected[leaves.get(i)])) {
+                throw new AssertionError("Sink " + i + " of " + shape + " holds " + actual + " instead of "
+                        + expected[leaves.get(i)]);
+            }
+        }
+    }
+
+    /**
+     * Disposes all bindings, composites and nodes of the graph.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        for (Disposable disposable : disposables) {
+            disposable.dispose();
+        }
+        disposables.clear();
+        for (SimpleIntegerProperty node : nodes) {
+            node.dispose();
+        }
+        sinks.dispose();
+    }
+}
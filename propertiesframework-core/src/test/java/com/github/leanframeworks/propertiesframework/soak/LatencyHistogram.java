@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.soak;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free histogram of latencies in nanoseconds, with a relative precision of 12.5%.
+ * <p>
+ * Values are counted in buckets whose width doubles every 8 buckets, so that the histogram covers the whole range of
+ * positive longs with a fixed array.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Number of buckets per power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * Count of values in each bucket.
+     */
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS];
+
+    /**
+     * Total number of recorded values.
+     */
+    private long count = 0;
+
+    /**
+     * Sum of the recorded values.
+     */
+    private long sum = 0;
+
+    /**
+     * Largest recorded value.
+     */
+    private long max = 0;
+
+    /**
+     * Gets the index of the bucket of the specified value.
+     *
+     * @param value Positive or zero value.
+     * @return Bucket index.
+     */
+    private static int bucketOf(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int index;
+        if (msb < SUB_BUCKET_BITS) {
+            index = (int) value;
+        } else {
+            int shift = msb - SUB_BUCKET_BITS;
+            index = ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & ((1 << SUB_BUCKET_BITS) - 1));
+        }
+        return index;
+    }
+
+    /**
+     * Gets the smallest value of the specified bucket.
+     *
+     * @param index Bucket index.
+     * @return Lower bound of the bucket.
+     */
+    private static long lowerBoundOf(int index) {
+        long lowerBound;
+        if (index < (1 << SUB_BUCKET_BITS)) {
+            lowerBound = index;
+        } else {
+            int shift = (index >>> SUB_BUCKET_BITS) - 1;
+            long subBucket = index & ((1 << SUB_BUCKET_BITS) - 1);
+            lowerBound = ((1L << SUB_BUCKET_BITS) + subBucket) << shift;
+        }
+        return lowerBound;
+    }
+
+    /**
+     * Records the specified latency.
+     *
+     * @param nanos Latency in nanoseconds, negative values being recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return Number of latencies.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the largest recorded latency.
+     *
+     * @return Largest latency in nanoseconds, or 0 if no latency has been recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the mean of the recorded latencies.
+     *
+     * @return Mean latency in nanoseconds, or 0 if no latency has been recorded.
+     */
+    public double getMean() {
+        return (count == 0) ? 0 : ((double) sum / count);
+    }
+
+    /**
+     * Gets the latency below which the specified percentage of the recorded latencies fall.
+     *
+     * @param percentile Percentage, between 0 and 100.
+     * @return Lower bound of the bucket of the percentile, or the largest latency for the highest bucket, in
+     * nanoseconds, or 0 if no latency has been recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long cumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank) {
+                // The highest bucket is only known to contain the largest value
+                return (cumulated == count) ? max : lowerBoundOf(i);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Removes all the recorded latencies.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.soak;
+
+import java.util.Random;
+
+/**
+ * Stream of random changes, each one setting a random source to a random value.
+ */
+public class RandomChangeStream implements ChangeStream {
+
+    /**
+     * Random generator.
+     */
+    private final Random random;
+
+    /**
+     * Exclusive upper bound of the generated values.
+     */
+    private final int valueBound;
+
+    /**
+     * Number of remaining changes, or a negative number for an endless stream.
+     */
+    private long remaining;
+
+    /**
+     * Constructor.
+     *
+     * @param seed       Seed of the random generator.
+     * @param valueBound Exclusive upper bound of the generated values, a small bound producing more changes that do
+     *                   not modify the value of the source.
+     * @param count      Number of changes of the stream, or a negative number for an endless stream.
+     */
+    public RandomChangeStream(long seed, int valueBound, long count) {
+        this.random = new Random(seed);
+        this.valueBound = valueBound;
+        this.remaining = count;
+    }
+
+    /**
+     * @see ChangeStream#applyNext(BindingTopology)
+     */
+    @Override
+    public boolean applyNext(BindingTopology topology) {
+        if (remaining == 0) {
+            return false;
+        }
+        if (remaining > 0) {
+            remaining--;
+        }
+        topology.setSource(random.nextInt(topology.getSources().size()), random.nextInt(valueBound));
+        return true;
+    }
+}
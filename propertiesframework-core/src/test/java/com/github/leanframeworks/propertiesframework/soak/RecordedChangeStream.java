@@ -0,0 +1,200 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.soak;
+
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stream replaying a recorded sequence of changes, possibly in a loop.
+ * <p>
+ * Recordings can be captured from any topology using {@link #record(BindingTopology, ChangeStream, int)}, and saved
+ * and loaded in a text format having one change per line, made of the index of the source and the new value separated
+ * by a whitespace. Empty lines and lines starting with {@code #} are ignored.
+ */
+public class RecordedChangeStream implements ChangeStream {
+
+    /**
+     * Indices of the changed sources.
+     */
+    private final int[] sourceIndices;
+
+    /**
+     * New values of the changed sources.
+     */
+    private final int[] values;
+
+    /**
+     * True to replay the recording endlessly, false to replay it once.
+     */
+    private final boolean loop;
+
+    /**
+     * Position of the next change to be replayed.
+     */
+    private int position = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param sourceIndices Indices of the changed sources.
+     * @param values        New values of the changed sources.
+     * @param loop          True to replay the recording endlessly, false to replay it once.
+     */
+    public RecordedChangeStream(int[] sourceIndices, int[] values, boolean loop) {
+        if (sourceIndices.length != values.length) {
+            throw new IllegalArgumentException("Source indices and values must have the same length");
+        }
+        this.sourceIndices = sourceIndices.clone();
+        this.values = values.clone();
+        this.loop = loop;
+    }
+
+    /**
+     * Records the changes made to the sources of the specified topology by the specified stream.
+     *
+     * @param topology Topology to which the changes are to be applied.
+     * @param stream   Stream of changes to be recorded.
+     * @param count    Maximum number of changes to be applied.
+     * @return Recording, replayed once.
+     */
+    public static RecordedChangeStream record(BindingTopology topology, ChangeStream stream, int count) {
+        List<SimpleIntegerProperty> sources = topology.getSources();
+        int[] sourceIndices = new int[count];
+        int[] values = new int[count];
+        int[] recorded = new int[1];
+        List<PropertyChangeListener<Integer>> listeners = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            int sourceIndex = i;
+            PropertyChangeListener<Integer> listener = e -> {
+                sourceIndices[recorded[0]] = sourceIndex;
+                values[recorded[0]] = e.getNewValue();
+                recorded[0]++;
+            };
+            sources.get(i).addChangeListener(listener);
+            listeners.add(listener);
+        }
+
+        for (int i = 0; (i < count) && stream.applyNext(topology); i++) {
+            // Changes are recorded by the listeners
+        }
+
+        for (int i = 0; i < sources.size(); i++) {
+            sources.get(i).removeChangeListener(listeners.get(i));
+        }
+        return new RecordedChangeStream(Arrays.copyOf(sourceIndices, recorded[0]), Arrays.copyOf(values,
+                recorded[0]), false);
+    }
+
+    /**
+     * Reads a recording.
+     *
+     * @param reader Reader of the recording.
+     * @param loop   True to replay the recording endlessly, false to replay it once.
+     * @return Recording.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static RecordedChangeStream read(Reader reader, boolean loop) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        List<int[]> changes = new ArrayList<>();
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                String[] fields = line.split("\\s+");
+                if (fields.length != 2) {
+                    throw new IOException("Invalid change: " + line);
+                }
+                try {
+                    changes.add(new int[]{Integer.parseInt(fields[0]), Integer.parseInt(fields[1])});
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid change: " + line, e);
+                }
+            }
+        }
+
+        int[] sourceIndices = new int[changes.size()];
+        int[] values = new int[changes.size()];
+        for (int i = 0; i < sourceIndices.length; i++) {
+            sourceIndices[i] = changes.get(i)[0];
+            values[i] = changes.get(i)[1];
+        }
+        return new RecordedChangeStream(sourceIndices, values, loop);
+    }
+
+    /**
+     * Writes the recording.
+     *
+     * @param writer Writer to which the recording is to be written.
+     */
+    public void write(Writer writer) {
+        PrintWriter printWriter = new PrintWriter(writer);
+        for (int i = 0; i < sourceIndices.length; i++) {
+            printWriter.print(sourceIndices[i]);
+            printWriter.print(' ');
+            printWriter.println(values[i]);
+        }
+        printWriter.flush();
+    }
+
+    /**
+     * Gets the number of changes in the recording.
+     *
+     * @return Number of changes.
+     */
+    public int size() {
+        return sourceIndices.length;
+    }
+
+    /**
+     * @see ChangeStream#applyNext(BindingTopology)
+     */
+    @Override
+    public boolean applyNext(BindingTopology topology) {
+        if (position == sourceIndices.length) {
+            if (!loop || (position == 0)) {
+                return false;
+            }
+            position = 0;
+        }
+        topology.setSource(sourceIndices[position], values[position]);
+        position++;
+        return true;
+    }
+}
@@ -0,0 +1,323 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.soak;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Harness driving a {@link BindingTopology} with a {@link ChangeStream} and measuring throughput, latency
+ * percentiles, heap growth and garbage collection time.
+ * <p>
+ * Short runs can be used in unit tests. Long soak runs, meant to reveal leaks and degradations over hours, can be
+ * started from the test classpath with:
+ * <pre>
+ * java com.github.leanframeworks.propertiesframework.soak.SoakHarness &lt;shape&gt; [size] [minutes] [seed]
+ * </pre>
+ * During a run, the used heap after garbage collection is sampled at every sample interval, along with the throughput
+ * of the interval, and the topology can be verified for consistency. The time and the garbage collections spent in
+ * sampling are excluded from the reported figures.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class SoakHarness {
+
+    /**
+     * Topology to be driven.
+     */
+    private final BindingTopology topology;
+
+    /**
+     * Stream of changes to be applied to the topology.
+     */
+    private final ChangeStream stream;
+
+    /**
+     * Histogram of the latencies of the changes.
+     */
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * Maximum duration of a run, in milliseconds.
+     */
+    private long maxDurationMillis = Long.MAX_VALUE;
+
+    /**
+     * Maximum number of changes of a run.
+     */
+    private long maxChangeCount = Long.MAX_VALUE;
+
+    /**
+     * Interval between samples, in milliseconds.
+     */
+    private long sampleIntervalMillis = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * True to verify the topology at every sample and at the end of the run.
+     */
+    private boolean verifying = true;
+
+    /**
+     * Stream to which the samples are printed, or null.
+     */
+    private PrintStream output = null;
+
+    /**
+     * Constructor.
+     *
+     * @param topology Topology to be driven.
+     * @param stream   Stream of changes to be applied to the topology.
+     */
+    public SoakHarness(BindingTopology topology, ChangeStream stream) {
+        this.topology = topology;
+        this.stream = stream;
+    }
+
+    /**
+     * Runs a soak test from the command line.
+     *
+     * @param args Shape of the topology, and optionally its size (default: 1000), the duration of the run in minutes
+     *             (default: 60) and the random seed (default: 0).
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: SoakHarness <shape> [size] [minutes] [seed]");
+            System.exit(1);
+        }
+        TopologyShape shape = TopologyShape.valueOf(args[0].toUpperCase(Locale.ROOT));
+        int size = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+        long minutes = (args.length > 2) ? Long.parseLong(args[2]) : 60;
+        long seed = (args.length > 3) ? Long.parseLong(args[3]) : 0;
+
+        BindingTopology topology = BindingTopology.generate(shape, size, seed);
+        SoakHarness harness = new SoakHarness(topology, new RandomChangeStream(seed, Integer.MAX_VALUE, -1));
+        harness.setMaxDurationMillis(TimeUnit.MINUTES.toMillis(minutes));
+        harness.setOutput(System.out);
+        System.out.println(harness.run());
+        topology.dispose();
+    }
+
+    /**
+     * Sets the maximum duration of a run.
+     * <p>
+     * The time spent sampling is not counted in this duration.
+     *
+     * @param maxDurationMillis Maximum duration in milliseconds.
+     */
+    public void setMaxDurationMillis(long maxDurationMillis) {
+        this.maxDurationMillis = maxDurationMillis;
+    }
+
+    /**
+     * Sets the maximum number of changes of a run.
+     *
+     * @param maxChangeCount Maximum number of changes.
+     */
+    public void setMaxChangeCount(long maxChangeCount) {
+        this.maxChangeCount = maxChangeCount;
+    }
+
+    /**
+     * Sets the interval between samples.
+     * <p>
+     * Every sample triggers garbage collections to measure the used heap, so the interval should be large compared to
+     * the duration of a collection.
+     *
+     * @param sampleIntervalMillis Interval in milliseconds.
+     */
+    public void setSampleIntervalMillis(long sampleIntervalMillis) {
+        this.sampleIntervalMillis = sampleIntervalMillis;
+    }
+
+    /**
+     * Sets whether the topology is to be verified at every sample and at the end of the run.
+     *
+     * @param verifying True to verify the topology, false otherwise.
+     */
+    public void setVerifying(boolean verifying) {
+        this.verifying = verifying;
+    }
+
+    /**
+     * Sets the stream to which the samples are to be printed.
+     *
+     * @param output Output stream, or null to print nothing.
+     */
+    public void setOutput(PrintStream output) {
+        this.output = output;
+    }
+
+    /**
+     * Applies changes to the topology until the stream is exhausted, or the maximum duration or number of changes is
+     * reached.
+     *
+     * @return Report of the run.
+     * @throws AssertionError If the topology is found inconsistent.
+     */
+    public SoakReport run() {
+        histogram.reset();
+        List<Long> heapSamples = new ArrayList<>();
+        List<Double> intervalThroughputs = new ArrayList<>();
+        long initialHeap = getUsedHeapAfterGc();
+        long initialGcCount = getGcCount();
+        long initialGcTime = getGcTimeMillis();
+        long samplingGcCount = 0;
+        long samplingGcTime = 0;
+        long samplingNanos = 0;
+
+        long maxDurationNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(maxDurationMillis,
+                TimeUnit.NANOSECONDS.toMillis(Long.MAX_VALUE)));
+        long sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(sampleIntervalMillis);
+        long start = System.nanoTime();
+        long end = start;
+        long intervalStart = start;
+        long intervalChangeCount = 0;
+        long changeCount = 0;
+
+        while ((changeCount < maxChangeCount) && ((end - start - samplingNanos) < maxDurationNanos)) {
+            long before = System.nanoTime();
+            if (!stream.applyNext(topology)) {
+                break;
+            }
+            end = System.nanoTime();
+            histogram.record(end - before);
+            changeCount++;
+
+            if ((end - intervalStart) >= sampleIntervalNanos) {
+                double throughput = (changeCount - intervalChangeCount) * 1e9 / (end - intervalStart);
+                intervalThroughputs.add(throughput);
+                if (verifying) {
+                    topology.verify();
+                }
+                long gcCountBeforeSampling = getGcCount();
+                long gcTimeBeforeSampling = getGcTimeMillis();
+                long heap = getUsedHeapAfterGc();
+                samplingGcCount += getGcCount() - gcCountBeforeSampling;
+                samplingGcTime += getGcTimeMillis() - gcTimeBeforeSampling;
+                heapSamples.add(heap);
+                if (output != null) {
+                    output.printf(Locale.ROOT, "%s: %d changes, %.0f changes/s, p99=%d ns, heap=%d bytes%n",
+                            topology.getShape(), changeCount, throughput, histogram.getPercentile(99), heap);
+                }
+                // Exclude the sampling from the next interval
+                intervalStart = System.nanoTime();
+                intervalChangeCount = changeCount;
+                samplingNanos += intervalStart - end;
+                end = intervalStart;
+            }
+        }
+
+        long gcCount = getGcCount() - initialGcCount - samplingGcCount;
+        long gcTime = getGcTimeMillis() - initialGcTime - samplingGcTime;
+        if (verifying) {
+            topology.verify();
+        }
+        // Close the last interval, unless the run ended right after a sample, so that every throughput has its sample
+        if ((intervalChangeCount < changeCount) || heapSamples.isEmpty()) {
+            intervalThroughputs.add((changeCount - intervalChangeCount) * 1e9 / Math.max(1, end - intervalStart));
+            heapSamples.add(getUsedHeapAfterGc());
+        }
+
+        return new SoakReport(topology.getShape(), topology.getNodes().size(), changeCount,
+                end - start - samplingNanos, histogram, initialHeap, toLongArray(heapSamples),
+                toDoubleArray(intervalThroughputs), gcCount, gcTime);
+    }
+
+    /**
+     * Gets the used heap after requesting garbage collections.
+     *
+     * @return Used heap in bytes.
+     */
+    private static long getUsedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Gets the total number of garbage collections since the start of the virtual machine.
+     *
+     * @return Number of collections.
+     */
+    private static long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Gets the total time spent in garbage collection since the start of the virtual machine.
+     *
+     * @return Time in milliseconds.
+     */
+    private static long getGcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * Converts the specified list to an array.
+     *
+     * @param values List of values.
+     * @return Array of values.
+     */
+    private static long[] toLongArray(List<Long> values) {
+        long[] array = new long[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Converts the specified list to an array.
+     *
+     * @param values List of values.
+     * @return Array of values.
+     */
+    private static double[] toDoubleArray(List<Double> values) {
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.soak;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see SoakHarness
+ * @see BindingTopology
+ */
+public class SoakHarnessTest {
+
+    @Test
+    public void testAllShapes() {
+        for (TopologyShape shape : TopologyShape.values()) {
+            BindingTopology topology = BindingTopology.generate(shape, 50, 42);
+            assertFalse(topology.getSources().isEmpty());
+            assertFalse(topology.getSinks().isEmpty());
+
+            SoakHarness harness = new SoakHarness(topology, new RandomChangeStream(42, 100, -1));
+            harness.setMaxChangeCount(500);
+            SoakReport report = harness.run();
+
+            assertEquals(shape, report.getShape());
+            assertEquals(topology.getNodes().size(), report.getNodeCount());
+            assertEquals(500, report.getChangeCount());
+            assertTrue(report.getLatencyP50() <= report.getLatencyP99());
+            assertTrue(report.getLatencyP99() <= report.getLatencyMax());
+            assertEquals(1, report.getHeapSamples().length);
+            assertEquals(1, report.getIntervalThroughputs().length);
+
+            topology.dispose();
+        }
+    }
+
+    @Test
+    public void testSampling() {
+        BindingTopology topology = BindingTopology.generate(TopologyShape.DIAMOND, 30, 0);
+        SoakHarness harness = new SoakHarness(topology, new RandomChangeStream(0, 1000, -1));
+        harness.setMaxChangeCount(3);
+        harness.setSampleIntervalMillis(0);
+        SoakReport report = harness.run();
+
+        assertEquals(3, report.getChangeCount());
+        assertEquals(3, report.getHeapSamples().length);
+        assertEquals(3, report.getIntervalThroughputs().length);
+        assertTrue(report.getThroughput() > 0);
+    }
+
+    @Test
+    public void testRecordedStream() throws IOException {
+        BindingTopology topology = BindingTopology.generate(TopologyShape.RANDOM_DAG, 40, 7);
+        RecordedChangeStream recording = RecordedChangeStream.record(topology, new RandomChangeStream(7,
+                Integer.MAX_VALUE, 100), 100);
+        assertEquals(100, recording.size());
+
+        StringWriter writer = new StringWriter();
+        recording.write(writer);
+        RecordedChangeStream replay = RecordedChangeStream.read(new StringReader("# Recording\n\n"
+                + writer.toString()), true);
+        assertEquals(100, replay.size());
+
+        BindingTopology other = BindingTopology.generate(TopologyShape.RANDOM_DAG, 40, 7);
+        SoakHarness harness = new SoakHarness(other, replay);
+        harness.setMaxChangeCount(200);
+        assertEquals(200, harness.run().getChangeCount());
+        assertEquals(topology.getSinks().asUnmodifiableList(), other.getSinks().asUnmodifiableList());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testInconsistencyDetected() {
+        BindingTopology topology = BindingTopology.generate(TopologyShape.CHAIN, 5, 0);
+        topology.getNodes().get(4).setValue(-1);
+        topology.verify();
+    }
+}
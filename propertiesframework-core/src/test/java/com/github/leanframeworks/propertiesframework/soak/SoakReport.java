@@ -0,0 +1,283 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.soak;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Results of a run of the {@link SoakHarness}.
+ */
+public final class SoakReport {
+
+    /**
+     * Shape of the driven topology.
+     */
+    private final TopologyShape shape;
+
+    /**
+     * Number of nodes of the driven topology.
+     */
+    private final int nodeCount;
+
+    /**
+     * Number of applied changes.
+     */
+    private final long changeCount;
+
+    /**
+     * Duration of the run in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Latency percentiles in nanoseconds: 50%, 90%, 99%, 99.9% and maximum.
+     */
+    private final long[] latencies;
+
+    /**
+     * Used heap after garbage collection at the start of the run, in bytes.
+     */
+    private final long initialHeap;
+
+    /**
+     * Used heap after garbage collection at the end of each sample interval, in bytes.
+     */
+    private final long[] heapSamples;
+
+    /**
+     * Throughput of each sample interval, in changes per second.
+     */
+    private final double[] intervalThroughputs;
+
+    /**
+     * Number of garbage collections during the run.
+     */
+    private final long gcCount;
+
+    /**
+     * Time spent in garbage collection during the run, in milliseconds.
+     */
+    private final long gcTimeMillis;
+
+    /**
+     * Constructor.
+     *
+     * @param shape               Shape of the driven topology.
+     * @param nodeCount           Number of nodes of the driven topology.
+     * @param changeCount         Number of applied changes.
+     * @param elapsedNanos        Duration of the run in nanoseconds.
+     * @param histogram           Latencies of the changes.
+     * @param initialHeap         Used heap after garbage collection at the start of the run, in bytes.
+     * @param heapSamples         Used heap after garbage collection at the end of each sample interval.
+     * @param intervalThroughputs Throughput of each sample interval, in changes per second.
+     * @param gcCount             Number of garbage collections during the run.
+     * @param gcTimeMillis        Time spent in garbage collection during the run, in milliseconds.
+     */
+    SoakReport(TopologyShape shape, int nodeCount, long changeCount, long elapsedNanos, LatencyHistogram histogram,
+               long initialHeap, long[] heapSamples, double[] intervalThroughputs, long gcCount, long gcTimeMillis) {
+        this.shape = shape;
+        this.nodeCount = nodeCount;
+        this.changeCount = changeCount;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = new long[]{histogram.getPercentile(50), histogram.getPercentile(90),
+                histogram.getPercentile(99), histogram.getPercentile(99.9), histogram.getMax()};
+        this.initialHeap = initialHeap;
+        this.heapSamples = heapSamples;
+        this.intervalThroughputs = intervalThroughputs;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+    }
+
+    /**
+     * Gets the shape of the driven topology.
+     *
+     * @return Shape.
+     */
+    public TopologyShape getShape() {
+        return shape;
+    }
+
+    /**
+     * Gets the number of nodes of the driven topology.
+     *
+     * @return Number of nodes.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the number of applied changes.
+     *
+     * @return Number of changes.
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Gets the duration of the run.
+     *
+     * @return Duration in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the overall throughput.
+     *
+     * @return Throughput in changes per second.
+     */
+    public double getThroughput() {
+        return (elapsedNanos == 0) ? 0 : (changeCount * 1e9 / elapsedNanos);
+    }
+
+    /**
+     * Gets the median latency of the changes.
+     *
+     * @return Latency in nanoseconds.
+     */
+    public long getLatencyP50() {
+        return latencies[0];
+    }
+
+    /**
+     * Gets the 90th percentile of the latency of the changes.
+     *
+     * @return Latency in nanoseconds.
+     */
+    public long getLatencyP90() {
+        return latencies[1];
+    }
+
+    /**
+     * Gets the 99th percentile of the latency of the changes.
+     *
+     * @return Latency in nanoseconds.
+     */
+    public long getLatencyP99() {
+        return latencies[2];
+    }
+
+    /**
+     * Gets the 99.9th percentile of the latency of the changes.
+     *
+     * @return Latency in nanoseconds.
+     */
+    public long getLatencyP999() {
+        return latencies[3];
+    }
+
+    /**
+     * Gets the largest latency of the changes.
+     *
+     * @return Latency in nanoseconds.
+     */
+    public long getLatencyMax() {
+        return latencies[4];
+    }
+
+    /**
+     * Gets the used heap after garbage collection at the start of the run.
+     *
+     * @return Used heap in bytes.
+     */
+    public long getInitialHeap() {
+        return initialHeap;
+    }
+
+    /**
+     * Gets the used heap after garbage collection at the end of each sample interval.
+     *
+     * @return Used heap in bytes, the last value being measured at the end of the run.
+     */
+    public long[] getHeapSamples() {
+        return heapSamples.clone();
+    }
+
+    /**
+     * Gets the growth of the used heap after garbage collection between the start and the end of the run.
+     * <p>
+     * A growth proportional to the duration of a soak run indicates a leak.
+     *
+     * @return Heap growth in bytes.
+     */
+    public long getHeapGrowth() {
+        return heapSamples[heapSamples.length - 1] - initialHeap;
+    }
+
+    /**
+     * Gets the throughput of each sample interval.
+     * <p>
+     * A decreasing throughput over a soak run indicates a degradation.
+     *
+     * @return Throughputs in changes per second.
+     */
+    public double[] getIntervalThroughputs() {
+        return intervalThroughputs.clone();
+    }
+
+    /**
+     * Gets the number of garbage collections during the run.
+     *
+     * @return Number of collections.
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Gets the time spent in garbage collection during the run.
+     *
+     * @return Time in milliseconds.
+     */
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s (%d nodes): %d changes in %.3f s, %.0f changes/s%n"
+                        + "  latency (ns): p50=%d p90=%d p99=%d p99.9=%d max=%d%n"
+                        + "  heap after GC (bytes): initial=%d final=%d growth=%d%n"
+                        + "  GC: %d collections, %d ms%n"
+                        + "  interval throughputs (changes/s): %s",
+                shape, nodeCount, changeCount, elapsedNanos / 1e9, getThroughput(),
+                latencies[0], latencies[1], latencies[2], latencies[3], latencies[4],
+                initialHeap, heapSamples[heapSamples.length - 1], getHeapGrowth(),
+                gcCount, gcTimeMillis,
+                Arrays.toString(intervalThroughputs));
+    }
+}
@@ -0,0 +1,69 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.soak;
+
+/**
+ * Shapes of the binding graphs that can be generated by {@link BindingTopology#generate(TopologyShape, int, long)}.
+ */
+public enum TopologyShape {
+
+    /**
+     * Single source followed by a linear chain of bindings.
+     */
+    CHAIN,
+
+    /**
+     * Single source at the root of a tree in which each node has three dependents.
+     */
+    TREE,
+
+    /**
+     * Single source splitting into many diamonds, each one made of two nodes joined by a composite.
+     * <p>
+     * Diamonds are not stacked, because every join is evaluated once per changed input, so that each level of stacked
+     * diamonds would double the number of evaluations of the nodes below it.
+     */
+    DIAMOND,
+
+    /**
+     * Single source having all the other nodes as direct dependents.
+     */
+    FAN_OUT,
+
+    /**
+     * Many sources joined by a single composite.
+     */
+    FAN_IN,
+
+    /**
+     * Random directed acyclic graph, each node depending on one to three previous nodes.
+     */
+    RANDOM_DAG
+}
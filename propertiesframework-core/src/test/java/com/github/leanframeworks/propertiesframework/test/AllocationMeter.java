@@ -0,0 +1,206 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Core
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Test utilities measuring the number of bytes allocated on the current thread, to guard allocation-free code paths
+ * against regressions.
+ * <p>
+ * Measurements rely on {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, which is provided by
+ * HotSpot-based virtual machines. Tests should skip their allocation assertions when {@link #isSupported()} returns
+ * false, for instance using {@link org.junit.Assume#assumeTrue(boolean)}.
+ * <p>
+ * Note that the measured code should be warmed up before asserting that it does not allocate, so that it is compiled
+ * by the JIT compiler and benefits from escape analysis, as it would in production.
+ */
+public final class AllocationMeter {
+
+    /**
+     * Default number of warm-up iterations, large enough to trigger the compilation of the measured code.
+     */
+    public static final int DEFAULT_WARM_UP_ITERATIONS = 20000;
+
+    /**
+     * Default number of measured iterations.
+     */
+    public static final int DEFAULT_ITERATIONS = 1000;
+
+    /**
+     * Thread management bean providing the allocated bytes, or null if not supported.
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+
+    /**
+     * Bytes allocated by a measurement of an empty block, to be subtracted from all measurements.
+     */
+    private static final long OVERHEAD = calibrate();
+
+    /**
+     * Private constructor for utility class.
+     */
+    private AllocationMeter() {
+        // Nothing to be done
+    }
+
+    /**
+     * Gets the thread management bean if it supports the measurement of allocated bytes, enabling the measurement
+     * if needed.
+     *
+     * @return Thread management bean, or null if not supported.
+     */
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        com.sun.management.ThreadMXBean result = null;
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported()) {
+                    if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+                        sunBean.setThreadAllocatedMemoryEnabled(true);
+                    }
+                    result = sunBean;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            // Not supported by this virtual machine
+        }
+        return result;
+    }
+
+    /**
+     * Measures the bytes allocated by the measurement itself.
+     *
+     * @return Smallest number of bytes allocated by the measurement of an empty block.
+     */
+    private static long calibrate() {
+        long overhead = 0;
+        if (THREAD_BEAN != null) {
+            overhead = Long.MAX_VALUE;
+            long threadId = Thread.currentThread().getId();
+            for (int i = 0; i < 1000; i++) {
+                long before = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+                long after = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+                overhead = Math.min(overhead, after - before);
+            }
+        }
+        return overhead;
+    }
+
+    /**
+     * States whether the allocated bytes can be measured on this virtual machine.
+     *
+     * @return True if measurements are supported, false otherwise.
+     */
+    public static boolean isSupported() {
+        return THREAD_BEAN != null;
+    }
+
+    /**
+     * Measures the bytes allocated on the current thread by the specified block.
+     *
+     * @param block Block to be measured.
+     * @return Number of allocated bytes.
+     * @throws UnsupportedOperationException If measurements are not supported on this virtual machine.
+     */
+    public static long measure(Runnable block) {
+        return measure(0, 1, block);
+    }
+
+    /**
+     * Measures the number of bytes allocated on the current thread by repeated executions of the specified block,
+     * after a warm-up.
+     *
+     * @param warmUpIterations Number of executions of the block before the measurement.
+     * @param iterations       Number of measured executions of the block.
+     * @param block            Block to be measured.
+     * @return Total number of bytes allocated by the measured executions of the block.
+     * @throws UnsupportedOperationException If measurements are not supported on this virtual machine.
+     */
+    public static long measure(int warmUpIterations, int iterations, Runnable block) {
+        if (THREAD_BEAN == null) {
+            throw new UnsupportedOperationException("Measurement of allocated bytes is not supported");
+        }
+
+        for (int i = 0; i < warmUpIterations; i++) {
+            block.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            block.run();
+        }
+        long after = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+        return Math.max(0, after - before - OVERHEAD);
+    }
+
+    /**
+     * Asserts that the specified block does not allocate, after a warm-up.
+     *
+     * @param block Block to be measured.
+     * @throws AssertionError If the block allocates.
+     * @see #assertAllocatesAtMost(long, Runnable)
+     */
+    public static void assertAllocationFree(Runnable block) {
+        assertAllocatesAtMost(0, block);
+    }
+
+    /**
+     * Asserts that the specified block allocates at most the specified number of bytes per execution, after a
+     * warm-up of {@link #DEFAULT_WARM_UP_ITERATIONS} executions and over {@link #DEFAULT_ITERATIONS} executions.
+     *
+     * @param maxBytes Maximum number of bytes to be allocated per execution.
+     * @param block    Block to be measured.
+     * @throws AssertionError If the block allocates more.
+     */
+    public static void assertAllocatesAtMost(long maxBytes, Runnable block) {
+        assertAllocatesAtMost(maxBytes, DEFAULT_WARM_UP_ITERATIONS, DEFAULT_ITERATIONS, block);
+    }
+
+    /**
+     * Asserts that the specified block allocates at most the specified number of bytes per execution, after a
+     * warm-up.
+     *
+     * @param maxBytes         Maximum number of bytes to be allocated per execution.
+     * @param warmUpIterations Number of executions of the block before the measurement.
+     * @param iterations       Number of measured executions of the block.
+     * @param block            Block to be measured.
+     * @throws AssertionError If the block allocates more.
+     */
+    public static void assertAllocatesAtMost(long maxBytes, int warmUpIterations, int iterations, Runnable block) {
+        long allocated = measure(warmUpIterations, iterations, block);
+        if (allocated > maxBytes * iterations) {
+            throw new AssertionError("Expected at most " + maxBytes + " bytes per execution, but " + allocated
+                    + " bytes were allocated by " + iterations + " executions");
+        }
+    }
+}
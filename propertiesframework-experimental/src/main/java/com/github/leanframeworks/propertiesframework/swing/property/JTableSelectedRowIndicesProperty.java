@@ -118,8 +118,10 @@ public class JTableSelectedRowIndicesProperty extends AbstractReadableWritablePr
             effectiveValue = new ArrayList<>();
         }
 
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             if (updatingFromComponent) {
+                // Changes made by the listeners (in queued notification mode) must be applied to the component
+                updatingFromComponent = false;
                 List<Integer> oldValue = this.value;
                 this.value = effectiveValue;
                 maybeNotifyListeners(oldValue, this.value);
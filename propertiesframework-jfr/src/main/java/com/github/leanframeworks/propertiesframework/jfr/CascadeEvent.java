@@ -0,0 +1,74 @@
+/*-
+ * #%L
+ * PropertiesFramework :: JFR Support
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event recording a cascade of notifications, started by the change of a root property on a thread.
+ */
+@Name(CascadeEvent.NAME)
+@Label("Property Cascade")
+@Description("Notifications triggered by the change of a root property, until they are all complete")
+@Category("PropertiesFramework")
+final class CascadeEvent extends jdk.jfr.Event {
+
+    /**
+     * Name of the event.
+     */
+    static final String NAME = "com.github.leanframeworks.propertiesframework.Cascade";
+
+    /**
+     * Class of the property at the root of the cascade.
+     */
+    @Label("Root Property Class")
+    Class<?> rootClass;
+
+    /**
+     * Identity hash code of the property at the root of the cascade.
+     */
+    @Label("Root Property Identity")
+    int rootId;
+
+    /**
+     * Number of notifications in the cascade, including the root notification.
+     */
+    @Label("Notification Count")
+    int notificationCount;
+
+    /**
+     * Largest depth of the notifications in the cascade.
+     */
+    @Label("Maximum Depth")
+    int maxDepth;
+}
@@ -0,0 +1,89 @@
+/*-
+ * #%L
+ * PropertiesFramework :: JFR Support
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.jfr;
+
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+
+/**
+ * Per-thread tracker of the nested notifications, detecting the roots of the cascades.
+ * <p>
+ * It is also used as the scope of the notifications that are only tracked for their cascade.
+ */
+final class CascadeTracker implements MonitorScope {
+
+    /**
+     * Current depth of nested notifications.
+     */
+    private int depth = 0;
+
+    /**
+     * Event of the current cascade, or null if the cascade is not recorded.
+     */
+    private CascadeEvent cascade = null;
+
+    /**
+     * Enters a notification.
+     *
+     * @param property        Property notifying its listeners.
+     * @param cascadeRecorded True if a new cascade is to be recorded, false otherwise.
+     * @return Depth of the entered notification, starting at 1.
+     */
+    int enter(Object property, boolean cascadeRecorded) {
+        if ((depth == 0) && cascadeRecorded) {
+            cascade = new CascadeEvent();
+            cascade.rootClass = property.getClass();
+            cascade.rootId = System.identityHashCode(property);
+            cascade.begin();
+        }
+        depth++;
+        if (cascade != null) {
+            cascade.notificationCount++;
+            cascade.maxDepth = Math.max(cascade.maxDepth, depth);
+        }
+        return depth;
+    }
+
+    /**
+     * Exits the current notification, recording the cascade if it is complete.
+     *
+     * @see MonitorScope#close()
+     */
+    @Override
+    public void close() {
+        depth--;
+        if ((depth == 0) && (cascade != null)) {
+            cascade.end();
+            if (cascade.shouldCommit()) {
+                cascade.commit();
+            }
+            cascade = null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * PropertiesFramework :: JFR Support
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.jfr;
+
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Event recording the evaluation of a transformer, for instance by a binding.
+ */
+@Name(EvaluationEvent.NAME)
+@Label("Transformer Evaluation")
+@Description("Evaluation of a transformer or of a transformer chain")
+@Category("PropertiesFramework")
+@StackTrace(false)
+final class EvaluationEvent extends jdk.jfr.Event implements MonitorScope {
+
+    /**
+     * Name of the event.
+     */
+    static final String NAME = "com.github.leanframeworks.propertiesframework.Evaluation";
+
+    /**
+     * Class of the evaluated transformer.
+     */
+    @Label("Transformer Class")
+    Class<?> transformerClass;
+
+    /**
+     * Identity hash code of the evaluated transformer.
+     */
+    @Label("Transformer Identity")
+    int transformerId;
+
+    /**
+     * Number of stages of the evaluated transformer.
+     */
+    @Label("Stage Count")
+    int stageCount;
+
+    /**
+     * @see MonitorScope#close()
+     */
+    @Override
+    public void close() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*-
+ * #%L
+ * PropertiesFramework :: JFR Support
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.jfr;
+
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Event recording the hand-off of a property change to another thread, typically the Event Dispatch Thread.
+ * <p>
+ * The duration of the event covers both the waiting time and the processing time on the target thread, which is the
+ * thread of the event.
+ */
+@Name(HandOffEvent.NAME)
+@Label("Property Hand-Off")
+@Description("Hand-off of a property change to another thread, from scheduling to processing")
+@Category("PropertiesFramework")
+@StackTrace(false)
+final class HandOffEvent extends jdk.jfr.Event implements MonitorScope {
+
+    /**
+     * Name of the event.
+     */
+    static final String NAME = "com.github.leanframeworks.propertiesframework.HandOff";
+
+    /**
+     * Class of the property whose change is handed off.
+     */
+    @Label("Property Class")
+    Class<?> propertyClass;
+
+    /**
+     * Identity hash code of the property whose change is handed off.
+     */
+    @Label("Property Identity")
+    int propertyId;
+
+    /**
+     * Thread that scheduled the hand-off.
+     */
+    @Label("Source Thread")
+    Thread sourceThread;
+
+    /**
+     * @see MonitorScope#close()
+     */
+    @Override
+    public void close() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
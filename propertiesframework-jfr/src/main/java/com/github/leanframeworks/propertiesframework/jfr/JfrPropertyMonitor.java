@@ -0,0 +1,136 @@
+/*-
+ * #%L
+ * PropertiesFramework :: JFR Support
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.jfr;
+
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import jdk.jfr.EventType;
+
+/**
+ * Property monitor emitting Java Flight Recorder events.
+ * <p>
+ * Events are only created when they are enabled in a running recording, so that this monitor only costs a few checks
+ * per monitored operation otherwise. This monitor is installed automatically as a service provider.
+ *
+ * @see NotificationEvent
+ * @see CascadeEvent
+ * @see EvaluationEvent
+ * @see HandOffEvent
+ */
+public class JfrPropertyMonitor implements PropertyMonitor {
+
+    /**
+     * Type of the notification events.
+     */
+    private static final EventType NOTIFICATION = EventType.getEventType(NotificationEvent.class);
+
+    /**
+     * Type of the cascade events.
+     */
+    private static final EventType CASCADE = EventType.getEventType(CascadeEvent.class);
+
+    /**
+     * Type of the evaluation events.
+     */
+    private static final EventType EVALUATION = EventType.getEventType(EvaluationEvent.class);
+
+    /**
+     * Type of the hand-off events.
+     */
+    private static final EventType HAND_OFF = EventType.getEventType(HandOffEvent.class);
+
+    /**
+     * Trackers of the cascades of the threads.
+     */
+    private final ThreadLocal<CascadeTracker> trackers = ThreadLocal.withInitial(CascadeTracker::new);
+
+    /**
+     * @see PropertyMonitor#beginNotification(Object, int)
+     */
+    @Override
+    public MonitorScope beginNotification(Object property, int listenerCount) {
+        boolean notificationEnabled = NOTIFICATION.isEnabled();
+        boolean cascadeEnabled = CASCADE.isEnabled();
+        if (!notificationEnabled && !cascadeEnabled) {
+            return null;
+        }
+
+        CascadeTracker tracker = trackers.get();
+        int depth = tracker.enter(property, cascadeEnabled);
+
+        MonitorScope scope;
+        if (notificationEnabled) {
+            NotificationEvent event = new NotificationEvent(tracker);
+            event.propertyClass = property.getClass();
+            event.propertyId = System.identityHashCode(property);
+            event.listenerCount = listenerCount;
+            event.depth = depth;
+            event.begin();
+            scope = event;
+        } else {
+            scope = tracker;
+        }
+        return scope;
+    }
+
+    /**
+     * @see PropertyMonitor#beginEvaluation(Object, int)
+     */
+    @Override
+    public MonitorScope beginEvaluation(Object transformer, int stageCount) {
+        if (!EVALUATION.isEnabled()) {
+            return null;
+        }
+
+        EvaluationEvent event = new EvaluationEvent();
+        event.transformerClass = transformer.getClass();
+        event.transformerId = System.identityHashCode(transformer);
+        event.stageCount = stageCount;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @see PropertyMonitor#beginHandOff(Object)
+     */
+    @Override
+    public MonitorScope beginHandOff(Object property) {
+        if (!HAND_OFF.isEnabled()) {
+            return null;
+        }
+
+        HandOffEvent event = new HandOffEvent();
+        event.propertyClass = property.getClass();
+        event.propertyId = System.identityHashCode(property);
+        event.sourceThread = Thread.currentThread();
+        event.begin();
+        return event;
+    }
+}
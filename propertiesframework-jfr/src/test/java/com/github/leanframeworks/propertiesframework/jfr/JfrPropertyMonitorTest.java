@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * PropertiesFramework :: JFR Support
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.jfr;
+
+import com.github.leanframeworks.propertiesframework.base.binding.Binder;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see JfrPropertyMonitor
+ */
+public class JfrPropertyMonitorTest {
+
+    @Test
+    public void testInstalledAsServiceProvider() {
+        assertTrue(PropertyMonitors.getInstalled() instanceof JfrPropertyMonitor);
+    }
+
+    @Test
+    public void testDisabledEvents() {
+        JfrPropertyMonitor monitor = new JfrPropertyMonitor();
+        SimpleIntegerProperty property = new SimpleIntegerProperty();
+
+        assertNull(monitor.beginNotification(property, 1));
+        assertNull(monitor.beginEvaluation(property, 1));
+        assertNull(monitor.beginHandOff(property));
+    }
+
+    @Test
+    public void testCascade() throws IOException {
+        PropertyMonitors.install(new JfrPropertyMonitor());
+        SimpleIntegerProperty master = new SimpleIntegerProperty(0);
+        SimpleIntegerProperty slave = new SimpleIntegerProperty(0);
+        Binder.from(master).transform(value -> value * 2).to(slave);
+        slave.addChangeListener(e -> {
+            // Nothing to be done
+        });
+
+        Path file = Files.createTempFile("propertiesframework", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(NotificationEvent.NAME);
+            recording.enable(CascadeEvent.NAME);
+            recording.enable(EvaluationEvent.NAME);
+            recording.start();
+            master.setValue(21);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            List<RecordedEvent> notifications = events.stream()
+                    .filter(e -> e.getEventType().getName().equals(NotificationEvent.NAME))
+                    .collect(Collectors.toList());
+            List<RecordedEvent> cascades = events.stream()
+                    .filter(e -> e.getEventType().getName().equals(CascadeEvent.NAME))
+                    .collect(Collectors.toList());
+            List<RecordedEvent> evaluations = events.stream()
+                    .filter(e -> e.getEventType().getName().equals(EvaluationEvent.NAME))
+                    .collect(Collectors.toList());
+
+            assertEquals(2, notifications.size());
+            assertEquals(1, cascades.size());
+            assertEquals(1, evaluations.size());
+            assertEquals(2, cascades.get(0).getInt("notificationCount"));
+            assertEquals(2, cascades.get(0).getInt("maxDepth"));
+            assertEquals(System.identityHashCode(master), cascades.get(0).getInt("rootId"));
+            assertTrue(notifications.stream().anyMatch(e -> (e.getInt("depth") == 2)
+                    && (e.getInt("propertyId") == System.identityHashCode(slave))
+                    && (e.getInt("listenerCount") == 1)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Replication
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.replication;
+
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleProperty;
+import com.github.leanframeworks.propertiesframework.base.property.wrap.AbstractReadablePropertyWrapper;
+import com.github.leanframeworks.propertiesframework.base.property.wrap.ReadOnlyPropertyWrapper;
+
+/**
+ * Read-only property replicating a single-value property published by a {@link ReplicationPublisher}, typically in
+ * another process.
+ * <p>
+ * The value of the property is updated whenever the {@link ReplicationSubscriber} is polled, with a single change
+ * notification per poll.
+ *
+ * @param <R> Type of data that can be read from this property.
+ * @see ReplicationSubscriber
+ */
+public class ReplicaProperty<R> extends ReadOnlyPropertyWrapper<R> {
+
+    /**
+     * Subscriber updating this property.
+     */
+    private final ReplicationSubscriber subscriber;
+
+    /**
+     * Identifier of the replicated property in the ring buffer.
+     */
+    private final String id;
+
+    /**
+     * Constructor specifying the subscriber and the identifier of the replicated property, using null as the initial
+     * value.
+     *
+     * @param subscriber Subscriber updating this property.
+     * @param id         Identifier of the replicated property in the ring buffer.
+     */
+    public ReplicaProperty(ReplicationSubscriber subscriber, String id) {
+        this(subscriber, id, (R) null);
+    }
+
+    /**
+     * Constructor specifying the subscriber, the identifier of the replicated property and the value of this property
+     * until the next resync.
+     *
+     * @param subscriber   Subscriber updating this property.
+     * @param id           Identifier of the replicated property in the ring buffer.
+     * @param initialValue Value of this property until the next resync.
+     */
+    public ReplicaProperty(ReplicationSubscriber subscriber, String id, R initialValue) {
+        this(subscriber, id, new SimpleProperty<>(initialValue));
+    }
+
+    /**
+     * Constructor specifying the subscriber, the identifier of the replicated property and the internal property
+     * updated by the subscriber.
+     *
+     * @param subscriber Subscriber updating this property.
+     * @param id         Identifier of the replicated property in the ring buffer.
+     * @param replica    Internal property updated by the subscriber.
+     */
+    private ReplicaProperty(ReplicationSubscriber subscriber, String id, SimpleProperty<R> replica) {
+        super(replica);
+        this.subscriber = subscriber;
+        this.id = id;
+        subscriber.register(id, replica);
+    }
+
+    /**
+     * Gets the identifier of the replicated property in the ring buffer.
+     *
+     * @return Property identifier.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Unregisters this property from the subscriber.
+     *
+     * @see AbstractReadablePropertyWrapper#dispose()
+     */
+    @Override
+    public void dispose() {
+        subscriber.unregister(id);
+        super.dispose();
+    }
+}
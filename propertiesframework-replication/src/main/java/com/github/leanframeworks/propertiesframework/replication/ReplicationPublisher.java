@@ -0,0 +1,563 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Replication
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.replication;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.property.ListPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.MapPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableListProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableMapProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableSetProperty;
+import com.github.leanframeworks.propertiesframework.api.property.SetPropertyChangeListener;
+import com.github.leanframeworks.propertiesframework.base.codec.PropertyValueCodecRegistry;
+import com.github.leanframeworks.propertiesframework.base.codec.ValueEncoder;
+import com.github.leanframeworks.propertiesframework.base.common.LogErrorUncheckedExceptionHandler;
+import com.github.leanframeworks.propertiesframework.base.common.ThrowableHandler;
+import com.github.leanframeworks.propertiesframework.base.snapshot.JournalRecordType;
+import com.github.leanframeworks.propertiesframework.base.snapshot.PropertySnapshotManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Entity publishing the changes of registered properties into a memory-mapped ring buffer file, so that they can be
+ * replicated by {@link ReplicationSubscriber}s in other processes on the same machine.
+ * <p>
+ * The ring buffer has a single producer: the file is locked by the publisher, and opening a second publisher on the
+ * same file fails. Each change is written as a record with a sequence number, so that the subscribers can detect the
+ * records they missed because they were too slow and the publisher overwrote them.
+ * <p>
+ * Subscribers starting or falling behind request a full resync. The publisher serves these requests by writing a full
+ * snapshot of the registered properties to a file next to the ring buffer file (named after it, with the {@code
+ * .snapshot} suffix), along with the position of the next record in the ring buffer. The requests are checked after
+ * each published change, and whenever {@link #checkResyncRequests()} is called, which should be done periodically if
+ * the properties may not change for a long time.
+ * <p>
+ * Note that this class is not thread-safe: the properties must be changed, and the methods of this class must be
+ * called, on a single thread (typically the thread owning the properties).
+ *
+ * @see ReplicationSubscriber
+ */
+public class ReplicationPublisher implements Disposable {
+
+    /**
+     * Default capacity of the data area of the ring buffer, in bytes.
+     */
+    public static final int DEFAULT_CAPACITY = 4 * 1024 * 1024;
+
+    /**
+     * Initial capacity of the buffer used to encode the records, in bytes.
+     */
+    private static final int INITIAL_RECORD_CAPACITY = 256;
+
+    /**
+     * Ring buffer file.
+     */
+    private final Path file;
+
+    /**
+     * Channel of the ring buffer file, kept open to hold the lock.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Lock preventing other publishers from writing to the same ring buffer file.
+     */
+    private final FileLock lock;
+
+    /**
+     * Memory-mapped buffer of the whole ring buffer file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * View of the memory-mapped buffer used to copy the encoded records.
+     */
+    private final ByteBuffer dataView;
+
+    /**
+     * Capacity of the data area of the ring buffer, in bytes.
+     */
+    private final int capacity;
+
+    /**
+     * Unique identifier of this publisher, allowing the subscribers to detect a publisher restart.
+     */
+    private final long publisherId;
+
+    /**
+     * Listener unsubscribers of the registered properties, mapped to their identifiers.
+     */
+    private final Map<String, Runnable> registrations = new LinkedHashMap<>();
+
+    /**
+     * Manager writing the snapshots of the registered properties.
+     */
+    private final PropertySnapshotManager snapshotManager = new PropertySnapshotManager();
+
+    /**
+     * Epoch time when the publisher was created, in nanoseconds.
+     */
+    private final long startEpochNanos;
+
+    /**
+     * Value of {@link System#nanoTime()} when the publisher was created.
+     */
+    private final long startNanoTime;
+
+    /**
+     * Handler of the errors occurring while publishing the changes.
+     */
+    private ThrowableHandler<Throwable> throwableHandler = new LogErrorUncheckedExceptionHandler();
+
+    /**
+     * Encoder reused to encode the records.
+     */
+    private ValueEncoder encoder = new ValueEncoder(PropertyValueCodecRegistry.getDefault(), INITIAL_RECORD_CAPACITY);
+
+    /**
+     * Position after the last published record.
+     */
+    private long writePosition = 0;
+
+    /**
+     * Sequence number of the next record.
+     */
+    private long sequence = 0;
+
+    /**
+     * Last resync request served by a snapshot.
+     */
+    private long servedRequest = 0;
+
+    /**
+     * True if this publisher was disposed.
+     */
+    private boolean disposed = false;
+
+    /**
+     * Constructor specifying the ring buffer file, using the default capacity.
+     *
+     * @param file Ring buffer file, created if needed.
+     * @throws IOException If the file could not be created or mapped, if it is not a ring buffer file of the same
+     *                     capacity, or if it is already used by another publisher.
+     */
+    public ReplicationPublisher(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor specifying the ring buffer file and its capacity.
+     * <p>
+     * If the file already exists, it must be a ring buffer file of the same capacity, for instance left by a previous
+     * publisher. The subscribers still mapping it will then resync with this publisher.
+     *
+     * @param file     Ring buffer file, created if needed.
+     * @param capacity Capacity of the data area of the ring buffer, in bytes, which should be much larger than the
+     *                 largest record.
+     * @throws IOException If the file could not be created or mapped, if it is not a ring buffer file of the same
+     *                     capacity, or if it is already used by another publisher.
+     */
+    public ReplicationPublisher(Path file, int capacity) throws IOException {
+        if (capacity <= RingBufferFormat.RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+        }
+        this.file = file;
+        this.capacity = capacity;
+        this.startEpochNanos = System.currentTimeMillis() * 1000000L;
+        this.startNanoTime = System.nanoTime();
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption
+                .WRITE);
+        try {
+            lock = tryLock(channel);
+            if (lock == null) {
+                throw new IOException("Ring buffer file is already used by another publisher: " + file);
+            }
+            boolean newFile = (channel.size() == 0);
+            long fileSize = RingBufferFormat.HEADER_SIZE + (long) capacity;
+            if (!newFile && (channel.size() != fileSize)) {
+                throw new IOException("Ring buffer file has a different capacity: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            if (!newFile && ((buffer.getInt(RingBufferFormat.MAGIC_OFFSET) != RingBufferFormat.MAGIC) || (buffer
+                    .getInt(RingBufferFormat.VERSION_OFFSET) != RingBufferFormat.FORMAT_VERSION))) {
+                throw new IOException("Not a ring buffer file: " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        dataView = buffer.duplicate();
+
+        Random random = new SecureRandom();
+        long id;
+        do {
+            id = random.nextLong();
+        } while (id == 0);
+        publisherId = id;
+
+        // Make the subscribers detect the restart before resetting the positions
+        buffer.putLong(RingBufferFormat.PUBLISHER_ID_OFFSET, 0);
+        RingBufferFormat.storeFence();
+        buffer.putInt(RingBufferFormat.VERSION_OFFSET, RingBufferFormat.FORMAT_VERSION);
+        buffer.putInt(RingBufferFormat.CAPACITY_OFFSET, capacity);
+        buffer.putLong(RingBufferFormat.WRITE_POSITION_OFFSET, 0);
+        buffer.putLong(RingBufferFormat.WRITE_LIMIT_OFFSET, 0);
+        RingBufferFormat.storeFence();
+        buffer.putLong(RingBufferFormat.PUBLISHER_ID_OFFSET, publisherId);
+        buffer.putInt(RingBufferFormat.MAGIC_OFFSET, RingBufferFormat.MAGIC);
+        RingBufferFormat.storeFence();
+    }
+
+    /**
+     * Tries to lock the specified ring buffer file channel.
+     *
+     * @param channel Channel of the ring buffer file.
+     * @return Lock, or null if the file is already locked by another process or in this process.
+     * @throws IOException If the file could not be locked.
+     */
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        FileLock fileLock;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        return fileLock;
+    }
+
+    /**
+     * Gets the ring buffer file.
+     *
+     * @return Ring buffer file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the capacity of the data area of the ring buffer.
+     *
+     * @return Capacity in bytes.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the sequence number of the next record to be published.
+     *
+     * @return Number of records published so far.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the handler of the errors occurring while publishing the changes.
+     *
+     * @return Throwable handler.
+     */
+    public ThrowableHandler<Throwable> getThrowableHandler() {
+        return throwableHandler;
+    }
+
+    /**
+     * Sets the handler of the errors occurring while publishing the changes.
+     *
+     * @param throwableHandler Throwable handler.
+     */
+    public void setThrowableHandler(ThrowableHandler<Throwable> throwableHandler) {
+        this.throwableHandler = throwableHandler;
+    }
+
+    /**
+     * Gets the registry of the codecs used to encode the values.
+     *
+     * @return Codec registry.
+     */
+    public PropertyValueCodecRegistry getCodecRegistry() {
+        return encoder.getRegistry();
+    }
+
+    /**
+     * Sets the registry of the codecs used to encode the values.
+     * <p>
+     * By default, the {@link PropertyValueCodecRegistry#getDefault() default registry} is used. The subscribers should
+     * use a registry containing the same codecs.
+     *
+     * @param codecRegistry Codec registry.
+     */
+    public void setCodecRegistry(PropertyValueCodecRegistry codecRegistry) {
+        encoder = new ValueEncoder(codecRegistry, INITIAL_RECORD_CAPACITY);
+        snapshotManager.setCodecRegistry(codecRegistry);
+    }
+
+    /**
+     * Registers the specified single-value property so that its changes are published.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the ring buffer.
+     * @param property Property to be registered.
+     */
+    public void register(String id, ReadableWritableProperty<?> property) {
+        PropertyChangeListener<Object> listener = e -> publish(id, JournalRecordType.VALUE, -1, e.getOldValue(),
+                e.getNewValue());
+        property.addChangeListener(listener);
+        replaceRegistration(id, () -> property.removeChangeListener(listener));
+        snapshotManager.register(id, property);
+    }
+
+    /**
+     * Registers the specified list property so that its changes are published.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the ring buffer.
+     * @param property Property to be registered.
+     */
+    public void registerList(String id, ReadableWritableListProperty<?> property) {
+        ListPropertyChangeListener<Object> listener = e -> publish(id, JournalRecordType.LIST, e.getStartIndex(), e
+                .getOldValues(), e.getNewValues());
+        property.addChangeListener(listener);
+        replaceRegistration(id, () -> property.removeChangeListener(listener));
+        snapshotManager.registerList(id, property);
+    }
+
+    /**
+     * Registers the specified set property so that its changes are published.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the ring buffer.
+     * @param property Property to be registered.
+     */
+    public void registerSet(String id, ReadableWritableSetProperty<?> property) {
+        SetPropertyChangeListener<Object> listener = e -> publish(id, JournalRecordType.SET, -1, e.getOldValues(), e
+                .getNewValues());
+        property.addChangeListener(listener);
+        replaceRegistration(id, () -> property.removeChangeListener(listener));
+        snapshotManager.registerSet(id, property);
+    }
+
+    /**
+     * Registers the specified map property so that its changes are published.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced.
+     *
+     * @param id       Unique identifier of the property in the ring buffer.
+     * @param property Property to be registered.
+     */
+    public void registerMap(String id, ReadableWritableMapProperty<?, ?> property) {
+        MapPropertyChangeListener<Object, Object> listener = e -> publish(id, JournalRecordType.MAP, -1, e
+                .getOldValues(), e.getNewValues());
+        property.addChangeListener(listener);
+        replaceRegistration(id, () -> property.removeChangeListener(listener));
+        snapshotManager.registerMap(id, property);
+    }
+
+    /**
+     * Unregisters the property with the specified identifier so that its changes are no longer published.
+     *
+     * @param id Identifier of the property to be unregistered.
+     */
+    public void unregister(String id) {
+        replaceRegistration(id, null);
+        snapshotManager.unregister(id);
+    }
+
+    /**
+     * Replaces the registration of the property with the specified identifier.
+     *
+     * @param id           Identifier of the property.
+     * @param unsubscriber Listener unsubscriber of the new property, or null to only unregister the old property.
+     */
+    private void replaceRegistration(String id, Runnable unsubscriber) {
+        Runnable oldUnsubscriber;
+        if (unsubscriber == null) {
+            oldUnsubscriber = registrations.remove(id);
+        } else {
+            oldUnsubscriber = registrations.put(id, unsubscriber);
+        }
+        if (oldUnsubscriber != null) {
+            oldUnsubscriber.run();
+        }
+    }
+
+    /**
+     * Publishes the specified change, and serves the pending resync requests, if any.
+     *
+     * @param id       Identifier of the changed property.
+     * @param type     Type of record.
+     * @param index    Index of the first changed item for list changes, -1 otherwise.
+     * @param oldValue Old value or items.
+     * @param newValue New value or items.
+     */
+    private void publish(String id, JournalRecordType type, int index, Object oldValue, Object newValue) {
+        long timestamp = startEpochNanos + (System.nanoTime() - startNanoTime);
+        try {
+            encoder.reset();
+            RingBufferFormat.encodeRecord(encoder, timestamp, id, type, index, oldValue, newValue);
+            append(encoder.getBuffer());
+            checkResyncRequests();
+        } catch (IOException e) {
+            throwableHandler.handleThrowable(e);
+        }
+    }
+
+    /**
+     * Appends the specified encoded record to the ring buffer.
+     *
+     * @param payload Heap buffer containing the encoded record, from its start to its position.
+     * @throws IOException If the record is too large for the ring buffer.
+     */
+    private void append(ByteBuffer payload) throws IOException {
+        int payloadLength = payload.position();
+        int recordSize = RingBufferFormat.RECORD_HEADER_SIZE + payloadLength;
+        if (recordSize > capacity) {
+            throw new IOException("Record too large for the ring buffer: " + recordSize + " bytes");
+        }
+
+        // Records never wrap around
+        long start = writePosition;
+        int tail = capacity - (int) (start % capacity);
+        if (tail < recordSize) {
+            start += tail;
+        }
+        long end = start + recordSize;
+
+        // Announce the overwritten area before overwriting it
+        buffer.putLong(RingBufferFormat.WRITE_LIMIT_OFFSET, end);
+        RingBufferFormat.storeFence();
+
+        if ((start != writePosition) && (tail >= RingBufferFormat.RECORD_HEADER_SIZE)) {
+            buffer.putInt(RingBufferFormat.HEADER_SIZE + (int) (writePosition % capacity), RingBufferFormat.PADDING);
+        }
+        int offset = RingBufferFormat.HEADER_SIZE + (int) (start % capacity);
+        buffer.putInt(offset, payloadLength);
+        buffer.putLong(offset + 4, sequence);
+        dataView.position(offset + RingBufferFormat.RECORD_HEADER_SIZE);
+        dataView.put(payload.array(), payload.arrayOffset(), payloadLength);
+
+        // Make the record visible
+        RingBufferFormat.storeFence();
+        buffer.putLong(RingBufferFormat.WRITE_POSITION_OFFSET, end);
+
+        writePosition = end;
+        sequence++;
+    }
+
+    /**
+     * Publishes a new snapshot if a subscriber requested a resync since the last snapshot.
+     *
+     * @throws IOException If the snapshot could not be written.
+     */
+    public void checkResyncRequests() throws IOException {
+        RingBufferFormat.loadFence();
+        if (buffer.getLong(RingBufferFormat.RESYNC_REQUEST_OFFSET) != servedRequest) {
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Publishes a full snapshot of the registered properties, allowing the subscribers to resync.
+     * <p>
+     * The snapshot is written to a temporary file, which is then moved atomically to replace the previous snapshot.
+     *
+     * @throws IOException If the snapshot could not be written.
+     */
+    public void publishSnapshot() throws IOException {
+        if (disposed) {
+            throw new IllegalStateException("Publisher is disposed");
+        }
+        RingBufferFormat.loadFence();
+        long request = buffer.getLong(RingBufferFormat.RESYNC_REQUEST_OFFSET);
+
+        Path snapshotFile = RingBufferFormat.getSnapshotFile(file);
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel snapshotChannel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption
+                .WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(RingBufferFormat.SNAPSHOT_HEADER_SIZE);
+            header.putInt(RingBufferFormat.SNAPSHOT_MAGIC);
+            header.putLong(publisherId);
+            header.putLong(writePosition);
+            header.putLong(sequence);
+            header.putLong(request);
+            header.flip();
+            while (header.hasRemaining()) {
+                snapshotChannel.write(header);
+            }
+            snapshotManager.writeFullSnapshot(snapshotChannel);
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        servedRequest = request;
+    }
+
+    /**
+     * Unregisters all the properties, marks the ring buffer as having no publisher, and releases the file.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        if (!disposed) {
+            disposed = true;
+            for (Runnable unsubscriber : registrations.values()) {
+                unsubscriber.run();
+            }
+            registrations.clear();
+
+            buffer.putLong(RingBufferFormat.PUBLISHER_ID_OFFSET, 0);
+            RingBufferFormat.storeFence();
+            try {
+                lock.release();
+                channel.close();
+            } catch (IOException e) {
+                throwableHandler.handleThrowable(e);
+            }
+        }
+    }
+}
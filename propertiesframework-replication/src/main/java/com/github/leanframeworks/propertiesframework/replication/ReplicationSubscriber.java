@@ -0,0 +1,656 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Replication
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.replication;
+
+import com.github.leanframeworks.propertiesframework.api.common.Disposable;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableListProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableMapProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableProperty;
+import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableSetProperty;
+import com.github.leanframeworks.propertiesframework.base.codec.PropertyValueCodecRegistry;
+import com.github.leanframeworks.propertiesframework.base.codec.ValueDecoder;
+import com.github.leanframeworks.propertiesframework.base.common.LogErrorUncheckedExceptionHandler;
+import com.github.leanframeworks.propertiesframework.base.common.ThrowableHandler;
+import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.snapshot.JournalRecord;
+import com.github.leanframeworks.propertiesframework.base.snapshot.PropertyChangeJournalReplayer;
+import com.github.leanframeworks.propertiesframework.base.snapshot.PropertySnapshotManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entity replicating registered properties from the changes published by a {@link ReplicationPublisher} into a
+ * memory-mapped ring buffer file, typically by another process on the same machine.
+ * <p>
+ * The subscriber tails the ring buffer whenever it is {@link #poll() polled}, checking the sequence numbers of the
+ * records. When it starts, when the publisher is restarted, or when it missed records because it fell behind and the
+ * publisher overwrote them, the subscriber is no longer synchronized: it then requests a full resync from the
+ * publisher and restores the properties from the snapshot published in response, before tailing the ring buffer again
+ * from the position of the snapshot.
+ * <p>
+ * The records read by each poll are applied in a batch: the registered single-value properties extending {@link
+ * AbstractReadableProperty} are inhibited meanwhile, so that their listeners are notified only once per poll, with
+ * the first old value and the last new value.
+ * <p>
+ * The subscriber only reads from the ring buffer, except for the resync requests, so any number of subscribers can
+ * tail the same ring buffer.
+ * <p>
+ * Note that the properties are changed on the thread calling {@link #poll()}.
+ *
+ * @see ReplicationPublisher
+ * @see ReplicaProperty
+ */
+public class ReplicationSubscriber implements Disposable {
+
+    /**
+     * Ring buffer file.
+     */
+    private final Path file;
+
+    /**
+     * Memory-mapped buffer of the whole ring buffer file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * View of the memory-mapped buffer used to copy the records.
+     */
+    private final ByteBuffer dataView;
+
+    /**
+     * Capacity of the data area of the ring buffer, in bytes.
+     */
+    private final int capacity;
+
+    /**
+     * Replayer applying the records to the registered properties.
+     */
+    private final PropertyChangeJournalReplayer replayer = new PropertyChangeJournalReplayer();
+
+    /**
+     * Manager restoring the registered properties from the snapshots.
+     */
+    private final PropertySnapshotManager snapshotManager = new PropertySnapshotManager();
+
+    /**
+     * Registered single-value properties that can be inhibited while applying a batch, mapped to their identifiers.
+     */
+    private final Map<String, AbstractReadableProperty<?>> inhibitableProperties = new HashMap<>();
+
+    /**
+     * Flag set while a poll submitted by the polling thread is pending, to avoid flooding the executor.
+     */
+    private final AtomicBoolean pollPending = new AtomicBoolean(false);
+
+    /**
+     * Handler of the errors occurring while polling on the polling thread.
+     */
+    private volatile ThrowableHandler<Throwable> throwableHandler = new LogErrorUncheckedExceptionHandler();
+
+    /**
+     * Registry of the codecs used to decode the values.
+     */
+    private PropertyValueCodecRegistry codecRegistry = PropertyValueCodecRegistry.getDefault();
+
+    /**
+     * Heap buffer reused to copy the payload of the records out of the ring buffer before decoding them.
+     */
+    private ByteBuffer payload = ByteBuffer.allocate(256);
+
+    /**
+     * Decoder reused to decode the payload of the records, or null if it needs to be created.
+     */
+    private ValueDecoder decoder = null;
+
+    /**
+     * True if the properties are synchronized with the publisher.
+     */
+    private volatile boolean synchronizedWithPublisher = false;
+
+    /**
+     * Identifier of the publisher the properties are synchronized with.
+     */
+    private long publisherId = 0;
+
+    /**
+     * Position of the next record to be read.
+     */
+    private long readPosition = 0;
+
+    /**
+     * Sequence number of the next record to be read.
+     */
+    private volatile long sequence = 0;
+
+    /**
+     * Pending resync request, or 0 if no resync was requested.
+     */
+    private long pendingRequest = 0;
+
+    /**
+     * Number of times the properties were restored from a snapshot.
+     */
+    private volatile long resyncCount = 0;
+
+    /**
+     * Thread periodically submitting polls, or null if not polling automatically.
+     */
+    private Thread pollingThread = null;
+
+    /**
+     * Constructor specifying the ring buffer file.
+     *
+     * @param file Ring buffer file, which must have been created by a {@link ReplicationPublisher}.
+     * @throws IOException If the file could not be mapped or is not a ring buffer file.
+     */
+    public ReplicationSubscriber(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = fileChannel.size();
+            if (size <= RingBufferFormat.HEADER_SIZE) {
+                throw new IOException("Not a ring buffer file: " + file);
+            }
+            buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            capacity = (int) (size - RingBufferFormat.HEADER_SIZE);
+        }
+        if ((buffer.getInt(RingBufferFormat.MAGIC_OFFSET) != RingBufferFormat.MAGIC) || (buffer.getInt
+                (RingBufferFormat.VERSION_OFFSET) != RingBufferFormat.FORMAT_VERSION) || (buffer.getInt
+                (RingBufferFormat.CAPACITY_OFFSET) != capacity)) {
+            throw new IOException("Not a ring buffer file: " + file);
+        }
+        dataView = buffer.duplicate();
+    }
+
+    /**
+     * Gets the ring buffer file.
+     *
+     * @return Ring buffer file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the handler of the errors occurring while polling on the polling thread.
+     *
+     * @return Throwable handler.
+     */
+    public ThrowableHandler<Throwable> getThrowableHandler() {
+        return throwableHandler;
+    }
+
+    /**
+     * Sets the handler of the errors occurring while polling on the polling thread.
+     *
+     * @param throwableHandler Throwable handler.
+     * @see #startPolling(long, Executor)
+     */
+    public void setThrowableHandler(ThrowableHandler<Throwable> throwableHandler) {
+        this.throwableHandler = throwableHandler;
+    }
+
+    /**
+     * Gets the registry of the codecs used to decode the values.
+     *
+     * @return Codec registry.
+     */
+    public synchronized PropertyValueCodecRegistry getCodecRegistry() {
+        return codecRegistry;
+    }
+
+    /**
+     * Sets the registry of the codecs used to decode the values.
+     * <p>
+     * By default, the {@link PropertyValueCodecRegistry#getDefault() default registry} is used. It should contain the
+     * same codecs as the registry of the publisher.
+     *
+     * @param codecRegistry Codec registry.
+     */
+    public synchronized void setCodecRegistry(PropertyValueCodecRegistry codecRegistry) {
+        this.codecRegistry = codecRegistry;
+        decoder = null;
+        snapshotManager.setCodecRegistry(codecRegistry);
+    }
+
+    /**
+     * Registers the specified single-value property so that it replicates the property published with the same
+     * identifier.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced. Note that the property
+     * will only get its value on the next resync.
+     *
+     * @param id       Identifier of the property in the ring buffer.
+     * @param property Property to be registered.
+     */
+    public synchronized void register(String id, ReadableWritableProperty<?> property) {
+        replayer.register(id, property);
+        snapshotManager.register(id, property);
+        if (property instanceof AbstractReadableProperty) {
+            inhibitableProperties.put(id, (AbstractReadableProperty<?>) property);
+        } else {
+            inhibitableProperties.remove(id);
+        }
+        requestResync();
+    }
+
+    /**
+     * Registers the specified list property so that it replicates the list property published with the same
+     * identifier.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced. Note that the property
+     * will only get its items on the next resync.
+     *
+     * @param id       Identifier of the property in the ring buffer.
+     * @param property Property to be registered.
+     */
+    public synchronized void registerList(String id, ReadableWritableListProperty<?> property) {
+        replayer.registerList(id, property);
+        snapshotManager.registerList(id, property);
+        inhibitableProperties.remove(id);
+        requestResync();
+    }
+
+    /**
+     * Registers the specified set property so that it replicates the set property published with the same
+     * identifier.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced. Note that the property
+     * will only get its items on the next resync.
+     *
+     * @param id       Identifier of the property in the ring buffer.
+     * @param property Property to be registered.
+     */
+    public synchronized void registerSet(String id, ReadableWritableSetProperty<?> property) {
+        replayer.registerSet(id, property);
+        snapshotManager.registerSet(id, property);
+        inhibitableProperties.remove(id);
+        requestResync();
+    }
+
+    /**
+     * Registers the specified map property so that it replicates the map property published with the same
+     * identifier.
+     * <p>
+     * If another property is already registered with the same identifier, it will be replaced. Note that the property
+     * will only get its entries on the next resync.
+     *
+     * @param id       Identifier of the property in the ring buffer.
+     * @param property Property to be registered.
+     */
+    public synchronized void registerMap(String id, ReadableWritableMapProperty<?, ?> property) {
+        replayer.registerMap(id, property);
+        snapshotManager.registerMap(id, property);
+        inhibitableProperties.remove(id);
+        requestResync();
+    }
+
+    /**
+     * Unregisters the property with the specified identifier so that it no longer replicates the published property.
+     *
+     * @param id Identifier of the property to be unregistered.
+     */
+    public synchronized void unregister(String id) {
+        replayer.unregister(id);
+        snapshotManager.unregister(id);
+        inhibitableProperties.remove(id);
+    }
+
+    /**
+     * States whether the registered properties are currently synchronized with the publisher.
+     *
+     * @return True if the properties were restored from a snapshot and no record was missed since then.
+     */
+    public boolean isSynchronized() {
+        return synchronizedWithPublisher;
+    }
+
+    /**
+     * Gets the sequence number of the next record to be applied.
+     *
+     * @return Sequence number of the next record.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the number of times the registered properties were restored from a snapshot.
+     *
+     * @return Number of resyncs.
+     */
+    public long getResyncCount() {
+        return resyncCount;
+    }
+
+    /**
+     * Makes the subscriber resync the properties from a new snapshot on the next poll.
+     */
+    private void requestResync() {
+        synchronizedWithPublisher = false;
+    }
+
+    /**
+     * Applies the records published since the last poll to the registered properties, resyncing them first if needed.
+     *
+     * @return Number of records applied.
+     * @throws IOException If a snapshot or a record could not be decoded.
+     */
+    public synchronized int poll() throws IOException {
+        int count = 0;
+        if (synchronizedWithPublisher || resync()) {
+            List<JournalRecord> batch = new ArrayList<>();
+            readRecords(batch);
+            applyBatch(batch);
+            count = batch.size();
+
+            if (!synchronizedWithPublisher) {
+                // Records were missed, start resyncing right away
+                resync();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads the records published since the last read, stopping and marking the properties as no longer synchronized
+     * as soon as a record is found to be missing or overwritten.
+     *
+     * @param batch List to add the records to.
+     * @throws IOException If a record could not be decoded.
+     */
+    private void readRecords(List<JournalRecord> batch) throws IOException {
+        RingBufferFormat.loadFence();
+        if (buffer.getLong(RingBufferFormat.PUBLISHER_ID_OFFSET) != publisherId) {
+            // Publisher was disposed or restarted
+            synchronizedWithPublisher = false;
+        }
+        long writePosition = buffer.getLong(RingBufferFormat.WRITE_POSITION_OFFSET);
+        RingBufferFormat.loadFence();
+
+        while (synchronizedWithPublisher && (readPosition < writePosition)) {
+            int tail = capacity - (int) (readPosition % capacity);
+            if (tail < RingBufferFormat.RECORD_HEADER_SIZE) {
+                // No room for a padding marker at the end of the data area
+                readPosition += tail;
+            } else {
+                // Copy the record before checking that it was not overwritten meanwhile
+                int offset = RingBufferFormat.HEADER_SIZE + (int) (readPosition % capacity);
+                int length = buffer.getInt(offset);
+                long recordSequence = buffer.getLong(offset + 4);
+                boolean validLength = (length >= 0) && (length <= tail - RingBufferFormat.RECORD_HEADER_SIZE);
+                if (validLength) {
+                    copyPayload(offset + RingBufferFormat.RECORD_HEADER_SIZE, length);
+                }
+                RingBufferFormat.loadFence();
+
+                if (isOverwritten()) {
+                    synchronizedWithPublisher = false;
+                } else if (length == RingBufferFormat.PADDING) {
+                    readPosition += tail;
+                } else if (!validLength || (recordSequence != sequence)) {
+                    // Gap in the sequence
+                    synchronizedWithPublisher = false;
+                } else {
+                    if (decoder == null) {
+                        decoder = new ValueDecoder(codecRegistry, payload);
+                    } else {
+                        decoder.reset();
+                    }
+                    batch.add(RingBufferFormat.decodeRecord(decoder));
+                    readPosition += RingBufferFormat.RECORD_HEADER_SIZE + length;
+                    sequence++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the payload of a record from the ring buffer.
+     *
+     * @param offset Offset of the payload in the ring buffer file.
+     * @param length Length of the payload.
+     */
+    private void copyPayload(int offset, int length) {
+        if (payload.capacity() < length) {
+            payload = ByteBuffer.allocate(Math.max(length, 2 * payload.capacity()));
+            decoder = null;
+        }
+        payload.clear();
+        dataView.limit(offset + length);
+        dataView.position(offset);
+        payload.put(dataView);
+        dataView.limit(dataView.capacity());
+        payload.flip();
+    }
+
+    /**
+     * States whether the data at the read position may have been overwritten, either because the publisher lapped the
+     * subscriber or because the publisher was restarted.
+     *
+     * @return True if the data that was read cannot be trusted.
+     */
+    private boolean isOverwritten() {
+        long writeLimit = buffer.getLong(RingBufferFormat.WRITE_LIMIT_OFFSET);
+        long currentPublisherId = buffer.getLong(RingBufferFormat.PUBLISHER_ID_OFFSET);
+        return (writeLimit - readPosition > capacity) || (currentPublisherId != publisherId);
+    }
+
+    /**
+     * Applies the specified records, inhibiting the single-value properties meanwhile.
+     *
+     * @param batch Records to be applied.
+     */
+    private void applyBatch(List<JournalRecord> batch) {
+        // Inhibit properties that are not already inhibited
+        Set<AbstractReadableProperty<?>> inhibitedProperties = new LinkedHashSet<>();
+        for (JournalRecord record : batch) {
+            AbstractReadableProperty<?> property = inhibitableProperties.get(record.getPropertyId());
+            if ((property != null) && !property.isInhibited()) {
+                property.setInhibited(true);
+                inhibitedProperties.add(property);
+            }
+        }
+
+        try {
+            for (JournalRecord record : batch) {
+                replayer.apply(record);
+            }
+        } finally {
+            // Notify the listeners
+            for (AbstractReadableProperty<?> property : inhibitedProperties) {
+                property.setInhibited(false);
+            }
+        }
+    }
+
+    /**
+     * Tries to restore the registered properties from the last snapshot published by the current publisher, or
+     * requests a new snapshot if it is not usable.
+     *
+     * @return True if the properties are now synchronized with the publisher.
+     * @throws IOException If the snapshot could not be read.
+     */
+    private boolean resync() throws IOException {
+        synchronizedWithPublisher = false;
+
+        RingBufferFormat.loadFence();
+        long currentPublisherId = buffer.getLong(RingBufferFormat.PUBLISHER_ID_OFFSET);
+        RingBufferFormat.loadFence();
+        if (currentPublisherId != 0) {
+            try (FileChannel snapshotChannel = FileChannel.open(RingBufferFormat.getSnapshotFile(file),
+                    StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(RingBufferFormat.SNAPSHOT_HEADER_SIZE);
+                while (header.hasRemaining() && (snapshotChannel.read(header) >= 0)) {
+                    // Read the whole header
+                }
+                header.flip();
+                if ((header.remaining() == RingBufferFormat.SNAPSHOT_HEADER_SIZE) && (header.getInt() ==
+                        RingBufferFormat.SNAPSHOT_MAGIC)) {
+                    long snapshotPublisherId = header.getLong();
+                    long snapshotPosition = header.getLong();
+                    long snapshotSequence = header.getLong();
+                    long servedRequest = header.getLong();
+                    long writeLimit = buffer.getLong(RingBufferFormat.WRITE_LIMIT_OFFSET);
+                    if ((snapshotPublisherId == currentPublisherId) && (writeLimit - snapshotPosition <= capacity)) {
+                        restoreSnapshot(snapshotChannel, currentPublisherId, snapshotPosition, snapshotSequence);
+                    } else if ((pendingRequest == 0) || (servedRequest >= pendingRequest)) {
+                        // Snapshot is stale or records following it were overwritten already
+                        sendResyncRequest();
+                    }
+                } else if (pendingRequest == 0) {
+                    sendResyncRequest();
+                }
+            } catch (NoSuchFileException e) {
+                if (pendingRequest == 0) {
+                    sendResyncRequest();
+                }
+            }
+        }
+        return synchronizedWithPublisher;
+    }
+
+    /**
+     * Restores the registered properties from the specified snapshot.
+     *
+     * @param snapshotChannel     Channel to read the snapshot from, positioned after the snapshot file header.
+     * @param snapshotPublisherId Identifier of the publisher that published the snapshot.
+     * @param snapshotPosition    Position of the first record following the snapshot.
+     * @param snapshotSequence    Sequence number of the first record following the snapshot.
+     * @throws IOException If the snapshot could not be read.
+     */
+    private void restoreSnapshot(FileChannel snapshotChannel, long snapshotPublisherId, long snapshotPosition,
+                                 long snapshotSequence) throws IOException {
+        snapshotManager.restoreSnapshot(snapshotChannel);
+        publisherId = snapshotPublisherId;
+        readPosition = snapshotPosition;
+        sequence = snapshotSequence;
+        pendingRequest = 0;
+        resyncCount++;
+        synchronizedWithPublisher = true;
+    }
+
+    /**
+     * Asks the publisher to publish a new snapshot.
+     */
+    private void sendResyncRequest() {
+        pendingRequest = buffer.getLong(RingBufferFormat.RESYNC_REQUEST_OFFSET) + 1;
+        buffer.putLong(RingBufferFormat.RESYNC_REQUEST_OFFSET, pendingRequest);
+        RingBufferFormat.storeFence();
+    }
+
+    /**
+     * Starts a daemon thread polling the ring buffer periodically.
+     * <p>
+     * The polls are submitted to the specified executor, so that the properties can be changed on the thread owning
+     * them, for instance using {@code SwingUtilities::invokeLater} for properties bound to Swing components. A poll is
+     * only submitted when the previous one is complete. Errors occurring while polling are passed to the {@link
+     * #getThrowableHandler() throwable handler}.
+     *
+     * @param periodMillis Period between the polls, in milliseconds.
+     * @param executor     Executor running the polls.
+     * @throws IllegalStateException If the subscriber is already polling.
+     */
+    public synchronized void startPolling(long periodMillis, Executor executor) {
+        if (pollingThread != null) {
+            throw new IllegalStateException("Subscriber is already polling");
+        }
+        Runnable pollTask = () -> {
+            try {
+                poll();
+            } catch (IOException | RuntimeException e) {
+                throwableHandler.handleThrowable(e);
+            } finally {
+                pollPending.set(false);
+            }
+        };
+        pollingThread = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (pollPending.compareAndSet(false, true)) {
+                        executor.execute(pollTask);
+                    }
+                    Thread.sleep(periodMillis);
+                }
+            } catch (InterruptedException e) {
+                // Stop polling
+            }
+        }, getClass().getSimpleName() + "-poller");
+        pollingThread.setDaemon(true);
+        pollingThread.start();
+    }
+
+    /**
+     * Stops the thread polling the ring buffer, if any.
+     */
+    public void stopPolling() {
+        Thread thread;
+        synchronized (this) {
+            thread = pollingThread;
+            pollingThread = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops polling and releases the ring buffer file.
+     * <p>
+     * The registered properties are left as they are.
+     *
+     * @see Disposable#dispose()
+     */
+    @Override
+    public void dispose() {
+        stopPolling();
+        synchronized (this) {
+            synchronizedWithPublisher = false;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Replication
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.replication;
+
+import com.github.leanframeworks.propertiesframework.base.codec.ValueDecoder;
+import com.github.leanframeworks.propertiesframework.base.codec.ValueEncoder;
+import com.github.leanframeworks.propertiesframework.base.snapshot.JournalRecord;
+import com.github.leanframeworks.propertiesframework.base.snapshot.JournalRecordType;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+
+/**
+ * Utility class defining the format of the replication ring buffer files and of their snapshot files.
+ * <p>
+ * A ring buffer file starts with a header, followed by the data area in which the records are written one after the
+ * other, wrapping around at the end. Positions in the data area are absolute: they always increase, the offset in the
+ * data area being the position modulo the capacity of the data area.
+ * <p>
+ * The header contains:
+ * <ul>
+ * <li>the magic number, the format version and the capacity of the data area;</li>
+ * <li>the identifier of the current publisher, changing whenever a new publisher opens the file, or 0 if there is no
+ * publisher;</li>
+ * <li>the write position, after the last published record;</li>
+ * <li>the write limit, after the last byte that may have been overwritten, announced before overwriting data;</li>
+ * <li>the resync request counter, incremented by the subscribers needing a new snapshot.</li>
+ * </ul>
+ * The fields written by the publisher and by the subscribers are in separate cache lines.
+ * <p>
+ * Each record consists of the length of its payload, its sequence number and the payload itself. A record never wraps
+ * around: if it does not fit before the end of the data area, a padding marker is written (if there is enough room
+ * for a record header) and the record is written at the beginning of the data area.
+ * <p>
+ * A snapshot file contains the identifier of the publisher, the write position and the sequence number of the next
+ * record at the time of the snapshot, and the number of the last served resync request, followed by a full snapshot
+ * written by a {@link com.github.leanframeworks.propertiesframework.base.snapshot.PropertySnapshotManager}.
+ */
+final class RingBufferFormat {
+
+    /**
+     * Magic number at the beginning of all ring buffer files ("PFRR").
+     */
+    static final int MAGIC = 0x50465252;
+
+    /**
+     * Magic number at the beginning of all snapshot files ("PFRS").
+     */
+    static final int SNAPSHOT_MAGIC = 0x50465253;
+
+    /**
+     * Version of the ring buffer format.
+     */
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * Size of the header at the beginning of the ring buffer files.
+     */
+    static final int HEADER_SIZE = 256;
+
+    /**
+     * Offset of the magic number in the header.
+     */
+    static final int MAGIC_OFFSET = 0;
+
+    /**
+     * Offset of the format version in the header.
+     */
+    static final int VERSION_OFFSET = 4;
+
+    /**
+     * Offset of the capacity of the data area in the header.
+     */
+    static final int CAPACITY_OFFSET = 8;
+
+    /**
+     * Offset of the publisher identifier in the header.
+     */
+    static final int PUBLISHER_ID_OFFSET = 16;
+
+    /**
+     * Offset of the write position in the header.
+     */
+    static final int WRITE_POSITION_OFFSET = 64;
+
+    /**
+     * Offset of the write limit in the header.
+     */
+    static final int WRITE_LIMIT_OFFSET = 128;
+
+    /**
+     * Offset of the resync request counter in the header.
+     */
+    static final int RESYNC_REQUEST_OFFSET = 192;
+
+    /**
+     * Size of the header of each record (payload length and sequence number).
+     */
+    static final int RECORD_HEADER_SIZE = 12;
+
+    /**
+     * Payload length marking the end of the records before the end of the data area.
+     */
+    static final int PADDING = -1;
+
+    /**
+     * Size of the header at the beginning of the snapshot files.
+     */
+    static final int SNAPSHOT_HEADER_SIZE = 36;
+
+    /**
+     * Suffix appended to the name of a ring buffer file to get the name of its snapshot file.
+     */
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    /**
+     * Types of records, indexed by ordinal.
+     */
+    private static final JournalRecordType[] RECORD_TYPES = JournalRecordType.values();
+
+    /**
+     * Handle of {@code sun.misc.Unsafe.storeFence()}, bound to the unsafe instance.
+     * <p>
+     * Java 8 has no public API to order plain accesses to a memory-mapped buffer, and volatile accesses to an unrelated
+     * field only provide release/acquire ordering that does not prevent the surrounding buffer accesses from being
+     * reordered on weakly-ordered processors. The fences of {@code sun.misc.Unsafe}, available from Java 8 onwards and
+     * still exported by the {@code jdk.unsupported} module, are used instead. They are looked up reflectively so that
+     * the bundle does not need to import {@code sun.misc}.
+     */
+    private static final MethodHandle STORE_FENCE;
+
+    /**
+     * Handle of {@code sun.misc.Unsafe.loadFence()}, bound to the unsafe instance.
+     */
+    private static final MethodHandle LOAD_FENCE;
+
+    static {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            STORE_FENCE = lookup.findVirtual(unsafeClass, "storeFence", MethodType.methodType(void.class)).bindTo
+                    (unsafe);
+            LOAD_FENCE = lookup.findVirtual(unsafeClass, "loadFence", MethodType.methodType(void.class)).bindTo
+                    (unsafe);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Private constructor for utility class.
+     */
+    private RingBufferFormat() {
+        // Nothing to be done
+    }
+
+    /**
+     * Makes sure none of the preceding reads and writes is reordered with the following writes.
+     */
+    static void storeFence() {
+        try {
+            STORE_FENCE.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Store fence failed", e);
+        }
+    }
+
+    /**
+     * Makes sure none of the preceding reads is reordered with the following reads and writes.
+     */
+    static void loadFence() {
+        try {
+            LOAD_FENCE.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Load fence failed", e);
+        }
+    }
+
+    /**
+     * Gets the snapshot file associated to the specified ring buffer file.
+     *
+     * @param file Ring buffer file.
+     * @return Snapshot file.
+     */
+    static Path getSnapshotFile(Path file) {
+        return file.resolveSibling(file.getFileName() + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Encodes the payload of a record.
+     *
+     * @param out        Encoder to write the payload to.
+     * @param timestamp  Time of the change, in nanoseconds since the epoch.
+     * @param propertyId Identifier of the changed property.
+     * @param type       Type of record.
+     * @param index      Index of the first changed item for list changes, -1 otherwise.
+     * @param oldValue   Old value or items.
+     * @param newValue   New value or items.
+     * @throws IOException If a value could not be encoded.
+     */
+    static void encodeRecord(ValueEncoder out, long timestamp, String propertyId, JournalRecordType type, int index,
+                             Object oldValue, Object newValue) throws IOException {
+        out.writeVarLong(timestamp);
+        out.writeString(propertyId);
+        out.writeByte(type.ordinal());
+        if (type == JournalRecordType.LIST) {
+            out.writeLength(index);
+        }
+        out.writeValue(oldValue);
+        out.writeValue(newValue);
+    }
+
+    /**
+     * Decodes the payload of a record.
+     *
+     * @param in Decoder to read the payload from.
+     * @return Decoded record.
+     * @throws IOException If the payload could not be decoded.
+     */
+    static JournalRecord decodeRecord(ValueDecoder in) throws IOException {
+        long timestamp = in.readVarLong();
+        String propertyId = in.readString();
+        byte typeOrdinal = in.readByte();
+        if ((typeOrdinal < 0) || (typeOrdinal >= RECORD_TYPES.length)) {
+            throw new StreamCorruptedException("Unknown record type: " + typeOrdinal);
+        }
+        JournalRecordType type = RECORD_TYPES[typeOrdinal];
+        int index = -1;
+        if (type == JournalRecordType.LIST) {
+            index = in.readLength();
+        }
+        Object oldValue = in.readValue();
+        Object newValue = in.readValue();
+        return new JournalRecord(timestamp, propertyId, type, index, oldValue, newValue);
+    }
+}
@@ -0,0 +1,100 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Replication
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.replication;
+
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+/**
+ * Publisher run in a separate JVM by {@link ReplicationCrossProcessTest}.
+ * <p>
+ * It publishes a single integer property, and executes the commands read from its standard input, one per line,
+ * answering "ok" to each of them on its standard output:
+ * <ul>
+ * <li>"set N" sets the value of the property to N;</li>
+ * <li>"increment N" increments the value of the property N times;</li>
+ * <li>"serve" serves the pending resync requests;</li>
+ * <li>"exit" disposes the publisher and exits.</li>
+ * </ul>
+ */
+public final class RemotePublisher {
+
+    /**
+     * Private constructor for utility class.
+     */
+    private RemotePublisher() {
+        // Nothing to be done
+    }
+
+    /**
+     * Entry point.
+     *
+     * @param args Ring buffer file and its capacity.
+     * @throws IOException If the publisher could not be created or if the commands could not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+        ReplicationPublisher publisher = new ReplicationPublisher(Paths.get(args[0]), Integer.parseInt(args[1]));
+        publisher.register("value", property);
+        System.out.println("ready");
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        boolean exit = false;
+        while (!exit && ((line = in.readLine()) != null)) {
+            String[] command = line.split(" ");
+            switch (command[0]) {
+                case "set":
+                    property.setValue(Integer.valueOf(command[1]));
+                    break;
+                case "increment":
+                    for (int i = Integer.parseInt(command[1]); i > 0; i--) {
+                        property.setValue(property.getValue() + 1);
+                    }
+                    break;
+                case "serve":
+                    publisher.checkResyncRequests();
+                    break;
+                case "exit":
+                    publisher.dispose();
+                    exit = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + line);
+            }
+            System.out.println("ok");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Replication
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.replication;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test replicating a property published by a {@link RemotePublisher} running in another JVM.
+ *
+ * @see ReplicationPublisher
+ * @see ReplicationSubscriber
+ */
+public class ReplicationCrossProcessTest {
+
+    private static final long TIMEOUT_MILLIS = 30000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Process process;
+
+    private Writer commands;
+
+    private BufferedReader answers;
+
+    private ReplicationSubscriber subscriber;
+
+    @Before
+    public void setUp() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("replication");
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), RemotePublisher.class
+                .getName(), file.toString(), "1024").redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        commands = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        answers = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        assertEquals("ready", answers.readLine());
+        subscriber = new ReplicationSubscriber(file);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        subscriber.dispose();
+        process.destroy();
+        process.waitFor(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void send(String command) throws IOException {
+        commands.write(command + "\n");
+        commands.flush();
+        assertEquals("ok", answers.readLine());
+    }
+
+    private void pollUntil(BooleanSupplier condition) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        subscriber.poll();
+        while (!condition.getAsBoolean() && (System.currentTimeMillis() < deadline)) {
+            send("serve");
+            Thread.sleep(1);
+            subscriber.poll();
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void testReplication() throws IOException, InterruptedException {
+        ReplicaProperty<Integer> replica = new ReplicaProperty<>(subscriber, "value");
+        send("set 1");
+        pollUntil(subscriber::isSynchronized);
+        assertEquals(Integer.valueOf(1), replica.getValue());
+
+        send("set 2");
+        send("increment 3");
+        assertEquals(4, subscriber.poll());
+        assertEquals(Integer.valueOf(5), replica.getValue());
+
+        // Lap the subscriber to force a resync
+        send("increment 200");
+        subscriber.poll();
+        assertFalse(subscriber.isSynchronized());
+        pollUntil(subscriber::isSynchronized);
+        assertEquals(Integer.valueOf(205), replica.getValue());
+        assertEquals(2, subscriber.getResyncCount());
+
+        send("exit");
+        assertTrue(process.waitFor(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        subscriber.poll();
+        assertFalse(subscriber.isSynchronized());
+        assertEquals(Integer.valueOf(205), replica.getValue());
+    }
+}
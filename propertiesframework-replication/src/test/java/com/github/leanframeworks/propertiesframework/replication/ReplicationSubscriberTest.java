@@ -0,0 +1,257 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Replication
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.replication;
+
+import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleListProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleMapProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleSetProperty;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @see ReplicationPublisher
+ * @see ReplicationSubscriber
+ * @see ReplicaProperty
+ */
+public class ReplicationSubscriberTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+
+    private SimpleIntegerProperty property;
+
+    private ReplicationPublisher publisher;
+
+    private ReplicationSubscriber subscriber;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.getRoot().toPath().resolve("replication");
+        property = new SimpleIntegerProperty(1);
+        publisher = new ReplicationPublisher(file, 512);
+        publisher.register("value", property);
+        subscriber = new ReplicationSubscriber(file);
+    }
+
+    @After
+    public void tearDown() {
+        subscriber.dispose();
+        publisher.dispose();
+    }
+
+    private void synchronize() throws IOException {
+        subscriber.poll();
+        publisher.checkResyncRequests();
+        subscriber.poll();
+    }
+
+    @Test
+    public void testInitialResync() throws IOException {
+        ReplicaProperty<Integer> replica = new ReplicaProperty<>(subscriber, "value");
+        assertFalse(subscriber.isSynchronized());
+        assertNull(replica.getValue());
+
+        // No snapshot yet
+        assertEquals(0, subscriber.poll());
+        assertFalse(subscriber.isSynchronized());
+
+        publisher.checkResyncRequests();
+        subscriber.poll();
+        assertTrue(subscriber.isSynchronized());
+        assertEquals(1, subscriber.getResyncCount());
+        assertEquals(Integer.valueOf(1), replica.getValue());
+    }
+
+    @Test
+    public void testChanges() throws IOException {
+        SimpleListProperty<String> listProperty = new SimpleListProperty<>();
+        SimpleSetProperty<String> setProperty = new SimpleSetProperty<>();
+        SimpleMapProperty<String, Integer> mapProperty = new SimpleMapProperty<>();
+        publisher.registerList("list", listProperty);
+        publisher.registerSet("set", setProperty);
+        publisher.registerMap("map", mapProperty);
+
+        SimpleIntegerProperty replica = new SimpleIntegerProperty();
+        SimpleListProperty<String> listReplica = new SimpleListProperty<>();
+        SimpleSetProperty<String> setReplica = new SimpleSetProperty<>();
+        SimpleMapProperty<String, Integer> mapReplica = new SimpleMapProperty<>();
+        subscriber.register("value", replica);
+        subscriber.registerList("list", listReplica);
+        subscriber.registerSet("set", setReplica);
+        subscriber.registerMap("map", mapReplica);
+        synchronize();
+        assertTrue(subscriber.isSynchronized());
+
+        property.setValue(2);
+        listProperty.addAll(Arrays.asList("a", "b", "c"));
+        listProperty.set(1, "B");
+        listProperty.remove(0);
+        setProperty.addAll(Arrays.asList("x", "y"));
+        setProperty.remove("x");
+        mapProperty.put("one", 1);
+        mapProperty.put("two", 2);
+        mapProperty.remove("one");
+        assertEquals(9, subscriber.poll());
+
+        assertTrue(subscriber.isSynchronized());
+        assertEquals(publisher.getSequence(), subscriber.getSequence());
+        assertEquals(Integer.valueOf(2), replica.getValue());
+        assertEquals(Arrays.asList("B", "c"), listReplica);
+        assertEquals(new HashSet<>(Arrays.asList("y")), setReplica);
+        Map<String, Integer> expectedMap = new LinkedHashMap<>();
+        expectedMap.put("two", 2);
+        assertEquals(expectedMap, mapReplica);
+    }
+
+    @Test
+    public void testBatchedNotifications() throws IOException {
+        ReplicaProperty<Integer> replica = new ReplicaProperty<>(subscriber, "value");
+        synchronize();
+        List<PropertyChange<? extends Integer>> events = new ArrayList<>();
+        replica.addChangeListener(events::add);
+
+        property.setValue(2);
+        property.setValue(3);
+        property.setValue(4);
+        assertEquals(3, subscriber.poll());
+
+        assertEquals(1, events.size());
+        assertEquals(Integer.valueOf(1), events.get(0).getOldValue());
+        assertEquals(Integer.valueOf(4), events.get(0).getNewValue());
+    }
+
+    @Test
+    public void testGapDetection() throws IOException {
+        ReplicaProperty<Integer> replica = new ReplicaProperty<>(subscriber, "value");
+        synchronize();
+        assertEquals(1, subscriber.getResyncCount());
+
+        // Lap the subscriber
+        for (int i = 0; i < 100; i++) {
+            property.setValue(property.getValue() + 1);
+        }
+        subscriber.poll();
+        assertFalse(subscriber.isSynchronized());
+
+        publisher.checkResyncRequests();
+        subscriber.poll();
+        assertTrue(subscriber.isSynchronized());
+        assertEquals(2, subscriber.getResyncCount());
+        assertEquals(Integer.valueOf(101), replica.getValue());
+
+        // Keep tailing after the resync, wrapping around the ring buffer
+        for (int i = 0; i < 10; i++) {
+            property.setValue(property.getValue() + 1);
+            subscriber.poll();
+            assertEquals(property.getValue(), replica.getValue());
+        }
+        assertTrue(subscriber.isSynchronized());
+        assertEquals(2, subscriber.getResyncCount());
+        assertEquals(publisher.getSequence(), subscriber.getSequence());
+    }
+
+    @Test
+    public void testPublisherRestart() throws IOException {
+        ReplicaProperty<Integer> replica = new ReplicaProperty<>(subscriber, "value");
+        synchronize();
+
+        publisher.dispose();
+        subscriber.poll();
+        assertFalse(subscriber.isSynchronized());
+
+        property = new SimpleIntegerProperty(42);
+        publisher = new ReplicationPublisher(file, 512);
+        publisher.register("value", property);
+        synchronize();
+        assertTrue(subscriber.isSynchronized());
+        assertEquals(Integer.valueOf(42), replica.getValue());
+
+        property.setValue(43);
+        subscriber.poll();
+        assertEquals(Integer.valueOf(43), replica.getValue());
+    }
+
+    @Test
+    public void testSinglePublisher() throws IOException {
+        try {
+            new ReplicationPublisher(file, 512);
+            fail("A second publisher could be opened");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testStartPolling() throws IOException, InterruptedException {
+        ReplicaProperty<Integer> replica = new ReplicaProperty<>(subscriber, "value");
+        CountDownLatch latch = new CountDownLatch(1);
+        replica.addChangeListener(e -> {
+            if (Integer.valueOf(2).equals(e.getNewValue())) {
+                latch.countDown();
+            }
+        });
+        subscriber.startPolling(1, Runnable::run);
+
+        // Serve the resync request on the publisher side, then change the value
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!subscriber.isSynchronized() && (System.nanoTime() < deadline)) {
+            publisher.checkResyncRequests();
+            Thread.sleep(1);
+        }
+        property.setValue(2);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        subscriber.stopPolling();
+    }
+}
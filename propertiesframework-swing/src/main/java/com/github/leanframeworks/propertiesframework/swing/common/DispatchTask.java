@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Swing Support
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.swing.common;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Task that is run on the EDT by an {@link EdtDispatcher} after having been marked dirty.
+ * <p>
+ * Marking the task dirty several times before it is run results in a single run.
+ *
+ * @see EdtDispatcher#createTask(Runnable)
+ */
+public class DispatchTask {
+
+    /**
+     * Dispatcher running this task.
+     */
+    private final EdtDispatcher dispatcher;
+
+    /**
+     * Action to be run on the EDT.
+     */
+    private final Runnable action;
+
+    /**
+     * Flag indicating whether the task is waiting to be run.
+     */
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    /**
+     * Constructor.
+     *
+     * @param dispatcher Dispatcher running this task.
+     * @param action     Action to be run on the EDT.
+     */
+    DispatchTask(EdtDispatcher dispatcher, Runnable action) {
+        this.dispatcher = dispatcher;
+        this.action = action;
+    }
+
+    /**
+     * Marks this task dirty so that it is run on the EDT during the next flush of the dispatcher.
+     * <p>
+     * This method can be called from any thread.
+     */
+    public void markDirty() {
+        if (dirty.compareAndSet(false, true)) {
+            dispatcher.taskMarkedDirty(this);
+        }
+    }
+
+    /**
+     * States whether this task is waiting to be run.
+     *
+     * @return True if the task was marked dirty and has not been run yet, false otherwise.
+     */
+    public boolean isDirty() {
+        return dirty.get();
+    }
+
+    /**
+     * Runs the action of this task on the EDT.
+     * <p>
+     * The task is no longer dirty when the action starts, so that it can be marked dirty again by the action itself or
+     * concurrently.
+     */
+    void run() {
+        dirty.set(false);
+        action.run();
+    }
+}
@@ -0,0 +1,214 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Swing Support
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.swing.common;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dispatcher coalescing work to be done on the Event Dispatch Thread.
+ * <p>
+ * Entities needing to be refreshed on the EDT create a {@link DispatchTask} and mark it dirty, from any thread, every
+ * time something changes. However many times the tasks are marked dirty, at most one flush is scheduled on the EDT, and
+ * every dirty task is run once during that flush. This avoids flooding the EDT event queue when a background producer
+ * changes values in bursts.
+ * <p>
+ * By default, the flush is scheduled for the next EDT cycle. A frame interval can be set so that the flushes happen at
+ * most once per frame. Also, the duration of a flush is limited by a frame budget: the tasks still dirty when the
+ * budget is exhausted are run in the next flush, so that the EDT remains responsive.
+ * <p>
+ * If the action of a task throws an exception, the exception is propagated to the EDT, and the tasks that were not run
+ * yet are run in the next flush.
+ * <p>
+ * A shared instance is available using {@link #getDefault()}.
+ *
+ * @see DispatchTask
+ */
+public class EdtDispatcher {
+
+    /**
+     * Default frame budget, in milliseconds.
+     */
+    public static final long DEFAULT_FRAME_BUDGET_MILLIS = 10;
+
+    /**
+     * Shared instance.
+     */
+    private static final EdtDispatcher DEFAULT = new EdtDispatcher();
+
+    /**
+     * Tasks marked dirty and not taken by a flush yet.
+     */
+    private final Queue<DispatchTask> dirtyTasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Tasks taken by a flush but not run yet because the frame budget was exhausted.
+     * <p>
+     * It must be accessed on the EDT only.
+     */
+    private final Deque<DispatchTask> backlog = new ArrayDeque<>();
+
+    /**
+     * Flag indicating whether a flush is scheduled.
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    /**
+     * Maximum duration of a flush, in nanoseconds.
+     */
+    private volatile long frameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FRAME_BUDGET_MILLIS);
+
+    /**
+     * Minimum delay between the scheduling of a flush and the flush, in milliseconds, or 0 for the next EDT cycle.
+     */
+    private volatile int frameIntervalMillis = 0;
+
+    /**
+     * Gets the dispatcher shared by default.
+     *
+     * @return Shared dispatcher.
+     */
+    public static EdtDispatcher getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a task to be run on the EDT by this dispatcher, whenever it is marked dirty.
+     *
+     * @param action Action to be run on the EDT.
+     * @return Task to be marked dirty.
+     */
+    public DispatchTask createTask(Runnable action) {
+        return new DispatchTask(this, action);
+    }
+
+    /**
+     * Gets the maximum duration of a flush.
+     *
+     * @param unit Unit in which the duration is to be returned.
+     * @return Frame budget.
+     */
+    public long getFrameBudget(TimeUnit unit) {
+        return unit.convert(frameBudgetNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the maximum duration of a flush.
+     * <p>
+     * At least one task is run in every flush, whatever the budget.
+     *
+     * @param frameBudget Frame budget.
+     * @param unit        Unit of the frame budget.
+     */
+    public void setFrameBudget(long frameBudget, TimeUnit unit) {
+        this.frameBudgetNanos = unit.toNanos(frameBudget);
+    }
+
+    /**
+     * Gets the minimum delay between the scheduling of a flush and the flush.
+     *
+     * @return Frame interval in milliseconds, or 0 if flushes happen on the next EDT cycle.
+     */
+    public int getFrameInterval() {
+        return frameIntervalMillis;
+    }
+
+    /**
+     * Sets the minimum delay between the scheduling of a flush and the flush.
+     *
+     * @param frameIntervalMillis Frame interval in milliseconds (for instance, 16 for about 60 flushes per second), or
+     *                            0 to flush on the next EDT cycle.
+     */
+    public void setFrameInterval(int frameIntervalMillis) {
+        this.frameIntervalMillis = Math.max(0, frameIntervalMillis);
+    }
+
+    /**
+     * Queues the specified task for the next flush and schedules the flush if needed.
+     * <p>
+     * This method can be called from any thread.
+     *
+     * @param task Task that was just marked dirty.
+     */
+    void taskMarkedDirty(DispatchTask task) {
+        dirtyTasks.add(task);
+        scheduleFlush();
+    }
+
+    /**
+     * Schedules a flush on the EDT, unless one is already scheduled.
+     */
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            int interval = frameIntervalMillis;
+            if (interval > 0) {
+                Timer timer = new Timer(interval, e -> flush());
+                timer.setRepeats(false);
+                timer.start();
+            } else {
+                SwingUtilities.invokeLater(this::flush);
+            }
+        }
+    }
+
+    /**
+     * Runs the dirty tasks on the EDT, within the frame budget.
+     */
+    private void flush() {
+        // Tasks marked dirty from now on will require another flush
+        flushScheduled.set(false);
+
+        DispatchTask task = dirtyTasks.poll();
+        while (task != null) {
+            backlog.add(task);
+            task = dirtyTasks.poll();
+        }
+
+        long startNanos = System.nanoTime();
+        boolean first = true;
+        try {
+            while (!backlog.isEmpty() && (first || ((System.nanoTime() - startNanos) < frameBudgetNanos))) {
+                first = false;
+                backlog.poll().run();
+            }
+        } finally {
+            if (!backlog.isEmpty()) {
+                // Leave the rest for the next frame, also when a task failed so that the others are not stranded
+                scheduleFlush();
+            }
+        }
+    }
+}
@@ -118,8 +118,10 @@ public abstract class AbstractComponentProperty<C extends Component, P> extends
      */
     @Override
     public void setValue(P value) {
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             if (updatingFromComponent) {
+                // Changes made by the listeners (in queued notification mode) must be applied to the component
+                updatingFromComponent = false;
                 P oldValue = this.value;
                 this.value = value;
                 maybeNotifyListeners(oldValue, this.value);
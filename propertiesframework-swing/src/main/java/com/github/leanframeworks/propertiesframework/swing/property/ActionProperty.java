@@ -126,8 +126,10 @@ public class ActionProperty<P> extends AbstractReadableWritableProperty<P> {
      */
     @Override
     public void setValue(P value) {
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             if (updatingFromAction) {
+                // Changes made by the listeners (in queued notification mode) must be applied to the action
+                updatingFromAction = false;
                 P oldValue = this.value;
                 this.value = value;
                 maybeNotifyListeners(oldValue, this.value);
@@ -117,8 +117,10 @@ public class ComponentLocationProperty extends AbstractReadableWritableProperty<
      */
     @Override
     public void setValue(Point value) {
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             if (updatingFromComponent) {
+                // Changes made by the listeners (in queued notification mode) must be applied to the component
+                updatingFromComponent = false;
                 Point oldValue = this.value;
                 this.value = value;
                 maybeNotifyListeners(oldValue, this.value);
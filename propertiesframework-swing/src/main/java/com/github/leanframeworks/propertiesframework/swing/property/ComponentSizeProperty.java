@@ -116,8 +116,10 @@ public class ComponentSizeProperty extends AbstractReadableWritableProperty<Dime
      */
     @Override
     public void setValue(Dimension value) {
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             if (updatingFromComponent) {
+                // Changes made by the listeners (in queued notification mode) must be applied to the component
+                updatingFromComponent = false;
                 Dimension oldValue = this.value;
                 this.value = value;
                 maybeNotifyListeners(oldValue, this.value);
@@ -110,8 +110,10 @@ public class ComponentVisibleProperty extends AbstractReadableWritableProperty<B
      */
     @Override
     public void setValue(Boolean value) {
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             if (updatingFromComponent) {
+                // Changes made by the listeners (in queued notification mode) must be applied to the component
+                updatingFromComponent = false;
                 Boolean oldValue = this.value;
                 this.value = value;
                 maybeNotifyListeners(oldValue, this.value);
@@ -111,8 +111,10 @@ public class JComboBoxSelectedIndexProperty extends AbstractReadableWritableProp
      */
     @Override
     public void setValue(Integer value) {
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             if (updatingFromComponent) {
+                // Changes made by the listeners (in queued notification mode) must be applied to the component
+                updatingFromComponent = false;
                 Integer oldValue = this.value;
                 this.value = value;
                 maybeNotifyListeners(oldValue, this.value);
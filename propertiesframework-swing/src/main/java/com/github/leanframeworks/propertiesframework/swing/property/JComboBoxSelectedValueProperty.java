@@ -118,8 +118,10 @@ public class JComboBoxSelectedValueProperty<T> extends AbstractReadableWritableP
      */
     @Override
     public void setValue(T value) {
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             if (updatingFromComponent) {
+                // Changes made by the listeners (in queued notification mode) must be applied to the component
+                updatingFromComponent = false;
                 T oldValue = this.value;
                 this.value = value;
                 maybeNotifyListeners(oldValue, this.value);
@@ -118,8 +118,10 @@ public class JTableSelectedRowIndexProperty extends AbstractReadableWritableProp
                 effectiveValue = -1;
             }
 
-            if (!isNotifyingListeners()) {
+            if (!isNestedChangeIgnored()) {
                 if (updatingFromComponent) {
+                    // Changes made by the listeners (in queued notification mode) must be applied to the component
+                    updatingFromComponent = false;
                     Integer oldValue = this.value;
                     this.value = effectiveValue;
                     maybeNotifyListeners(oldValue, this.value);
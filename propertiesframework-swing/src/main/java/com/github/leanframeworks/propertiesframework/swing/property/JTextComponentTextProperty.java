@@ -32,12 +32,14 @@ package com.github.leanframeworks.propertiesframework.swing.property;
 import com.github.leanframeworks.propertiesframework.api.common.Disposable;
 import com.github.leanframeworks.propertiesframework.base.property.AbstractReadableWritableProperty;
 
+import javax.swing.SwingUtilities;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.text.Document;
 import javax.swing.text.JTextComponent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Objects;
 
 /**
  * Read/writable property representing the text in the document of a {@link JTextComponent} (for instance, a textfield,
@@ -126,14 +128,20 @@ public class JTextComponentTextProperty extends AbstractReadableWritableProperty
      */
     @Override
     public void setValue(String value) {
-        if (!isNotifyingListeners()) {
+        if (!isNestedChangeIgnored()) {
             settingPropertyValue = true;
             try {
                 String oldValue = this.value;
                 this.value = value;
-                if (!updatingFromComponent && (textComponent != null)) {
-                    // Use setText() because it already does all what is needed to update the document
-                    textComponent.setText(value);
+                if (textComponent != null) {
+                    if (!updatingFromComponent) {
+                        // Use setText() because it already does all what is needed to update the document
+                        textComponent.setText(value);
+                    } else if (!Objects.equals(value, textComponent.getText())) {
+                        // Change made by the listeners (in queued notification mode) while the document is notifying:
+                        // the document cannot be mutated from within its own notification, so do it a bit later
+                        SwingUtilities.invokeLater(this::updateComponentFromValue);
+                    }
                 }
                 maybeNotifyListeners(oldValue, value);
             } finally {
@@ -142,6 +150,20 @@ public class JTextComponentTextProperty extends AbstractReadableWritableProperty
         }
     }
 
+    /**
+     * Updates the text of the component with the value of the property, if they differ.
+     */
+    private void updateComponentFromValue() {
+        if ((textComponent != null) && !Objects.equals(value, textComponent.getText())) {
+            settingPropertyValue = true;
+            try {
+                textComponent.setText(value);
+            } finally {
+                settingPropertyValue = false;
+            }
+        }
+    }
+
     /**
      * Entity tracking changes of/in the document.
      */
@@ -32,20 +32,42 @@ package com.github.leanframeworks.propertiesframework.swing.property.wrap;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableProperty;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
 import com.github.leanframeworks.propertiesframework.base.property.wrap.AbstractReadablePropertyWrapper;
+import com.github.leanframeworks.propertiesframework.swing.common.DispatchTask;
+import com.github.leanframeworks.propertiesframework.swing.common.EdtDispatcher;
 
 import javax.swing.SwingUtilities;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Wrapper for {@link ReadableProperty} that postpones the notifications of the {@link
  * PropertyChangeListener}s later on the EDT.
  * <p>
- * Note that this property wrapper and the wrapped property are meant to be used on the EDT only.
+ * The notifications are coalesced by an {@link EdtDispatcher}: however many times the wrapped property changes before
+ * the next flush of the dispatcher, the listeners are notified at most once, with the latest value. This prevents
+ * bursts of changes from flooding the EDT event queue.
+ * <p>
+ * The wrapped property may be changed from any thread, provided that it notifies its listeners on that same thread.
+ * However, this property wrapper must be created, read and disposed on the EDT only, and its listeners are always
+ * notified on the EDT.
  *
  * @param <R> Type of data that can be read from this property and the wrapped property.
  */
 public class InvokeLaterPropertyWrapper<R> extends AbstractReadablePropertyWrapper<R> {
 
+    /**
+     * Task notifying the listeners on the EDT.
+     */
+    private final DispatchTask notificationTask;
+
+    /**
+     * Latest value of the wrapped property, as notified by the wrapped property, possibly on another thread.
+     */
+    private volatile R latestValue;
+
     /**
      * Last value notified.
      * <p>
@@ -54,14 +76,37 @@ public class InvokeLaterPropertyWrapper<R> extends AbstractReadablePropertyWrapp
     private R value = null;
 
     /**
-     * {@inheritDoc}
+     * Scope of the monitored hand-off of the latest value to the EDT, or null if there is none.
+     */
+    private final AtomicReference<MonitorScope> pendingHandOff = new AtomicReference<>();
+
+    /**
+     * Constructor specifying the property to be wrapped, using the default dispatcher.
+     *
+     * @param wrappedProperty Property to be wrapped.
+     * @see EdtDispatcher#getDefault()
      */
     public InvokeLaterPropertyWrapper(ReadableProperty<R> wrappedProperty) {
+        this(wrappedProperty, EdtDispatcher.getDefault());
+    }
+
+    /**
+     * Constructor specifying the property to be wrapped and the dispatcher to be used.
+     *
+     * @param wrappedProperty Property to be wrapped.
+     * @param dispatcher      Dispatcher coalescing the notifications on the EDT.
+     */
+    public InvokeLaterPropertyWrapper(ReadableProperty<R> wrappedProperty, EdtDispatcher dispatcher) {
         super(wrappedProperty);
         assert SwingUtilities.isEventDispatchThread();
+        notificationTask = dispatcher.createTask(this::notifyLatestValue);
         value = wrappedProperty.getValue();
+        latestValue = value;
     }
 
+    /**
+     * @see AbstractReadablePropertyWrapper#dispose()
+     */
     @Override
     public void dispose() {
         assert SwingUtilities.isEventDispatchThread();
@@ -73,14 +118,35 @@ public class InvokeLaterPropertyWrapper<R> extends AbstractReadablePropertyWrapp
      */
     @Override
     protected void wrappedPropertyChanged(PropertyChange<? extends R> e) {
-        assert SwingUtilities.isEventDispatchThread();
-        SwingUtilities.invokeLater(() -> {
+        latestValue = e.getNewValue();
+        PropertyMonitor monitor = PropertyMonitors.getInstalled();
+        if ((monitor != null) && (pendingHandOff.get() == null)) {
+            // Changes coalesced into the same hand-off are covered by the same scope
+            MonitorScope scope = monitor.beginHandOff(this);
+            if ((scope != null) && !pendingHandOff.compareAndSet(null, scope)) {
+                // Another thread began the scope of the pending hand-off in the meantime
+                scope.close();
+            }
+        }
+        notificationTask.markDirty();
+    }
+
+    /**
+     * Notifies the listeners of the latest value of the wrapped property, on the EDT.
+     */
+    private void notifyLatestValue() {
+        MonitorScope scope = pendingHandOff.getAndSet(null);
+        try {
             if (wrappedProperty != null) {
-                R oldValue1 = value;
-                value = wrappedProperty.getValue();
-                maybeNotifyListeners(oldValue1, value);
+                R oldValue = value;
+                value = latestValue;
+                maybeNotifyListeners(oldValue, value);
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
             }
-        });
+        }
     }
 
     /**
@@ -0,0 +1,191 @@
+/*-
+ * #%L
+ * PropertiesFramework :: Swing Support
+ * %%
+ * Copyright (C) 2017 LeanFrameworks
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.github.leanframeworks.propertiesframework.swing.common;
+
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
+import com.github.leanframeworks.propertiesframework.swing.property.wrap.InvokeLaterPropertyWrapper;
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @see EdtDispatcher
+ */
+public class EdtDispatcherTest {
+
+    @Test
+    public void testCoalescing() throws InvocationTargetException, InterruptedException {
+        EdtDispatcher dispatcher = new EdtDispatcher();
+        AtomicInteger runCount = new AtomicInteger(0);
+        DispatchTask task = dispatcher.createTask(runCount::incrementAndGet);
+
+        CountDownLatch edtBlocked = blockEdt();
+        for (int i = 0; i < 10000; i++) {
+            task.markDirty();
+        }
+        assertTrue(task.isDirty());
+        edtBlocked.countDown();
+
+        // Flush was scheduled before
+        SwingUtilities.invokeAndWait(() -> {
+            // Nothing to be done
+        });
+        assertEquals(1, runCount.get());
+        assertFalse(task.isDirty());
+    }
+
+    @Test
+    public void testFrameBudget() throws InvocationTargetException, InterruptedException {
+        EdtDispatcher dispatcher = new EdtDispatcher();
+        dispatcher.setFrameBudget(0, TimeUnit.MILLISECONDS);
+        List<Integer> runs = new ArrayList<>();
+        CountDownLatch edtBlocked = blockEdt();
+        for (int i = 0; i < 3; i++) {
+            int index = i;
+            dispatcher.createTask(() -> runs.add(index)).markDirty();
+        }
+
+        // Only one task per flush with a zero budget, the next flush being scheduled behind the probe
+        List<Integer> runCounts = new ArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                runCounts.add(runs.size());
+                if (runCounts.size() < 3) {
+                    SwingUtilities.invokeLater(this);
+                } else {
+                    finished.countDown();
+                }
+            }
+        });
+        edtBlocked.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList(1, 2, 3), runCounts);
+        assertEquals(Integer.valueOf(0), runs.get(0));
+        assertEquals(Integer.valueOf(2), runs.get(2));
+    }
+
+    @Test
+    public void testFailingTask() throws InvocationTargetException, InterruptedException {
+        EdtDispatcher dispatcher = new EdtDispatcher();
+        DispatchTask failingTask = dispatcher.createTask(() -> {
+            throw new IllegalStateException("Expected failure of a dispatch task");
+        });
+        AtomicInteger runCount = new AtomicInteger(0);
+        DispatchTask healthyTask = dispatcher.createTask(runCount::incrementAndGet);
+
+        CountDownLatch edtBlocked = blockEdt();
+        failingTask.markDirty();
+        healthyTask.markDirty();
+        edtBlocked.countDown();
+
+        // Healthy task is run in the next flush
+        waitUntil(() -> runCount.get() == 1);
+        assertFalse(healthyTask.isDirty());
+        assertFalse(failingTask.isDirty());
+
+        // Dispatcher keeps working
+        healthyTask.markDirty();
+        waitUntil(() -> runCount.get() == 2);
+    }
+
+    @Test
+    public void testWrapperWithBackgroundProducer() throws InvocationTargetException, InterruptedException {
+        SimpleIntegerProperty property = new SimpleIntegerProperty(0);
+        AtomicReference<InvokeLaterPropertyWrapper<Integer>> wrapper = new AtomicReference<>();
+        AtomicInteger notificationCount = new AtomicInteger(0);
+        SwingUtilities.invokeAndWait(() -> {
+            wrapper.set(new InvokeLaterPropertyWrapper<>(property, new EdtDispatcher()));
+            wrapper.get().addChangeListener(e -> notificationCount.incrementAndGet());
+        });
+
+        CountDownLatch edtBlocked = blockEdt();
+        for (int i = 1; i <= 10000; i++) {
+            property.setValue(i);
+        }
+        edtBlocked.countDown();
+
+        AtomicReference<Integer> value = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> value.set(wrapper.get().getValue()));
+        assertEquals(Integer.valueOf(10000), value.get());
+        assertEquals(1, notificationCount.get());
+    }
+
+    /**
+     * Waits until the specified condition is met, failing after a timeout.
+     *
+     * @param condition Condition to be met.
+     * @throws InterruptedException If the current thread was interrupted while waiting.
+     */
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && (System.nanoTime() < deadline)) {
+            Thread.sleep(1);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * Blocks the EDT until the returned latch is released, so that the flushes cannot happen in the meantime.
+     *
+     * @return Latch to be released to unblock the EDT.
+     * @throws InvocationTargetException If the EDT could not be blocked.
+     * @throws InterruptedException      If the EDT could not be blocked.
+     */
+    private static CountDownLatch blockEdt() throws InvocationTargetException, InterruptedException {
+        CountDownLatch edtBlocked = new CountDownLatch(1);
+        CountDownLatch edtEntered = new CountDownLatch(1);
+        SwingUtilities.invokeLater(() -> {
+            edtEntered.countDown();
+            try {
+                edtBlocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        edtEntered.await(5, TimeUnit.SECONDS);
+        return edtBlocked;
+    }
+}
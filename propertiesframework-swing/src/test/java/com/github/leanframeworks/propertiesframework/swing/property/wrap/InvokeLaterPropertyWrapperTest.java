@@ -32,16 +32,26 @@ package com.github.leanframeworks.propertiesframework.swing.property.wrap;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChange;
 import com.github.leanframeworks.propertiesframework.api.property.PropertyChangeListener;
 import com.github.leanframeworks.propertiesframework.api.property.ReadableWritableProperty;
+import com.github.leanframeworks.propertiesframework.base.monitor.MonitorScope;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitor;
+import com.github.leanframeworks.propertiesframework.base.monitor.PropertyMonitors;
 import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleBooleanProperty;
+import com.github.leanframeworks.propertiesframework.base.property.simple.SimpleIntegerProperty;
 import com.github.leanframeworks.propertiesframework.base.transform.OrBooleanAggregator;
 import org.junit.Test;
 
 import javax.swing.SwingUtilities;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.github.leanframeworks.propertiesframework.base.binding.Binder.from;
 import static com.github.leanframeworks.propertiesframework.test.TestUtils.matches;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -157,4 +167,65 @@ public class InvokeLaterPropertyWrapperTest {
 
         finished.await(5, TimeUnit.SECONDS);
     }
+
+    @Test
+    public void testHandOffScopesClosed() throws InterruptedException, InvocationTargetException {
+        AtomicInteger beginCount = new AtomicInteger();
+        AtomicInteger openCount = new AtomicInteger();
+        PropertyMonitors.install(new PropertyMonitor() {
+
+            @Override
+            public MonitorScope beginNotification(Object property, int listenerCount) {
+                return null;
+            }
+
+            @Override
+            public MonitorScope beginEvaluation(Object transformer, int stageCount) {
+                return null;
+            }
+
+            @Override
+            public MonitorScope beginHandOff(Object property) {
+                beginCount.incrementAndGet();
+                openCount.incrementAndGet();
+                return openCount::decrementAndGet;
+            }
+        });
+
+        try {
+            SimpleIntegerProperty wrappedProperty = new SimpleIntegerProperty(0);
+            AtomicReference<InvokeLaterPropertyWrapper<Integer>> wrapper = new AtomicReference<>();
+            SwingUtilities.invokeAndWait(() -> wrapper.set(new InvokeLaterPropertyWrapper<>(wrappedProperty)));
+
+            // Hand off changes from several threads at the same time
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int j = 1; j <= 1000; j++) {
+                            wrapper.get().wrappedPropertyChanged(new PropertyChange<>(wrappedProperty, j - 1, j));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            SwingUtilities.invokeAndWait(() -> {
+                // Wait for the last flush
+            });
+
+            assertTrue(beginCount.get() > 0);
+            assertEquals(0, openCount.get());
+        } finally {
+            PropertyMonitors.install(null);
+        }
+    }
 }